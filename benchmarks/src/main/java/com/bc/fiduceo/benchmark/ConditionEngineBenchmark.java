@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2016 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+
+package com.bc.fiduceo.benchmark;
+
+
+import com.bc.fiduceo.core.Dimension;
+import com.bc.fiduceo.core.UseCaseConfig;
+import com.bc.fiduceo.matchup.MatchupSet;
+import com.bc.fiduceo.matchup.condition.ConditionEngine;
+import com.bc.fiduceo.matchup.condition.ConditionEngineContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time delta, spherical distance and border distance conditions applied to a large matchup set, sequentially and
+ * fused into a single pass.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConditionEngineBenchmark {
+
+    private static final int WIDTH = 409;
+    private static final int HEIGHT = 2000;
+
+    private static final String CONDITIONS_XML = "<conditions>" +
+                                                 "  <time-delta>" +
+                                                 "    <time-delta-seconds>300</time-delta-seconds>" +
+                                                 "  </time-delta>" +
+                                                 "  <spherical-distance>" +
+                                                 "    <max-pixel-distance-km>10</max-pixel-distance-km>" +
+                                                 "  </spherical-distance>" +
+                                                 "  <border-distance>" +
+                                                 "    <nx>2</nx>" +
+                                                 "    <ny>2</ny>" +
+                                                 "  </border-distance>" +
+                                                 "</conditions>";
+
+    @Param({"false", "true"})
+    public boolean fused;
+
+    @Param({"1000000"})
+    public int numMatchups;
+
+    private ConditionEngine conditionEngine;
+    private ConditionEngineContext context;
+    private MatchupSet template;
+    private MatchupSet matchupSet;
+
+    @Setup
+    public void setUp() {
+        final UseCaseConfig useCaseConfig = SyntheticData.createUseCaseConfig(CONDITIONS_XML, "");
+        conditionEngine = new ConditionEngine();
+        conditionEngine.configure(useCaseConfig, fused);
+
+        context = new ConditionEngineContext();
+        context.setStartDate(new Date(1483228800000L));
+        context.setEndDate(new Date(1483315200000L));
+        context.setPrimarySize(new Dimension("primary", WIDTH, HEIGHT));
+        context.setSecondarySize(new Dimension("secondary", WIDTH, HEIGHT));
+        context.setPrimaryExtractSize(useCaseConfig.getDimensionFor(SyntheticData.PRIMARY_SENSOR));
+        context.setSecondaryExtractSize(useCaseConfig.getDimensionFor(SyntheticData.SECONDARY_SENSOR));
+
+        template = SyntheticData.createMatchupSet(numMatchups, WIDTH, HEIGHT, 42);
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpInvocation() {
+        matchupSet = SyntheticData.copy(template);
+    }
+
+    @Benchmark
+    public MatchupSet process() {
+        conditionEngine.process(matchupSet, context);
+        return matchupSet;
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2016 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+
+package com.bc.fiduceo.benchmark;
+
+
+import com.bc.fiduceo.core.SatelliteObservation;
+import com.bc.fiduceo.geometry.GeometryFactory;
+import com.bc.fiduceo.geometry.LineString;
+import com.bc.fiduceo.geometry.TimeAxis;
+import com.bc.fiduceo.math.Intersection;
+import com.bc.fiduceo.math.IntersectionEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Intersection of two overlapping synthetic swaths, including the time interval calculation on both time axes.
+ * The swath outlines are parametrized by the number of vertices per border.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IntersectionEngineBenchmark {
+
+    @Param({"20", "200"})
+    public int numVertices;
+
+    private SatelliteObservation primaryObservation;
+    private SatelliteObservation secondaryObservation;
+
+    @Setup
+    public void setUp() {
+        final GeometryFactory geometryFactory = new GeometryFactory(GeometryFactory.Type.S2);
+        primaryObservation = createObservation(geometryFactory, 0.0, 1483228800000L);
+        secondaryObservation = createObservation(geometryFactory, 8.0, 1483229400000L);
+    }
+
+    @Benchmark
+    public Intersection[] getIntersectingIntervals() {
+        return IntersectionEngine.getIntersectingIntervals(primaryObservation, secondaryObservation);
+    }
+
+    private SatelliteObservation createObservation(GeometryFactory geometryFactory, double lonOffset, long startTime) {
+        final Date startDate = new Date(startTime);
+        final Date stopDate = new Date(startTime + 3000000L);
+
+        final SatelliteObservation observation = new SatelliteObservation();
+        observation.setStartTime(startDate);
+        observation.setStopTime(stopDate);
+        observation.setGeoBounds(geometryFactory.parse(SyntheticData.createSwathPolygonWkt(lonOffset, numVertices)));
+
+        final LineString groundTrack = (LineString) geometryFactory.parse(SyntheticData.createGroundTrackWkt(lonOffset, numVertices));
+        observation.setTimeAxes(new TimeAxis[]{geometryFactory.createTimeAxis(groundTrack, startDate, stopDate)});
+        return observation;
+    }
+}
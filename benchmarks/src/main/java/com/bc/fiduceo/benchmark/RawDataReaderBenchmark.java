@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) 2016 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+
+package com.bc.fiduceo.benchmark;
+
+
+import com.bc.fiduceo.core.Interval;
+import com.bc.fiduceo.reader.RawDataReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import ucar.ma2.Array;
+import ucar.ma2.DataType;
+import ucar.ma2.InvalidRangeException;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Window extraction from raw data arrays for all supported input ranks and the common data types. Windows
+ * completely inside the data and windows crossing the data border (fill value path) are measured separately.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RawDataReaderBenchmark {
+
+    private static final int WIDTH = 409;
+    private static final int HEIGHT = 2000;
+    private static final int NUM_WINDOWS = 1024;
+
+    @Param({"ONE_D", "TWO_D", "TWO_D_FALSE_DIMENSION", "THREE_D_FALSE_DIMENSION"})
+    public String inputDimension;
+
+    @Param({"byte", "short", "int", "float", "double"})
+    public String dataType;
+
+    private final Interval interval = new Interval(5, 5);
+
+    private Array rawArray;
+    private Number fillValue;
+    private int[] insideX;
+    private int[] insideY;
+    private int[] borderX;
+    private int[] borderY;
+    private Array target;
+    private double[] scaledTarget;
+
+    @Setup
+    public void setUp() {
+        final DataType type = DataType.getType(dataType);
+        rawArray = Array.factory(type, getShape());
+        for (int i = 0; i < rawArray.getSize(); i++) {
+            rawArray.setInt(i, i % 100);
+        }
+        fillValue = -1;
+
+        final Random random = new Random(42);
+        insideX = new int[NUM_WINDOWS];
+        insideY = new int[NUM_WINDOWS];
+        borderX = new int[NUM_WINDOWS];
+        borderY = new int[NUM_WINDOWS];
+        for (int i = 0; i < NUM_WINDOWS; i++) {
+            insideX[i] = 2 + random.nextInt(WIDTH - 4);
+            insideY[i] = 2 + random.nextInt(HEIGHT - 4);
+            borderX[i] = random.nextBoolean() ? random.nextInt(2) : WIDTH - 1 - random.nextInt(2);
+            borderY[i] = random.nextInt(HEIGHT);
+        }
+
+        target = Array.factory(type, new int[]{NUM_WINDOWS, interval.getY(), interval.getX()});
+        scaledTarget = new double[NUM_WINDOWS * interval.getX() * interval.getY()];
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_WINDOWS)
+    public void read_inside(Blackhole blackhole) throws InvalidRangeException {
+        for (int i = 0; i < NUM_WINDOWS; i++) {
+            blackhole.consume(RawDataReader.read(insideX[i], insideY[i], interval, fillValue, rawArray, WIDTH));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_WINDOWS)
+    public void read_border(Blackhole blackhole) throws InvalidRangeException {
+        for (int i = 0; i < NUM_WINDOWS; i++) {
+            blackhole.consume(RawDataReader.read(borderX[i], borderY[i], interval, fillValue, rawArray, WIDTH));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_WINDOWS)
+    public Array readIntoTarget_inside() throws InvalidRangeException {
+        final int windowSize = interval.getX() * interval.getY();
+        for (int i = 0; i < NUM_WINDOWS; i++) {
+            RawDataReader.read(insideX[i], insideY[i], interval, fillValue, rawArray, WIDTH, target, i * windowSize);
+        }
+        return target;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_WINDOWS)
+    public Array readIntoTarget_border() throws InvalidRangeException {
+        final int windowSize = interval.getX() * interval.getY();
+        for (int i = 0; i < NUM_WINDOWS; i++) {
+            RawDataReader.read(borderX[i], borderY[i], interval, fillValue, rawArray, WIDTH, target, i * windowSize);
+        }
+        return target;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_WINDOWS)
+    public double[] readScaled() {
+        RawDataReader.readScaled(insideX, insideY, NUM_WINDOWS, interval, fillValue, rawArray, WIDTH, 0.01, 273.15, scaledTarget);
+        return scaledTarget;
+    }
+
+    private int[] getShape() {
+        switch (inputDimension) {
+            case "ONE_D":
+                return new int[]{HEIGHT};
+            case "TWO_D":
+                return new int[]{HEIGHT, WIDTH};
+            case "TWO_D_FALSE_DIMENSION":
+                return new int[]{1, HEIGHT};
+            case "THREE_D_FALSE_DIMENSION":
+                return new int[]{1, HEIGHT, WIDTH};
+            default:
+                throw new RuntimeException("Unsupported input dimension: " + inputDimension);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2016 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+
+package com.bc.fiduceo.benchmark;
+
+
+import com.bc.fiduceo.matchup.MatchupSet;
+import com.bc.fiduceo.matchup.screening.ScreeningEngine;
+import com.bc.fiduceo.reader.Reader;
+import com.bc.fiduceo.tool.ToolContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ucar.ma2.InvalidRangeException;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Screenings applied to a large matchup set. The pixel data are supplied by in-memory readers, so the
+ * measurement covers the screening logic and the expression evaluation, not the product file access.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScreeningEngineBenchmark {
+
+    private static final int WIDTH = 409;
+    private static final int HEIGHT = 2000;
+
+    @Param({"angular", "pixel-value", "window-value"})
+    public String screening;
+
+    @Param({"100000"})
+    public int numMatchups;
+
+    private ScreeningEngine screeningEngine;
+    private Reader primaryReader;
+    private Reader secondaryReader;
+    private MatchupSet template;
+    private MatchupSet matchupSet;
+
+    @Setup
+    public void setUp() {
+        final ToolContext context = new ToolContext();
+        context.setUseCaseConfig(SyntheticData.createUseCaseConfig("", createScreeningsXml()));
+        screeningEngine = new ScreeningEngine(context);
+
+        primaryReader = new SyntheticReader(WIDTH, HEIGHT);
+        secondaryReader = new SyntheticReader(WIDTH, HEIGHT);
+        template = SyntheticData.createMatchupSet(numMatchups, WIDTH, HEIGHT, 42);
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpInvocation() {
+        matchupSet = SyntheticData.copy(template);
+    }
+
+    @Benchmark
+    public MatchupSet process() throws IOException, InvalidRangeException {
+        screeningEngine.process(matchupSet, primaryReader, secondaryReader);
+        return matchupSet;
+    }
+
+    private String createScreeningsXml() {
+        switch (screening) {
+            case "angular":
+                return "<screenings>" +
+                       "  <angular>" +
+                       "    <primary-vza-variable name=\"" + SyntheticReader.VZA + "\" />" +
+                       "    <secondary-vza-variable name=\"" + SyntheticReader.VZA + "\" />" +
+                       "    <max-primary-vza>45.0</max-primary-vza>" +
+                       "    <max-secondary-vza>45.0</max-secondary-vza>" +
+                       "    <max-angle-delta>10.0</max-angle-delta>" +
+                       "  </angular>" +
+                       "</screenings>";
+            case "pixel-value":
+                return "<screenings>" +
+                       "  <pixel-value>" +
+                       "    <primary-expression>" + SyntheticReader.FLAGS + " != 3</primary-expression>" +
+                       "    <secondary-expression>" + SyntheticReader.VZA + " &lt; 30.0</secondary-expression>" +
+                       "  </pixel-value>" +
+                       "</screenings>";
+            case "window-value":
+                return "<screenings>" +
+                       "  <window-value>" +
+                       "    <primary>" +
+                       "      <expression>" + SyntheticReader.FLAGS + " == 0</expression>" +
+                       "      <percentage>80</percentage>" +
+                       "      <evaluate>EntireWindow</evaluate>" +
+                       "    </primary>" +
+                       "  </window-value>" +
+                       "</screenings>";
+            default:
+                throw new RuntimeException("Unsupported screening: " + screening);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2016 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+
+package com.bc.fiduceo.benchmark;
+
+
+import com.bc.fiduceo.location.PixelLocator;
+import com.bc.fiduceo.location.PixelLocatorFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import ucar.ma2.Array;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Geo-location to pixel lookups on a swath of AVHRR GAC size.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SwathPixelLocatorBenchmark {
+
+    private static final int WIDTH = 409;
+    private static final int HEIGHT = 2000;
+    private static final int NUM_QUERIES = 1024;
+
+    private PixelLocator pixelLocator;
+    private double[] lons;
+    private double[] lats;
+    private double[] pixelX;
+    private double[] pixelY;
+
+    @Setup
+    public void setUp() {
+        final Array[] geolocation = SyntheticData.createSwathGeolocation(WIDTH, HEIGHT, 0.0);
+        pixelLocator = PixelLocatorFactory.getSwathPixelLocator(geolocation[0], geolocation[1], WIDTH, HEIGHT);
+
+        // query the geo-locations of random pixels, so that every query hits the swath
+        final Random random = new Random(42);
+        lons = new double[NUM_QUERIES];
+        lats = new double[NUM_QUERIES];
+        for (int i = 0; i < NUM_QUERIES; i++) {
+            final int index = random.nextInt(WIDTH * HEIGHT);
+            lons[i] = geolocation[0].getFloat(index);
+            lats[i] = geolocation[1].getFloat(index);
+        }
+        pixelX = new double[4];
+        pixelY = new double[4];
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_QUERIES)
+    public void getPixelLocation(Blackhole blackhole) {
+        for (int i = 0; i < NUM_QUERIES; i++) {
+            blackhole.consume(pixelLocator.getPixelLocation(lons[i], lats[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_QUERIES)
+    public void getPixelLocation_buffered(Blackhole blackhole) {
+        for (int i = 0; i < NUM_QUERIES; i++) {
+            blackhole.consume(pixelLocator.getPixelLocation(lons[i], lats[i], pixelX, pixelY));
+        }
+    }
+}
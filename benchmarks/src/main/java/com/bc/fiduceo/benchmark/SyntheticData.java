@@ -0,0 +1,200 @@
+/*
+ * Copyright (C) 2016 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+
+package com.bc.fiduceo.benchmark;
+
+
+import com.bc.fiduceo.core.UseCaseConfig;
+import com.bc.fiduceo.matchup.MatchupSet;
+import ucar.ma2.Array;
+import ucar.ma2.DataType;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * Reproducible synthetic inputs for the benchmarks: a swath shaped geolocation grid running from 60 degrees south
+ * to 60 degrees north, its outline and ground track as WKT, and randomly distributed matchup sets.
+ */
+public class SyntheticData {
+
+    public static final String PRIMARY_SENSOR = "avhrr-n17";
+    public static final String SECONDARY_SENSOR = "avhrr-n18";
+
+    private static final double MIN_LAT = -60.0;
+    private static final double MAX_LAT = 60.0;
+    private static final double TRACK_LON_DRIFT = 20.0;
+    private static final double SWATH_HALF_WIDTH = 10.0;
+
+    /**
+     * Creates the longitude and latitude grids of a swath.
+     *
+     * @param width     the number of pixels across track
+     * @param height    the number of scan lines
+     * @param lonOffset the longitude of the first scan line center
+     * @return the longitude and latitude arrays, type float, shape [height][width]
+     */
+    public static Array[] createSwathGeolocation(int width, int height, double lonOffset) {
+        final int[] shape = {height, width};
+        final Array longitudes = Array.factory(DataType.FLOAT, shape);
+        final Array latitudes = Array.factory(DataType.FLOAT, shape);
+
+        int index = 0;
+        for (int y = 0; y < height; y++) {
+            final double lineFraction = y / (height - 1.0);
+            final double centerLon = lonOffset + TRACK_LON_DRIFT * lineFraction;
+            final double lat = MIN_LAT + (MAX_LAT - MIN_LAT) * lineFraction;
+            for (int x = 0; x < width; x++) {
+                final double pixelFraction = x / (width - 1.0) - 0.5;
+                longitudes.setFloat(index, (float) (centerLon + 2.0 * SWATH_HALF_WIDTH * pixelFraction));
+                latitudes.setFloat(index, (float) (lat + 0.5 * pixelFraction));
+                ++index;
+            }
+        }
+        return new Array[]{longitudes, latitudes};
+    }
+
+    /**
+     * @param lonOffset   the longitude of the southernmost ground track point
+     * @param numVertices the number of vertices per swath border
+     * @return the outline of the swath as WKT polygon, counter-clockwise
+     */
+    public static String createSwathPolygonWkt(double lonOffset, int numVertices) {
+        final StringBuilder builder = new StringBuilder("POLYGON((");
+        for (int i = 0; i < numVertices; i++) {
+            appendTrackPoint(builder, lonOffset + SWATH_HALF_WIDTH, i / (numVertices - 1.0));
+            builder.append(',');
+        }
+        for (int i = numVertices - 1; i >= 0; i--) {
+            appendTrackPoint(builder, lonOffset - SWATH_HALF_WIDTH, i / (numVertices - 1.0));
+            builder.append(',');
+        }
+        appendTrackPoint(builder, lonOffset + SWATH_HALF_WIDTH, 0.0);
+        return builder.append("))").toString();
+    }
+
+    /**
+     * @param lonOffset   the longitude of the southernmost ground track point
+     * @param numVertices the number of vertices
+     * @return the ground track of the swath as WKT line string, south to north
+     */
+    public static String createGroundTrackWkt(double lonOffset, int numVertices) {
+        final StringBuilder builder = new StringBuilder("LINESTRING(");
+        for (int i = 0; i < numVertices; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            appendTrackPoint(builder, lonOffset, i / (numVertices - 1.0));
+        }
+        return builder.append(')').toString();
+    }
+
+    /**
+     * Creates matchups distributed randomly over the product, the secondary locations lie within a few kilometers
+     * and a few minutes of the primary locations.
+     *
+     * @param numMatchups the number of matchups
+     * @param width       the product width
+     * @param height      the product height
+     * @param seed        the random seed
+     * @return the matchup set
+     */
+    public static MatchupSet createMatchupSet(int numMatchups, int width, int height, long seed) {
+        final Random random = new Random(seed);
+        final long startTime = 1483228800000L;  // 2017-01-01 00:00:00 UTC
+
+        final MatchupSet matchupSet = new MatchupSet(numMatchups);
+        for (int i = 0; i < numMatchups; i++) {
+            final int x = random.nextInt(width);
+            final int y = random.nextInt(height);
+            final double lon = -180.0 + 360.0 * random.nextDouble();
+            final double lat = -80.0 + 160.0 * random.nextDouble();
+            final long time = startTime + random.nextInt(86400) * 1000L;
+
+            final int index = matchupSet.addPrimary(x, y, lon, lat, time);
+            matchupSet.setSecondary(index,
+                                    Math.min(width - 1, x + random.nextInt(3)),
+                                    Math.min(height - 1, y + random.nextInt(3)),
+                                    lon + 0.1 * random.nextGaussian(),
+                                    lat + 0.1 * random.nextGaussian(),
+                                    time + (random.nextInt(1200) - 600) * 1000L);
+        }
+        return matchupSet;
+    }
+
+    /**
+     * Copies the matchups, for benchmarks of code modifying the set in place.
+     *
+     * @param source the matchups to copy
+     * @return an independent copy
+     */
+    public static MatchupSet copy(MatchupSet source) {
+        final int numObservations = source.getNumObservations();
+        final MatchupSet copy = new MatchupSet(numObservations);
+        for (int i = 0; i < numObservations; i++) {
+            final int index = copy.addPrimary(source.getPrimaryX(i), source.getPrimaryY(i), source.getPrimaryLon(i),
+                                              source.getPrimaryLat(i), source.getPrimaryTime(i));
+            copy.setSecondary(index, source.getSecondaryX(i), source.getSecondaryY(i), source.getSecondaryLon(i),
+                              source.getSecondaryLat(i), source.getSecondaryTime(i));
+        }
+        return copy;
+    }
+
+    /**
+     * Creates the use case configuration of a primary and a secondary AVHRR sensor, both with 5x5 pixel extracts.
+     *
+     * @param conditionsXml the conditions element, may be empty
+     * @param screeningsXml the screenings element, may be empty
+     * @return the configuration
+     */
+    public static UseCaseConfig createUseCaseConfig(String conditionsXml, String screeningsXml) {
+        final String useCaseXml = "<use-case-config name=\"benchmark\">" +
+                                  "  <sensors>" +
+                                  "    <sensor>" +
+                                  "      <name>" + PRIMARY_SENSOR + "</name>" +
+                                  "      <primary>true</primary>" +
+                                  "    </sensor>" +
+                                  "    <sensor>" +
+                                  "      <name>" + SECONDARY_SENSOR + "</name>" +
+                                  "    </sensor>" +
+                                  "  </sensors>" +
+                                  "  <dimensions>" +
+                                  "    <dimension name=\"" + PRIMARY_SENSOR + "\">" +
+                                  "      <nx>5</nx>" +
+                                  "      <ny>5</ny>" +
+                                  "    </dimension>" +
+                                  "    <dimension name=\"" + SECONDARY_SENSOR + "\">" +
+                                  "      <nx>5</nx>" +
+                                  "      <ny>5</ny>" +
+                                  "    </dimension>" +
+                                  "  </dimensions>" +
+                                  conditionsXml +
+                                  screeningsXml +
+                                  "</use-case-config>";
+        return UseCaseConfig.load(new ByteArrayInputStream(useCaseXml.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static void appendTrackPoint(StringBuilder builder, double lonOffset, double trackFraction) {
+        final double lon = lonOffset + TRACK_LON_DRIFT * trackFraction;
+        final double lat = MIN_LAT + (MAX_LAT - MIN_LAT) * trackFraction;
+        builder.append(lon).append(' ').append(lat);
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright (C) 2016 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+
+package com.bc.fiduceo.benchmark;
+
+
+import com.bc.fiduceo.core.Dimension;
+import com.bc.fiduceo.core.Interval;
+import com.bc.fiduceo.geometry.Polygon;
+import com.bc.fiduceo.location.PixelLocator;
+import com.bc.fiduceo.reader.AcquisitionInfo;
+import com.bc.fiduceo.reader.Reader;
+import com.bc.fiduceo.reader.TimeLocator;
+import ucar.ma2.Array;
+import ucar.ma2.ArrayInt;
+import ucar.ma2.DataType;
+import ucar.nc2.NetcdfFile;
+import ucar.nc2.Variable;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * In-memory reader supplying computed values, so that benchmarks of the screenings measure the screening code
+ * and not the disk. Provides the float variable "vza" (view zenith angle, 0 - 60 degrees) and the integer
+ * variable "flags" (0 - 7).
+ */
+public class SyntheticReader implements Reader {
+
+    public static final String VZA = "vza";
+    public static final String FLAGS = "flags";
+
+    private final int width;
+    private final int height;
+    private final List<Variable> variables;
+
+    public SyntheticReader(int width, int height) {
+        this.width = width;
+        this.height = height;
+
+        // variables need a file to be attached to, the empty file is never accessed
+        final NetcdfFile netcdfFile = new NetcdfFile() {
+        };
+        variables = new ArrayList<>();
+        variables.add(createVariable(netcdfFile, VZA, DataType.FLOAT));
+        variables.add(createVariable(netcdfFile, FLAGS, DataType.INT));
+    }
+
+    @Override
+    public void open(File file) {
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public AcquisitionInfo read() {
+        throw new RuntimeException("not implemented");
+    }
+
+    @Override
+    public String getRegEx() {
+        throw new RuntimeException("not implemented");
+    }
+
+    @Override
+    public PixelLocator getPixelLocator() {
+        throw new RuntimeException("not implemented");
+    }
+
+    @Override
+    public PixelLocator getSubScenePixelLocator(Polygon sceneGeometry) {
+        throw new RuntimeException("not implemented");
+    }
+
+    @Override
+    public TimeLocator getTimeLocator() {
+        return (x, y) -> 1483228800000L + y * 167L;
+    }
+
+    @Override
+    public Array readRaw(int centerX, int centerY, Interval interval, String variableName) {
+        return readScaled(centerX, centerY, interval, variableName);
+    }
+
+    @Override
+    public Array readScaled(int centerX, int centerY, Interval interval, String variableName) {
+        final int windowWidth = interval.getX();
+        final int windowHeight = interval.getY();
+        final int xOffset = centerX - windowWidth / 2;
+        final int yOffset = centerY - windowHeight / 2;
+
+        final Array array = Array.factory(DataType.DOUBLE, new int[]{windowHeight, windowWidth});
+        int index = 0;
+        for (int y = yOffset; y < yOffset + windowHeight; y++) {
+            for (int x = xOffset; x < xOffset + windowWidth; x++) {
+                array.setDouble(index++, getValue(x, y, variableName));
+            }
+        }
+        return array;
+    }
+
+    @Override
+    public void readScaled(int[] x, int[] y, int numPixels, Interval interval, String variableName, double[] target) {
+        final int windowWidth = interval.getX();
+        final int windowHeight = interval.getY();
+
+        int targetIndex = 0;
+        for (int i = 0; i < numPixels; i++) {
+            final int xOffset = x[i] - windowWidth / 2;
+            final int yOffset = y[i] - windowHeight / 2;
+            for (int wy = yOffset; wy < yOffset + windowHeight; wy++) {
+                for (int wx = xOffset; wx < xOffset + windowWidth; wx++) {
+                    target[targetIndex++] = getValue(wx, wy, variableName);
+                }
+            }
+        }
+    }
+
+    @Override
+    public ArrayInt.D2 readAcquisitionTime(int x, int y, Interval interval) {
+        throw new RuntimeException("not implemented");
+    }
+
+    @Override
+    public List<Variable> getVariables() {
+        return variables;
+    }
+
+    @Override
+    public Dimension getProductSize() {
+        return new Dimension("size", width, height);
+    }
+
+    private double getValue(int x, int y, String variableName) {
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            return Double.NaN;
+        }
+
+        if (VZA.equals(variableName)) {
+            return 60.0 * Math.abs(2.0 * x / (width - 1.0) - 1.0);
+        } else if (FLAGS.equals(variableName)) {
+            return (x * 31 + y * 17) & 7;
+        }
+        throw new RuntimeException("Unknown variable: " + variableName);
+    }
+
+    private static Variable createVariable(NetcdfFile netcdfFile, String name, DataType dataType) {
+        final Variable variable = new Variable(netcdfFile, null, null, name);
+        variable.setDataType(dataType);
+        return variable;
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2016 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+
+package com.bc.fiduceo.matchup.condition;
+
+
+import com.bc.fiduceo.core.Dimension;
+import com.bc.fiduceo.matchup.MatchupSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Overlap removal on a dense set of matchups, every pixel of a block of scan lines is a matchup candidate.
+ * The benchmark is located in the package of the condition to access the package private class.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OverlapRemoveConditionBenchmark {
+
+    private static final int WIDTH = 409;
+
+    @Param({"100", "1000"})
+    public int numLines;
+
+    private OverlapRemoveCondition condition;
+    private ConditionEngineContext context;
+    private MatchupSet matchupSet;
+
+    @Setup
+    public void setUp() {
+        condition = new OverlapRemoveCondition(true);
+        context = new ConditionEngineContext();
+        context.setPrimaryExtractSize(new Dimension("primary", 5, 5));
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpInvocation() {
+        matchupSet = new MatchupSet(WIDTH * numLines);
+        for (int y = 0; y < numLines; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                final int index = matchupSet.addPrimary(x, y, 0.0, 0.0, 1483228800000L);
+                matchupSet.setSecondary(index, x, y, 0.0, 0.0, 1483228800000L);
+            }
+        }
+    }
+
+    @Benchmark
+    public MatchupSet apply() {
+        condition.apply(matchupSet, context);
+        return matchupSet;
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2016 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+
+package com.bc.fiduceo.matchup.strategy;
+
+
+import com.bc.fiduceo.benchmark.SyntheticData;
+import com.bc.fiduceo.geometry.GeometryFactory;
+import com.bc.fiduceo.geometry.Polygon;
+import com.bc.fiduceo.location.PixelLocator;
+import com.bc.fiduceo.location.PixelLocatorFactory;
+import com.bc.fiduceo.matchup.MatchupSet;
+import com.bc.fiduceo.reader.TimeLocator;
+import com.bc.fiduceo.tool.ToolContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ucar.ma2.Array;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collection of the primary samples inside an intersection polygon and the search of the associated secondary
+ * samples, on two overlapping synthetic swaths. The benchmark is located in the package of the SampleCollector
+ * to access the package private class.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SampleCollectorBenchmark {
+
+    private static final int WIDTH = 409;
+    private static final int HEIGHT = 2000;
+    private static final String INTERSECTION_WKT = "POLYGON((6 -4,14 -4,14 4,6 4,6 -4))";
+
+    private ToolContext context;
+    private PixelLocator primaryPixelLocator;
+    private PixelLocator secondaryPixelLocator;
+    private TimeLocator timeLocator;
+    private Polygon polygon;
+    private MatchupSet primarySamples;
+    private MatchupSet matchupSet;
+
+    @Setup
+    public void setUp() {
+        final GeometryFactory geometryFactory = new GeometryFactory(GeometryFactory.Type.S2);
+        context = new ToolContext();
+        context.setGeometryFactory(geometryFactory);
+
+        final Array[] primaryGeolocation = SyntheticData.createSwathGeolocation(WIDTH, HEIGHT, 0.0);
+        primaryPixelLocator = PixelLocatorFactory.getSwathPixelLocator(primaryGeolocation[0], primaryGeolocation[1], WIDTH, HEIGHT);
+        final Array[] secondaryGeolocation = SyntheticData.createSwathGeolocation(WIDTH, HEIGHT, 2.0);
+        secondaryPixelLocator = PixelLocatorFactory.getSwathPixelLocator(secondaryGeolocation[0], secondaryGeolocation[1], WIDTH, HEIGHT);
+
+        timeLocator = (x, y) -> 1483228800000L + y * 167L;
+        polygon = (Polygon) geometryFactory.parse(INTERSECTION_WKT);
+
+        primarySamples = new MatchupSet();
+        new SampleCollector(context, primaryPixelLocator).addPrimarySamples(polygon, primarySamples, timeLocator);
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpInvocation() {
+        matchupSet = SyntheticData.copy(primarySamples);
+    }
+
+    @Benchmark
+    public MatchupSet addPrimarySamples() {
+        final MatchupSet primarySet = new MatchupSet();
+        new SampleCollector(context, primaryPixelLocator).addPrimarySamples(polygon, primarySet, timeLocator);
+        return primarySet;
+    }
+
+    @Benchmark
+    public MatchupSet addSecondarySamples() {
+        new SampleCollector(context, secondaryPixelLocator).addSecondarySamples(matchupSet, timeLocator);
+        return matchupSet;
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2016 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+
+package com.bc.fiduceo.matchup.writer;
+
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ucar.ma2.Array;
+import ucar.ma2.DataType;
+import ucar.nc2.NetcdfFileWriter;
+import ucar.nc2.Variable;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The flush path of the MMD writers: blocks of 5x5 pixel windows for a set of float variables are handed to the
+ * background writer and written to a NetCDF 3 file in a temporary directory. The benchmark is located in the
+ * package of the RowBlockWriter to access the package private class.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class RowBlockWriterBenchmark {
+
+    private static final int NUM_MATCHUPS = 100000;
+    private static final int NUM_VARIABLES = 10;
+    private static final int WINDOW_SIZE = 5;
+
+    @Param({"1024", "8192"})
+    public int blockHeight;
+
+    @Param({"2"})
+    public int queueSize;
+
+    private File mmdFile;
+    private NetcdfFileWriter netcdfFileWriter;
+    private Map<String, Variable> variables;
+
+    @Setup
+    public void setUp() throws IOException {
+        mmdFile = File.createTempFile("mmd-benchmark", ".nc");
+        netcdfFileWriter = NetcdfFileWriter.createNew(NetcdfFileWriter.Version.netcdf3, mmdFile.getAbsolutePath());
+        netcdfFileWriter.setLargeFile(true);
+        netcdfFileWriter.addDimension(null, "matchup_count", NUM_MATCHUPS);
+        netcdfFileWriter.addDimension(null, "ny", WINDOW_SIZE);
+        netcdfFileWriter.addDimension(null, "nx", WINDOW_SIZE);
+
+        variables = new HashMap<>();
+        for (int i = 0; i < NUM_VARIABLES; i++) {
+            final String name = "variable_" + i;
+            variables.put(name, netcdfFileWriter.addVariable(null, name, DataType.FLOAT, "matchup_count ny nx"));
+        }
+        netcdfFileWriter.create();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        netcdfFileWriter.close();
+        if (!mmdFile.delete()) {
+            mmdFile.deleteOnExit();
+        }
+    }
+
+    @Benchmark
+    public void writeAllBlocks() throws IOException {
+        final RowBlockWriter rowBlockWriter = new RowBlockWriter(netcdfFileWriter, queueSize);
+        try {
+            for (int zStart = 0; zStart < NUM_MATCHUPS; zStart += blockHeight) {
+                final Map<String, Array> data = rowBlockWriter.takeRecycled();
+                for (final String name : variables.keySet()) {
+                    Array array = data.get(name);
+                    if (array == null) {
+                        array = Array.factory(DataType.FLOAT, new int[]{blockHeight, WINDOW_SIZE, WINDOW_SIZE});
+                        data.put(name, array);
+                    }
+                    fill(array, zStart);
+                }
+                rowBlockWriter.submit(zStart, data, variables);
+            }
+        } finally {
+            rowBlockWriter.close();
+        }
+    }
+
+    private static void fill(Array array, int zStart) {
+        final int size = (int) array.getSize();
+        for (int i = 0; i < size; i++) {
+            array.setFloat(i, zStart + i * 0.01f);
+        }
+    }
+}
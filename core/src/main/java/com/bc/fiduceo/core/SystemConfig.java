@@ -37,6 +37,12 @@ public class SystemConfig {
 
     private String geometryLibraryType;
     private ArchiveConfig archiveConfig;
+    private int numWorkerThreads;
+    private int maxMatchupsInMemory;
+    private String geolocationCacheDir;
+    private int arrayCacheSizeMb;
+    private boolean fusedConditions;
+    private int copyBufferSizeMb;
 
     public static SystemConfig loadFrom(File configDirectory) throws IOException {
         final File systemPropertiesFile = new File(configDirectory, "system-config.xml");
@@ -61,6 +67,10 @@ public class SystemConfig {
 
     SystemConfig() {
         geometryLibraryType = "S2";
+        numWorkerThreads = 1;
+        maxMatchupsInMemory = 1000000;
+        arrayCacheSizeMb = 512;
+        copyBufferSizeMb = 128;
     }
 
     public String getGeometryLibraryType() {
@@ -71,6 +81,62 @@ public class SystemConfig {
         return archiveConfig;
     }
 
+    /**
+     * Retrieves the number of worker threads the tools may use for parallel processing.
+     *
+     * @return the number of worker threads, 1 means serial processing
+     */
+    public int getNumWorkerThreads() {
+        return numWorkerThreads;
+    }
+
+    /**
+     * Retrieves the number of matchups the matchup tool keeps in memory, exceeding matchups are written
+     * to a temporary file.
+     *
+     * @return the maximal number of matchups in memory
+     */
+    public int getMaxMatchupsInMemory() {
+        return maxMatchupsInMemory;
+    }
+
+    /**
+     * Retrieves the directory of the persistent geolocation cache of the pixel locators.
+     *
+     * @return the directory path, or null if the cache is disabled
+     */
+    public String getGeolocationCacheDir() {
+        return geolocationCacheDir;
+    }
+
+    /**
+     * Retrieves the memory budget shared by the array caches of all open readers.
+     *
+     * @return the budget in megabytes
+     */
+    public int getArrayCacheSizeMb() {
+        return arrayCacheSizeMb;
+    }
+
+    /**
+     * Retrieves the memory budget of the post processing tool for copying the variables of a MMD file.
+     *
+     * @return the budget in megabytes
+     */
+    public int getCopyBufferSizeMb() {
+        return copyBufferSizeMb;
+    }
+
+    /**
+     * Retrieves whether the matchup tool applies the per-matchup conditions in a single fused pass instead of
+     * one condition after the other.
+     *
+     * @return true for the fused condition processing
+     */
+    public boolean isFusedConditions() {
+        return fusedConditions;
+    }
+
     private SystemConfig(Document document) {
         this();
 
@@ -85,5 +151,47 @@ public class SystemConfig {
         if (archiveConfigElement != null) {
             archiveConfig = new ArchiveConfig(archiveConfigElement);
         }
+
+        final Element workerThreadsElement = rootElement.getChild("worker-threads");
+        if (workerThreadsElement != null) {
+            numWorkerThreads = Integer.parseInt(workerThreadsElement.getTextTrim());
+            if (numWorkerThreads < 1) {
+                throw new RuntimeException("Invalid number of worker threads: " + numWorkerThreads);
+            }
+        }
+
+        final Element maxMatchupsElement = rootElement.getChild("max-matchups-in-memory");
+        if (maxMatchupsElement != null) {
+            maxMatchupsInMemory = Integer.parseInt(maxMatchupsElement.getTextTrim());
+            if (maxMatchupsInMemory < 1) {
+                throw new RuntimeException("Invalid maximal number of matchups in memory: " + maxMatchupsInMemory);
+            }
+        }
+
+        final Element geolocationCacheElement = rootElement.getChild("geolocation-cache-dir");
+        if (geolocationCacheElement != null) {
+            geolocationCacheDir = geolocationCacheElement.getTextTrim();
+        }
+
+        final Element arrayCacheSizeElement = rootElement.getChild("array-cache-size-mb");
+        if (arrayCacheSizeElement != null) {
+            arrayCacheSizeMb = Integer.parseInt(arrayCacheSizeElement.getTextTrim());
+            if (arrayCacheSizeMb < 1) {
+                throw new RuntimeException("Invalid array cache size: " + arrayCacheSizeMb);
+            }
+        }
+
+        final Element copyBufferSizeElement = rootElement.getChild("copy-buffer-size-mb");
+        if (copyBufferSizeElement != null) {
+            copyBufferSizeMb = Integer.parseInt(copyBufferSizeElement.getTextTrim());
+            if (copyBufferSizeMb < 1) {
+                throw new RuntimeException("Invalid copy buffer size: " + copyBufferSizeMb);
+            }
+        }
+
+        final Element fusedConditionsElement = rootElement.getChild("fused-conditions");
+        if (fusedConditionsElement != null) {
+            fusedConditions = Boolean.parseBoolean(fusedConditionsElement.getTextTrim());
+        }
     }
 }
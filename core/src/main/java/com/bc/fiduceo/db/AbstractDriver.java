@@ -22,45 +22,76 @@
 package com.bc.fiduceo.db;
 
 
+import com.bc.fiduceo.core.NodeType;
+import com.bc.fiduceo.core.SatelliteObservation;
 import com.bc.fiduceo.core.Sensor;
+import com.bc.fiduceo.geometry.Geometry;
+import com.bc.fiduceo.geometry.GeometryCollection;
+import com.bc.fiduceo.geometry.GeometryFactory;
+import com.bc.fiduceo.geometry.LineString;
+import com.bc.fiduceo.geometry.TimeAxis;
 import com.bc.fiduceo.util.TimeUtils;
 import org.apache.commons.dbcp2.BasicDataSource;
 import org.esa.snap.core.util.StringUtils;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 abstract class AbstractDriver implements Driver {
 
-    private static final String DATE_PATTERN = "yyyy-MM-dd HH:mm:ss.S";
+    private static final String SELECT_OBSERVATIONS = "SELECT * FROM SATELLITE_OBSERVATION obs INNER JOIN SENSOR sen ON obs.SensorId = sen.ID INNER JOIN TIMEAXIS axis ON obs.ID = axis.ObservationId";
+    private static final String SELECT_DATA_FILES = "SELECT obs.DataFile FROM SATELLITE_OBSERVATION obs INNER JOIN SENSOR sen ON obs.SensorId = sen.ID";
+    private static final int FETCH_SIZE = 256;
+    private static final int GEOMETRY_CACHE_SIZE = 512;
 
     Connection connection;
+    GeometryFactory geometryFactory;
+
+    // the statements are prepared once per SQL text and connection, the query parameters are bound on execution
+    private final Map<String, PreparedStatement> statementCache;
+    private final Map<String, Integer> sensorIdCache;
+    // the matchup strategies query the same observations over and over, decoding the geometries dominates the query time
+    private final GeometryCache geometryCache;
+
+    AbstractDriver() {
+        statementCache = new HashMap<>();
+        sensorIdCache = new HashMap<>();
+        geometryCache = new GeometryCache(GEOMETRY_CACHE_SIZE);
+    }
+
+    @Override
+    public void setGeometryFactory(GeometryFactory geometryFactory) {
+        this.geometryFactory = geometryFactory;
+    }
 
     @Override
     public void open(BasicDataSource dataSource) throws SQLException {
-        try {
-            final java.sql.Driver driverClass = (java.sql.Driver) Class.forName(dataSource.getDriverClassName()).newInstance();
-            DriverManager.registerDriver(driverClass);
-        } catch (ClassNotFoundException | InstantiationException | IllegalAccessException e) {
-            throw new SQLException(e.getMessage());
-        }
-        connection = DriverManager.getConnection(dataSource.getUrl(),
-                dataSource.getUsername(),
-                dataSource.getPassword());
+        // the data source pools the connections, closing the connection hands it back to the pool
+        connection = dataSource.getConnection();
     }
 
     @Override
     public void initialize() throws SQLException {
+        clearCaches();
+
         Statement statement = connection.createStatement();
         statement.executeUpdate("CREATE TABLE SATELLITE_OBSERVATION (ID INT AUTO_INCREMENT PRIMARY KEY, " +
                 "StartDate TIMESTAMP," +
                 "StopDate TIMESTAMP," +
                 "NodeType TINYINT," +
-                "GeoBounds GEOMETRY, " +
+                "GeoBounds " + getGeometryColumnType() + ", " +
                 "SensorId INT," +
                 "Version VARCHAR(16)," +
                 "DataFile VARCHAR(256))");
@@ -72,7 +103,7 @@ abstract class AbstractDriver implements Driver {
         statement = connection.createStatement();
         statement.executeUpdate("CREATE TABLE TIMEAXIS (ID INT AUTO_INCREMENT PRIMARY KEY, " +
                 "ObservationId INT," +
-                "Axis GEOMETRY," +
+                "Axis " + getGeometryColumnType() + "," +
                 "StartTime TIMESTAMP, " +
                 "StopTime TIMESTAMP, " +
                 "FOREIGN KEY (ObservationId) REFERENCES SATELLITE_OBSERVATION(ID))");
@@ -80,6 +111,8 @@ abstract class AbstractDriver implements Driver {
 
     @Override
     public void clear() throws SQLException {
+        clearCaches();
+
         Statement statement = connection.createStatement();
         statement.execute("DROP TABLE IF EXISTS TIMEAXIS");
 
@@ -92,52 +125,146 @@ abstract class AbstractDriver implements Driver {
 
     @Override
     public void close() throws SQLException {
-        connection.close();
+        try {
+            clearCaches();
+        } finally {
+            connection.close();
+        }
+    }
+
+    @Override
+    public void insert(List<SatelliteObservation> observations) throws SQLException {
+        final boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            for (final SatelliteObservation observation : observations) {
+                insert(observation);
+            }
+            connection.commit();
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            // sensors inserted in this transaction are gone
+            sensorIdCache.clear();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    @Override
+    public Set<String> getDataFilePaths(QueryParameter parameter) throws SQLException {
+        final List<Object> values = new ArrayList<>();
+        final String sql = createDataFileSql(parameter, values);
+
+        final Set<String> dataFilePaths = new HashSet<>();
+        try (ResultSet resultSet = executeQuery(sql, values)) {
+            while (resultSet.next()) {
+                dataFilePaths.add(resultSet.getString(1));
+            }
+        }
+        return dataFilePaths;
     }
 
     @Override
     public int insert(Sensor sensor) throws SQLException {
-        final PreparedStatement preparedStatement = connection.prepareStatement("INSERT INTO SENSOR VALUES(default, ?)", Statement.RETURN_GENERATED_KEYS);
+        final PreparedStatement preparedStatement = getInsertStatement("INSERT INTO SENSOR VALUES(default, ?)");
         preparedStatement.setString(1, sensor.getName());
         preparedStatement.executeUpdate();
 
-        final ResultSet generatedKeys = preparedStatement.getGeneratedKeys();
-        if (generatedKeys.next()) {
-            return generatedKeys.getInt(1);
+        try (ResultSet generatedKeys = preparedStatement.getGeneratedKeys()) {
+            if (generatedKeys.next()) {
+                final int sensorId = generatedKeys.getInt(1);
+                sensorIdCache.put(sensor.getName(), sensorId);
+                return sensorId;
+            }
         }
         return -1;
     }
 
+    /**
+     * @return the SQL type of the geometry columns created in initialize()
+     */
+    String getGeometryColumnType() {
+        return "GEOMETRY";
+    }
+
+    /**
+     * Decodes the geometry stored in the column passed in.
+     *
+     * @param resultSet  the result set, positioned at the row to read
+     * @param columnName the geometry column
+     * @return the geometry or null if none is stored
+     * @throws SQLException on database errors
+     */
+    abstract Geometry getGeometry(ResultSet resultSet, String columnName) throws SQLException;
+
     // package access for testing only tb 2016-11-29
-    static String createSql(QueryParameter parameter) {
+    static String createSql(QueryParameter parameter, List<Object> values) {
+        return createSql(parameter, null, values);
+    }
+
+    // the geometry constraint is a driver specific SQL predicate, null if the driver cannot evaluate geometries.
+    // The query values are appended to the list in the order of the placeholders
+    // package access for testing only
+    static String createSql(QueryParameter parameter, String geometryConstraint, List<Object> values) {
         final StringBuilder sql = new StringBuilder();
-        sql.append("SELECT * FROM SATELLITE_OBSERVATION obs INNER JOIN SENSOR sen ON obs.SensorId = sen.ID INNER JOIN TIMEAXIS axis ON obs.ID = axis.ObservationId");
+        sql.append(SELECT_OBSERVATIONS);
         if (parameter == null) {
             return sql.toString();
         }
 
+        final int length = sql.length();
         sql.append(" WHERE ");
 
-        boolean appendAnd = false;
+        final boolean appendAnd = appendConstraints(sql, parameter, values);
+
+        if (StringUtils.isNotNullAndNotEmpty(geometryConstraint)) {
+            if (appendAnd) {
+                sql.append(" AND ");
+            }
 
-        final java.util.Date startTime = parameter.getStartTime();
+            sql.append(geometryConstraint);
+        } else if (!appendAnd) {
+            sql.setLength(length);
+        }
 
-        if (startTime != null) {
-            sql.append("obs.stopDate >= '");
-            sql.append(TimeUtils.format(startTime, DATE_PATTERN));
-            sql.append("'");
+        return sql.toString();
+    }
 
+    // package access for testing only
+    static String createDataFileSql(QueryParameter parameter, List<Object> values) {
+        final StringBuilder sql = new StringBuilder();
+        sql.append(SELECT_DATA_FILES);
+        if (parameter == null) {
+            return sql.toString();
+        }
+
+        final int length = sql.length();
+        sql.append(" WHERE ");
+        if (!appendConstraints(sql, parameter, values)) {
+            sql.setLength(length);
+        }
+        return sql.toString();
+    }
+
+    // appends the time, sensor, path and version constraints, returns true if at least one has been appended
+    private static boolean appendConstraints(StringBuilder sql, QueryParameter parameter, List<Object> values) {
+        boolean appendAnd = false;
+
+        final Date startTime = parameter.getStartTime();
+        if (startTime != null) {
+            sql.append("obs.stopDate >= ?");
+            values.add(TimeUtils.toTimestamp(startTime));
             appendAnd = true;
         }
 
-        final java.util.Date stopTime = parameter.getStopTime();
+        final Date stopTime = parameter.getStopTime();
         if (stopTime != null) {
             if (appendAnd) {
                 sql.append(" AND ");
             }
-            sql.append("obs.startDate <= '");
-            sql.append(TimeUtils.format(stopTime, DATE_PATTERN));
-            sql.append("'");
+            sql.append("obs.startDate <= ?");
+            values.add(TimeUtils.toTimestamp(stopTime));
             appendAnd = true;
         }
 
@@ -146,10 +273,8 @@ abstract class AbstractDriver implements Driver {
             if (appendAnd) {
                 sql.append(" AND ");
             }
-
-            sql.append("sen.Name = '");
-            sql.append(sensorName);
-            sql.append("'");
+            sql.append("sen.Name = ?");
+            values.add(sensorName);
             appendAnd = true;
         }
 
@@ -158,10 +283,8 @@ abstract class AbstractDriver implements Driver {
             if (appendAnd) {
                 sql.append(" AND ");
             }
-
-            sql.append("obs.DataFile = '");
-            sql.append(path);
-            sql.append("'");
+            sql.append("obs.DataFile = ?");
+            values.add(path);
             appendAnd = true;
         }
 
@@ -170,35 +293,220 @@ abstract class AbstractDriver implements Driver {
             if (appendAnd) {
                 sql.append(" AND ");
             }
+            sql.append("obs.Version = ?");
+            values.add(version);
+            appendAnd = true;
+        }
+
+        return appendAnd;
+    }
 
-            sql.append("obs.Version = '");
-            sql.append(version);
-            sql.append("'");
+    ResultSet executeQuery(String sql, List<Object> values) throws SQLException {
+        final PreparedStatement preparedStatement = getPreparedStatement(sql);
+        for (int i = 0; i < values.size(); i++) {
+            preparedStatement.setObject(i + 1, values.get(i));
         }
+        preparedStatement.setFetchSize(FETCH_SIZE);
+        return preparedStatement.executeQuery();
+    }
 
-        return sql.toString();
+    PreparedStatement getPreparedStatement(String sql) throws SQLException {
+        PreparedStatement preparedStatement = statementCache.get(sql);
+        if (preparedStatement == null) {
+            preparedStatement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statementCache.put(sql, preparedStatement);
+        }
+        return preparedStatement;
+    }
+
+    PreparedStatement getInsertStatement(String sql) throws SQLException {
+        PreparedStatement preparedStatement = statementCache.get(sql);
+        if (preparedStatement == null) {
+            preparedStatement = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+            statementCache.put(sql, preparedStatement);
+        }
+        return preparedStatement;
+    }
+
+    // maps the rows of the observation query in a single forward pass, one row per time axis. The query does not
+    // sort the rows, so they are grouped by observation id - the observations keep the order of their first row
+    List<SatelliteObservation> readObservations(ResultSet resultSet, Geometry searchGeometry) throws SQLException {
+        final Map<Integer, ObservationRows> observationRows = new LinkedHashMap<>();
+        while (resultSet.next()) {
+            final int observationId = resultSet.getInt("ObservationId");
+            ObservationRows rows = observationRows.get(observationId);
+            if (rows == null) {
+                final GeometryCache.Entry cachedGeometries = geometryCache.get(observationId);
+                rows = new ObservationRows(readObservation(resultSet, cachedGeometries), cachedGeometries);
+                observationRows.put(observationId, rows);
+            }
+
+            if (rows.cachedGeometries == null) {
+                final TimeAxis timeAxis = readTimeAxis(resultSet);
+                if (timeAxis != null) {
+                    rows.timeAxes.add(timeAxis);
+                }
+            }
+        }
+
+        final List<SatelliteObservation> resultList = new ArrayList<>(observationRows.size());
+        for (final Map.Entry<Integer, ObservationRows> entry : observationRows.entrySet()) {
+            addObservation(resultList, entry.getKey(), entry.getValue(), searchGeometry);
+        }
+        return resultList;
+    }
+
+    // package access for testing only
+    GeometryCache getGeometryCache() {
+        return geometryCache;
+    }
+
+    // spherical intersection check for drivers that cannot evaluate the search geometry in the database.
+    // Observations without geolocation never intersect, same as in the database predicates
+    // package access for testing only
+    static boolean intersects(Geometry geoBounds, Geometry searchGeometry) {
+        if (geoBounds == null) {
+            return false;
+        }
+
+        // BcGeometryCollection does not implement intersections - so we check the parts
+        final Geometry[] searchGeometries = getGeometries(searchGeometry);
+        for (final Geometry boundsGeometry : getGeometries(geoBounds)) {
+            for (final Geometry geometry : searchGeometries) {
+                final Geometry intersection = boundsGeometry.getIntersection(geometry);
+                if (!intersection.isEmpty()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    static Geometry[] getGeometries(Geometry geometry) {
+        if (geometry instanceof GeometryCollection) {
+            return ((GeometryCollection) geometry).getGeometries();
+        }
+        return new Geometry[]{geometry};
     }
 
     Sensor getSensor(int id) throws SQLException {
-        final Statement statement = connection.createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_UPDATABLE);
-        final ResultSet resultSet = statement.executeQuery("SELECT * FROM SENSOR where ID = " + id);
-        if (resultSet.next()) {
-            final Sensor sensor = new Sensor();
-            sensor.setName(resultSet.getString("Name"));
-            return sensor;
-        } else {
-            throw new SQLException("No Sensor available for ID '" + id + "'");
+        final PreparedStatement preparedStatement = getPreparedStatement("SELECT * FROM SENSOR WHERE ID = ?");
+        preparedStatement.setInt(1, id);
+        try (ResultSet resultSet = preparedStatement.executeQuery()) {
+            if (resultSet.next()) {
+                final Sensor sensor = new Sensor();
+                sensor.setName(resultSet.getString("Name"));
+                return sensor;
+            } else {
+                throw new SQLException("No Sensor available for ID '" + id + "'");
+            }
         }
     }
 
     Integer getSensorId(String sensorName) throws SQLException {
-        final Statement statement = connection.createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_UPDATABLE);
-        final ResultSet resultSet = statement.executeQuery("SELECT ID FROM SENSOR WHERE NAME = '" + sensorName + "'");
+        final Integer cachedId = sensorIdCache.get(sensorName);
+        if (cachedId != null) {
+            return cachedId;
+        }
+
+        final PreparedStatement preparedStatement = getPreparedStatement("SELECT ID FROM SENSOR WHERE NAME = ?");
+        preparedStatement.setString(1, sensorName);
+        try (ResultSet resultSet = preparedStatement.executeQuery()) {
+            if (resultSet.next()) {
+                final int sensorId = resultSet.getInt("ID");
+                sensorIdCache.put(sensorName, sensorId);
+                return sensorId;
+            } else {
+                return null;
+            }
+        }
+    }
 
-        if (resultSet.first()) {
-            return resultSet.getInt("ID");
+    private SatelliteObservation readObservation(ResultSet resultSet, GeometryCache.Entry cachedGeometries) throws SQLException {
+        final SatelliteObservation observation = new SatelliteObservation();
+
+        final Timestamp startDate = resultSet.getTimestamp("StartDate");
+        observation.setStartTime(TimeUtils.toDate(startDate));
+
+        final Timestamp stopDate = resultSet.getTimestamp("StopDate");
+        observation.setStopTime(TimeUtils.toDate(stopDate));
+
+        final int nodeTypeId = resultSet.getInt("NodeType");
+        observation.setNodeType(NodeType.fromId(nodeTypeId));
+
+        if (cachedGeometries != null) {
+            observation.setGeoBounds(cachedGeometries.getGeoBounds());
         } else {
+            observation.setGeoBounds(getGeometry(resultSet, "GeoBounds"));
+        }
+
+        // the sensor name is delivered by the join, no need to query the SENSOR table per row
+        observation.setSensor(new Sensor(resultSet.getString("Name")));
+
+        final String version = resultSet.getString("Version");
+        observation.setVersion(version);
+
+        final String dataFile = resultSet.getString("DataFile");
+        observation.setDataFilePath(dataFile);
+        return observation;
+    }
+
+    private TimeAxis readTimeAxis(ResultSet resultSet) throws SQLException {
+        final LineString axisGeometry = (LineString) getGeometry(resultSet, "Axis");
+        if (axisGeometry == null) {
             return null;
         }
+
+        final Date axisStartTime = TimeUtils.toDate(resultSet.getTimestamp("StartTime"));
+        final Date axisEndTime = TimeUtils.toDate(resultSet.getTimestamp("StopTime"));
+        return geometryFactory.createTimeAxis(axisGeometry, axisStartTime, axisEndTime);
+    }
+
+    private void addObservation(List<SatelliteObservation> resultList, int observationId, ObservationRows rows, Geometry searchGeometry) {
+        final SatelliteObservation observation = rows.observation;
+        if (rows.cachedGeometries != null) {
+            observation.setTimeAxes(rows.cachedGeometries.getTimeAxes());
+        } else {
+            final TimeAxis[] timeAxes = rows.timeAxes.toArray(new TimeAxis[rows.timeAxes.size()]);
+            observation.setTimeAxes(timeAxes);
+            geometryCache.put(observationId, observation.getGeoBounds(), timeAxes);
+        }
+
+        if (searchGeometry != null && !intersects(observation.getGeoBounds(), searchGeometry)) {
+            return;
+        }
+        resultList.add(observation);
+    }
+
+    private void clearCaches() throws SQLException {
+        sensorIdCache.clear();
+        geometryCache.clear();
+
+        SQLException closeException = null;
+        for (final PreparedStatement preparedStatement : statementCache.values()) {
+            try {
+                preparedStatement.close();
+            } catch (SQLException e) {
+                closeException = e;
+            }
+        }
+        statementCache.clear();
+
+        if (closeException != null) {
+            throw closeException;
+        }
+    }
+
+    private static class ObservationRows {
+
+        private final SatelliteObservation observation;
+        private final GeometryCache.Entry cachedGeometries;
+        private final List<TimeAxis> timeAxes;
+
+        ObservationRows(SatelliteObservation observation, GeometryCache.Entry cachedGeometries) {
+            this.observation = observation;
+            this.cachedGeometries = cachedGeometries;
+            timeAxes = new ArrayList<>();
+        }
     }
 }
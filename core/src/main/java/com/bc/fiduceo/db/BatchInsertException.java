@@ -0,0 +1,42 @@
+/*
+ * Copyright (C) 2017 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+
+package com.bc.fiduceo.db;
+
+import java.sql.SQLException;
+
+/**
+ * Signals that an insert of a list of observations failed after the first observations have been stored. The
+ * observations are inserted in list order, all observations before getNumStored() are in the database, the others
+ * are not.
+ */
+public class BatchInsertException extends SQLException {
+
+    private final int numStored;
+
+    public BatchInsertException(String message, int numStored, Throwable cause) {
+        super(message, cause);
+        this.numStored = numStored;
+    }
+
+    public int getNumStored() {
+        return numStored;
+    }
+}
@@ -29,6 +29,7 @@ import org.apache.commons.dbcp2.BasicDataSource;
 
 import java.sql.SQLException;
 import java.util.List;
+import java.util.Set;
 
 public interface Driver {
 
@@ -54,10 +55,29 @@ public interface Driver {
 
     void insert(SatelliteObservation satelliteObservation) throws SQLException;
 
+    /**
+     * Inserts the observations in list order. The SQL drivers use one transaction, either all observations are
+     * stored or none. Drivers without transactions throw a BatchInsertException telling the number of observations
+     * stored before the failure.
+     *
+     * @param observations the observations
+     * @throws SQLException on database errors
+     */
+    void insert(List<SatelliteObservation> observations) throws SQLException;
+
     List<SatelliteObservation> get() throws SQLException;
 
     List<SatelliteObservation> get(QueryParameter parameter) throws SQLException;
 
+    /**
+     * Retrieves the data file paths of all observations matching the parameter, without decoding the observations.
+     *
+     * @param parameter the query parameter, null retrieves all paths
+     * @return the data file paths
+     * @throws SQLException on database errors
+     */
+    Set<String> getDataFilePaths(QueryParameter parameter) throws SQLException;
+
     int insert(Sensor sensor) throws SQLException;
 
 }
@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2017 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+
+package com.bc.fiduceo.db;
+
+
+import com.bc.fiduceo.geometry.Geometry;
+import com.bc.fiduceo.geometry.TimeAxis;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Least recently used cache of the decoded geometries of an observation, keyed by the database ID of the
+ * observation. The geometries are immutable, so cached instances can be shared between query results.
+ */
+class GeometryCache {
+
+    private final LinkedHashMap<Integer, Entry> entries;
+
+    GeometryCache(final int capacity) {
+        entries = new LinkedHashMap<Integer, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Entry> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    Entry get(int observationId) {
+        return entries.get(observationId);
+    }
+
+    void put(int observationId, Geometry geoBounds, TimeAxis[] timeAxes) {
+        entries.put(observationId, new Entry(geoBounds, timeAxes));
+    }
+
+    void clear() {
+        entries.clear();
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    static class Entry {
+
+        private final Geometry geoBounds;
+        private final TimeAxis[] timeAxes;
+
+        private Entry(Geometry geoBounds, TimeAxis[] timeAxes) {
+            this.geoBounds = geoBounds;
+            this.timeAxes = timeAxes.clone();
+        }
+
+        Geometry getGeoBounds() {
+            return geoBounds;
+        }
+
+        // a copy, the array is handed to the observations
+        TimeAxis[] getTimeAxes() {
+            return timeAxes.clone();
+        }
+    }
+}
@@ -20,37 +20,45 @@
 
 package com.bc.fiduceo.db;
 
-import com.bc.fiduceo.core.NodeType;
 import com.bc.fiduceo.core.SatelliteObservation;
 import com.bc.fiduceo.core.Sensor;
-import com.bc.fiduceo.geometry.GeometryFactory;
-import com.bc.fiduceo.geometry.LineString;
 import com.bc.fiduceo.geometry.TimeAxis;
 import com.bc.fiduceo.util.TimeUtils;
 import com.vividsolutions.jts.geom.Geometry;
 import com.vividsolutions.jts.io.WKTWriter;
+import org.apache.commons.dbcp2.BasicDataSource;
 
 import java.sql.*;
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.List;
 
 
 @SuppressWarnings({"SqlDialectInspection", "SqlNoDataSourceInspection"})
 public class H2Driver extends AbstractDriver {
 
-    private GeometryFactory geometryFactory;
-    private WKTWriter wktWriter;
+    private final WKTWriter wktWriter;
+    // null until detected, the database may be created after opening the connection
+    private Boolean geometryColumns;
+
+    public H2Driver() {
+        wktWriter = new WKTWriter();
+    }
 
     @Override
-    public String getUrlPattern() {
-        return "jdbc:h2";
+    public void open(BasicDataSource dataSource) throws SQLException {
+        super.open(dataSource);
+        geometryColumns = null;
     }
 
     @Override
-    public void setGeometryFactory(GeometryFactory geometryFactory) {
-        this.geometryFactory = geometryFactory;
-        wktWriter = new WKTWriter();
+    public void initialize() throws SQLException {
+        super.initialize();
+        geometryColumns = null;
+    }
+
+    @Override
+    public String getUrlPattern() {
+        return "jdbc:h2";
     }
 
     @Override
@@ -67,49 +75,43 @@ public class H2Driver extends AbstractDriver {
             sensorId = insert(sensor);
         }
 
-        PreparedStatement preparedStatement = connection.prepareStatement("INSERT INTO SATELLITE_OBSERVATION VALUES(default, ?, ?, ?, ?, ?, ?, ?)");
+        PreparedStatement preparedStatement = getInsertStatement("INSERT INTO SATELLITE_OBSERVATION VALUES(default, ?, ?, ?, ?, ?, ?, ?)");
         preparedStatement.setTimestamp(1, TimeUtils.toTimestamp(observation.getStartTime()));
         preparedStatement.setTimestamp(2, TimeUtils.toTimestamp(observation.getStopTime()));
         preparedStatement.setByte(3, (byte) observation.getNodeType().toId());
-        final com.bc.fiduceo.geometry.Geometry geoBounds = observation.getGeoBounds();
-        if (geoBounds != null) {
-            final String wkt = geometryFactory.format(geoBounds);
-            preparedStatement.setString(4, wkt);
-        } else {
-            preparedStatement.setNull(4, Types.VARCHAR);
-        }
+        setGeometry(preparedStatement, 4, observation.getGeoBounds());
         preparedStatement.setInt(5, sensorId);
         preparedStatement.setString(6, observation.getVersion());
         preparedStatement.setString(7, observation.getDataFilePath().toString());
         preparedStatement.executeUpdate();
 
-        final ResultSet generatedKeys = preparedStatement.getGeneratedKeys();
         final int observationId;
-        if (generatedKeys.next()) {
-            observationId = generatedKeys.getInt(1);
-        } else {
-            throw new SQLException("Internal driver error: no ID generated for SATELLITE_OBSERVATION");
+        try (ResultSet generatedKeys = preparedStatement.getGeneratedKeys()) {
+            if (generatedKeys.next()) {
+                observationId = generatedKeys.getInt(1);
+            } else {
+                throw new SQLException("Internal driver error: no ID generated for SATELLITE_OBSERVATION");
+            }
         }
 
         final TimeAxis[] timeAxes = observation.getTimeAxes();
+        preparedStatement = getPreparedStatement("INSERT INTO TIMEAXIS VALUES(default, ?, ?, ?, ?)");
         if (timeAxes != null) {
             for (final TimeAxis timeAxis : timeAxes) {
-                preparedStatement = connection.prepareStatement("INSERT INTO TIMEAXIS VALUES(default, ?, ?, ?, ?)");
                 preparedStatement.setInt(1, observationId);
-                final String wkt = geometryFactory.format(timeAxis.getGeometry());
-                preparedStatement.setString(2, wkt);
+                setGeometry(preparedStatement, 2, timeAxis.getGeometry());
                 preparedStatement.setTimestamp(3, TimeUtils.toTimestamp(timeAxis.getStartTime()));
                 preparedStatement.setTimestamp(4, TimeUtils.toTimestamp(timeAxis.getEndTime()));
-                preparedStatement.executeUpdate();
+                preparedStatement.addBatch();
             }
         } else {
-            preparedStatement = connection.prepareStatement("INSERT INTO TIMEAXIS VALUES(default, ?, ?, ?, ?)");
             preparedStatement.setInt(1, observationId);
-            preparedStatement.setNull(2, Types.VARCHAR);
+            setGeometry(preparedStatement, 2, null);
             preparedStatement.setTimestamp(3, TimeUtils.toTimestamp(observation.getStartTime()));
             preparedStatement.setTimestamp(4, TimeUtils.toTimestamp(observation.getStopTime()));
-            preparedStatement.executeUpdate();
+            preparedStatement.addBatch();
         }
+        preparedStatement.executeBatch();
     }
 
     @Override
@@ -119,83 +121,61 @@ public class H2Driver extends AbstractDriver {
 
     @Override
     public List<SatelliteObservation> get(QueryParameter parameter) throws SQLException {
+        final List<Object> values = new ArrayList<>();
+        final String sql = createSql(parameter, values);
 
-        //org.h2.tools.Server.startWebServer(connection);
-
-        final Statement statement = connection.createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_UPDATABLE);
-        final String sql = createSql(parameter);
-        final ResultSet resultSet = statement.executeQuery(sql);
-        resultSet.last();
-        final int numValues = resultSet.getRow();
-        resultSet.beforeFirst();
-
-        final List<SatelliteObservation> resultList = new ArrayList<>(numValues);
-        while (resultSet.next()) {
-            final SatelliteObservation observation = new SatelliteObservation();
-
-            final int observationId = resultSet.getInt("id");
-
-            final Timestamp startDate = resultSet.getTimestamp("StartDate");
-            observation.setStartTime(TimeUtils.toDate(startDate));
+        // H2 has no spherical geometry predicates, the search geometry is evaluated on the decoded S2 geometries
+        final com.bc.fiduceo.geometry.Geometry searchGeometry = parameter != null ? parameter.getGeometry() : null;
 
-            final Timestamp stopDate = resultSet.getTimestamp("StopDate");
-            observation.setStopTime(TimeUtils.toDate(stopDate));
+        try (ResultSet resultSet = executeQuery(sql, values)) {
+            return readObservations(resultSet, searchGeometry);
+        }
+    }
 
-            final int nodeTypeId = resultSet.getInt("NodeType");
-            observation.setNodeType(NodeType.fromId(nodeTypeId));
+    // H2 evaluates no geometry predicates, the geometries are stored in the binary storage format of the
+    // geometry factory and decoded without text parsing
+    @Override
+    String getGeometryColumnType() {
+        return "VARBINARY";
+    }
 
-            final Geometry geoBounds = (Geometry) resultSet.getObject("GeoBounds");
-            if (geoBounds != null) {
-                final String geoBoundsWkt = wktWriter.write(geoBounds);
-                final com.bc.fiduceo.geometry.Geometry geometry = geometryFactory.fromStorageFormat(geoBoundsWkt.getBytes());
-                observation.setGeoBounds(geometry);
+    private void setGeometry(PreparedStatement preparedStatement, int index, com.bc.fiduceo.geometry.Geometry geometry) throws SQLException {
+        if (hasGeometryColumns()) {
+            // database created by a former version with GEOMETRY columns, these take WKT
+            if (geometry != null) {
+                preparedStatement.setString(index, geometryFactory.format(geometry));
+            } else {
+                preparedStatement.setNull(index, Types.VARCHAR);
             }
+        } else if (geometry != null) {
+            preparedStatement.setBytes(index, geometryFactory.toStorageFormat(geometry));
+        } else {
+            preparedStatement.setNull(index, Types.VARBINARY);
+        }
+    }
 
-            final int sensorId = resultSet.getInt("SensorId");
-            final Sensor sensor = getSensor(sensorId);
-            observation.setSensor(sensor);
-
-            final String version = resultSet.getString("Version");
-            observation.setVersion(version);
-
-            final String dataFile = resultSet.getString("DataFile");
-            observation.setDataFilePath(dataFile);
-
-            final List<TimeAxis> timeAxesList = new ArrayList<>();
-            while (observationId == resultSet.getInt("id")) {
-                final TimeAxis timeAxis = getTimeAxis(resultSet);
-                if (timeAxis != null) {
-                    timeAxesList.add(timeAxis);
-                }
-
-                if (!resultSet.next()) {
-                    break;
-                }
+    // package access for testing only
+    boolean hasGeometryColumns() throws SQLException {
+        if (geometryColumns == null) {
+            try (ResultSet columns = connection.getMetaData().getColumns(null, null, "SATELLITE_OBSERVATION", "GEOBOUNDS")) {
+                geometryColumns = columns.next() && "GEOMETRY".equalsIgnoreCase(columns.getString("TYPE_NAME"));
             }
-            resultSet.previous();   // need to rewind one result because the while loop runs one result too far tb 2016-09-23
-
-            observation.setTimeAxes(timeAxesList.toArray(new TimeAxis[timeAxesList.size()]));
-
-            resultList.add(observation);
         }
-
-        //org.h2.tools.Server.startWebServer(connection);
-
-        return resultList;
+        return geometryColumns;
     }
 
-    private TimeAxis getTimeAxis(ResultSet resultSet) throws SQLException {
-        final Geometry axis = (Geometry) resultSet.getObject("Axis");
-        if (axis == null) {
+    @Override
+    com.bc.fiduceo.geometry.Geometry getGeometry(ResultSet resultSet, String columnName) throws SQLException {
+        final Object value = resultSet.getObject(columnName);
+        if (value == null) {
             return null;
         }
-        final String axisWkt = wktWriter.write(axis);
-        final LineString axisGeometry = (LineString) geometryFactory.fromStorageFormat(axisWkt.getBytes());
-
-        final Timestamp startTime = resultSet.getTimestamp("StartTime");
-        final Date axisStartTime = TimeUtils.toDate(startTime);
-        final Timestamp endTime = resultSet.getTimestamp("StopTime");
-        final Date axisEndTime = TimeUtils.toDate(endTime);
-        return geometryFactory.createTimeAxis(axisGeometry, axisStartTime, axisEndTime);
+
+        if (value instanceof Geometry) {
+            // database created by a former version with GEOMETRY columns
+            final String wkt = wktWriter.write((Geometry) value);
+            return geometryFactory.parse(wkt);
+        }
+        return geometryFactory.fromStorageFormat((byte[]) value);
     }
 }
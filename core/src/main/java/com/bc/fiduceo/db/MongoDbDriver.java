@@ -25,6 +25,7 @@ import com.bc.fiduceo.core.SatelliteObservation;
 import com.bc.fiduceo.core.Sensor;
 import com.bc.fiduceo.geometry.*;
 import com.mongodb.BasicDBObject;
+import com.mongodb.MongoBulkWriteException;
 import com.mongodb.MongoClient;
 import com.mongodb.MongoCredential;
 import com.mongodb.ServerAddress;
@@ -32,16 +33,20 @@ import com.mongodb.client.FindIterable;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
 import com.mongodb.client.MongoIterable;
+import com.mongodb.client.model.InsertManyOptions;
 import com.mongodb.client.model.geojson.PolygonCoordinates;
 import com.mongodb.client.model.geojson.Position;
 import org.apache.commons.dbcp2.BasicDataSource;
 import org.bson.Document;
 import org.esa.snap.core.util.StringUtils;
 
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 @SuppressWarnings("unchecked")
 public class MongoDbDriver extends AbstractDriver {
@@ -127,7 +132,45 @@ public class MongoDbDriver extends AbstractDriver {
     @Override
     public void insert(SatelliteObservation satelliteObservation) throws SQLException {
         final MongoCollection<Document> observationCollection = database.getCollection(SATELLITE_DATA_COLLECTION);
+        observationCollection.insertOne(createDocument(satelliteObservation));
+    }
+
+    @Override
+    public void insert(List<SatelliteObservation> observations) throws SQLException {
+        if (observations.isEmpty()) {
+            return;
+        }
+
+        final List<Document> documents = new ArrayList<>(observations.size());
+        for (final SatelliteObservation observation : observations) {
+            documents.add(createDocument(observation));
+        }
+
+        // MongoDB has no transactions - the ordered insert stops at the first failing document, all documents
+        // before it are stored
+        final MongoCollection<Document> observationCollection = database.getCollection(SATELLITE_DATA_COLLECTION);
+        try {
+            observationCollection.insertMany(documents, new InsertManyOptions().ordered(true));
+        } catch (MongoBulkWriteException e) {
+            final int numStored = e.getWriteErrors().get(0).getIndex();
+            throw new BatchInsertException("Unable to insert observation " + numStored + " of " + documents.size() + ": " + e.getMessage(), numStored, e);
+        }
+    }
+
+    @Override
+    public Set<String> getDataFilePaths(QueryParameter parameter) throws SQLException {
+        final MongoCollection<Document> observationCollection = database.getCollection(SATELLITE_DATA_COLLECTION);
+        final Set<String> dataFilePaths = new HashSet<>();
+
+        final Document queryDocument = createQueryDocument(parameter);
+        final FindIterable<Document> documents = observationCollection.find(queryDocument).projection(new Document(DATA_FILE_KEY, 1));
+        for (Document document : documents) {
+            dataFilePaths.add(document.getString(DATA_FILE_KEY));
+        }
+        return dataFilePaths;
+    }
 
+    private Document createDocument(SatelliteObservation satelliteObservation) {
         final Document document = new Document(DATA_FILE_KEY, satelliteObservation.getDataFilePath().toString());
         document.append(START_TIME_KEY, satelliteObservation.getStartTime());
         document.append(STOP_TIME_KEY, satelliteObservation.getStopTime());
@@ -147,8 +190,7 @@ public class MongoDbDriver extends AbstractDriver {
         }
 
         document.append(VERSION_KEY, satelliteObservation.getVersion());
-
-        observationCollection.insertOne(document);
+        return document;
     }
 
 
@@ -158,6 +200,12 @@ public class MongoDbDriver extends AbstractDriver {
         return -1;
     }
 
+    @Override
+    Geometry getGeometry(ResultSet resultSet, String columnName) throws SQLException {
+        // no JDBC result sets here - the geometries are decoded from the documents
+        throw new RuntimeException("not implemented");
+    }
+
     @Override
     public List<SatelliteObservation> get() throws SQLException {
         return get(null);
@@ -344,6 +392,12 @@ public class MongoDbDriver extends AbstractDriver {
             queryConstraints.append(DATA_FILE_KEY, new Document("$eq", path));
         }
 
+        final Geometry geometry = parameter.getGeometry();
+        if (geometry != null) {
+            final Document geometryDocument = new Document("$geometry", convertToGeoJSON(geometry));
+            queryConstraints.append(GEO_BOUNDS_KEY, new Document("$geoIntersects", geometryDocument));
+        }
+
         return queryConstraints;
     }
 
@@ -26,7 +26,6 @@ import com.bc.fiduceo.core.NodeType;
 import com.bc.fiduceo.core.SatelliteObservation;
 import com.bc.fiduceo.core.Sensor;
 import com.bc.fiduceo.geometry.Geometry;
-import com.bc.fiduceo.geometry.GeometryFactory;
 import com.bc.fiduceo.util.TimeUtils;
 
 import java.sql.PreparedStatement;
@@ -39,18 +38,11 @@ import java.util.List;
 
 public class MySQLDriver extends AbstractDriver {
 
-    private GeometryFactory geometryFactory;
-
     @Override
     public String getUrlPattern() {
         return "jdbc:mysql";
     }
 
-    @Override
-    public void setGeometryFactory(GeometryFactory geometryFactory) {
-        this.geometryFactory = geometryFactory;
-    }
-
     @Override
     public boolean isInitialized() {
         throw new RuntimeException("not implemented");
@@ -120,4 +112,9 @@ public class MySQLDriver extends AbstractDriver {
     public List<SatelliteObservation> get(QueryParameter parameter) throws SQLException {
         throw new RuntimeException("not implemented");
     }
+
+    @Override
+    Geometry getGeometry(ResultSet resultSet, String columnName) throws SQLException {
+        throw new RuntimeException("not implemented");
+    }
 }
@@ -21,12 +21,9 @@
 
 package com.bc.fiduceo.db;
 
-import com.bc.fiduceo.core.NodeType;
 import com.bc.fiduceo.core.SatelliteObservation;
 import com.bc.fiduceo.core.Sensor;
 import com.bc.fiduceo.geometry.Geometry;
-import com.bc.fiduceo.geometry.GeometryFactory;
-import com.bc.fiduceo.geometry.LineString;
 import com.bc.fiduceo.geometry.TimeAxis;
 import com.bc.fiduceo.util.TimeUtils;
 import org.postgis.PGgeometry;
@@ -35,25 +32,20 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
-import java.sql.Timestamp;
 import java.sql.Types;
 import java.util.ArrayList;
 import java.util.List;
 
 public class PostGISDriver extends AbstractDriver {
 
-    private GeometryFactory geometryFactory;
+    // the geometries are stored without SRID - casting to geography gives us great-circle edges as in S2
+    private static final String GEOGRAPHY_BOUNDS = "geography(ST_SetSRID(GeoBounds, 4326))";
 
     @Override
     public String getUrlPattern() {
         return "jdbc:postgresql";
     }
 
-    @Override
-    public void setGeometryFactory(GeometryFactory geometryFactory) {
-        this.geometryFactory = geometryFactory;
-    }
-
     @Override
     public boolean isInitialized() throws SQLException {
         final ResultSet tables = connection.getMetaData().getTables(null, null, "satellite_observation", null);
@@ -92,6 +84,9 @@ public class PostGISDriver extends AbstractDriver {
 
         statement = connection.createStatement();
         statement.execute("CREATE INDEX OBSERVATION_ID ON TIMEAXIS(ObservationId)");
+
+        statement = connection.createStatement();
+        statement.execute("CREATE INDEX GEO_BOUNDS ON SATELLITE_OBSERVATION USING GIST (" + GEOGRAPHY_BOUNDS + ")");
     }
 
     @Override
@@ -102,13 +97,14 @@ public class PostGISDriver extends AbstractDriver {
             sensorId = insert(sensor);
         }
 
-        PreparedStatement preparedStatement = connection.prepareStatement("INSERT INTO SATELLITE_OBSERVATION VALUES(default, ?, ?, ?, ST_GeomFromText(?), ?, ?, ?) RETURNING ID");
+        PreparedStatement preparedStatement = getPreparedStatement("INSERT INTO SATELLITE_OBSERVATION VALUES(default, ?, ?, ?, ST_GeomFromText(?), ?, ?, ?) RETURNING ID");
         preparedStatement.setTimestamp(1, TimeUtils.toTimestamp(observation.getStartTime()));
         preparedStatement.setTimestamp(2, TimeUtils.toTimestamp(observation.getStopTime()));
         preparedStatement.setByte(3, (byte) observation.getNodeType().toId());
         final Geometry geoBounds = observation.getGeoBounds();
         if (geoBounds != null) {
-            preparedStatement.setString(4, new String(geometryFactory.toStorageFormat(geoBounds)));
+            // the geography functions need WKT, the binary storage format is not understood by the database
+            preparedStatement.setString(4, geometryFactory.format(geoBounds));
         } else {
             preparedStatement.setNull(4, Types.OTHER);
         }
@@ -116,28 +112,30 @@ public class PostGISDriver extends AbstractDriver {
         preparedStatement.setString(6, observation.getVersion());
         preparedStatement.setString(7, observation.getDataFilePath().toString());
 
-        final ResultSet resultSet = preparedStatement.executeQuery();
-        resultSet.next();
-        final int observationId = resultSet.getInt(1);
+        final int observationId;
+        try (ResultSet resultSet = preparedStatement.executeQuery()) {
+            resultSet.next();
+            observationId = resultSet.getInt(1);
+        }
         final TimeAxis[] timeAxes = observation.getTimeAxes();
+        preparedStatement = getPreparedStatement("INSERT INTO TIMEAXIS VALUES(default, ?, ST_GeomFromText(?), ?, ?)");
         if (timeAxes != null) {
             for (final TimeAxis timeAxis : timeAxes) {
-                preparedStatement = connection.prepareStatement("INSERT INTO TIMEAXIS VALUES(default, ?, ST_GeomFromText(?), ?, ?)");
                 preparedStatement.setInt(1, observationId);
                 final String wkt = geometryFactory.format(timeAxis.getGeometry());
                 preparedStatement.setString(2, wkt);
                 preparedStatement.setTimestamp(3, TimeUtils.toTimestamp(timeAxis.getStartTime()));
                 preparedStatement.setTimestamp(4, TimeUtils.toTimestamp(timeAxis.getEndTime()));
-                preparedStatement.executeUpdate();
+                preparedStatement.addBatch();
             }
         } else {
-            preparedStatement = connection.prepareStatement("INSERT INTO TIMEAXIS VALUES(default, ?, ?, ?, ?)");
             preparedStatement.setInt(1, observationId);
-            preparedStatement.setNull(2, Types.OTHER);
+            preparedStatement.setNull(2, Types.VARCHAR);
             preparedStatement.setTimestamp(3, TimeUtils.toTimestamp(observation.getStartTime()));
             preparedStatement.setTimestamp(4, TimeUtils.toTimestamp(observation.getStopTime()));
-            preparedStatement.executeUpdate();
+            preparedStatement.addBatch();
         }
+        preparedStatement.executeBatch();
     }
 
     @Override
@@ -147,78 +145,54 @@ public class PostGISDriver extends AbstractDriver {
 
     @Override
     public List<SatelliteObservation> get(QueryParameter parameter) throws SQLException {
-        final Statement statement = connection.createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_UPDATABLE);
-        final String sql = createSql(parameter);
-        final ResultSet resultSet = statement.executeQuery(sql);
-        resultSet.last();
-        final int numValues = resultSet.getRow();
-        resultSet.beforeFirst();
-
-        final List<SatelliteObservation> resultList = new ArrayList<>(numValues);
-        while (resultSet.next()) {
-            final SatelliteObservation observation = new SatelliteObservation();
-
-            final int observationId = resultSet.getInt("id");
-
-            final Timestamp startDate = resultSet.getTimestamp("StartDate");
-            observation.setStartTime(TimeUtils.toDate(startDate));
-
-            final Timestamp stopDate = resultSet.getTimestamp("StopDate");
-            observation.setStopTime(TimeUtils.toDate(stopDate));
-
-            final int nodeTypeId = resultSet.getInt("NodeType");
-            observation.setNodeType(NodeType.fromId(nodeTypeId));
-
-            final PGgeometry geoBounds = (PGgeometry) resultSet.getObject("GeoBounds");
-            if (geoBounds != null) {
-                final Geometry geometry = geometryFactory.fromStorageFormat(geoBounds.getValue().getBytes());
-                observation.setGeoBounds(geometry);
-            }
-
-            final int sensorId = resultSet.getInt("SensorId");
-            final Sensor sensor = getSensor(sensorId);
-            observation.setSensor(sensor);
-
-            final String version = resultSet.getString("Version");
-            observation.setVersion(version);
+        final List<Object> values = new ArrayList<>();
+        final String geometryConstraint = createGeometryConstraint(parameter);
+        final String sql = createSql(parameter, geometryConstraint, values);
+        if (geometryConstraint != null) {
+            appendGeometryValues(parameter, values);
+        }
 
-            final String dataFile = resultSet.getString("DataFile");
-            observation.setDataFilePath(dataFile);
+        try (ResultSet resultSet = executeQuery(sql, values)) {
+            return readObservations(resultSet, null);
+        }
+    }
 
-            final List<TimeAxis> timeAxesList = new ArrayList<>();
-            while (observationId == resultSet.getInt("id")) {
-                final TimeAxis timeAxis = getTimeAxis(resultSet);
-                if (timeAxis != null) {
-                    timeAxesList.add(timeAxis);
-                }
+    // the search geometries are bound as query values, see appendGeometryValues()
+    // package access for testing only
+    String createGeometryConstraint(QueryParameter parameter) {
+        if (parameter == null || parameter.getGeometry() == null) {
+            return null;
+        }
 
-                if (!resultSet.next()) {
-                    break;
-                }
+        final Geometry[] geometries = getGeometries(parameter.getGeometry());
+        final StringBuilder constraint = new StringBuilder();
+        constraint.append("(");
+        for (int i = 0; i < geometries.length; i++) {
+            if (i > 0) {
+                constraint.append(" OR ");
             }
-            resultSet.previous();   // need to rewind one result because the while loop runs one result too far tb 2016-11-29
-
-            observation.setTimeAxes(timeAxesList.toArray(new TimeAxis[timeAxesList.size()]));
-
-            resultList.add(observation);
+            constraint.append("ST_Intersects(");
+            constraint.append(GEOGRAPHY_BOUNDS);
+            constraint.append(", ST_GeogFromText(?))");
         }
-
-        return resultList;
+        constraint.append(")");
+        return constraint.toString();
     }
 
+    // package access for testing only
+    void appendGeometryValues(QueryParameter parameter, List<Object> values) {
+        final Geometry[] geometries = getGeometries(parameter.getGeometry());
+        for (final Geometry geometry : geometries) {
+            values.add("SRID=4326;" + geometryFactory.format(geometry));
+        }
+    }
 
-    private TimeAxis getTimeAxis(ResultSet resultSet) throws SQLException {
-        final PGgeometry axis = (PGgeometry) resultSet.getObject("Axis");
-        if (axis == null) {
+    @Override
+    Geometry getGeometry(ResultSet resultSet, String columnName) throws SQLException {
+        final PGgeometry geometry = (PGgeometry) resultSet.getObject(columnName);
+        if (geometry == null) {
             return null;
         }
-        final String axisWkt = axis.getValue();
-        final LineString axisGeometry = (LineString) geometryFactory.fromStorageFormat(axisWkt.getBytes());
-
-        final Timestamp startTime = resultSet.getTimestamp("StartTime");
-        final java.util.Date axisStartTime = TimeUtils.toDate(startTime);
-        final Timestamp endTime = resultSet.getTimestamp("StopTime");
-        final java.util.Date axisEndTime = TimeUtils.toDate(endTime);
-        return geometryFactory.createTimeAxis(axisGeometry, axisStartTime, axisEndTime);
+        return geometryFactory.fromStorageFormat(geometry.getValue().getBytes());
     }
 }
@@ -20,6 +20,8 @@
 
 package com.bc.fiduceo.db;
 
+import com.bc.fiduceo.geometry.Geometry;
+
 import java.util.Date;
 
 public class QueryParameter {
@@ -28,6 +30,7 @@ public class QueryParameter {
     private String sensorName;
     private String version;
     private String path;
+    private Geometry geometry;
 
     public void setStartTime(Date startDate) {
         this.startTime = startDate;
@@ -68,4 +71,12 @@ public class QueryParameter {
     public String getPath() {
         return path;
     }
+
+    public void setGeometry(Geometry geometry) {
+        this.geometry = geometry;
+    }
+
+    public Geometry getGeometry() {
+        return geometry;
+    }
 }
@@ -24,10 +24,13 @@ package com.bc.fiduceo.db;
 import com.bc.fiduceo.core.SatelliteObservation;
 import com.bc.fiduceo.core.Sensor;
 import com.bc.fiduceo.geometry.GeometryFactory;
+import com.bc.fiduceo.metrics.MetricsRegistry;
+import com.bc.fiduceo.metrics.Timer;
 import org.apache.commons.dbcp2.BasicDataSource;
 
 import java.sql.SQLException;
 import java.util.List;
+import java.util.Set;
 import java.util.TimeZone;
 
 public class Storage {
@@ -72,15 +75,33 @@ public class Storage {
     }
 
     public void insert(SatelliteObservation satelliteObservation) throws SQLException {
-        driver.insert(satelliteObservation);
+        try (Timer.Context ignored = MetricsRegistry.get().timer("db.insert").start()) {
+            driver.insert(satelliteObservation);
+        }
+    }
+
+    public void insert(List<SatelliteObservation> observations) throws SQLException {
+        try (Timer.Context ignored = MetricsRegistry.get().timer("db.insert").start()) {
+            driver.insert(observations);
+        }
     }
 
     public List<SatelliteObservation> get() throws SQLException {
-        return driver.get();
+        try (Timer.Context ignored = MetricsRegistry.get().timer("db.query").start()) {
+            return driver.get();
+        }
     }
 
     public List<SatelliteObservation> get(QueryParameter parameter) throws SQLException {
-        return driver.get(parameter);
+        try (Timer.Context ignored = MetricsRegistry.get().timer("db.query").start()) {
+            return driver.get(parameter);
+        }
+    }
+
+    public Set<String> getDataFilePaths(QueryParameter parameter) throws SQLException {
+        try (Timer.Context ignored = MetricsRegistry.get().timer("db.query").start()) {
+            return driver.getDataFilePaths(parameter);
+        }
     }
 
     public int insert(Sensor sensor) throws SQLException {
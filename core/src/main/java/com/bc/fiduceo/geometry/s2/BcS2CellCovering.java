@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2017 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+
+package com.bc.fiduceo.geometry.s2;
+
+import com.bc.fiduceo.geometry.Geometry;
+import com.bc.fiduceo.geometry.GeometryCollection;
+import com.bc.fiduceo.geometry.Polygon;
+import com.google.common.geometry.S2CellId;
+import com.google.common.geometry.S2CellUnion;
+import com.google.common.geometry.S2LatLng;
+import com.google.common.geometry.S2Polygon;
+import com.google.common.geometry.S2RegionCoverer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Maps geometries to sets of S2 cell ids, to be used as keys of spatial lookup tables. The covering of a geometry
+ * is conservative - every point inside the geometry lies in one of the cells, or in a descendant of one of the cells.
+ * Cells are never finer than MAX_LEVEL (roughly 2 km edge length), so a point lookup has to check at most
+ * MAX_LEVEL + 1 ancestor cells.
+ */
+public class BcS2CellCovering {
+
+    public static final int MAX_LEVEL = 12;
+
+    private static final int MAX_CELLS = 16;
+
+    /**
+     * Calculates the cell covering of the geometry.
+     *
+     * @param geometry the geometry
+     * @return the normalized cell ids, or null if the geometry is not an S2 polygonal geometry
+     */
+    public static long[] getCellIds(Geometry geometry) {
+        final ArrayList<S2CellId> cellIds = new ArrayList<>();
+        if (!collectCellIds(geometry, cellIds)) {
+            return null;
+        }
+
+        final S2CellUnion cellUnion = new S2CellUnion();
+        cellUnion.initFromCellIds(cellIds);
+
+        final long[] ids = new long[cellUnion.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = cellUnion.cellId(i).id();
+        }
+        return ids;
+    }
+
+    /**
+     * Retrieves the ids of the cells containing the location, ordered from level 0 to MAX_LEVEL.
+     *
+     * @param lon the longitude in degrees
+     * @param lat the latitude in degrees
+     * @return the cell ids
+     */
+    public static long[] getAncestorCellIds(double lon, double lat) {
+        final S2CellId leafCell = S2CellId.fromLatLng(S2LatLng.fromDegrees(lat, lon));
+        final long[] ids = new long[MAX_LEVEL + 1];
+        for (int level = 0; level <= MAX_LEVEL; level++) {
+            ids[level] = leafCell.parent(level).id();
+        }
+        return ids;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static boolean collectCellIds(Geometry geometry, List<S2CellId> cellIds) {
+        if (geometry instanceof GeometryCollection) {
+            for (final Geometry part : ((GeometryCollection) geometry).getGeometries()) {
+                if (!collectCellIds(part, cellIds)) {
+                    return false;
+                }
+            }
+            return true;
+        } else if (geometry instanceof BcS2MultiPolygon) {
+            for (final Polygon polygon : (List<Polygon>) geometry.getInner()) {
+                if (!collectCellIds(polygon, cellIds)) {
+                    return false;
+                }
+            }
+            return true;
+        } else if (geometry instanceof BcS2Polygon) {
+            final S2RegionCoverer coverer = new S2RegionCoverer();
+            coverer.setMaxLevel(MAX_LEVEL);
+            coverer.setMaxCells(MAX_CELLS);
+
+            final ArrayList<S2CellId> covering = new ArrayList<>();
+            coverer.getCovering((S2Polygon) geometry.getInner(), covering);
+            cellIds.addAll(covering);
+            return true;
+        }
+
+        return false;
+    }
+}
@@ -65,12 +65,16 @@ public class BcS2GeometryFactory extends AbstractGeometryFactory {
 
     @Override
     public byte[] toStorageFormat(Geometry geometry) {
-        final String wkt = S2WKTWriter.write(geometry.getInner());
-        return wkt.getBytes();
+        return BcS2StorageFormat.encode(geometry);
     }
 
     @Override
     public Geometry fromStorageFormat(byte[] rawData) {
+        if (BcS2StorageFormat.isBinary(rawData)) {
+            return BcS2StorageFormat.decode(rawData, this);
+        }
+
+        // databases written by former versions contain WKT
         final String geometryWkt = new String(rawData);
         return parse(geometryWkt);
     }
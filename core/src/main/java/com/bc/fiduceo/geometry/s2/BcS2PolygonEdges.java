@@ -0,0 +1,258 @@
+/*
+ * Copyright (C) 2017 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+package com.bc.fiduceo.geometry.s2;
+
+import com.bc.fiduceo.geometry.Polygon;
+import com.google.common.geometry.S2Loop;
+import com.google.common.geometry.S2Point;
+import com.google.common.geometry.S2Polygon;
+
+/**
+ * The edges of an S2 polygon, prepared for detecting where a scanline of locations crosses the polygon boundary.
+ * Along a scanline the containment state can only change between two consecutive locations when the great circle
+ * segment connecting them crosses a polygon edge. The crossing test is conservative: close to an edge or a vertex
+ * it reports a possible crossing, so the caller has to evaluate the containment exactly there.
+ * <p>
+ * Instances keep the state of the current scanline and must not be shared between threads.
+ */
+public class BcS2PolygonEdges {
+
+    // tolerance for the side-of-plane tests on unit vectors, well above the rounding error of the coordinates
+    private static final double EPS = 1e-12;
+
+    private final int numEdges;
+    private final double[] startX;
+    private final double[] startY;
+    private final double[] startZ;
+    private final double[] endX;
+    private final double[] endY;
+    private final double[] endZ;
+    private final double[] normalX;
+    private final double[] normalY;
+    private final double[] normalZ;
+    // axis aligned bounds of the edge arcs: minX, maxX, minY, maxY, minZ, maxZ
+    private final double[] bounds;
+
+    private final int[] candidates;
+    private int numCandidates;
+
+    private double[] xs;
+    private double[] ys;
+    private double[] zs;
+    private boolean[] valid;
+    private int numLocations;
+
+    /**
+     * Creates the edges of the polygon.
+     *
+     * @param polygon the polygon
+     * @return the edges, or null if the polygon is not an S2 polygon
+     */
+    public static BcS2PolygonEdges create(Polygon polygon) {
+        if (!(polygon instanceof BcS2Polygon)) {
+            return null;
+        }
+        return new BcS2PolygonEdges((S2Polygon) polygon.getInner());
+    }
+
+    private BcS2PolygonEdges(S2Polygon polygon) {
+        int count = 0;
+        for (int i = 0; i < polygon.numLoops(); i++) {
+            count += polygon.loop(i).numVertices();
+        }
+        numEdges = count;
+
+        startX = new double[numEdges];
+        startY = new double[numEdges];
+        startZ = new double[numEdges];
+        endX = new double[numEdges];
+        endY = new double[numEdges];
+        endZ = new double[numEdges];
+        normalX = new double[numEdges];
+        normalY = new double[numEdges];
+        normalZ = new double[numEdges];
+        bounds = new double[6 * numEdges];
+        candidates = new int[numEdges];
+
+        int edge = 0;
+        for (int i = 0; i < polygon.numLoops(); i++) {
+            final S2Loop loop = polygon.loop(i);
+            final int numVertices = loop.numVertices();
+            for (int k = 0; k < numVertices; k++) {
+                final S2Point start = loop.vertex(k);
+                final S2Point end = loop.vertex((k + 1) % numVertices);
+                initEdge(edge++, start, end);
+            }
+        }
+
+        xs = new double[0];
+        ys = new double[0];
+        zs = new double[0];
+        valid = new boolean[0];
+    }
+
+    public int getNumEdges() {
+        return numEdges;
+    }
+
+    /**
+     * Sets the locations of the scanline to be checked and selects the polygon edges which may be crossed by it.
+     * Locations with NaN coordinates are marked invalid.
+     *
+     * @param lons         the longitudes in degrees
+     * @param lats         the latitudes in degrees
+     * @param numLocations the number of locations to use from the arrays
+     */
+    public void setScanline(double[] lons, double[] lats, int numLocations) {
+        if (xs.length < numLocations) {
+            xs = new double[numLocations];
+            ys = new double[numLocations];
+            zs = new double[numLocations];
+            valid = new boolean[numLocations];
+        }
+        this.numLocations = numLocations;
+
+        double minX = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE;
+        double minY = Double.MAX_VALUE;
+        double maxY = -Double.MAX_VALUE;
+        double minZ = Double.MAX_VALUE;
+        double maxZ = -Double.MAX_VALUE;
+        double maxSagitta = 0.0;
+        int previous = -1;
+        for (int i = 0; i < numLocations; i++) {
+            final double lon = lons[i];
+            final double lat = lats[i];
+            if (Double.isNaN(lon) || Double.isNaN(lat)) {
+                valid[i] = false;
+                continue;
+            }
+
+            final double phi = Math.toRadians(lat);
+            final double theta = Math.toRadians(lon);
+            final double cosPhi = Math.cos(phi);
+            xs[i] = Math.cos(theta) * cosPhi;
+            ys[i] = Math.sin(theta) * cosPhi;
+            zs[i] = Math.sin(phi);
+            valid[i] = true;
+
+            minX = Math.min(minX, xs[i]);
+            maxX = Math.max(maxX, xs[i]);
+            minY = Math.min(minY, ys[i]);
+            maxY = Math.max(maxY, ys[i]);
+            minZ = Math.min(minZ, zs[i]);
+            maxZ = Math.max(maxZ, zs[i]);
+
+            if (previous == i - 1 && previous >= 0) {
+                maxSagitta = Math.max(maxSagitta, getSagittaBound(xs[previous], ys[previous], zs[previous], xs[i], ys[i], zs[i]));
+            }
+            previous = i;
+        }
+
+        final double margin = maxSagitta + EPS;
+        numCandidates = 0;
+        for (int edge = 0; edge < numEdges; edge++) {
+            final int offset = 6 * edge;
+            if (bounds[offset] > maxX + margin || bounds[offset + 1] < minX - margin ||
+                    bounds[offset + 2] > maxY + margin || bounds[offset + 3] < minY - margin ||
+                    bounds[offset + 4] > maxZ + margin || bounds[offset + 5] < minZ - margin) {
+                continue;
+            }
+            candidates[numCandidates++] = edge;
+        }
+    }
+
+    public int getNumCandidates() {
+        return numCandidates;
+    }
+
+    /**
+     * Checks whether the segment between the scanline locations index - 1 and index may cross the polygon boundary.
+     * Returns true when one of the locations is invalid.
+     *
+     * @param index the index of the location, must be greater than 0
+     * @return false if both locations are known to be on the same side of the polygon boundary
+     */
+    public boolean mayCrossBoundary(int index) {
+        if (index <= 0 || index >= numLocations) {
+            throw new IllegalArgumentException("Invalid scanline index: " + index);
+        }
+        final int previous = index - 1;
+        if (!valid[previous] || !valid[index]) {
+            return true;
+        }
+
+        final double ax = xs[previous];
+        final double ay = ys[previous];
+        final double az = zs[previous];
+        final double bx = xs[index];
+        final double by = ys[index];
+        final double bz = zs[index];
+        final double nx = ay * bz - az * by;
+        final double ny = az * bx - ax * bz;
+        final double nz = ax * by - ay * bx;
+
+        for (int i = 0; i < numCandidates; i++) {
+            final int edge = candidates[i];
+            if (areSeparated(nx, ny, nz, startX[edge], startY[edge], startZ[edge], endX[edge], endY[edge], endZ[edge]) &&
+                    areSeparated(normalX[edge], normalY[edge], normalZ[edge], ax, ay, az, bx, by, bz)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // package access for testing only
+    static double getSagittaBound(double ax, double ay, double az, double bx, double by, double bz) {
+        // the arc deviates from its chord by at most 1 - sqrt(1 - c^2 / 4) <= c^2 / 4 for a chord of length c
+        final double dx = bx - ax;
+        final double dy = by - ay;
+        final double dz = bz - az;
+        return 0.25 * (dx * dx + dy * dy + dz * dz);
+    }
+
+    // returns true unless both points are clearly on the same side of the plane with the given normal
+    private static boolean areSeparated(double nx, double ny, double nz, double px, double py, double pz, double qx, double qy, double qz) {
+        final double sideP = nx * px + ny * py + nz * pz;
+        final double sideQ = nx * qx + ny * qy + nz * qz;
+        return !((sideP > EPS && sideQ > EPS) || (sideP < -EPS && sideQ < -EPS));
+    }
+
+    private void initEdge(int edge, S2Point start, S2Point end) {
+        startX[edge] = start.getX();
+        startY[edge] = start.getY();
+        startZ[edge] = start.getZ();
+        endX[edge] = end.getX();
+        endY[edge] = end.getY();
+        endZ[edge] = end.getZ();
+        normalX[edge] = start.getY() * end.getZ() - start.getZ() * end.getY();
+        normalY[edge] = start.getZ() * end.getX() - start.getX() * end.getZ();
+        normalZ[edge] = start.getX() * end.getY() - start.getY() * end.getX();
+
+        final double sagitta = getSagittaBound(start.getX(), start.getY(), start.getZ(), end.getX(), end.getY(), end.getZ());
+        final int offset = 6 * edge;
+        bounds[offset] = Math.min(start.getX(), end.getX()) - sagitta;
+        bounds[offset + 1] = Math.max(start.getX(), end.getX()) + sagitta;
+        bounds[offset + 2] = Math.min(start.getY(), end.getY()) - sagitta;
+        bounds[offset + 3] = Math.max(start.getY(), end.getY()) + sagitta;
+        bounds[offset + 4] = Math.min(start.getZ(), end.getZ()) - sagitta;
+        bounds[offset + 5] = Math.max(start.getZ(), end.getZ()) + sagitta;
+    }
+}
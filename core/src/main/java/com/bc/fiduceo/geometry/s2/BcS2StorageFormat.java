@@ -0,0 +1,216 @@
+/*
+ * Copyright (C) 2017 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+
+package com.bc.fiduceo.geometry.s2;
+
+
+import com.bc.fiduceo.geometry.Geometry;
+import com.bc.fiduceo.geometry.GeometryCollection;
+import com.bc.fiduceo.geometry.Polygon;
+import com.google.common.geometry.S2LatLng;
+import com.google.common.geometry.S2Loop;
+import com.google.common.geometry.S2Point;
+import com.google.common.geometry.S2Polygon;
+import com.google.common.geometry.S2Polyline;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary encoding of the S2 geometries. The vertices are stored as unit sphere coordinates, so decoding
+ * neither parses text nor evaluates trigonometric functions and the geometries are restored bit-identical.
+ * <p>
+ * Layout: marker byte (0), version byte, then per geometry a type byte followed by the type specific data.
+ * Text encodings never start with a zero byte, which allows to tell apart WKT written by former versions.
+ */
+class BcS2StorageFormat {
+
+    static final byte MARKER = 0;
+
+    private static final byte VERSION = 1;
+
+    private static final byte POINT = 1;
+    private static final byte LINE_STRING = 2;
+    private static final byte POLYGON = 3;
+    private static final byte MULTI_POLYGON = 4;
+    private static final byte MULTI_LINE_STRING = 5;
+    private static final byte GEOMETRY_COLLECTION = 6;
+
+    static boolean isBinary(byte[] rawData) {
+        return rawData.length > 0 && rawData[0] == MARKER;
+    }
+
+    static byte[] encode(Geometry geometry) {
+        final ByteArrayOutputStream byteStream = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(byteStream)) {
+            out.writeByte(MARKER);
+            out.writeByte(VERSION);
+            writeGeometry(geometry, out);
+        } catch (IOException e) {
+            throw new RuntimeException("should never come here");
+        }
+        return byteStream.toByteArray();
+    }
+
+    static Geometry decode(byte[] rawData, BcS2GeometryFactory factory) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(rawData))) {
+            if (in.readByte() != MARKER) {
+                throw new RuntimeException("Not a binary S2 geometry");
+            }
+            final byte version = in.readByte();
+            if (version != VERSION) {
+                throw new RuntimeException("Unsupported S2 storage format version: " + version);
+            }
+            return readGeometry(in, factory);
+        } catch (IOException e) {
+            throw new RuntimeException("Corrupt S2 geometry data: " + e.getMessage());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void writeGeometry(Geometry geometry, DataOutputStream out) throws IOException {
+        if (geometry instanceof BcS2Point) {
+            out.writeByte(POINT);
+            final S2LatLng latLng = (S2LatLng) geometry.getInner();
+            out.writeDouble(latLng.latRadians());
+            out.writeDouble(latLng.lngRadians());
+        } else if (geometry instanceof BcS2LineString) {
+            out.writeByte(LINE_STRING);
+            writePolyline((S2Polyline) geometry.getInner(), out);
+        } else if (geometry instanceof BcS2Polygon) {
+            out.writeByte(POLYGON);
+            writePolygon((S2Polygon) geometry.getInner(), out);
+        } else if (geometry instanceof BcS2MultiPolygon) {
+            out.writeByte(MULTI_POLYGON);
+            final List<Polygon> polygons = (List<Polygon>) geometry.getInner();
+            out.writeInt(polygons.size());
+            for (final Polygon polygon : polygons) {
+                writePolygon((S2Polygon) polygon.getInner(), out);
+            }
+        } else if (geometry instanceof BcS2MultiLineString) {
+            out.writeByte(MULTI_LINE_STRING);
+            final List<S2Polyline> polylines = (List<S2Polyline>) geometry.getInner();
+            out.writeInt(polylines.size());
+            for (final S2Polyline polyline : polylines) {
+                writePolyline(polyline, out);
+            }
+        } else if (geometry instanceof GeometryCollection) {
+            out.writeByte(GEOMETRY_COLLECTION);
+            final Geometry[] geometries = ((GeometryCollection) geometry).getGeometries();
+            out.writeInt(geometries.length);
+            for (final Geometry part : geometries) {
+                writeGeometry(part, out);
+            }
+        } else {
+            throw new RuntimeException("Unsupported geometry type: " + geometry.getClass().getName());
+        }
+    }
+
+    private static Geometry readGeometry(DataInputStream in, BcS2GeometryFactory factory) throws IOException {
+        final byte type = in.readByte();
+        switch (type) {
+            case POINT:
+                final double latRadians = in.readDouble();
+                final double lngRadians = in.readDouble();
+                return new BcS2Point(S2LatLng.fromRadians(latRadians, lngRadians));
+            case LINE_STRING:
+                return new BcS2LineString(readPolyline(in));
+            case POLYGON:
+                return new BcS2Polygon(readPolygon(in));
+            case MULTI_POLYGON:
+                final int numPolygons = in.readInt();
+                final List<Polygon> polygons = new ArrayList<>(numPolygons);
+                for (int i = 0; i < numPolygons; i++) {
+                    polygons.add(new BcS2Polygon(readPolygon(in)));
+                }
+                return new BcS2MultiPolygon(polygons);
+            case MULTI_LINE_STRING:
+                final int numPolylines = in.readInt();
+                final List<S2Polyline> polylines = new ArrayList<>(numPolylines);
+                for (int i = 0; i < numPolylines; i++) {
+                    polylines.add(readPolyline(in));
+                }
+                return new BcS2MultiLineString(polylines);
+            case GEOMETRY_COLLECTION:
+                final int numGeometries = in.readInt();
+                final Geometry[] geometries = new Geometry[numGeometries];
+                for (int i = 0; i < numGeometries; i++) {
+                    geometries[i] = readGeometry(in, factory);
+                }
+                return factory.createGeometryCollection(geometries);
+            default:
+                throw new RuntimeException("Unsupported geometry type id: " + type);
+        }
+    }
+
+    private static void writePolygon(S2Polygon polygon, DataOutputStream out) throws IOException {
+        final int numLoops = polygon.numLoops();
+        out.writeInt(numLoops);
+        for (int i = 0; i < numLoops; i++) {
+            final S2Loop loop = polygon.loop(i);
+            final int numVertices = loop.numVertices();
+            out.writeInt(numVertices);
+            for (int k = 0; k < numVertices; k++) {
+                writePoint(loop.vertex(k), out);
+            }
+        }
+    }
+
+    private static S2Polygon readPolygon(DataInputStream in) throws IOException {
+        final int numLoops = in.readInt();
+        final List<S2Loop> loops = new ArrayList<>(numLoops);
+        for (int i = 0; i < numLoops; i++) {
+            loops.add(new S2Loop(readPoints(in)));
+        }
+        return new S2Polygon(loops);
+    }
+
+    private static void writePolyline(S2Polyline polyline, DataOutputStream out) throws IOException {
+        final int numVertices = polyline.numVertices();
+        out.writeInt(numVertices);
+        for (int i = 0; i < numVertices; i++) {
+            writePoint(polyline.vertex(i), out);
+        }
+    }
+
+    private static S2Polyline readPolyline(DataInputStream in) throws IOException {
+        return new S2Polyline(readPoints(in));
+    }
+
+    private static void writePoint(S2Point point, DataOutputStream out) throws IOException {
+        out.writeDouble(point.getX());
+        out.writeDouble(point.getY());
+        out.writeDouble(point.getZ());
+    }
+
+    private static List<S2Point> readPoints(DataInputStream in) throws IOException {
+        final int numVertices = in.readInt();
+        final List<S2Point> points = new ArrayList<>(numVertices);
+        for (int i = 0; i < numVertices; i++) {
+            points.add(new S2Point(in.readDouble(), in.readDouble(), in.readDouble()));
+        }
+        return points;
+    }
+}
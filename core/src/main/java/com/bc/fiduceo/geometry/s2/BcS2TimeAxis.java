@@ -25,7 +25,6 @@ import com.bc.fiduceo.math.TimeInterval;
 import com.bc.fiduceo.util.TimeUtils;
 import com.google.common.geometry.*;
 
-import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
@@ -33,6 +32,7 @@ class BcS2TimeAxis implements TimeAxis {
 
     private final S2Polyline polyline;
     private LineString originalGeometry;
+    private final double[] vertexArcLengths;
     private final double invLength;
     private final Date startTime;
     private final long timeInterval;
@@ -41,8 +41,8 @@ class BcS2TimeAxis implements TimeAxis {
         originalGeometry = lineString;
         this.polyline = (S2Polyline) lineString.getInner();
 
-        final S1Angle arclengthAngle = polyline.getArclengthAngle();
-        this.invLength = 1.0 / arclengthAngle.radians();
+        vertexArcLengths = calculateVertexArcLengths(polyline);
+        this.invLength = 1.0 / vertexArcLengths[vertexArcLengths.length - 1];
 
         this.startTime = startTime;
         this.timeInterval = endTime.getTime() - startTime.getTime();
@@ -93,7 +93,7 @@ class BcS2TimeAxis implements TimeAxis {
             return null;
         }
 
-        final long offsetTime = calculateLineDuration(searchPoint);
+        final long offsetTime = calculateLineDuration(searchPoint, nearestEdgeIndex);
         final long startMillis = startTime.getTime() + offsetTime;
 
         if (offsetTime > timeInterval) {
@@ -123,28 +123,28 @@ class BcS2TimeAxis implements TimeAxis {
         return originalGeometry;
     }
 
-    // package access for testing only tb 2015-11-20
-    S2Polyline createSubLineTo(S2Point intersectionStartPoint) {
-        final List<S2Point> vertices = new ArrayList<>();
-
-        final int nearestEdgeIndex = polyline.getNearestEdgeIndex(intersectionStartPoint);
-        final S2Point projectedIntersection = polyline.projectToEdge(intersectionStartPoint, nearestEdgeIndex);
-        if (nearestEdgeIndex == 0) {
-            vertices.add(polyline.vertex(0));
-            vertices.add(projectedIntersection);
-        } else {
-            for (int i = 0; i <= nearestEdgeIndex; i++) {
-                vertices.add(polyline.vertex(i));
-            }
-            vertices.add(projectedIntersection);
+    // package access for testing only
+    static double[] calculateVertexArcLengths(S2Polyline polyline) {
+        final int numVertices = polyline.numVertices();
+        final double[] arcLengths = new double[numVertices];
+        // summed in the same order as S2Polyline.getArclengthAngle() to get identical results
+        double lengthSum = 0.0;
+        for (int i = 1; i < numVertices; i++) {
+            lengthSum += polyline.vertex(i - 1).angle(polyline.vertex(i));
+            arcLengths[i] = lengthSum;
         }
+        return arcLengths;
+    }
 
-        return new S2Polyline(vertices);
+    private long calculateLineDuration(S2Point point) {
+        final int nearestEdgeIndex = polyline.getNearestEdgeIndex(point);
+        return calculateLineDuration(point, nearestEdgeIndex);
     }
 
-    private long calculateLineDuration(S2Point intersectionStartPoint) {
-        final S2Polyline offsetGeometry = createSubLineTo(intersectionStartPoint);
-        final S1Angle offsetAngle = offsetGeometry.getArclengthAngle();
-        return (long) (timeInterval * offsetAngle.radians() * invLength);
+    // the arc length to the start of the nearest edge is precomputed, only the part on the edge has to be measured
+    private long calculateLineDuration(S2Point point, int nearestEdgeIndex) {
+        final S2Point projectedPoint = polyline.projectToEdge(point, nearestEdgeIndex);
+        final double offsetLength = vertexArcLengths[nearestEdgeIndex] + polyline.vertex(nearestEdgeIndex).angle(projectedPoint);
+        return (long) (timeInterval * offsetLength * invLength);
     }
 }
@@ -48,4 +48,30 @@ class ClippingPixelLocator implements PixelLocator {
         }
         return points.toArray(new Point2D[points.size()]);
     }
+
+    @Override
+    public int getPixelLocation(double lon, double lat, double[] x, double[] y) {
+        final int numFound = pixelLocator.getPixelLocation(lon, lat, x, y);
+        if (numFound > x.length) {
+            // rare, the unclipped locations do not fit into the buffers
+            final Point2D[] locations = getPixelLocation(lon, lat);
+            final int numWritten = Math.min(locations.length, x.length);
+            for (int i = 0; i < numWritten; i++) {
+                x[i] = locations[i].getX();
+                y[i] = locations[i].getY();
+            }
+            return locations.length;
+        }
+
+        int numLocations = 0;
+        for (int i = 0; i < numFound; i++) {
+            final int yInt = (int) Math.floor(y[i]);
+            if (yInt >= minY && yInt <= maxY) {
+                x[numLocations] = x[i];
+                y[numLocations] = y[i];
+                ++numLocations;
+            }
+        }
+        return numLocations;
+    }
 }
@@ -0,0 +1,282 @@
+/*
+ * Copyright (C) 2017 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+
+package com.bc.fiduceo.location;
+
+
+import com.bc.fiduceo.core.SystemConfig;
+import ucar.ma2.Array;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.CRC32;
+
+/**
+ * Persistent cache of the geolocation grids of product files, shared by all tools and tool runs. Each product
+ * is stored in a sidecar file in the cache directory. Entries are keyed by the product path and carry a
+ * fingerprint of the product (size, modification time and a checksum over the head and the tail of the file);
+ * entries not matching the product on disk are ignored and can be removed using purge().
+ * <p>
+ * Only the grids are cached, the swath pixel locator still fits its geo approximations each time it is created.
+ */
+public class GeolocationCache {
+
+    private static final int MAGIC = 0x46474c43;
+    private static final int VERSION = 1;
+    private static final String EXTENSION = ".geoloc";
+    private static final int CHECKSUM_BLOCK_SIZE = 64 * 1024;
+    private static final int IO_BUFFER_SIZE = 64 * 1024;
+
+    private final File cacheDir;
+
+    public GeolocationCache(File cacheDir) {
+        if (!cacheDir.isDirectory() && !cacheDir.mkdirs()) {
+            throw new RuntimeException("Unable to create geolocation cache directory: " + cacheDir.getAbsolutePath());
+        }
+        this.cacheDir = cacheDir;
+    }
+
+    /**
+     * Creates the geolocation cache configured in the system configuration.
+     *
+     * @param systemConfig the system configuration
+     * @return the cache, or null if no cache directory is configured
+     */
+    public static GeolocationCache create(SystemConfig systemConfig) {
+        final String cacheDirPath = systemConfig.getGeolocationCacheDir();
+        if (cacheDirPath == null || cacheDirPath.isEmpty()) {
+            return null;
+        }
+        return new GeolocationCache(new File(cacheDirPath));
+    }
+
+    /**
+     * Retrieves the geolocation grids of the product.
+     *
+     * @param productFile the product file
+     * @return the longitude and latitude arrays, or null if the product is not cached or has changed
+     * @throws IOException on disk access errors
+     */
+    public Array[] get(File productFile) throws IOException {
+        final File cacheFile = getCacheFile(productFile);
+        if (!cacheFile.isFile() || !productFile.isFile()) {
+            return null;
+        }
+
+        try (DataInputStream in = open(cacheFile)) {
+            final Header header = Header.read(in, cacheFile.length());
+            if (header == null || !header.matches(productFile)) {
+                return null;
+            }
+
+            final int numPixels = header.width * header.height;
+            final float[] longitudes = readFloats(in, numPixels);
+            final float[] latitudes = readFloats(in, numPixels);
+
+            final int[] shape = {header.height, header.width};
+            return new Array[]{Array.factory(float.class, shape, longitudes), Array.factory(float.class, shape, latitudes)};
+        }
+    }
+
+    /**
+     * Stores the geolocation grids of the product, replacing a previous entry.
+     *
+     * @param productFile the product file
+     * @param longitudes  the longitudes, shape [height][width]
+     * @param latitudes   the latitudes, shape [height][width]
+     * @throws IOException on disk access errors
+     */
+    public void put(File productFile, Array longitudes, Array latitudes) throws IOException {
+        final int[] shape = longitudes.getShape();
+        final Header header = Header.create(productFile, shape[1], shape[0]);
+
+        final float[] lonData = (float[]) longitudes.get1DJavaArray(float.class);
+        final float[] latData = (float[]) latitudes.get1DJavaArray(float.class);
+
+        // other tool instances may read the cache concurrently - the entry becomes visible when complete
+        final File tempFile = File.createTempFile("geoloc", ".tmp", cacheDir);
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile), IO_BUFFER_SIZE))) {
+                header.write(out);
+                for (final float lon : lonData) {
+                    out.writeFloat(lon);
+                }
+                for (final float lat : latData) {
+                    out.writeFloat(lat);
+                }
+            }
+            Files.move(tempFile.toPath(), getCacheFile(productFile).toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile.toPath());
+        }
+    }
+
+    /**
+     * Removes all entries whose product file has been changed or deleted, and unreadable entries.
+     *
+     * @return the number of entries removed
+     * @throws IOException on disk access errors
+     */
+    public int purge() throws IOException {
+        final File[] cacheFiles = cacheDir.listFiles((dir, name) -> name.endsWith(EXTENSION));
+        if (cacheFiles == null) {
+            return 0;
+        }
+
+        int numRemoved = 0;
+        for (final File cacheFile : cacheFiles) {
+            final Header header;
+            try (DataInputStream in = open(cacheFile)) {
+                header = Header.read(in, cacheFile.length());
+            }
+            if (header == null || !header.matches(new File(header.productPath))) {
+                Files.deleteIfExists(cacheFile.toPath());
+                ++numRemoved;
+            }
+        }
+        return numRemoved;
+    }
+
+    // package access for testing only
+    File getCacheFile(File productFile) {
+        final String productPath = productFile.getAbsolutePath();
+        final CRC32 crc32 = new CRC32();
+        crc32.update(productPath.getBytes(StandardCharsets.UTF_8));
+        return new File(cacheDir, productFile.getName() + "-" + Long.toHexString(crc32.getValue()) + EXTENSION);
+    }
+
+    // package access for testing only
+    static long calculateChecksum(File file) throws IOException {
+        final CRC32 crc32 = new CRC32();
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r")) {
+            final long length = randomAccessFile.length();
+            final byte[] block = new byte[(int) Math.min(CHECKSUM_BLOCK_SIZE, length)];
+            randomAccessFile.readFully(block);
+            crc32.update(block);
+
+            if (length > CHECKSUM_BLOCK_SIZE) {
+                randomAccessFile.seek(Math.max(CHECKSUM_BLOCK_SIZE, length - CHECKSUM_BLOCK_SIZE));
+                final int tailLength = (int) (length - randomAccessFile.getFilePointer());
+                randomAccessFile.readFully(block, 0, tailLength);
+                crc32.update(block, 0, tailLength);
+            }
+        }
+        return crc32.getValue();
+    }
+
+    private static DataInputStream open(File cacheFile) throws IOException {
+        return new DataInputStream(new BufferedInputStream(new FileInputStream(cacheFile), IO_BUFFER_SIZE));
+    }
+
+    // converts block-wise, so no byte array of the size of the grid is needed
+    private static float[] readFloats(DataInputStream in, int numValues) throws IOException {
+        final float[] values = new float[numValues];
+        final FloatBuffer target = FloatBuffer.wrap(values);
+        final byte[] block = new byte[IO_BUFFER_SIZE];
+        while (target.hasRemaining()) {
+            final int numBytes = Math.min(block.length, 4 * target.remaining());
+            in.readFully(block, 0, numBytes);
+            target.put(ByteBuffer.wrap(block, 0, numBytes).asFloatBuffer());
+        }
+        return values;
+    }
+
+    private static class Header {
+
+        private final String productPath;
+        private final long productSize;
+        private final long productLastModified;
+        private final long productChecksum;
+        private final int width;
+        private final int height;
+
+        private Header(String productPath, long productSize, long productLastModified, long productChecksum, int width, int height) {
+            this.productPath = productPath;
+            this.productSize = productSize;
+            this.productLastModified = productLastModified;
+            this.productChecksum = productChecksum;
+            this.width = width;
+            this.height = height;
+        }
+
+        static Header create(File productFile, int width, int height) throws IOException {
+            return new Header(productFile.getAbsolutePath(), productFile.length(), productFile.lastModified(),
+                              calculateChecksum(productFile), width, height);
+        }
+
+        // returns null for files not written by this version, leaves the stream positioned at the grid data
+        static Header read(DataInputStream in, long fileLength) throws IOException {
+            if (fileLength < 10 || in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return null;
+            }
+
+            final byte[] pathBytes = new byte[in.readUnsignedShort()];
+            final long headerLength = 42L + pathBytes.length;
+            if (fileLength < headerLength) {
+                return null;
+            }
+            in.readFully(pathBytes);
+            final String productPath = new String(pathBytes, StandardCharsets.UTF_8);
+            final long productSize = in.readLong();
+            final long productLastModified = in.readLong();
+            final long productChecksum = in.readLong();
+            final int width = in.readInt();
+            final int height = in.readInt();
+
+            if (fileLength - headerLength != 8L * width * height) {
+                return null;
+            }
+            return new Header(productPath, productSize, productLastModified, productChecksum, width, height);
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            final byte[] pathBytes = productPath.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeShort(pathBytes.length);
+            out.write(pathBytes);
+            out.writeLong(productSize);
+            out.writeLong(productLastModified);
+            out.writeLong(productChecksum);
+            out.writeInt(width);
+            out.writeInt(height);
+        }
+
+        boolean matches(File productFile) throws IOException {
+            return productFile.isFile()
+                    && productPath.equals(productFile.getAbsolutePath())
+                    && productSize == productFile.length()
+                    && productLastModified == productFile.lastModified()
+                    && productChecksum == calculateChecksum(productFile);
+        }
+    }
+}
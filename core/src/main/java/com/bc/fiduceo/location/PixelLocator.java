@@ -46,4 +46,27 @@ public interface PixelLocator {
      * @return an array of points if one or two pixel locations was found, {@code null} otherwise.
      */
     Point2D[] getPixelLocation(double lon, double lat);
+
+    /**
+     * Variant of {@link #getPixelLocation(double, double)} for loops over many geo-locations. The pixel locations
+     * are written to the caller supplied buffers, no result objects are allocated.
+     *
+     * @param lon The pixel longitude [-180.0, 180.0].
+     * @param lat The pixel latitude [-90.0, 90.0].
+     * @param x   receives the x pixel locations, at most x.length values are written
+     * @param y   receives the y pixel locations, at least as long as x
+     * @return the number of pixel locations found, if larger than the buffer length the surplus locations are dropped
+     */
+    default int getPixelLocation(double lon, double lat, double[] x, double[] y) {
+        final Point2D[] locations = getPixelLocation(lon, lat);
+        if (locations == null) {
+            return 0;
+        }
+        final int numWritten = Math.min(locations.length, x.length);
+        for (int i = 0; i < numWritten; i++) {
+            x[i] = locations[i].getX();
+            y[i] = locations[i].getY();
+        }
+        return locations.length;
+    }
 }
@@ -22,13 +22,28 @@ package com.bc.fiduceo.location;
 
 import com.bc.fiduceo.geometry.Point;
 import com.bc.fiduceo.geometry.Polygon;
+import com.bc.fiduceo.metrics.MetricsRegistry;
+import com.bc.fiduceo.metrics.Timer;
 import org.esa.snap.core.util.math.CosineDistance;
 import ucar.ma2.Array;
 
 import java.awt.geom.Point2D;
+import java.io.File;
+import java.io.IOException;
 
 public class PixelLocatorFactory {
 
+    private static GeolocationCache geolocationCache;
+
+    /**
+     * Sets the cache used for the geolocation grids of swath products, pass null to disable caching.
+     *
+     * @param cache the cache
+     */
+    public static synchronized void setGeolocationCache(GeolocationCache cache) {
+        geolocationCache = cache;
+    }
+
     public static PixelLocator getClippingPixelLocator(PixelLocator pixelLocator, int minY, int maxY) {
         return new ClippingPixelLocator(pixelLocator, minY, maxY);
     }
@@ -37,6 +52,37 @@ public class PixelLocatorFactory {
         return new SwathPixelLocator(longitudes, latitudes, width, height);
     }
 
+    /**
+     * Creates a swath pixel locator for the product file. The geolocation grids are taken from the geolocation
+     * cache if configured and up to date, otherwise they are retrieved from the provider and added to the cache.
+     *
+     * @param productFile the product file
+     * @param provider    supplies the longitude and latitude arrays (shape [height][width], type float) on a cache miss
+     * @return the pixel locator
+     * @throws IOException on disk access errors
+     */
+    public static PixelLocator getSwathPixelLocator(File productFile, GeolocationProvider provider) throws IOException {
+        final MetricsRegistry metrics = MetricsRegistry.get();
+        try (Timer.Context ignored = metrics.timer("locator.build").start()) {
+            final GeolocationCache cache = getGeolocationCache();
+            Array[] geolocation = null;
+            if (cache != null) {
+                geolocation = cache.get(productFile);
+                metrics.counter(geolocation != null ? "locator.geolocation-cache.hits" : "locator.geolocation-cache.misses").increment();
+            }
+
+            if (geolocation == null) {
+                geolocation = new Array[]{provider.getLongitudes(), provider.getLatitudes()};
+                if (cache != null) {
+                    cache.put(productFile, geolocation[0], geolocation[1]);
+                }
+            }
+
+            final int[] shape = geolocation[0].getShape();
+            return getSwathPixelLocator(geolocation[0], geolocation[1], shape[1], shape[0]);
+        }
+    }
+
     public static PixelLocator getSubScenePixelLocator(Polygon subSceneGeometry, int width, int height, int subsetHeight, PixelLocator pixelLocator) {
         final Point centroid = subSceneGeometry.getCentroid();
         final double cLon = centroid.getLon();
@@ -68,4 +114,15 @@ public class PixelLocatorFactory {
         }
         return getClippingPixelLocator(pixelLocator, minY, maxY);
     }
+
+    private static synchronized GeolocationCache getGeolocationCache() {
+        return geolocationCache;
+    }
+
+    public interface GeolocationProvider {
+
+        Array getLongitudes() throws IOException;
+
+        Array getLatitudes() throws IOException;
+    }
 }
@@ -3,10 +3,18 @@ package com.bc.fiduceo.location;
 import org.esa.snap.core.datamodel.SnapAvoidCodeDuplicationClass_SwathPixelLocator;
 import ucar.ma2.Array;
 
+import java.awt.geom.Point2D;
+
 
 class SwathPixelLocator extends SnapAvoidCodeDuplicationClass_SwathPixelLocator {
 
     SwathPixelLocator(Array lonArray, Array latArray, int width, int height) {
         super(lonArray, latArray, width, height);
     }
+
+    // overridden to open the method to the tests of this package
+    @Override
+    protected Point2D[] getPixelLocationExhaustive(double lon, double lat) {
+        return super.getPixelLocationExhaustive(lon, lat);
+    }
 }
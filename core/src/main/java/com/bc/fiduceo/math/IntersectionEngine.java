@@ -27,6 +27,8 @@ import com.bc.fiduceo.geometry.Geometry;
 import com.bc.fiduceo.geometry.GeometryCollection;
 import com.bc.fiduceo.geometry.Point;
 import com.bc.fiduceo.geometry.TimeAxis;
+import com.bc.fiduceo.metrics.MetricsRegistry;
+import com.bc.fiduceo.metrics.Timer;
 
 import java.util.ArrayList;
 import java.util.Date;
@@ -35,6 +37,12 @@ import java.util.List;
 public class IntersectionEngine {
 
     public static Intersection[] getIntersectingIntervals(SatelliteObservation primaryObservation, SatelliteObservation secondaryObservation) {
+        try (Timer.Context ignored = MetricsRegistry.get().timer("intersection").start()) {
+            return calculateIntersectingIntervals(primaryObservation, secondaryObservation);
+        }
+    }
+
+    private static Intersection[] calculateIntersectingIntervals(SatelliteObservation primaryObservation, SatelliteObservation secondaryObservation) {
         final Geometry[] primaryGeometries = getGeometryArray(primaryObservation);
         final Geometry[] secondaryGeometries = getGeometryArray(secondaryObservation);
 
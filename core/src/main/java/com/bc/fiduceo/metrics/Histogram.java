@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2016 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+
+package com.bc.fiduceo.metrics;
+
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread safe distribution of non-negative values, e.g. the number of samples per matchup set. The values are
+ * counted in power of two buckets, so the quantiles are approximate: the upper bound of the bucket containing
+ * the quantile is reported, capped at the maximum value recorded.
+ */
+public class Histogram {
+
+    private static final int NUM_BUCKETS = 64;
+
+    private final AtomicLongArray buckets;
+    private final LongAdder count;
+    private final LongAdder sum;
+    private final LongAccumulator min;
+    private final LongAccumulator max;
+
+    Histogram() {
+        buckets = new AtomicLongArray(NUM_BUCKETS);
+        count = new LongAdder();
+        sum = new LongAdder();
+        min = new LongAccumulator(Math::min, Long.MAX_VALUE);
+        max = new LongAccumulator(Math::max, 0L);
+    }
+
+    public void record(long value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Negative value: " + value);
+        }
+        buckets.incrementAndGet(getBucketIndex(value));
+        count.increment();
+        sum.add(value);
+        min.accumulate(value);
+        max.accumulate(value);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getSum() {
+        return sum.sum();
+    }
+
+    public long getMin() {
+        return getCount() == 0 ? 0 : min.get();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public double getMean() {
+        final long numValues = getCount();
+        return numValues == 0 ? 0.0 : (double) getSum() / numValues;
+    }
+
+    /**
+     * @param quantile the quantile, [0, 1]
+     * @return the approximate value below or equal to which the fraction quantile of the values lies
+     */
+    public long getQuantile(double quantile) {
+        final long numValues = getCount();
+        if (numValues == 0) {
+            return 0;
+        }
+
+        final long rank = Math.max(1, (long) Math.ceil(quantile * numValues));
+        long numBelow = 0;
+        for (int i = 0; i < NUM_BUCKETS; i++) {
+            numBelow += buckets.get(i);
+            if (numBelow >= rank) {
+                return Math.min(getBucketUpperBound(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    // package access for testing only
+    static int getBucketIndex(long value) {
+        return Math.min(NUM_BUCKETS - 1, 64 - Long.numberOfLeadingZeros(value));
+    }
+
+    // bucket 0 holds the value 0, bucket i the values [2^(i-1), 2^i - 1]
+    private static long getBucketUpperBound(int index) {
+        if (index >= 63) {
+            return Long.MAX_VALUE;
+        }
+        return (1L << index) - 1;
+    }
+}
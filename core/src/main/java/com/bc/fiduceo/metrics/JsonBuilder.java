@@ -0,0 +1,165 @@
+/*
+ * Copyright (C) 2016 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+
+package com.bc.fiduceo.metrics;
+
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Locale;
+
+/**
+ * Minimal writer for indented JSON text, just sufficient for the run reports.
+ */
+class JsonBuilder {
+
+    private final StringBuilder builder;
+    private final Deque<Boolean> firstInScope;
+    private boolean afterName;
+
+    JsonBuilder() {
+        builder = new StringBuilder();
+        firstInScope = new ArrayDeque<>();
+    }
+
+    JsonBuilder beginObject() {
+        return open('{');
+    }
+
+    JsonBuilder endObject() {
+        return close('}');
+    }
+
+    JsonBuilder beginArray() {
+        return open('[');
+    }
+
+    JsonBuilder endArray() {
+        return close(']');
+    }
+
+    JsonBuilder name(String name) {
+        startElement();
+        appendString(name);
+        builder.append(": ");
+        afterName = true;
+        return this;
+    }
+
+    JsonBuilder value(String value) {
+        startElement();
+        if (value == null) {
+            builder.append("null");
+        } else {
+            appendString(value);
+        }
+        return this;
+    }
+
+    JsonBuilder value(long value) {
+        startElement();
+        builder.append(value);
+        return this;
+    }
+
+    JsonBuilder value(double value) {
+        startElement();
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            builder.append("null");
+        } else {
+            builder.append(String.format(Locale.ROOT, "%.3f", value));
+        }
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return builder.toString();
+    }
+
+    private JsonBuilder open(char bracket) {
+        startElement();
+        builder.append(bracket);
+        firstInScope.push(true);
+        return this;
+    }
+
+    private JsonBuilder close(char bracket) {
+        final boolean empty = firstInScope.pop();
+        if (!empty) {
+            newLine();
+        }
+        builder.append(bracket);
+        return this;
+    }
+
+    private void startElement() {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        if (firstInScope.isEmpty()) {
+            return;
+        }
+        if (!firstInScope.pop()) {
+            builder.append(',');
+        }
+        firstInScope.push(false);
+        newLine();
+    }
+
+    private void newLine() {
+        builder.append('\n');
+        for (int i = 0; i < firstInScope.size(); i++) {
+            builder.append("  ");
+        }
+    }
+
+    private void appendString(String value) {
+        builder.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    builder.append("\\\"");
+                    break;
+                case '\\':
+                    builder.append("\\\\");
+                    break;
+                case '\n':
+                    builder.append("\\n");
+                    break;
+                case '\r':
+                    builder.append("\\r");
+                    break;
+                case '\t':
+                    builder.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        builder.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        builder.append(c);
+                    }
+            }
+        }
+        builder.append('"');
+    }
+}
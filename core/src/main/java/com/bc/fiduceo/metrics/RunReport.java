@@ -0,0 +1,247 @@
+/*
+ * Copyright (C) 2016 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+
+package com.bc.fiduceo.metrics;
+
+
+import com.bc.fiduceo.log.FiduceoLogger;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static com.bc.fiduceo.FiduceoConstants.VERSION_NUMBER;
+
+/**
+ * Machine readable JSON report of a tool run: tool, version, arguments, status, timing, heap usage and the
+ * metrics of the registry. The report is written when the run finishes and, optionally, periodically while
+ * the tool is running. The file is replaced atomically, so it can be read at any time.
+ */
+public class RunReport {
+
+    static final String STATUS_RUNNING = "running";
+    static final String STATUS_SUCCEEDED = "succeeded";
+    static final String STATUS_FAILED = "failed";
+
+    private final String toolName;
+    private final String[] arguments;
+    private final File reportFile;
+    private final MetricsRegistry registry;
+    private final long startTime;
+
+    private ScheduledExecutorService snapshotExecutor;
+
+    /**
+     * @param toolName   the name of the tool
+     * @param arguments  the command line arguments
+     * @param reportFile the file to write, no report is written when null
+     * @param registry   the metrics to report
+     */
+    public RunReport(String toolName, String[] arguments, File reportFile, MetricsRegistry registry) {
+        this.toolName = toolName;
+        this.arguments = arguments.clone();
+        this.reportFile = reportFile;
+        this.registry = registry;
+        startTime = System.currentTimeMillis();
+    }
+
+    /**
+     * Creates the run report of a tool, reporting the shared metrics registry.
+     *
+     * @param toolName        the name of the tool
+     * @param arguments       the command line arguments
+     * @param reportPath      the path of the report file, no report is written when null
+     * @param intervalSeconds the interval for writing snapshots while running, in seconds; may be null
+     * @return the report
+     */
+    public static RunReport create(String toolName, String[] arguments, String reportPath, String intervalSeconds) {
+        if (reportPath == null) {
+            if (intervalSeconds != null) {
+                throw new RuntimeException("The report interval requires a report file");
+            }
+            return new RunReport(toolName, arguments, null, MetricsRegistry.get());
+        }
+
+        final RunReport runReport = new RunReport(toolName, arguments, new File(reportPath), MetricsRegistry.get());
+        if (intervalSeconds != null) {
+            runReport.startSnapshots(parseInterval(intervalSeconds));
+        }
+        return runReport;
+    }
+
+    /**
+     * Starts writing the report periodically with status "running".
+     *
+     * @param intervalSeconds the interval in seconds
+     */
+    public synchronized void startSnapshots(long intervalSeconds) {
+        if (reportFile == null || snapshotExecutor != null) {
+            return;
+        }
+
+        snapshotExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "run-report");
+            thread.setDaemon(true);
+            return thread;
+        });
+        snapshotExecutor.scheduleAtFixedRate(() -> writeSafe(STATUS_RUNNING), intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stops the snapshots and writes the final report. Failures to write the report are logged, they do not
+     * affect the tool run.
+     *
+     * @param succeeded whether the tool run completed successfully
+     */
+    public void finish(boolean succeeded) {
+        synchronized (this) {
+            if (snapshotExecutor != null) {
+                snapshotExecutor.shutdownNow();
+                try {
+                    snapshotExecutor.awaitTermination(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                snapshotExecutor = null;
+            }
+        }
+
+        writeSafe(succeeded ? STATUS_SUCCEEDED : STATUS_FAILED);
+    }
+
+    // package access for testing only
+    String toJson(String status, long currentTime) {
+        final JsonBuilder json = new JsonBuilder();
+        json.beginObject();
+        json.name("tool").value(toolName);
+        json.name("version").value(VERSION_NUMBER);
+        json.name("status").value(status);
+        json.name("arguments").beginArray();
+        for (final String argument : arguments) {
+            json.value(argument);
+        }
+        json.endArray();
+        json.name("start_time").value(formatTime(startTime));
+        json.name("report_time").value(formatTime(currentTime));
+        json.name("duration_ms").value(currentTime - startTime);
+
+        final Runtime runtime = Runtime.getRuntime();
+        json.name("heap_used_bytes").value(runtime.totalMemory() - runtime.freeMemory());
+        json.name("heap_max_bytes").value(runtime.maxMemory());
+
+        json.name("counters").beginObject();
+        for (final Map.Entry<String, Counter> entry : registry.getCounters().entrySet()) {
+            json.name(entry.getKey()).value(entry.getValue().getCount());
+        }
+        json.endObject();
+
+        json.name("timers").beginObject();
+        for (final Map.Entry<String, Timer> entry : registry.getTimers().entrySet()) {
+            final Timer timer = entry.getValue();
+            final long count = timer.getCount();
+            final double totalMillis = timer.getTotalNanos() * 1e-6;
+            json.name(entry.getKey()).beginObject();
+            json.name("count").value(count);
+            json.name("total_ms").value(totalMillis);
+            json.name("mean_ms").value(count == 0 ? 0.0 : totalMillis / count);
+            json.name("max_ms").value(timer.getMaxNanos() * 1e-6);
+            json.endObject();
+        }
+        json.endObject();
+
+        json.name("histograms").beginObject();
+        for (final Map.Entry<String, Histogram> entry : registry.getHistograms().entrySet()) {
+            final Histogram histogram = entry.getValue();
+            json.name(entry.getKey()).beginObject();
+            json.name("count").value(histogram.getCount());
+            json.name("sum").value(histogram.getSum());
+            json.name("min").value(histogram.getMin());
+            json.name("max").value(histogram.getMax());
+            json.name("mean").value(histogram.getMean());
+            json.name("p50").value(histogram.getQuantile(0.5));
+            json.name("p90").value(histogram.getQuantile(0.9));
+            json.name("p99").value(histogram.getQuantile(0.99));
+            json.endObject();
+        }
+        json.endObject();
+
+        json.endObject();
+        return json.toString();
+    }
+
+    // package access for testing only
+    static long parseInterval(String intervalSeconds) {
+        final long interval;
+        try {
+            interval = Long.parseLong(intervalSeconds.trim());
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Invalid report interval: " + intervalSeconds);
+        }
+        if (interval <= 0) {
+            throw new RuntimeException("Invalid report interval: " + intervalSeconds);
+        }
+        return interval;
+    }
+
+    private void writeSafe(String status) {
+        if (reportFile == null) {
+            return;
+        }
+        try {
+            write(status);
+        } catch (IOException e) {
+            FiduceoLogger.getLogger().warning("Unable to write run report '" + reportFile.getAbsolutePath() + "': " + e.getMessage());
+        }
+    }
+
+    // synchronized, a snapshot still running when the tool finishes must not replace the final report
+    private synchronized void write(String status) throws IOException {
+        final String json = toJson(status, System.currentTimeMillis());
+
+        final File targetFile = reportFile.getAbsoluteFile();
+        final File tempFile = File.createTempFile("run-report", ".tmp", targetFile.getParentFile());
+        try {
+            try (Writer writer = new OutputStreamWriter(Files.newOutputStream(tempFile.toPath()), StandardCharsets.UTF_8)) {
+                writer.write(json);
+            }
+            Files.move(tempFile.toPath(), targetFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile.toPath());
+        }
+    }
+
+    private static String formatTime(long time) {
+        final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", Locale.ENGLISH);
+        dateFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return dateFormat.format(new Date(time));
+    }
+}
@@ -17,11 +17,12 @@
  * with this program; if not, see http://www.gnu.org/licenses/
  *
  */
-
 package com.bc.fiduceo.reader;
 
+import com.bc.fiduceo.core.Interval;
 import org.esa.snap.core.util.StringUtils;
 import ucar.ma2.Array;
+import ucar.ma2.InvalidRangeException;
 import ucar.ma2.MAMath;
 import ucar.nc2.Attribute;
 import ucar.nc2.Group;
@@ -33,120 +34,181 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+/**
+ * Provides the data of the variables of a product file. Complete variables and the row chunks read for pixel
+ * windows are kept in a least recently used store shared by all array caches, bounded by a global memory budget
+ * (see setMaxCacheSize()). Evicted data is read again on the next request.
+ */
 public class ArrayCache {
 
+    private static final long DEFAULT_MAX_CACHE_SIZE = 512L * 1024L * 1024L;
+    private static final int CHUNK_SIZE_BYTES = 256 * 1024;
+    private static final int WHOLE_VARIABLE = -1;
+    private static final String SCALED_SUFFIX = "#scaled";
+
+    private static final ChunkCache chunkCache = new ChunkCache(DEFAULT_MAX_CACHE_SIZE);
+
     private final NetcdfFile netcdfFile;
-    private final HashMap<String, ArrayContainer> cache;
-    private final HashMap<String, ArrayContainer> scaledCache;
+    private final HashMap<String, VariableContainer> containers;
     private final HashMap<String, Variable> injectedVariables;
 
     public ArrayCache(NetcdfFile netcdfFile) {
         this.netcdfFile = netcdfFile;
 
-        cache = new HashMap<>();
-        scaledCache = new HashMap<>();
+        containers = new HashMap<>();
         injectedVariables = new HashMap<>();
     }
 
-    public Array get(String variableName) throws IOException {
-        ArrayContainer container = cache.get(variableName);
-        if (container == null) {
-            synchronized (netcdfFile) {
-                container = readArrayAndAttributes(variableName, null);
-            }
-            cache.put(variableName, container);
-        }
+    /**
+     * Sets the memory budget shared by the array caches of all readers.
+     *
+     * @param numBytes the maximal number of bytes kept in memory
+     */
+    public static void setMaxCacheSize(long numBytes) {
+        chunkCache.setMaxBytes(numBytes);
+    }
 
-        return container.array;
+    public Array get(String variableName) throws IOException {
+        final VariableContainer container = getContainer(variableName, null);
+        return getWholeArray(variableName, container);
     }
 
     public Array get(String groupName, String variableName) throws IOException {
         final String groupedVariableName = createGroupedName(groupName, variableName);
-        ArrayContainer container = cache.get(groupedVariableName);
-        if (container == null) {
-            synchronized (netcdfFile) {
-                container = readArrayAndAttributesFromGroup(variableName, groupName);
-            }
-            cache.put(groupedVariableName, container);
-        }
-        return container.array;
+        final VariableContainer container = getContainer(variableName, groupName);
+        return getWholeArray(groupedVariableName, container);
     }
 
     public Array getScaled(String groupName, String variableName, String scaleAttributeName, String offsetAttributeName) throws IOException {
         final String groupedVariableName = createGroupedName(groupName, variableName);
-        ArrayContainer arrayContainer = scaledCache.get(groupedVariableName);
-        if (arrayContainer == null) {
-            arrayContainer = cache.get(groupedVariableName);
-            if (arrayContainer == null) {
-                synchronized (netcdfFile) {
-                    arrayContainer = readArrayAndAttributesFromGroup(variableName, groupName);
-                }
-                cache.put(groupedVariableName, arrayContainer);
-            }
+        final VariableContainer container = getContainer(variableName, groupName);
 
-            float scale = 1.f;
-            float offset = 0.f;
+        float scale = 1.f;
+        float offset = 0.f;
 
-            if (StringUtils.isNotNullAndNotEmpty(scaleAttributeName)) {
-                final Attribute scaleAttribute = arrayContainer.get(scaleAttributeName);
-                if (scaleAttribute != null) {
-                    scale = scaleAttribute.getNumericValue().floatValue();
-                }
+        if (StringUtils.isNotNullAndNotEmpty(scaleAttributeName)) {
+            final Attribute scaleAttribute = container.get(scaleAttributeName);
+            if (scaleAttribute != null) {
+                scale = scaleAttribute.getNumericValue().floatValue();
             }
+        }
 
-            if (StringUtils.isNotNullAndNotEmpty(offsetAttributeName)) {
-                final Attribute offsetAttribute = arrayContainer.get(offsetAttributeName);
-                if (offsetAttribute != null) {
-                    offset = offsetAttribute.getNumericValue().floatValue();
-                }
+        if (StringUtils.isNotNullAndNotEmpty(offsetAttributeName)) {
+            final Attribute offsetAttribute = container.get(offsetAttributeName);
+            if (offsetAttribute != null) {
+                offset = offsetAttribute.getNumericValue().floatValue();
             }
-
-            scaleIfNecessary(arrayContainer, scale, offset);
-
-            scaledCache.put(groupedVariableName, arrayContainer);
         }
-        return arrayContainer.array;
+
+        return getScaledArray(groupedVariableName, container, scale, offset);
     }
 
     // @todo tb/** this is only used in tests - do we really need it? tb 2016-12-16
     public Array getScaled(String variableName, String scaleAttributeName, String offsetAttributeName) throws IOException {
-        ArrayContainer arrayContainer = scaledCache.get(variableName);
-        if (arrayContainer == null) {
-            arrayContainer = cache.get(variableName);
-            if (arrayContainer == null) {
-                synchronized (netcdfFile) {
-                    arrayContainer = readArrayAndAttributes(variableName, null);
-                }
-                cache.put(variableName, arrayContainer);
-            }
+        final VariableContainer container = getContainer(variableName, null);
 
-            float scale = 1.f;
-            float offset = 0.f;
+        float scale = 1.f;
+        float offset = 0.f;
 
-            if (StringUtils.isNotNullAndNotEmpty(scaleAttributeName)) {
-                final Attribute scaleAttribute = arrayContainer.get(scaleAttributeName);
-                if (scaleAttribute == null) {
-                    throw new RuntimeException("Scale attribute with name '" + scaleAttributeName + "' is not available.");
-                } else {
-                    scale = scaleAttribute.getNumericValue().floatValue();
-                }
+        if (StringUtils.isNotNullAndNotEmpty(scaleAttributeName)) {
+            final Attribute scaleAttribute = container.get(scaleAttributeName);
+            if (scaleAttribute == null) {
+                throw new RuntimeException("Scale attribute with name '" + scaleAttributeName + "' is not available.");
+            } else {
+                scale = scaleAttribute.getNumericValue().floatValue();
             }
+        }
 
-            if (StringUtils.isNotNullAndNotEmpty(offsetAttributeName)) {
-                final Attribute offsetAttribute = arrayContainer.get(offsetAttributeName);
-                if (offsetAttribute == null) {
-                    throw new RuntimeException("Offset attribute with name '" + offsetAttributeName + "' is not available.");
-                } else {
-                    offset = offsetAttribute.getNumericValue().floatValue();
-                }
+        if (StringUtils.isNotNullAndNotEmpty(offsetAttributeName)) {
+            final Attribute offsetAttribute = container.get(offsetAttributeName);
+            if (offsetAttribute == null) {
+                throw new RuntimeException("Offset attribute with name '" + offsetAttributeName + "' is not available.");
+            } else {
+                offset = offsetAttribute.getNumericValue().floatValue();
             }
+        }
 
-            scaleIfNecessary(arrayContainer, scale, offset);
+        return getScaledArray(variableName, container, scale, offset);
+    }
 
-            scaledCache.put(variableName, arrayContainer);
+    /**
+     * Reads a pixel window of the variable, pixels outside of the product are set to the fill value. Only the
+     * row chunks covering the window are read, the variable is never loaded completely.
+     *
+     * @param variableName the variable name
+     * @param centerX      the x coordinate of the window center
+     * @param centerY      the y coordinate of the window center
+     * @param interval     the window size
+     * @param fillValue    the fill value
+     * @param defaultWidth the product width, used to expand one-dimensional variables
+     * @return the window data
+     * @throws IOException           on disk access errors
+     * @throws InvalidRangeException on invalid window definitions
+     */
+    public Array readWindow(String variableName, int centerX, int centerY, Interval interval, Number fillValue, int defaultWidth) throws IOException, InvalidRangeException {
+        final VariableContainer container = getContainer(variableName, null);
+        return readWindow(variableName, container, centerX, centerY, interval, fillValue, defaultWidth, null, 0);
+    }
 
-        }
-        return arrayContainer.array;
+    /**
+     * Reads a pixel window of the variable into the target array, starting at the element targetOffset, see
+     * readWindow(String, int, int, Interval, Number, int) and RawDataReader.read(..., Array, int).
+     *
+     * @param variableName the variable name
+     * @param centerX      the x coordinate of the window center
+     * @param centerY      the y coordinate of the window center
+     * @param interval     the window size
+     * @param fillValue    the fill value
+     * @param defaultWidth the product width, used to expand one-dimensional variables
+     * @param target       the array to write to
+     * @param targetOffset the element index of the first window pixel in the target array
+     * @throws IOException           on disk access errors
+     * @throws InvalidRangeException on invalid window definitions
+     */
+    public void readWindow(String variableName, int centerX, int centerY, Interval interval, Number fillValue, int defaultWidth, Array target, int targetOffset) throws IOException, InvalidRangeException {
+        final VariableContainer container = getContainer(variableName, null);
+        readWindow(variableName, container, centerX, centerY, interval, fillValue, defaultWidth, target, targetOffset);
+    }
+
+    /**
+     * Reads a pixel window of a variable in a group, see readWindow(String, int, int, Interval, Number, int).
+     *
+     * @param groupName    the name of the group containing the variable
+     * @param variableName the variable name
+     * @param centerX      the x coordinate of the window center
+     * @param centerY      the y coordinate of the window center
+     * @param interval     the window size
+     * @param fillValue    the fill value
+     * @param defaultWidth the product width, used to expand one-dimensional variables
+     * @return the window data
+     * @throws IOException           on disk access errors
+     * @throws InvalidRangeException on invalid window definitions
+     */
+    public Array readWindow(String groupName, String variableName, int centerX, int centerY, Interval interval, Number fillValue, int defaultWidth) throws IOException, InvalidRangeException {
+        final String groupedVariableName = createGroupedName(groupName, variableName);
+        final VariableContainer container = getContainer(variableName, groupName);
+        return readWindow(groupedVariableName, container, centerX, centerY, interval, fillValue, defaultWidth, null, 0);
+    }
+
+    /**
+     * Reads a pixel window of a variable in a group into the target array, starting at the element targetOffset.
+     *
+     * @param groupName    the name of the group containing the variable
+     * @param variableName the variable name
+     * @param centerX      the x coordinate of the window center
+     * @param centerY      the y coordinate of the window center
+     * @param interval     the window size
+     * @param fillValue    the fill value
+     * @param defaultWidth the product width, used to expand one-dimensional variables
+     * @param target       the array to write to
+     * @param targetOffset the element index of the first window pixel in the target array
+     * @throws IOException           on disk access errors
+     * @throws InvalidRangeException on invalid window definitions
+     */
+    public void readWindow(String groupName, String variableName, int centerX, int centerY, Interval interval, Number fillValue, int defaultWidth, Array target, int targetOffset) throws IOException, InvalidRangeException {
+        final String groupedVariableName = createGroupedName(groupName, variableName);
+        final VariableContainer container = getContainer(variableName, groupName);
+        readWindow(groupedVariableName, container, centerX, centerY, interval, fillValue, defaultWidth, target, targetOffset);
     }
 
     /**
@@ -158,12 +220,8 @@ public class ArrayCache {
      * @throws IOException
      */
     public String getStringAttributeValue(String attributeName, String variableName) throws IOException {
-        final Array array = get(variableName);
-        if (array != null) {
-            return getAttributeStringValue(attributeName, variableName);
-        }
-
-        return null;
+        final VariableContainer container = getContainer(variableName, null);
+        return getAttributeStringValue(attributeName, container);
     }
 
     /**
@@ -176,13 +234,8 @@ public class ArrayCache {
      * @throws IOException
      */
     public String getStringAttributeValue(String attributeName, String groupName, String variableName) throws IOException {
-        final Array array = get(groupName, variableName);
-        if (array != null) {
-            final String groupedName = createGroupedName(groupName, variableName);
-            return getAttributeStringValue(attributeName, groupedName);
-        }
-
-        return null;
+        final VariableContainer container = getContainer(variableName, groupName);
+        return getAttributeStringValue(attributeName, container);
     }
 
     /**
@@ -194,12 +247,8 @@ public class ArrayCache {
      * @throws IOException
      */
     public Number getNumberAttributeValue(String attributeName, String variableName) throws IOException {
-        final Array array = get(variableName);
-        if (array != null) {
-            return getAttributeNumberValue(attributeName, variableName);
-        }
-
-        return null;
+        final VariableContainer container = getContainer(variableName, null);
+        return getAttributeNumberValue(attributeName, container);
     }
 
     /**
@@ -212,22 +261,50 @@ public class ArrayCache {
      * @throws IOException
      */
     public Number getNumberAttributeValue(String attributeName, String groupName, String variableName) throws IOException {
-        final Array array = get(groupName, variableName);
-        if (array != null) {
-            final String groupedName = createGroupedName(groupName, variableName);
-            return getAttributeNumberValue(attributeName, groupedName);
-        }
-
-        return null;
+        final VariableContainer container = getContainer(variableName, groupName);
+        return getAttributeNumberValue(attributeName, container);
     }
 
     public void inject(Variable variable) {
         injectedVariables.put(variable.getShortName(), variable);
     }
 
-    private String getAttributeStringValue(String attributeName, String variableKey) {
-        final ArrayContainer arrayContainer = cache.get(variableKey);
-        final Attribute attribute = arrayContainer.get(attributeName);
+    /**
+     * Removes the data of this cache from the shared store. To be called when the product file is closed.
+     */
+    public void dispose() {
+        chunkCache.remove(this);
+        synchronized (containers) {
+            containers.clear();
+        }
+    }
+
+    // package access for testing only
+    static ChunkCache getChunkCache() {
+        return chunkCache;
+    }
+
+    // package access for testing only tb 2016-04-14
+    static String createGroupedName(String groupName, String variableName) {
+        return groupName + "_" + variableName;
+    }
+
+    // the row (y) dimension of the layouts handled by RawDataReader, -1 for all others
+    // package access for testing only
+    static int getRowDimension(int[] shape) {
+        final int rank = shape.length;
+        if (rank == 1) {
+            return 0;
+        } else if (rank == 2) {
+            return shape[0] == 1 ? 1 : 0;
+        } else if (rank == 3 && shape[0] == 1) {
+            return 1;
+        }
+        return -1;
+    }
+
+    private String getAttributeStringValue(String attributeName, VariableContainer container) {
+        final Attribute attribute = container.get(attributeName);
         if (attribute != null) {
             if (attribute.isString()) {
                 return attribute.getStringValue();
@@ -238,9 +315,8 @@ public class ArrayCache {
         return null;
     }
 
-    private Number getAttributeNumberValue(String attributeName, String variableKey) {
-        final ArrayContainer arrayContainer = cache.get(variableKey);
-        final Attribute attribute = arrayContainer.get(attributeName);
+    private Number getAttributeNumberValue(String attributeName, VariableContainer container) {
+        final Attribute attribute = container.get(attributeName);
         if (attribute != null) {
             if (!attribute.isString()) {
                 return attribute.getNumericValue();
@@ -249,13 +325,23 @@ public class ArrayCache {
         return null;
     }
 
-    // package access for testing only tb 2016-04-14
-    static String createGroupedName(String groupName, String variableName) {
-        return groupName + "_" + variableName;
+    private VariableContainer getContainer(String variableName, String groupName) throws IOException {
+        final String key = groupName == null ? variableName : createGroupedName(groupName, variableName);
+        synchronized (containers) {
+            VariableContainer container = containers.get(key);
+            if (container == null) {
+                if (groupName == null) {
+                    container = createContainer(variableName, null);
+                } else {
+                    container = createContainerFromGroup(variableName, groupName);
+                }
+                containers.put(key, container);
+            }
+            return container;
+        }
     }
 
-    private ArrayContainer readArrayAndAttributes(String variableName, Group group) throws IOException {
-        ArrayContainer container;
+    private VariableContainer createContainer(String variableName, Group group) throws IOException {
         Variable variable = netcdfFile.findVariable(group, variableName);
         if (variable == null) {
             variable = injectedVariables.get(variableName);
@@ -263,8 +349,7 @@ public class ArrayCache {
                 throw new IOException("requested variable '" + variableName + "' not present in file: " + netcdfFile.getLocation());
             }
         }
-        container = new ArrayContainer();
-        container.array = variable.read();
+        final VariableContainer container = new VariableContainer(variable);
 
         final List<Attribute> attributes = variable.getAttributes();
         for (final Attribute attribute : attributes) {
@@ -273,33 +358,153 @@ public class ArrayCache {
         return container;
     }
 
-    private ArrayContainer readArrayAndAttributesFromGroup(String variableName, String groupName) throws IOException {
-        ArrayContainer container;
+    private VariableContainer createContainerFromGroup(String variableName, String groupName) throws IOException {
         final Group group = netcdfFile.findGroup(groupName);
         if (group == null) {
             throw new IOException("requested group '" + groupName + "' not present in file: " + netcdfFile.getLocation());
         }
-        container = readArrayAndAttributes(variableName, group);
-        return container;
+        return createContainer(variableName, group);
     }
 
-    private void scaleIfNecessary(ArrayContainer arrayContainer, float scale, float offset) {
-        if (scale != 1.f || offset != 0.f) {
+    private Array getWholeArray(String key, VariableContainer container) throws IOException {
+        Array array = chunkCache.get(this, key, WHOLE_VARIABLE);
+        if (array == null) {
+            synchronized (netcdfFile) {
+                array = container.variable.read();
+            }
+            chunkCache.put(this, key, WHOLE_VARIABLE, array);
+        }
+        return array;
+    }
+
+    // only the scaled data is kept, the raw data is cached only when requested on its own
+    private Array getScaledArray(String key, VariableContainer container, float scale, float offset) throws IOException {
+        if (scale == 1.f && offset == 0.f) {
+            return getWholeArray(key, container);
+        }
+
+        final String scaledKey = key + SCALED_SUFFIX;
+        Array scaledArray = chunkCache.get(this, scaledKey, WHOLE_VARIABLE);
+        if (scaledArray == null) {
+            Array array = chunkCache.get(this, key, WHOLE_VARIABLE);
+            if (array == null) {
+                synchronized (netcdfFile) {
+                    array = container.variable.read();
+                }
+            }
             final MAMath.ScaleOffset scaleOffset = new MAMath.ScaleOffset(scale, offset);
-            arrayContainer.array = MAMath.convert2Unpacked(arrayContainer.array, scaleOffset);
+            scaledArray = MAMath.convert2Unpacked(array, scaleOffset);
+            chunkCache.put(this, scaledKey, WHOLE_VARIABLE, scaledArray);
+        }
+        return scaledArray;
+    }
+
+    // writes to the target array if given, creates a window array otherwise
+    private Array readWindow(String key, VariableContainer container, int centerX, int centerY, Interval interval, Number fillValue, int defaultWidth,
+                             Array target, int targetOffset) throws IOException, InvalidRangeException {
+        final int[] shape = container.variable.getShape();
+        final int rowDimension = getRowDimension(shape);
+        final Array cachedArray = chunkCache.get(this, key, WHOLE_VARIABLE);
+        if (cachedArray != null || rowDimension < 0 || shape[rowDimension] < 2) {
+            final Array array = cachedArray != null ? cachedArray : getWholeArray(key, container);
+            return readWindow(centerX, centerY, interval, fillValue, array, defaultWidth, target, targetOffset);
+        }
+
+        final int numRows = shape[rowDimension];
+        final int rowsPerChunk = container.getRowsPerChunk(shape, rowDimension);
+        final int windowStartRow = centerY - interval.getY() / 2;
+        final int firstRow = Math.min(Math.max(windowStartRow, 0), numRows - 1);
+        final int lastRow = Math.min(Math.max(windowStartRow + interval.getY() - 1, 0), numRows - 1);
+        int firstChunk = firstRow / rowsPerChunk;
+        final int lastChunk = lastRow / rowsPerChunk;
+        if (firstChunk == lastChunk && numRows - firstChunk * rowsPerChunk < 2) {
+            // a single row block would be taken for a false dimension by the RawDataReader
+            --firstChunk;
         }
+
+        final Array block = readChunks(key, container, shape, rowDimension, rowsPerChunk, firstChunk, lastChunk);
+        return readWindow(centerX, centerY - firstChunk * rowsPerChunk, interval, fillValue, block, defaultWidth, target, targetOffset);
     }
 
-    private class ArrayContainer {
-        Array array;
-        Map<String, Attribute> attributes;
+    private static Array readWindow(int centerX, int centerY, Interval interval, Number fillValue, Array array, int defaultWidth,
+                                    Array target, int targetOffset) throws InvalidRangeException {
+        if (target == null) {
+            return RawDataReader.read(centerX, centerY, interval, fillValue, array, defaultWidth);
+        }
+        RawDataReader.read(centerX, centerY, interval, fillValue, array, defaultWidth, target, targetOffset);
+        return target;
+    }
 
-        ArrayContainer() {
+    private Array readChunks(String key, VariableContainer container, int[] shape, int rowDimension, int rowsPerChunk, int firstChunk, int lastChunk) throws IOException, InvalidRangeException {
+        final Array firstChunkArray = readChunk(key, container, shape, rowDimension, rowsPerChunk, firstChunk);
+        if (firstChunk == lastChunk) {
+            return firstChunkArray;
+        }
+
+        // all dimensions before the row dimension have length one, so the chunks are contiguous blocks of the variable
+        final int[] blockShape = shape.clone();
+        blockShape[rowDimension] = Math.min(shape[rowDimension], (lastChunk + 1) * rowsPerChunk) - firstChunk * rowsPerChunk;
+        final Array block = Array.factory(firstChunkArray.getElementType(), blockShape);
+        int position = 0;
+        for (int chunk = firstChunk; chunk <= lastChunk; chunk++) {
+            final Array chunkArray = chunk == firstChunk ? firstChunkArray : readChunk(key, container, shape, rowDimension, rowsPerChunk, chunk);
+            final int chunkSize = (int) chunkArray.getSize();
+            Array.arraycopy(chunkArray, 0, block, position, chunkSize);
+            position += chunkSize;
+        }
+        return block;
+    }
+
+    private Array readChunk(String key, VariableContainer container, int[] shape, int rowDimension, int rowsPerChunk, int chunk) throws IOException, InvalidRangeException {
+        Array chunkArray = chunkCache.get(this, key, chunk);
+        if (chunkArray == null) {
+            final int[] origin = new int[shape.length];
+            final int[] chunkShape = shape.clone();
+            origin[rowDimension] = chunk * rowsPerChunk;
+            chunkShape[rowDimension] = Math.min(rowsPerChunk, shape[rowDimension] - origin[rowDimension]);
+            synchronized (netcdfFile) {
+                chunkArray = container.variable.read(origin, chunkShape);
+            }
+            chunkCache.put(this, key, chunk, chunkArray);
+        }
+        return chunkArray;
+    }
+
+    private class VariableContainer {
+        final Variable variable;
+        final Map<String, Attribute> attributes;
+        int rowsPerChunk;
+
+        VariableContainer(Variable variable) {
+            this.variable = variable;
             attributes = new HashMap<>();
         }
 
         Attribute get(String name) {
             return attributes.get(name);
         }
+
+        // chunks of about CHUNK_SIZE_BYTES, aligned to the storage chunks of NetCDF4/HDF5 files if known
+        synchronized int getRowsPerChunk(int[] shape, int rowDimension) {
+            if (rowsPerChunk == 0) {
+                long bytesPerRow = variable.getElementSize();
+                for (int i = 0; i < shape.length; i++) {
+                    if (i != rowDimension) {
+                        bytesPerRow *= shape[i];
+                    }
+                }
+                int numRows = (int) Math.max(2, CHUNK_SIZE_BYTES / Math.max(1, bytesPerRow));
+
+                final Attribute chunkSizes = attributes.get("_ChunkSizes");
+                if (chunkSizes != null && !chunkSizes.isString() && chunkSizes.getLength() == shape.length) {
+                    final int storageRows = chunkSizes.getNumericValue(rowDimension).intValue();
+                    if (storageRows > 0) {
+                        numRows = Math.max(1, numRows / storageRows) * storageRows;
+                    }
+                }
+                rowsPerChunk = Math.max(2, numRows);
+            }
+            return rowsPerChunk;
+        }
     }
 }
@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2016 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+package com.bc.fiduceo.reader;
+
+
+import ucar.ma2.Array;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Least recently used store of the data read by the array caches of all open readers. The total size of the
+ * stored arrays is bounded, exceeding entries are evicted and read again from disk when requested later.
+ * Entries are keyed by the owning array cache, the variable and the chunk index.
+ */
+class ChunkCache {
+
+    private final LinkedHashMap<Key, Array> entries;
+    private long maxBytes;
+    private long numBytes;
+
+    ChunkCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+        entries = new LinkedHashMap<>(64, 0.75f, true);
+    }
+
+    synchronized Array get(Object owner, String name, int index) {
+        return entries.get(new Key(owner, name, index));
+    }
+
+    synchronized void put(Object owner, String name, int index, Array array) {
+        final Array previous = entries.put(new Key(owner, name, index), array);
+        if (previous != null) {
+            numBytes -= previous.getSizeBytes();
+        }
+        numBytes += array.getSizeBytes();
+        evict();
+    }
+
+    synchronized void remove(Object owner) {
+        final Iterator<Map.Entry<Key, Array>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final Map.Entry<Key, Array> entry = iterator.next();
+            if (entry.getKey().owner == owner) {
+                numBytes -= entry.getValue().getSizeBytes();
+                iterator.remove();
+            }
+        }
+    }
+
+    synchronized void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+        evict();
+    }
+
+    synchronized long getSizeInBytes() {
+        return numBytes;
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    // the most recent entry is kept even if it exceeds the budget on its own, the caller still references it
+    private void evict() {
+        final Iterator<Array> iterator = entries.values().iterator();
+        while (numBytes > maxBytes && entries.size() > 1) {
+            numBytes -= iterator.next().getSizeBytes();
+            iterator.remove();
+        }
+    }
+
+    private static class Key {
+
+        private final Object owner;
+        private final String name;
+        private final int index;
+
+        Key(Object owner, String name, int index) {
+            this.owner = owner;
+            this.name = name;
+            this.index = index;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            final Key key = (Key) other;
+            return owner == key.owner && index == key.index && name.equals(key.name);
+        }
+
+        @Override
+        public int hashCode() {
+            return (System.identityHashCode(owner) * 31 + name.hashCode()) * 31 + index;
+        }
+    }
+}
@@ -21,16 +21,10 @@ package com.bc.fiduceo.reader;
 
 import com.bc.fiduceo.core.Interval;
 import ucar.ma2.Array;
-import ucar.ma2.ArrayByte;
-import ucar.ma2.ArrayDouble;
-import ucar.ma2.ArrayFloat;
-import ucar.ma2.ArrayInt;
-import ucar.ma2.ArrayLong;
-import ucar.ma2.ArrayShort;
+import ucar.ma2.Index;
+import ucar.ma2.IndexIterator;
 import ucar.ma2.InvalidRangeException;
 
-import java.awt.*;
-
 /**
  * @author muhammad.bc
  * @author sabine.bc
@@ -45,84 +39,125 @@ public class RawDataReader {
     }
 
     public static Array read(int centerX, int centerY, Interval interval, Number fillValue, Array rawArray, final int defaultWidth) throws InvalidRangeException {
-        int[] shape = rawArray.getShape();
-        int rank = rawArray.getRank();
-        final InputDimension inputDimension = getInputDimension(rank, shape);
-        if (inputDimension == InputDimension.THREE_D_FALSE_DIMENSION) {
-            rawArray = rawArray.reduce();
-            shape = rawArray.getShape();
-        } else if (inputDimension == InputDimension.TWO_D_FALSE_DIMENSION) {
-            shape[0] = shape[1];
-            shape[1] = defaultWidth;
-            rawArray = rawArray.reduce();
-        } else if (inputDimension == InputDimension.ONE_D) {
-            shape = new int[]{shape[0], defaultWidth};
-        } // no specific handling for the pure 2d data case tb 2016-04-18
+        final Array sourceArray = getSourceArray(rawArray);
+        final int rawHeight = sourceArray.getShape()[0];
+        final int rawWidth = getRawWidth(sourceArray, defaultWidth);
 
         final int windowWidth = interval.getX();
         final int windowHeight = interval.getY();
+        final int offsetX = centerX - windowWidth / 2;
+        final int offsetY = centerY - windowHeight / 2;
+
+        if (sourceArray.getRank() == 2 && isWindowInside(offsetX, offsetY, windowWidth, windowHeight, rawWidth, rawHeight)) {
+            return sourceArray.section(new int[]{offsetY, offsetX}, new int[]{windowHeight, windowWidth});
+        }
+        return WindowReader.readWindow(offsetX, offsetY, windowWidth, windowHeight, fillValue, sourceArray, rawWidth, rawHeight);
+    }
+
+    /**
+     * Reads the window directly into the target array, starting at the element targetOffset. No window array is
+     * created, the data is copied once. The target array must be in canonical order (as created by Array.factory()).
+     *
+     * @param centerX      the x coordinate of the window center
+     * @param centerY      the y coordinate of the window center
+     * @param interval     the window size
+     * @param fillValue    the value for window pixels outside of the raw data
+     * @param rawArray     the raw data
+     * @param defaultWidth the product width, used to expand one-dimensional data
+     * @param target       the array to write to
+     * @param targetOffset the element index of the first window pixel in the target array
+     * @throws InvalidRangeException on invalid window definitions
+     */
+    public static void read(int centerX, int centerY, Interval interval, Number fillValue, Array rawArray, int defaultWidth, Array target, int targetOffset) throws InvalidRangeException {
+        final Array sourceArray = getSourceArray(rawArray);
+        if (sourceArray.getElementType() != target.getElementType()) {
+            // converting copy, the primitive arrays cannot be copied onto each other
+            final Array windowArray = read(centerX, centerY, interval, fillValue, rawArray, defaultWidth);
+            final IndexIterator iterator = windowArray.getIndexIterator();
+            for (int i = targetOffset; iterator.hasNext(); i++) {
+                target.setDouble(i, iterator.getDoubleNext());
+            }
+            return;
+        }
 
-        final int rawHeight;
-        final int rawWidth;
-        rawHeight = shape[0];
-        rawWidth = shape[1];
+        final int windowWidth = interval.getX();
+        final int windowHeight = interval.getY();
         final int offsetX = centerX - windowWidth / 2;
         final int offsetY = centerY - windowHeight / 2;
+        final int rawHeight = sourceArray.getShape()[0];
+        final int rawWidth = getRawWidth(sourceArray, defaultWidth);
+        WindowReader.copyWindow(offsetX, offsetY, windowWidth, windowHeight, fillValue, sourceArray, rawWidth, rawHeight,
+                                target.getStorage(), targetOffset);
+    }
+
+    /**
+     * Reads the windows around a set of pixels into the target array, window after window in row-major order, and
+     * applies scale factor and offset. Pixels outside of the raw data are set to the scaled fill value, as done when
+     * scaling a window returned by read() using MAMath.convert2Unpacked().
+     *
+     * @param x            the window center x positions
+     * @param y            the window center y positions
+     * @param numPixels    the number of windows to read
+     * @param interval     the window size
+     * @param fillValue    the value for window pixels outside of the raw data
+     * @param rawArray     the raw data
+     * @param defaultWidth the product width, used to expand one-dimensional data
+     * @param scaleFactor  the scale factor, 1.0 for unscaled data
+     * @param offset       the offset, 0.0 for unscaled data
+     * @param target       the array to write to, at least numPixels * width * height long
+     */
+    public static void readScaled(int[] x, int[] y, int numPixels, Interval interval, Number fillValue, Array rawArray, int defaultWidth,
+                                  double scaleFactor, double offset, double[] target) {
+        final Array sourceArray = getSourceArray(rawArray);
+        final boolean oneDimensional = sourceArray.getRank() == 1;
+        final Index index = sourceArray.getIndex();
+        final int rawHeight = sourceArray.getShape()[0];
+        final int rawWidth = getRawWidth(sourceArray, defaultWidth);
+        final double scaledFillValue = fillValue.doubleValue() * scaleFactor + offset;
+
+        final int windowWidth = interval.getX();
+        final int windowHeight = interval.getY();
+        int targetIndex = 0;
+        for (int i = 0; i < numPixels; i++) {
+            final int offsetX = x[i] - windowWidth / 2;
+            final int offsetY = y[i] - windowHeight / 2;
+            for (int yRaw = offsetY; yRaw < offsetY + windowHeight; yRaw++) {
+                final boolean rowInside = yRaw >= 0 && yRaw < rawHeight;
+                for (int xRaw = offsetX; xRaw < offsetX + windowWidth; xRaw++) {
+                    if (!rowInside || xRaw < 0 || xRaw >= rawWidth) {
+                        target[targetIndex++] = scaledFillValue;
+                        continue;
+                    }
 
-        if (inputDimension == InputDimension.ONE_D ||
-                inputDimension == InputDimension.TWO_D_FALSE_DIMENSION) {
-            return readFrom1DArray(offsetX, offsetY, windowWidth, windowHeight, fillValue, rawArray, rawWidth, rawHeight);
-        } else {
-            boolean windowInside = isWindowInside(offsetX, offsetY, windowWidth, windowHeight, rawWidth, rawHeight);
-            if (windowInside) {
-                return rawArray.section(new int[]{offsetY, offsetX}, new int[]{windowHeight, windowWidth});
+                    if (oneDimensional) {
+                        index.set(yRaw);
+                    } else {
+                        index.set(yRaw, xRaw);
+                    }
+                    target[targetIndex++] = sourceArray.getDouble(index) * scaleFactor + offset;
+                }
             }
-            return readFrom2DArray(offsetX, offsetY, windowWidth, windowHeight, fillValue, rawArray, rawWidth, rawHeight);
         }
     }
 
-    private static Array readFrom2DArray(int offsetX, int offsetY, int windowWidth, int windowHeight, Number fillValue, Array rawArray, int rawWidth, int rawHeight) {
-        final Class elementType = rawArray.getElementType();
-        if (elementType == double.class) {
-            return WindowReader.readWindow(offsetX, offsetY, windowWidth, windowHeight, fillValue.doubleValue(), (ArrayDouble.D2) rawArray, rawWidth, rawHeight);
-        } else if (elementType == float.class) {
-            return WindowReader.readWindow(offsetX, offsetY, windowWidth, windowHeight, fillValue.floatValue(), (ArrayFloat.D2) rawArray, rawWidth, rawHeight);
-        } else if (elementType == long.class) {
-            return WindowReader.readWindow(offsetX, offsetY, windowWidth, windowHeight, fillValue.longValue(), (ArrayLong.D2) rawArray, rawWidth, rawHeight);
-        } else if (elementType == int.class) {
-            return WindowReader.readWindow(offsetX, offsetY, windowWidth, windowHeight, fillValue.intValue(), (ArrayInt.D2) rawArray, rawWidth, rawHeight);
-        } else if (elementType == short.class) {
-            return WindowReader.readWindow(offsetX, offsetY, windowWidth, windowHeight, fillValue.shortValue(), (ArrayShort.D2) rawArray, rawWidth, rawHeight);
-        } else if (elementType == byte.class) {
-            return WindowReader.readWindow(offsetX, offsetY, windowWidth, windowHeight, fillValue.byteValue(), (ArrayByte.D2) rawArray, rawWidth, rawHeight);
-        } else {
-            throw new RuntimeException("Datatype not implemented");
+    // reduces the false dimensions, the result has rank 2 (y, x) or rank 1 (one value per row)
+    private static Array getSourceArray(Array rawArray) {
+        final InputDimension inputDimension = getInputDimension(rawArray.getRank(), rawArray.getShape());
+        if (inputDimension == InputDimension.THREE_D_FALSE_DIMENSION || inputDimension == InputDimension.TWO_D_FALSE_DIMENSION) {
+            return rawArray.reduce(0);
         }
+        return rawArray;
     }
 
-    private static Array readFrom1DArray(int offsetX, int offsetY, int windowWidth, int windowHeight, Number fillValue, Array rawArray, int rawWidth, int rawHeight) {
-        final Class elementType = rawArray.getElementType();
-        if (elementType == double.class) {
-            return WindowReader.readWindow(offsetX, offsetY, windowWidth, windowHeight, fillValue.doubleValue(), (ArrayDouble.D1) rawArray, rawWidth, rawHeight);
-        } else if (elementType == float.class) {
-            return WindowReader.readWindow(offsetX, offsetY, windowWidth, windowHeight, fillValue.floatValue(), (ArrayFloat.D1) rawArray, rawWidth, rawHeight);
-        } else if (elementType == long.class) {
-            return WindowReader.readWindow(offsetX, offsetY, windowWidth, windowHeight, fillValue.longValue(), (ArrayLong.D1) rawArray, rawWidth, rawHeight);
-        } else if (elementType == int.class) {
-            return WindowReader.readWindow(offsetX, offsetY, windowWidth, windowHeight, fillValue.intValue(), (ArrayInt.D1) rawArray, rawWidth, rawHeight);
-        } else if (elementType == short.class) {
-            return WindowReader.readWindow(offsetX, offsetY, windowWidth, windowHeight, fillValue.shortValue(), (ArrayShort.D1) rawArray, rawWidth, rawHeight);
-        } else if (elementType == byte.class) {
-            return WindowReader.readWindow(offsetX, offsetY, windowWidth, windowHeight, fillValue.byteValue(), (ArrayByte.D1) rawArray, rawWidth, rawHeight);
-        } else {
-            throw new RuntimeException("Datatype not implemented");
+    private static int getRawWidth(Array sourceArray, int defaultWidth) {
+        if (sourceArray.getRank() == 1) {
+            return defaultWidth;
         }
+        return sourceArray.getShape()[1];
     }
 
     private static boolean isWindowInside(int winOffSetX, int winOffSetY, int windowWidth, int windowHeight, int rawWidth, int rawHeight) {
-        final Rectangle windowRec = new Rectangle(winOffSetX, winOffSetY, windowWidth, windowHeight);
-        final Rectangle arrayRectangle = new Rectangle(0, 0, rawWidth, rawHeight);
-        return arrayRectangle.contains(windowRec);
+        return winOffSetX >= 0 && winOffSetY >= 0 && winOffSetX + windowWidth <= rawWidth && winOffSetY + windowHeight <= rawHeight;
     }
 
     // package access for testing only tb 2016-04-18
@@ -26,6 +26,7 @@ import com.bc.fiduceo.geometry.Polygon;
 import com.bc.fiduceo.location.PixelLocator;
 import ucar.ma2.Array;
 import ucar.ma2.ArrayInt;
+import ucar.ma2.IndexIterator;
 import ucar.ma2.InvalidRangeException;
 import ucar.nc2.Variable;
 
@@ -68,6 +69,26 @@ public interface Reader extends AutoCloseable {
      */
     Array readRaw(int centerX, int centerY, Interval interval, String variableName) throws IOException, InvalidRangeException;
 
+    /**
+     * Reads raw data of a window like readRaw(int, int, Interval, String), but writes the data to the target array,
+     * starting at the element targetOffset. The target array must be in canonical order and of the data type of the
+     * variable. Readers override this method to copy the data without creating a window array.
+     *
+     * @param centerX      the center x position.
+     * @param centerY      the center y position.
+     * @param interval     the window sizes.
+     * @param variableName the name of the data variable.
+     * @param target       the array receiving the window data.
+     * @param targetOffset the element index of the first window pixel in the target array.
+     *
+     * @throws IOException
+     * @throws InvalidRangeException
+     */
+    default void readRaw(int centerX, int centerY, Interval interval, String variableName, Array target, int targetOffset) throws IOException, InvalidRangeException {
+        final Array array = readRaw(centerX, centerY, interval, variableName);
+        Array.arraycopy(array, 0, target, targetOffset, (int) array.getSize());
+    }
+
     /**
      * Reads data of a window defined by a center pixel position and a defined window size.
      * Scaling factor and offset are applied, if present. If not, this method returns the same data as readRaw().
@@ -86,6 +107,69 @@ public interface Reader extends AutoCloseable {
      */
     Array readScaled(int centerX, int centerY, Interval interval, String variableName) throws IOException, InvalidRangeException;
 
+    /**
+     * Reads the scaled data of a set of pixels, one value per pixel. The result is the same as reading each pixel
+     * using readScaled(int, int, Interval, String) with a 1x1 window, but avoids creating an Array per pixel.
+     *
+     * @param x            the pixel x positions.
+     * @param y            the pixel y positions.
+     * @param numPixels    the number of pixels to read, the first numPixels entries of x and y are used.
+     * @param variableName the name of the data variable.
+     * @param target       the array receiving the values, at least numPixels long.
+     *
+     * @throws IOException
+     * @throws InvalidRangeException
+     */
+    default void readScaled(int[] x, int[] y, int numPixels, String variableName, double[] target) throws IOException, InvalidRangeException {
+        readScaled(x, y, numPixels, new Interval(1, 1), variableName, target);
+    }
+
+    /**
+     * Reads the scaled data of windows around a set of pixels. The windows are written one after the other in
+     * row-major order, i.e. the target holds a block of numPixels x height x width values. Window pixels out of the
+     * product are set to the scaled fill value, as done by readScaled(int, int, Interval, String). Readers override
+     * this method to read directly from the variable data.
+     *
+     * @param x            the window center x positions.
+     * @param y            the window center y positions.
+     * @param numPixels    the number of windows to read, the first numPixels entries of x and y are used.
+     * @param interval     the window sizes.
+     * @param variableName the name of the data variable.
+     * @param target       the array receiving the values, at least numPixels * width * height long.
+     *
+     * @throws IOException
+     * @throws InvalidRangeException
+     */
+    default void readScaled(int[] x, int[] y, int numPixels, Interval interval, String variableName, double[] target) throws IOException, InvalidRangeException {
+        int targetIndex = 0;
+        for (int i = 0; i < numPixels; i++) {
+            final Array array = readScaled(x[i], y[i], interval, variableName);
+            final IndexIterator iterator = array.getIndexIterator();
+            while (iterator.hasNext()) {
+                target[targetIndex++] = iterator.getDoubleNext();
+            }
+        }
+    }
+
+    /**
+     * Reads longitude and latitude of a part of a pixel row from the geolocation arrays of the product. The values
+     * are the ones the PixelLocator returns for the pixel centers. Readers without geolocation arrays return false,
+     * callers then have to use the PixelLocator.
+     *
+     * @param startX the x position of the first pixel.
+     * @param y      the y position of the row.
+     * @param width  the number of pixels to read.
+     * @param lons   the array receiving the longitudes, at least width long.
+     * @param lats   the array receiving the latitudes, at least width long.
+     *
+     * @return true if the geolocation has been read
+     *
+     * @throws IOException
+     */
+    default boolean readGeolocation(int startX, int y, int width, double[] lons, double[] lats) throws IOException {
+        return false;
+    }
+
     /**
      * Reads an {@link Array} of acquisition time values per pixel.
      * The unit value is seconds since 1970-01-01 00:00:00.
@@ -0,0 +1,249 @@
+/*
+ * Copyright (C) 2017 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+
+package com.bc.fiduceo.reader;
+
+import com.bc.fiduceo.metrics.MetricsRegistry;
+import com.bc.fiduceo.metrics.Timer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Bounded pool of opened readers, shared between the processing steps of a tool run.
+ * <p>
+ * Readers are borrowed exclusively and must be handed back using release(). Released readers stay open
+ * until the handle budget or the byte budget (the summed size of the opened files) is exceeded; then the
+ * least recently released readers are closed. Readers currently borrowed are never evicted.
+ */
+public class ReaderCache {
+
+    private final ReaderFactory readerFactory;
+    private final int maxReaders;
+    private final long maxBytes;
+
+    private final HashMap<String, ArrayDeque<Entry>> idleMap;
+    private final LinkedHashSet<Entry> idleEntries;
+    private final IdentityHashMap<Reader, Entry> borrowedMap;
+
+    private int numOpenReaders;
+    private long numBytes;
+    private long numHits;
+    private long numMisses;
+    private long numEvictions;
+    private boolean closed;
+
+    /**
+     * @param readerFactory the factory used to create readers on a cache miss
+     * @param maxReaders    the maximal number of open readers, use 0 to close readers on release
+     * @param maxBytes      the maximal summed file size of the open readers, values &lt;= 0 disable the byte budget
+     */
+    public ReaderCache(ReaderFactory readerFactory, int maxReaders, long maxBytes) {
+        if (maxReaders < 0) {
+            throw new RuntimeException("Invalid reader cache size: " + maxReaders);
+        }
+        this.readerFactory = readerFactory;
+        this.maxReaders = maxReaders;
+        this.maxBytes = maxBytes;
+
+        idleMap = new HashMap<>();
+        idleEntries = new LinkedHashSet<>();
+        borrowedMap = new IdentityHashMap<>();
+    }
+
+    public Reader borrow(String sensorKey, Path path) throws IOException {
+        final String key = createKey(sensorKey, path);
+        synchronized (this) {
+            if (closed) {
+                throw new RuntimeException("Reader cache is already closed");
+            }
+
+            final ArrayDeque<Entry> idleQueue = idleMap.get(key);
+            if (idleQueue != null) {
+                final Entry entry = idleQueue.pollLast();
+                if (idleQueue.isEmpty()) {
+                    idleMap.remove(key);
+                }
+                idleEntries.remove(entry);
+                borrowedMap.put(entry.reader, entry);
+                ++numHits;
+                return entry.reader;
+            }
+            ++numMisses;
+        }
+
+        // opening may take long, it is done outside the lock so that other borrowers are not blocked
+        final Reader reader = readerFactory.getReader(sensorKey);
+        try (Timer.Context ignored = MetricsRegistry.get().timer("reader.open").start()) {
+            reader.open(path.toFile());
+        } catch (IOException | RuntimeException e) {
+            reader.close();
+            throw e;
+        }
+
+        final Entry entry = new Entry(key, reader, getFileSize(path));
+        final List<Reader> evicted;
+        synchronized (this) {
+            borrowedMap.put(reader, entry);
+            ++numOpenReaders;
+            numBytes += entry.numBytes;
+            evicted = evict();
+        }
+        closeAll(evicted);
+        return reader;
+    }
+
+    public void release(Reader reader) throws IOException {
+        final List<Reader> toClose;
+        synchronized (this) {
+            final Entry entry = borrowedMap.remove(reader);
+            if (entry == null) {
+                throw new RuntimeException("Reader has not been borrowed from this cache");
+            }
+
+            if (closed) {
+                --numOpenReaders;
+                numBytes -= entry.numBytes;
+                toClose = new ArrayList<>();
+                toClose.add(reader);
+            } else {
+                idleMap.computeIfAbsent(entry.key, k -> new ArrayDeque<>()).addLast(entry);
+                idleEntries.add(entry);
+                toClose = evict();
+            }
+        }
+        closeAll(toClose);
+    }
+
+    /**
+     * Closes all readers not borrowed at the moment. Readers still borrowed are closed when released.
+     */
+    public void close() throws IOException {
+        final List<Reader> toClose = new ArrayList<>();
+        synchronized (this) {
+            closed = true;
+            for (final Entry entry : idleEntries) {
+                toClose.add(entry.reader);
+                --numOpenReaders;
+                numBytes -= entry.numBytes;
+            }
+            idleEntries.clear();
+            idleMap.clear();
+        }
+        closeAll(toClose);
+    }
+
+    public int getMaxReaders() {
+        return maxReaders;
+    }
+
+    public synchronized long getNumHits() {
+        return numHits;
+    }
+
+    public synchronized long getNumMisses() {
+        return numMisses;
+    }
+
+    public synchronized long getNumEvictions() {
+        return numEvictions;
+    }
+
+    public synchronized int getNumOpenReaders() {
+        return numOpenReaders;
+    }
+
+    public synchronized long getNumBytes() {
+        return numBytes;
+    }
+
+    // package access for testing only
+    static String createKey(String sensorKey, Path path) {
+        return sensorKey + "|" + path.toAbsolutePath().normalize().toString();
+    }
+
+    // package access for testing only
+    static long getFileSize(Path path) throws IOException {
+        if (Files.isRegularFile(path)) {
+            return Files.size(path);
+        }
+        return 0;
+    }
+
+    // must be called holding the lock, the returned readers must be closed outside of it
+    private List<Reader> evict() {
+        final List<Reader> evicted = new ArrayList<>();
+        final Iterator<Entry> iterator = idleEntries.iterator();
+        while (isOverBudget() && iterator.hasNext()) {
+            final Entry entry = iterator.next();
+            iterator.remove();
+
+            final ArrayDeque<Entry> idleQueue = idleMap.get(entry.key);
+            idleQueue.remove(entry);
+            if (idleQueue.isEmpty()) {
+                idleMap.remove(entry.key);
+            }
+
+            --numOpenReaders;
+            numBytes -= entry.numBytes;
+            ++numEvictions;
+            evicted.add(entry.reader);
+        }
+        return evicted;
+    }
+
+    private boolean isOverBudget() {
+        return numOpenReaders > maxReaders || (maxBytes > 0 && numBytes > maxBytes);
+    }
+
+    private static void closeAll(List<Reader> readers) throws IOException {
+        IOException exception = null;
+        for (final Reader reader : readers) {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                exception = e;
+            }
+        }
+        if (exception != null) {
+            throw exception;
+        }
+    }
+
+    private static class Entry {
+        final String key;
+        final Reader reader;
+        final long numBytes;
+
+        Entry(String key, Reader reader, long numBytes) {
+            this.key = key;
+            this.reader = reader;
+            this.numBytes = numBytes;
+        }
+    }
+}
@@ -24,6 +24,8 @@ import com.bc.fiduceo.geometry.*;
 import com.bc.fiduceo.math.TimeInterval;
 import com.bc.fiduceo.util.NetCDFUtils;
 import org.esa.snap.core.datamodel.ProductData;
+import ucar.ma2.Array;
+import ucar.ma2.Index;
 
 import java.util.Date;
 
@@ -50,6 +52,24 @@ public class ReaderUtils {
         throw new RuntimeException("getDefaultFillValue not implemented for type: " + productDataType);
     }
 
+    public static boolean readGeolocation(Array lonArray, Array latArray, int startX, int y, int width, double[] lons, double[] lats) {
+        final int[] shape = lonArray.getShape();
+        if (y < 0 || y >= shape[0] || startX < 0 || startX + width > shape[1]) {
+            return false;
+        }
+
+        // the pixel locators work on float geolocation arrays
+        final Index lonIndex = lonArray.getIndex();
+        final Index latIndex = latArray.getIndex();
+        for (int i = 0; i < width; i++) {
+            lonIndex.set(y, startX + i);
+            latIndex.set(y, startX + i);
+            lons[i] = lonArray.getFloat(lonIndex);
+            lats[i] = latArray.getFloat(latIndex);
+        }
+        return true;
+    }
+
     public static boolean mustScale(double scaleFactor, double offset) {
         return scaleFactor != 1.0 || offset != 0.0;
     }
@@ -16,7 +16,10 @@
  */
 package com.bc.fiduceo.reader;
 
+import ucar.ma2.Array;
+import ucar.ma2.ArrayBoolean;
 import ucar.ma2.ArrayByte;
+import ucar.ma2.ArrayChar;
 import ucar.ma2.ArrayDouble;
 import ucar.ma2.ArrayFloat;
 import ucar.ma2.ArrayInt;
@@ -25,6 +28,28 @@ import ucar.ma2.ArrayShort;
 
 class WindowArrayFactory {
 
+    static Array createArray(Class elementType, int width, int height) {
+        if (elementType == double.class) {
+            return createDoubleArray(width, height);
+        } else if (elementType == float.class) {
+            return createFloatArray(width, height);
+        } else if (elementType == long.class) {
+            return createLongArray(width, height);
+        } else if (elementType == int.class) {
+            return createIntArray(width, height);
+        } else if (elementType == short.class) {
+            return createShortArray(width, height);
+        } else if (elementType == byte.class) {
+            return createByteArray(width, height);
+        } else if (elementType == char.class) {
+            return createCharArray(width, height);
+        } else if (elementType == boolean.class) {
+            return createBooleanArray(width, height);
+        } else {
+            throw new RuntimeException("Datatype not implemented");
+        }
+    }
+
     static ArrayDouble.D2 createDoubleArray(int width, int height) {
         return new ArrayDouble.D2(height, width);
     }
@@ -48,4 +73,12 @@ class WindowArrayFactory {
     static ArrayByte.D2 createByteArray(int width, int height) {
         return new ArrayByte.D2(height, width);
     }
+
+    static ArrayChar.D2 createCharArray(int width, int height) {
+        return new ArrayChar.D2(height, width);
+    }
+
+    static ArrayBoolean.D2 createBooleanArray(int width, int height) {
+        return new ArrayBoolean.D2(height, width);
+    }
 }
@@ -20,105 +20,143 @@ import com.bc.fiduceo.core.Interval;
 import ucar.ma2.*;
 
 import java.io.IOException;
+import java.util.Arrays;
 
 public abstract class WindowReader {
 
     public abstract Array read(int centerX, int centerY, Interval interval) throws IOException;
 
-    static Array readWindow(int offsetX, int offsetY, int width, int height, double fillValue, ArrayDouble.D2 rawArray, int rawWidth, int rawHeight) {
-        final ArrayDouble.D2 windowArray = WindowArrayFactory.createDoubleArray(width, height);
-        fillArray(offsetX, offsetY, width, height, rawWidth, rawHeight,
-                (y, x) -> windowArray.set(y, x, fillValue),
-                (y, x, yRaw, xRaw) -> windowArray.set(y, x, rawArray.get(yRaw, xRaw)));
-        return windowArray;
-    }
-
-    static Array readWindow(int offsetX, int offsetY, int width, int height, double fillValue, ArrayDouble.D1 rawArray, int rawWidth, int rawHeight) {
-        final ArrayDouble.D2 windowArray = WindowArrayFactory.createDoubleArray(width, height);
-        fillArray(offsetX, offsetY, width, height, rawWidth, rawHeight,
-                (y, x) -> windowArray.set(y, x, fillValue),
-                (y, x, yRaw, xRaw) -> windowArray.set(y, x, rawArray.get(yRaw)));
-        return windowArray;
-    }
-
-    static Array readWindow(int offsetX, int offsetY, int width, int height, float fillValue, ArrayFloat.D2 rawArray, int rawWidth, int rawHeight) {
-        final ArrayFloat.D2 windowArray = WindowArrayFactory.createFloatArray(width, height);
-        fillArray(offsetX, offsetY, width, height, rawWidth, rawHeight,
-                (y, x) -> windowArray.set(y, x, fillValue),
-                (y1, x1, yRaw, xRaw) -> windowArray.set(y1, x1, rawArray.get(yRaw, xRaw)));
-        return windowArray;
-    }
-
-    static Array readWindow(int offsetX, int offsetY, int width, int height, float fillValue, ArrayFloat.D1 rawArray, int rawWidth, int rawHeight) {
-        final ArrayFloat.D2 windowArray = WindowArrayFactory.createFloatArray(width, height);
-        fillArray(offsetX, offsetY, width, height, rawWidth, rawHeight,
-                (y, x) -> windowArray.set(y, x, fillValue),
-                (y1, x1, yRaw, xRaw) -> windowArray.set(y1, x1, rawArray.get(yRaw)));
-        return windowArray;
-    }
-
-    static Array readWindow(int offsetX, int offsetY, int width, int height, long fillValue, ArrayLong.D2 rawArray, int rawWidth, int rawHeight) {
-        final ArrayLong.D2 windowArray = WindowArrayFactory.createLongArray(width, height);
-        fillArray(offsetX, offsetY, width, height, rawWidth, rawHeight,
-                (y, x) -> windowArray.set(y, x, fillValue),
-                (y1, x1, yRaw, xRaw) -> windowArray.set(y1, x1, rawArray.get(yRaw, xRaw)));
-        return windowArray;
-    }
-
-    static Array readWindow(int offsetX, int offsetY, int width, int height, long fillValue, ArrayLong.D1 rawArray, int rawWidth, int rawHeight) {
-        final ArrayLong.D2 windowArray = WindowArrayFactory.createLongArray(width, height);
-        fillArray(offsetX, offsetY, width, height, rawWidth, rawHeight,
-                (y, x) -> windowArray.set(y, x, fillValue),
-                (y1, x1, yRaw, xRaw) -> windowArray.set(y1, x1, rawArray.get(yRaw)));
-        return windowArray;
+    /**
+     * Reads the windows around a set of pixels into the target array, window after window. Subclasses having the
+     * complete variable data at hand override this to copy the values without creating window arrays.
+     *
+     * @param x         the window center x positions
+     * @param y         the window center y positions
+     * @param numPixels the number of windows to read
+     * @param interval  the window size
+     * @param target    the array to write to, at least numPixels * width * height long
+     * @throws IOException on disk access errors
+     */
+    public void read(int[] x, int[] y, int numPixels, Interval interval, double[] target) throws IOException {
+        int targetIndex = 0;
+        for (int i = 0; i < numPixels; i++) {
+            final IndexIterator iterator = read(x[i], y[i], interval).getIndexIterator();
+            while (iterator.hasNext()) {
+                target[targetIndex++] = iterator.getDoubleNext();
+            }
+        }
     }
 
-    static Array readWindow(int offsetX, int offsetY, int width, int height, int fillValue, ArrayInt.D2 rawArray, int rawWidth, int rawHeight) {
-        final ArrayInt.D2 windowArray = WindowArrayFactory.createIntArray(width, height);
-        fillArray(offsetX, offsetY, width, height, rawWidth, rawHeight,
-                (y, x) -> windowArray.set(y, x, fillValue),
-                (y1, x1, yRaw, xRaw) -> windowArray.set(y1, x1, rawArray.get(yRaw, xRaw)));
+    static Array readWindow(int offsetX, int offsetY, int width, int height, Number fillValue, Array rawArray, int rawWidth, int rawHeight) {
+        final Array windowArray = WindowArrayFactory.createArray(rawArray.getElementType(), width, height);
+        copyWindow(offsetX, offsetY, width, height, fillValue, rawArray, rawWidth, rawHeight, windowArray.getStorage(), 0);
         return windowArray;
     }
 
-    static Array readWindow(int offsetX, int offsetY, int width, int height, int fillValue, ArrayInt.D1 rawArray, int rawWidth, int rawHeight) {
-        final ArrayInt.D2 windowArray = WindowArrayFactory.createIntArray(width, height);
-        fillArray(offsetX, offsetY, width, height, rawWidth, rawHeight,
-                (y, x) -> windowArray.set(y, x, fillValue),
-                (y1, x1, yRaw, xRaw) -> windowArray.set(y1, x1, rawArray.get(yRaw)));
-        return windowArray;
-    }
+    /**
+     * Copies a window of the raw data to the target storage, row by row. Window pixels outside of the raw data are set
+     * to the fill value. Rows of two-dimensional raw data are copied using System.arraycopy() where the data is
+     * contiguous, one-dimensional raw data provides one value per row.
+     *
+     * @param offsetX       the x offset of the window in the raw data
+     * @param offsetY       the y offset of the window in the raw data
+     * @param width         the window width
+     * @param height        the window height
+     * @param fillValue     the fill value
+     * @param rawArray      the raw data, rank 1 or 2
+     * @param rawWidth      the width of the raw data
+     * @param rawHeight     the height of the raw data
+     * @param targetStorage the primitive java array to write to, of the element type of the raw data
+     * @param targetOffset  the index of the first window pixel in the target storage
+     */
+    static void copyWindow(int offsetX, int offsetY, int width, int height, Number fillValue, Array rawArray,
+                           int rawWidth, int rawHeight, Object targetStorage, int targetOffset) {
+        final Object rawStorage = rawArray.getStorage();
+        final Index rawIndex = rawArray.getIndex();
+        final boolean oneDimensional = rawArray.getRank() == 1;
+        final boolean contiguousRows = !oneDimensional && isContiguousRow(rawIndex, rawArray.getShape());
+
+        final int xStart = Math.min(Math.max(-offsetX, 0), width);
+        final int xEnd = Math.max(Math.min(rawWidth - offsetX, width), xStart);
+        for (int y = 0; y < height; y++) {
+            final int rowStart = targetOffset + y * width;
+            final int yRaw = y + offsetY;
+            if (yRaw < 0 || yRaw >= rawHeight || xStart == xEnd) {
+                fill(targetStorage, rowStart, rowStart + width, fillValue);
+                continue;
+            }
 
-    static Array readWindow(int offsetX, int offsetY, int width, int height, short fillValue, ArrayShort.D2 rawArray, int rawWidth, int rawHeight) {
-        final ArrayShort.D2 windowArray = WindowArrayFactory.createShortArray(width, height);
-        fillArray(offsetX, offsetY, width, height, rawWidth, rawHeight,
-                (y, x) -> windowArray.set(y, x, fillValue),
-                (y1, x1, yRaw, xRaw) -> windowArray.set(y1, x1, rawArray.get(yRaw, xRaw)));
-        return windowArray;
+            if (xStart > 0) {
+                fill(targetStorage, rowStart, rowStart + xStart, fillValue);
+            }
+            if (oneDimensional) {
+                rawIndex.set(yRaw);
+                fill(targetStorage, rowStart + xStart, rowStart + xEnd, rawStorage, rawIndex.currentElement());
+            } else if (contiguousRows) {
+                rawIndex.set(yRaw, offsetX + xStart);
+                System.arraycopy(rawStorage, rawIndex.currentElement(), targetStorage, rowStart + xStart, xEnd - xStart);
+            } else {
+                for (int x = xStart; x < xEnd; x++) {
+                    rawIndex.set(yRaw, offsetX + x);
+                    System.arraycopy(rawStorage, rawIndex.currentElement(), targetStorage, rowStart + x, 1);
+                }
+            }
+            if (xEnd < width) {
+                fill(targetStorage, rowStart + xEnd, rowStart + width, fillValue);
+            }
+        }
     }
 
-    static Array readWindow(int offsetX, int offsetY, int width, int height, short fillValue, ArrayShort.D1 rawArray, int rawWidth, int rawHeight) {
-        final ArrayShort.D2 windowArray = WindowArrayFactory.createShortArray(width, height);
-        fillArray(offsetX, offsetY, width, height, rawWidth, rawHeight,
-                (y, x) -> windowArray.set(y, x, fillValue),
-                (y1, x1, yRaw, xRaw) -> windowArray.set(y1, x1, rawArray.get(yRaw)));
-        return windowArray;
+    private static boolean isContiguousRow(Index index, int[] shape) {
+        if (shape[1] < 2) {
+            return true;
+        }
+        final int first = index.set(0, 0).currentElement();
+        return index.set(0, 1).currentElement() == first + 1;
     }
 
-    static Array readWindow(int offsetX, int offsetY, int width, int height, byte fillValue, ArrayByte.D2 rawArray, int rawWidth, int rawHeight) {
-        final ArrayByte.D2 windowArray = WindowArrayFactory.createByteArray(width, height);
-        fillArray(offsetX, offsetY, width, height, rawWidth, rawHeight,
-                (y, x) -> windowArray.set(y, x, fillValue),
-                (y1, x1, yRaw, xRaw) -> windowArray.set(y1, x1, rawArray.get(yRaw, xRaw)));
-        return windowArray;
+    private static void fill(Object storage, int from, int to, Number value) {
+        if (storage instanceof double[]) {
+            Arrays.fill((double[]) storage, from, to, value.doubleValue());
+        } else if (storage instanceof float[]) {
+            Arrays.fill((float[]) storage, from, to, value.floatValue());
+        } else if (storage instanceof long[]) {
+            Arrays.fill((long[]) storage, from, to, value.longValue());
+        } else if (storage instanceof int[]) {
+            Arrays.fill((int[]) storage, from, to, value.intValue());
+        } else if (storage instanceof short[]) {
+            Arrays.fill((short[]) storage, from, to, value.shortValue());
+        } else if (storage instanceof byte[]) {
+            Arrays.fill((byte[]) storage, from, to, value.byteValue());
+        } else if (storage instanceof char[]) {
+            Arrays.fill((char[]) storage, from, to, (char) value.intValue());
+        } else if (storage instanceof boolean[]) {
+            Arrays.fill((boolean[]) storage, from, to, value.intValue() != 0);
+        } else {
+            throw new RuntimeException("Datatype not implemented");
+        }
     }
 
-    static Array readWindow(int offsetX, int offsetY, int width, int height, byte fillValue, ArrayByte.D1 rawArray, int rawWidth, int rawHeight) {
-        final ArrayByte.D2 windowArray = WindowArrayFactory.createByteArray(width, height);
-        fillArray(offsetX, offsetY, width, height, rawWidth, rawHeight,
-                (y, x) -> windowArray.set(y, x, fillValue),
-                (y1, x1, yRaw, xRaw) -> windowArray.set(y1, x1, rawArray.get(yRaw)));
-        return windowArray;
+    private static void fill(Object storage, int from, int to, Object sourceStorage, int sourceIndex) {
+        if (storage instanceof double[]) {
+            Arrays.fill((double[]) storage, from, to, ((double[]) sourceStorage)[sourceIndex]);
+        } else if (storage instanceof float[]) {
+            Arrays.fill((float[]) storage, from, to, ((float[]) sourceStorage)[sourceIndex]);
+        } else if (storage instanceof long[]) {
+            Arrays.fill((long[]) storage, from, to, ((long[]) sourceStorage)[sourceIndex]);
+        } else if (storage instanceof int[]) {
+            Arrays.fill((int[]) storage, from, to, ((int[]) sourceStorage)[sourceIndex]);
+        } else if (storage instanceof short[]) {
+            Arrays.fill((short[]) storage, from, to, ((short[]) sourceStorage)[sourceIndex]);
+        } else if (storage instanceof byte[]) {
+            Arrays.fill((byte[]) storage, from, to, ((byte[]) sourceStorage)[sourceIndex]);
+        } else if (storage instanceof char[]) {
+            Arrays.fill((char[]) storage, from, to, ((char[]) sourceStorage)[sourceIndex]);
+        } else if (storage instanceof boolean[]) {
+            Arrays.fill((boolean[]) storage, from, to, ((boolean[]) sourceStorage)[sourceIndex]);
+        } else {
+            throw new RuntimeException("Datatype not implemented");
+        }
     }
 
     protected static void fillArray(int offsetX, int offsetY, int width, int height, int rawWidth, int rawHeight, FillValueSetter fillSetter, RawValueSetter rawSetter) {
@@ -78,6 +78,10 @@ class AMSRE_Reader implements Reader {
 
     @Override
     public void close() throws IOException {
+        if (arrayCache != null) {
+            arrayCache.dispose();
+            arrayCache = null;
+        }
         if (netcdfFile != null) {
             netcdfFile.close();
             netcdfFile = null;
@@ -103,17 +107,27 @@ class AMSRE_Reader implements Reader {
     @Override
     public PixelLocator getPixelLocator() throws IOException {
         if (pixelLocator == null) {
-            final Array latitudes = arrayCache.get(LO_RES_SWATH_GEO_GROUP, "Latitude");
-            final Array longitudes = arrayCache.get(LO_RES_SWATH_GEO_GROUP, "Longitude");
+            final File productFile = new File(netcdfFile.getLocation());
+            pixelLocator = PixelLocatorFactory.getSwathPixelLocator(productFile, new PixelLocatorFactory.GeolocationProvider() {
+                @Override
+                public Array getLongitudes() throws IOException {
+                    return arrayCache.get(LO_RES_SWATH_GEO_GROUP, "Longitude");
+                }
 
-            final int[] shape = longitudes.getShape();
-            final int width = shape[1];
-            final int height = shape[0];
-            pixelLocator = PixelLocatorFactory.getSwathPixelLocator(longitudes, latitudes, width, height);
+                @Override
+                public Array getLatitudes() throws IOException {
+                    return arrayCache.get(LO_RES_SWATH_GEO_GROUP, "Latitude");
+                }
+            });
         }
         return pixelLocator;
     }
 
+    @Override
+    public boolean readGeolocation(int startX, int y, int width, double[] lons, double[] lats) throws IOException {
+        return ReaderUtils.readGeolocation(arrayCache.get(LO_RES_SWATH_GEO_GROUP, "Longitude"), arrayCache.get(LO_RES_SWATH_GEO_GROUP, "Latitude"), startX, y, width, lons, lats);
+    }
+
     @Override
     public PixelLocator getSubScenePixelLocator(Polygon sceneGeometry) throws IOException {
         return getPixelLocator();
@@ -136,11 +150,25 @@ class AMSRE_Reader implements Reader {
 
         final String hdfVariableName = namesConverter.toHdf(variableName);
         final String groupName = getGroupNameForVariable(hdfVariableName);
-        final Array rawArray = arrayCache.get(groupName, hdfVariableName);
         final Number fillValue = getFillValue(groupName, hdfVariableName);
 
         final Dimension productSize = getProductSize();
-        return RawDataReader.read(centerX, centerY, interval, fillValue, rawArray, productSize.getNx());
+        return arrayCache.readWindow(groupName, hdfVariableName, centerX, centerY, interval, fillValue, productSize.getNx());
+    }
+
+    @Override
+    public void readRaw(int centerX, int centerY, Interval interval, String variableName, Array target, int targetOffset) throws IOException, InvalidRangeException {
+        if (variableName.equals("Land_Ocean_Flag_6") || variableName.contains("Channel_Quality_Flag_")) {
+            Reader.super.readRaw(centerX, centerY, interval, variableName, target, targetOffset);
+            return;
+        }
+
+        final String hdfVariableName = namesConverter.toHdf(variableName);
+        final String groupName = getGroupNameForVariable(hdfVariableName);
+        final Number fillValue = getFillValue(groupName, hdfVariableName);
+
+        final Dimension productSize = getProductSize();
+        arrayCache.readWindow(groupName, hdfVariableName, centerX, centerY, interval, fillValue, productSize.getNx(), target, targetOffset);
     }
 
     private Array readChannelQualityFlag(String variableName, int centerX, int centerY, Interval interval) throws IOException, InvalidRangeException {
@@ -186,6 +214,24 @@ class AMSRE_Reader implements Reader {
         return array;
     }
 
+    @Override
+    public void readScaled(int[] x, int[] y, int numPixels, Interval interval, String variableName, double[] target) throws IOException, InvalidRangeException {
+        if (variableName.equals("Land_Ocean_Flag_6") || variableName.contains("Channel_Quality_Flag_")) {
+            Reader.super.readScaled(x, y, numPixels, interval, variableName, target);
+            return;
+        }
+
+        final String hdfVariableName = namesConverter.toHdf(variableName);
+        final String groupName = getGroupNameForVariable(hdfVariableName);
+        final Array array = arrayCache.get(groupName, hdfVariableName);
+        final Number fillValue = getFillValue(groupName, hdfVariableName);
+        final double scaleFactor = getScaleFactor(groupName, hdfVariableName);
+        final double offset = getOffset(groupName, hdfVariableName);
+
+        final Dimension productSize = getProductSize();
+        RawDataReader.readScaled(x, y, numPixels, interval, fillValue, array, productSize.getNx(), scaleFactor, offset, target);
+    }
+
     @Override
     public ArrayInt.D2 readAcquisitionTime(int x, int y, Interval interval) throws IOException, InvalidRangeException {
         final Array rawTimeTAI = readRaw(x, y, interval, "Time");
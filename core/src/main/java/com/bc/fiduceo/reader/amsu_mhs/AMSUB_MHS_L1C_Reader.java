@@ -96,6 +96,10 @@ public class AMSUB_MHS_L1C_Reader implements Reader {
     @Override
     public void close() throws IOException {
         timeLocator = null;
+        if (arrayCache != null) {
+            arrayCache.dispose();
+            arrayCache = null;
+        }
         if (netcdfFile != null) {
             netcdfFile.close();
             netcdfFile = null;
@@ -137,17 +141,27 @@ public class AMSUB_MHS_L1C_Reader implements Reader {
     @Override
     public PixelLocator getPixelLocator() throws IOException {
         if (pixelLocator == null) {
-            final Array longitudes = arrayCache.getScaled(GEOLOCATION_GROUP_NAME, "Longitude", "Scale", null);
-            final Array latitudes = arrayCache.getScaled(GEOLOCATION_GROUP_NAME, "Latitude", "Scale", null);
+            final File productFile = new File(netcdfFile.getLocation());
+            pixelLocator = PixelLocatorFactory.getSwathPixelLocator(productFile, new PixelLocatorFactory.GeolocationProvider() {
+                @Override
+                public Array getLongitudes() throws IOException {
+                    return NetCDFUtils.toFloat(arrayCache.getScaled(GEOLOCATION_GROUP_NAME, "Longitude", "Scale", null));
+                }
 
-            final int[] shape = longitudes.getShape();
-            final int width = shape[1];
-            final int height = shape[0];
-            pixelLocator = PixelLocatorFactory.getSwathPixelLocator(NetCDFUtils.toFloat(longitudes), NetCDFUtils.toFloat(latitudes), width, height);
+                @Override
+                public Array getLatitudes() throws IOException {
+                    return NetCDFUtils.toFloat(arrayCache.getScaled(GEOLOCATION_GROUP_NAME, "Latitude", "Scale", null));
+                }
+            });
         }
         return pixelLocator;
     }
 
+    @Override
+    public boolean readGeolocation(int startX, int y, int width, double[] lons, double[] lats) throws IOException {
+        return ReaderUtils.readGeolocation(arrayCache.getScaled(GEOLOCATION_GROUP_NAME, "Longitude", "Scale", null), arrayCache.getScaled(GEOLOCATION_GROUP_NAME, "Latitude", "Scale", null), startX, y, width, lons, lats);
+    }
+
     @Override
     public PixelLocator getSubScenePixelLocator(Polygon sceneGeometry) throws IOException {
         final Array longitudes = arrayCache.get(GEOLOCATION_GROUP_NAME, "Longitude");
@@ -179,23 +193,7 @@ public class AMSUB_MHS_L1C_Reader implements Reader {
             rawVariableName = falsifyAzimuth(rawVariableName);
         }
         final String groupName = getGroupName(rawVariableName);
-        Array array = arrayCache.get(groupName, rawVariableName);
-
-        final int rank = array.getRank();
-        if (rank == 3) {
-            final int channelLayer = getChannelLayer(variableName);
-            final int[] shape = array.getShape();
-            shape[2] = 1;   // we only want one z-layer
-            final int[] offsets = {0, 0, channelLayer};
-            array = array.section(offsets, shape);
-        } else if (rawVariableName.equals("chanqual")) {
-            final int channelLayer = getChannelLayer(variableName);
-            final int[] shape = array.getShape();
-            shape[1] = 1;   // we only want one channel
-            final int[] offsets = {0, channelLayer};
-            array = array.section(offsets, shape);
-        }
-
+        final Array array = getLayerArray(variableName, rawVariableName, groupName);
         final Number fillValue = getFillValue(rawVariableName, groupName, array);
 
         return RawDataReader.read(centerX, centerY, interval, fillValue, array, 90);
@@ -220,6 +218,20 @@ public class AMSUB_MHS_L1C_Reader implements Reader {
         return array;
     }
 
+    @Override
+    public void readScaled(int[] x, int[] y, int numPixels, Interval interval, String variableName, double[] target) throws IOException, InvalidRangeException {
+        String rawVariableName = ReaderUtils.stripChannelSuffix(variableName);
+        if (rawVariableName.contains("azimuth")) {
+            rawVariableName = falsifyAzimuth(rawVariableName);
+        }
+        final String groupName = getGroupName(rawVariableName);
+        final Array array = getLayerArray(variableName, rawVariableName, groupName);
+        final Number fillValue = getFillValue(rawVariableName, groupName, array);
+        final double scaleFactor = getScaleFactor(rawVariableName);
+
+        RawDataReader.readScaled(x, y, numPixels, interval, fillValue, array, 90, scaleFactor, 0.0, target);
+    }
+
     // @todo 3 tb/** this method does the correct thing but there is room for improvement 2016-04-19
     @Override
     public ArrayInt.D2 readAcquisitionTime(int x, int y, Interval interval) throws IOException, InvalidRangeException {
@@ -395,6 +407,26 @@ public class AMSUB_MHS_L1C_Reader implements Reader {
         return geometries;
     }
 
+    private Array getLayerArray(String variableName, String rawVariableName, String groupName) throws IOException, InvalidRangeException {
+        Array array = arrayCache.get(groupName, rawVariableName);
+
+        final int rank = array.getRank();
+        if (rank == 3) {
+            final int channelLayer = getChannelLayer(variableName);
+            final int[] shape = array.getShape();
+            shape[2] = 1;   // we only want one z-layer
+            final int[] offsets = {0, 0, channelLayer};
+            array = array.section(offsets, shape);
+        } else if (rawVariableName.equals("chanqual")) {
+            final int channelLayer = getChannelLayer(variableName);
+            final int[] shape = array.getShape();
+            shape[1] = 1;   // we only want one channel
+            final int[] offsets = {0, channelLayer};
+            array = array.section(offsets, shape);
+        }
+        return array;
+    }
+
     private Number getFillValue(String rawVariableName, String groupName, Array array) throws IOException {
         final String fillValueString = arrayCache.getStringAttributeValue("FillValue", groupName, rawVariableName);
         final Number fillValue;
@@ -205,6 +205,34 @@ class ATSR_L1B_Reader implements Reader {
         return targetArray;
     }
 
+    @Override
+    public void readScaled(int[] x, int[] y, int numPixels, Interval interval, String variableName, double[] target) throws IOException, InvalidRangeException {
+        final RasterDataNode dataNode = getRasterDataNode(variableName);
+
+        // the window arrays are re-used for all pixels
+        final DataType targetDataType = NetCDFUtils.getNetcdfDataType(dataNode.getGeophysicalDataType());
+        final int[] shape = getShape(interval);
+        final Array readArray = createReadingArray(targetDataType, shape);
+        final Array targetArray = Array.factory(targetDataType, shape);
+        final double noDataValue = getGeophysicalNoDataValue(dataNode);
+
+        final int width = interval.getX();
+        final int height = interval.getY();
+        final int windowSize = width * height;
+        for (int i = 0; i < numPixels; i++) {
+            final int xOffset = x[i] - width / 2;
+            final int yOffset = y[i] - height / 2;
+
+            readProductData(dataNode, readArray, width, height, xOffset, yOffset);
+            copyTargetData(readArray, targetArray, width, height, xOffset, yOffset, noDataValue);
+
+            final int targetOffset = i * windowSize;
+            for (int k = 0; k < windowSize; k++) {
+                target[targetOffset + k] = targetArray.getDouble(k);
+            }
+        }
+    }
+
     @Override
     public ArrayInt.D2 readAcquisitionTime(int x, int y, Interval interval) throws IOException, InvalidRangeException {
         // @todo 3 tb/** this method should be combined with the functionality implemented in WindowReader classes. 2016-08-10
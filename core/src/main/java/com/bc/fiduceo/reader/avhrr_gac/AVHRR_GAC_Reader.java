@@ -39,7 +39,6 @@ import com.bc.fiduceo.util.NetCDFUtils;
 import com.bc.fiduceo.util.TimeUtils;
 import org.esa.snap.core.util.StringUtils;
 import ucar.ma2.Array;
-import ucar.ma2.ArrayFloat;
 import ucar.ma2.ArrayInt;
 import ucar.ma2.Index;
 import ucar.ma2.InvalidRangeException;
@@ -88,6 +87,10 @@ public class AVHRR_GAC_Reader implements Reader {
     public void close() throws IOException {
         timeLocator = null;
         pixelLocator = null;
+        if (arrayCache != null) {
+            arrayCache.dispose();
+            arrayCache = null;
+        }
         if (netcdfFile != null) {
             netcdfFile.close();
             netcdfFile = null;
@@ -122,16 +125,27 @@ public class AVHRR_GAC_Reader implements Reader {
     @Override
     public PixelLocator getPixelLocator() throws IOException {
         if (pixelLocator == null) {
-            final ArrayFloat lonStorage = (ArrayFloat) arrayCache.get("lon");
-            final ArrayFloat latStorage = (ArrayFloat) arrayCache.get("lat");
-            final int[] shape = lonStorage.getShape();
-            final int width = shape[1];
-            final int height = shape[0];
-            pixelLocator = PixelLocatorFactory.getSwathPixelLocator(lonStorage, latStorage, width, height);
+            final File productFile = new File(netcdfFile.getLocation());
+            pixelLocator = PixelLocatorFactory.getSwathPixelLocator(productFile, new PixelLocatorFactory.GeolocationProvider() {
+                @Override
+                public Array getLongitudes() throws IOException {
+                    return arrayCache.get("lon");
+                }
+
+                @Override
+                public Array getLatitudes() throws IOException {
+                    return arrayCache.get("lat");
+                }
+            });
         }
         return pixelLocator;
     }
 
+    @Override
+    public boolean readGeolocation(int startX, int y, int width, double[] lons, double[] lats) throws IOException {
+        return ReaderUtils.readGeolocation(arrayCache.get("lon"), arrayCache.get("lat"), startX, y, width, lons, lats);
+    }
+
     @Override
     public PixelLocator getSubScenePixelLocator(Polygon sceneGeometry) throws IOException {
         final Array longitudes = arrayCache.get("lon");
@@ -158,11 +172,18 @@ public class AVHRR_GAC_Reader implements Reader {
 
     @Override
     public Array readRaw(int centerX, int centerY, Interval interval, String variableName) throws InvalidRangeException, IOException {
-        final Array rawArray = arrayCache.get(variableName);
         final Number fillValue = getFillValue(variableName);
 
         final int defaultWidth = getProductWidth(netcdfFile);
-        return RawDataReader.read(centerX, centerY, interval, fillValue, rawArray, defaultWidth);
+        return arrayCache.readWindow(variableName, centerX, centerY, interval, fillValue, defaultWidth);
+    }
+
+    @Override
+    public void readRaw(int centerX, int centerY, Interval interval, String variableName, Array target, int targetOffset) throws IOException, InvalidRangeException {
+        final Number fillValue = getFillValue(variableName);
+
+        final int defaultWidth = getProductWidth(netcdfFile);
+        arrayCache.readWindow(variableName, centerX, centerY, interval, fillValue, defaultWidth, target, targetOffset);
     }
 
     @Override
@@ -178,6 +199,17 @@ public class AVHRR_GAC_Reader implements Reader {
         return array;
     }
 
+    @Override
+    public void readScaled(int[] x, int[] y, int numPixels, Interval interval, String variableName, double[] target) throws IOException, InvalidRangeException {
+        final Array array = arrayCache.get(variableName);
+        final Number fillValue = getFillValue(variableName);
+        final double scaleFactor = getScaleFactor(variableName);
+        final double offset = getOffset(variableName);
+
+        final int defaultWidth = getProductWidth(netcdfFile);
+        RawDataReader.readScaled(x, y, numPixels, interval, fillValue, array, defaultWidth, scaleFactor, offset, target);
+    }
+
     @Override
     public ArrayInt.D2 readAcquisitionTime(int x, int y, Interval interval) throws IOException, InvalidRangeException {
         final Array raw = readRaw(x, y, interval, "dtime");
@@ -78,7 +78,10 @@ public class HIRS_L1C_Reader implements Reader {
 
     @Override
     public void close() throws IOException {
-        arrayCache = null;
+        if (arrayCache != null) {
+            arrayCache.dispose();
+            arrayCache = null;
+        }
         if (netcdfFile != null) {
             netcdfFile.close();
             netcdfFile = null;
@@ -108,17 +111,27 @@ public class HIRS_L1C_Reader implements Reader {
     @Override
     public PixelLocator getPixelLocator() throws IOException {
         if (pixelLocator == null) {
-            final Array lonArray = arrayCache.get("lon");
-            final Array latArray = arrayCache.get("lat");
-
-            final int[] shape = lonArray.getShape();
-            final int width = shape[1];
-            final int height = shape[0];
-            pixelLocator = PixelLocatorFactory.getSwathPixelLocator(NetCDFUtils.toFloat(lonArray), NetCDFUtils.toFloat(latArray), width, height);
+            final File productFile = new File(netcdfFile.getLocation());
+            pixelLocator = PixelLocatorFactory.getSwathPixelLocator(productFile, new PixelLocatorFactory.GeolocationProvider() {
+                @Override
+                public Array getLongitudes() throws IOException {
+                    return NetCDFUtils.toFloat(arrayCache.get("lon"));
+                }
+
+                @Override
+                public Array getLatitudes() throws IOException {
+                    return NetCDFUtils.toFloat(arrayCache.get("lat"));
+                }
+            });
         }
         return pixelLocator;
     }
 
+    @Override
+    public boolean readGeolocation(int startX, int y, int width, double[] lons, double[] lats) throws IOException {
+        return ReaderUtils.readGeolocation(arrayCache.get("lon"), arrayCache.get("lat"), startX, y, width, lons, lats);
+    }
+
     @Override
     public PixelLocator getSubScenePixelLocator(Polygon sceneGeometry) throws IOException {
         final Array lonArray = arrayCache.get("lon");
@@ -142,19 +155,7 @@ public class HIRS_L1C_Reader implements Reader {
         if (variableName.equals("scanpos")) {
             return readScanPos(centerX, interval);
         }
-        final String fullVariableName = ReaderUtils.stripChannelSuffix(variableName);
-
-        Array array = arrayCache.get(fullVariableName);
-        final int rank = array.getRank();
-
-        if (rank == 3) {
-            final int channelIndex = ReaderUtils.getChannelIndex(variableName);
-            final int[] shape = array.getShape();
-            shape[2] = 1;   // we only want one z-layer
-            final int[] offsets = {0, 0, channelIndex};
-            array = array.section(offsets, shape);
-        }
-
+        final Array array = getLayerArray(variableName);
         final Number fillValue = NetCDFUtils.getDefaultFillValue(array);
 
         final Dimension productSize = getProductSize();
@@ -166,6 +167,20 @@ public class HIRS_L1C_Reader implements Reader {
         return readRaw(centerX, centerY, interval, variableName);   // all variables are already scaled tb 2016-08-03
     }
 
+    @Override
+    public void readScaled(int[] x, int[] y, int numPixels, Interval interval, String variableName, double[] target) throws IOException, InvalidRangeException {
+        if (variableName.equals("scanpos")) {
+            readScanPos(x, numPixels, interval, target);
+            return;
+        }
+
+        final Array array = getLayerArray(variableName);
+        final Number fillValue = NetCDFUtils.getDefaultFillValue(array);
+
+        final Dimension productSize = getProductSize();
+        RawDataReader.readScaled(x, y, numPixels, interval, fillValue, array, productSize.getNx(), 1.0, 0.0, target);
+    }
+
     @Override
     public ArrayInt.D2 readAcquisitionTime(int centerX, int centerY, Interval interval) throws IOException, InvalidRangeException {
         final Array timeArray = arrayCache.get("time");
@@ -260,6 +275,22 @@ public class HIRS_L1C_Reader implements Reader {
         return new BoundingPolygonCreator(INTERVAL, geometryFactory);
     }
 
+    private Array getLayerArray(String variableName) throws IOException, InvalidRangeException {
+        final String fullVariableName = ReaderUtils.stripChannelSuffix(variableName);
+
+        Array array = arrayCache.get(fullVariableName);
+        final int rank = array.getRank();
+
+        if (rank == 3) {
+            final int channelIndex = ReaderUtils.getChannelIndex(variableName);
+            final int[] shape = array.getShape();
+            shape[2] = 1;   // we only want one z-layer
+            final int[] offsets = {0, 0, channelIndex};
+            array = array.section(offsets, shape);
+        }
+        return array;
+    }
+
     private Array readScanPos(int centerX, Interval interval) throws IOException {
         final Array scanpos = arrayCache.get("scanpos");
         final int originalWidth = scanpos.getShape()[0];
@@ -289,4 +320,26 @@ public class HIRS_L1C_Reader implements Reader {
 
         return result;
     }
+
+    private void readScanPos(int[] centerX, int numPixels, Interval interval, double[] target) throws IOException {
+        final Array scanpos = arrayCache.get("scanpos");
+        final int originalWidth = scanpos.getShape()[0];
+        final double fillValue = NetCDFUtils.getDefaultFillValue(scanpos).intValue();
+        final int width = interval.getX();
+        final int height = interval.getY();
+
+        int targetIndex = 0;
+        for (int i = 0; i < numPixels; i++) {
+            final int offsetX = centerX[i] - width / 2;
+            for (int y = 0; y < height; y++) {
+                for (int x = offsetX; x < offsetX + width; x++) {
+                    if (x >= 0 && x < originalWidth) {
+                        target[targetIndex++] = scanpos.getInt(x);
+                    } else {
+                        target[targetIndex++] = fillValue;
+                    }
+                }
+            }
+        }
+    }
 }
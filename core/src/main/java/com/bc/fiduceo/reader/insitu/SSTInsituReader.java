@@ -37,6 +37,7 @@ import ucar.nc2.Variable;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.HashMap;
 import java.util.List;
@@ -147,6 +148,22 @@ public class SSTInsituReader implements Reader {
         return readRaw(centerX, centerY, interval, variableName);
     }
 
+    @Override
+    public void readScaled(int[] x, int[] y, int numPixels, Interval interval, String variableName, double[] target) throws IOException, InvalidRangeException {
+        final Array sourceArray = arrayMap.get(variableName);
+        final double fillValue = fillValueMap.get(variableName).doubleValue();
+
+        final int windowWidth = interval.getX();
+        final int windowHeight = interval.getY();
+        final int windowSize = windowWidth * windowHeight;
+        final int centerIndex = windowWidth * (windowHeight / 2) + windowWidth / 2;
+        for (int i = 0; i < numPixels; i++) {
+            final int targetOffset = i * windowSize;
+            Arrays.fill(target, targetOffset, targetOffset + windowSize, fillValue);
+            target[targetOffset + centerIndex] = sourceArray.getDouble(y[i]);
+        }
+    }
+
     @Override
     public ArrayInt.D2 readAcquisitionTime(int x, int y, Interval interval) throws IOException, InvalidRangeException {
         final Array acquisitionTime_1978 = readRaw(x, y, interval, "insitu.time");
@@ -44,7 +44,6 @@ import com.bc.fiduceo.reader.WindowReader;
 import com.bc.fiduceo.util.NetCDFUtils;
 import org.esa.snap.core.datamodel.ProductData;
 import ucar.ma2.Array;
-import ucar.ma2.ArrayFloat;
 import ucar.ma2.ArrayInt;
 import ucar.ma2.DataType;
 import ucar.ma2.Index;
@@ -105,6 +104,10 @@ class SSMT2_Reader implements Reader {
         variablesList = null;
         pixelLocator = null;
         timeLocator = null;
+        if (arrayCache != null) {
+            arrayCache.dispose();
+            arrayCache = null;
+        }
         if (netcdfFile != null) {
             netcdfFile.close();
             netcdfFile = null;
@@ -130,16 +133,27 @@ class SSMT2_Reader implements Reader {
     @Override
     public PixelLocator getPixelLocator() throws IOException {
         if (pixelLocator == null) {
-            final ArrayFloat lonStorage = (ArrayFloat) arrayCache.get("lon");
-            final ArrayFloat latStorage = (ArrayFloat) arrayCache.get("lat");
-            final int[] shape = lonStorage.getShape();
-            final int width = shape[1];
-            final int height = shape[0];
-            pixelLocator = PixelLocatorFactory.getSwathPixelLocator(lonStorage, latStorage, width, height);
+            final File productFile = new File(netcdfFile.getLocation());
+            pixelLocator = PixelLocatorFactory.getSwathPixelLocator(productFile, new PixelLocatorFactory.GeolocationProvider() {
+                @Override
+                public Array getLongitudes() throws IOException {
+                    return arrayCache.get("lon");
+                }
+
+                @Override
+                public Array getLatitudes() throws IOException {
+                    return arrayCache.get("lat");
+                }
+            });
         }
         return pixelLocator;
     }
 
+    @Override
+    public boolean readGeolocation(int startX, int y, int width, double[] lons, double[] lats) throws IOException {
+        return ReaderUtils.readGeolocation(arrayCache.get("lon"), arrayCache.get("lat"), startX, y, width, lons, lats);
+    }
+
     @Override
     public PixelLocator getSubScenePixelLocator(Polygon sceneGeometry) throws IOException {
         final Array longitudes = arrayCache.get("lon");
@@ -186,6 +200,12 @@ class SSMT2_Reader implements Reader {
         return readersMap.get(variableName).read(centerX, centerY, interval);
     }
 
+    @Override
+    public void readScaled(int[] x, int[] y, int numPixels, Interval interval, String variableName, double[] target) throws IOException, InvalidRangeException {
+        ensureInitialisation();
+        readersMap.get(variableName).read(x, y, numPixels, interval, target);
+    }
+
     @Override
     public ArrayInt.D2 readAcquisitionTime(int x, int y, Interval interval) throws IOException, InvalidRangeException {
         final Dimension productSize = getProductSize();
@@ -543,6 +563,14 @@ class SSMT2_Reader implements Reader {
             }
         }
 
+        @Override
+        public void read(int[] x, int[] y, int numPixels, Interval interval, double[] target) throws IOException {
+            if (needData) {
+                initData();
+            }
+            RawDataReader.readScaled(x, y, numPixels, interval, fillValue, dataArray, defaultWidth, 1.0, 0.0, target);
+        }
+
         void initData() throws IOException {
             dataArray = arrayCache.get(shortName);
             fillValue = NetCDFUtils.getDefaultFillValue(dataArray);
@@ -577,6 +605,14 @@ class SSMT2_Reader implements Reader {
             }
         }
 
+        @Override
+        public void read(int[] x, int[] y, int numPixels, Interval interval, double[] target) throws IOException {
+            if (needData) {
+                initData();
+            }
+            RawDataReader.readScaled(x, y, numPixels, interval, fillValue, dataArray, defaultWidth, 1.0, 0.0, target);
+        }
+
         void initData() throws IOException {
             dataArray = arrayCache.get(shortName);
             fillValue = NetCDFUtils.getDefaultFillValue(dataArray);
@@ -45,6 +45,7 @@ import com.bc.fiduceo.core.SystemConfig;
 import com.bc.fiduceo.core.UseCaseConfig;
 import com.bc.fiduceo.db.Storage;
 import com.bc.fiduceo.geometry.GeometryFactory;
+import com.bc.fiduceo.reader.ReaderCache;
 import com.bc.fiduceo.reader.ReaderFactory;
 
 import java.util.Date;
@@ -58,6 +59,7 @@ public class ToolContext {
     private UseCaseConfig useCaseConfig;
     private GeometryFactory geometryFactory;
     private ReaderFactory readerFactory;
+    private ReaderCache readerCache;
 
     public void setStartDate(Date startDate) {
         this.startDate = startDate;
@@ -114,4 +116,12 @@ public class ToolContext {
     public void setReaderFactory(ReaderFactory readerFactory) {
         this.readerFactory = readerFactory;
     }
+
+    public ReaderCache getReaderCache() {
+        return readerCache;
+    }
+
+    public void setReaderCache(ReaderCache readerCache) {
+        this.readerCache = readerCache;
+    }
 }
@@ -8,6 +8,7 @@ import javax.media.jai.PlanarImage;
 import java.awt.geom.Point2D;
 import java.awt.image.RenderedImage;
 import java.util.ArrayList;
+import java.util.BitSet;
 
 // @todo se/** remove inheritance of this super class in SwathPixelLocator if the used dependencies from snap
 // are changed to public and are usable in package com.bc.fiduceo.location. Move all the functionality to
@@ -25,24 +26,32 @@ public class SnapAvoidCodeDuplicationClass_SwathPixelLocator implements PixelLoc
     private final int width;
     private final int height;
     private final Point2D.Double internalUsePoint;
+    private final GeoApproximation[] approximations;
+    private final float[] lons;
+    private final float[] lats;
     private BestApproximations bestApproximations;
+    private ApproximationIndex approximationIndex;
     private PixelPos internalUsePixelPos;
+    private double[] internalUseX;
+    private double[] internalUseY;
 
     public SnapAvoidCodeDuplicationClass_SwathPixelLocator(Array lonArray, Array latArray, int width, int height) {
         this.width = width;
         this.height = height;
         PlanarImage lonImg = getPlanarImage(lonArray, width, height);
         PlanarImage latImg = getPlanarImage(latArray, width, height);
-        GeoApproximation[] approximations = GeoApproximation.createApproximations(lonImg, latImg, null, 0.1);
+        approximations = GeoApproximation.createApproximations(lonImg, latImg, null, 0.1);
         bestApproximations = new BestApproximations(approximations);
-        final float[] lats = (float[]) latArray.getStorage();
-        final float[] lons = (float[]) lonArray.getStorage();
+        lats = (float[]) latArray.getStorage();
+        lons = (float[]) lonArray.getStorage();
         final TiePointGrid latGrid = new TiePointGrid("lat", width, height, 0.5, 0.5, 1.0, 1.0, lats);
         final TiePointGrid lonGrid = new TiePointGrid("lon", width, height, 0.5, 0.5, 1.0, 1.0, lons);
         gc = new TiePointGeoCoding(latGrid, lonGrid);
         internalUseGeoPos = new GeoPos();
         internalUsePixelPos = new PixelPos();
         internalUsePoint = new Point2D.Double();
+        internalUseX = new double[4];
+        internalUseY = new double[4];
     }
 
     protected static PlanarImage getPlanarImage(Array data, int width, int height) {
@@ -69,20 +78,59 @@ public class SnapAvoidCodeDuplicationClass_SwathPixelLocator implements PixelLoc
 
     @Override
     public Point2D[] getPixelLocation(double lon, double lat) {
+        findBestApproximations(lon, lat);
+        return createLocations(lon, lat);
+    }
+
+    @Override
+    public int getPixelLocation(double lon, double lat, double[] x, double[] y) {
+        findBestApproximations(lon, lat);
+        return writeLocations(lon, lat, x, y);
+    }
+
+    // tests all approximations of the swath, the reference for the indexed search
+    protected Point2D[] getPixelLocationExhaustive(double lon, double lat) {
         bestApproximations.findFor(lon, lat);
-        if (!bestApproximations.hasApproximations()) {
-            return new Point2D[0];
+        return createLocations(lon, lat);
+    }
+
+    private void findBestApproximations(double lon, double lat) {
+        if (approximationIndex == null) {
+            approximationIndex = new ApproximationIndex(approximations, lons, lats, width, height);
+        }
+        bestApproximations.findFor(lon, lat, approximationIndex.getCandidates(lon, lat));
+    }
+
+    private Point2D[] createLocations(double lon, double lat) {
+        int numLocations = writeLocations(lon, lat, internalUseX, internalUseY);
+        if (numLocations > internalUseX.length) {
+            internalUseX = new double[numLocations];
+            internalUseY = new double[numLocations];
+            numLocations = writeLocations(lon, lat, internalUseX, internalUseY);
+        }
+
+        final Point2D[] pipos = new Point2D[numLocations];
+        for (int i = 0; i < numLocations; i++) {
+            pipos[i] = new Point2D.Double(internalUseX[i], internalUseY[i]);
         }
-        final ArrayList<Point2D> pipos = new ArrayList<>();
-        final ArrayList<GeoApproximation> theBest = bestApproximations.getTheBest();
-        for (GeoApproximation a : theBest) {
+        return pipos;
+    }
+
+    private int writeLocations(double lon, double lat, double[] x, double[] y) {
+        int numLocations = 0;
+        final int numBest = bestApproximations.getNumBest();
+        for (int i = 0; i < numBest; i++) {
             internalUsePoint.setLocation(lon, lat);
-            a.g2p(internalUsePoint);
+            bestApproximations.getBest(i).g2p(internalUsePoint);
             if (isValid(internalUsePoint)) {
-                pipos.add(new Point2D.Double(internalUsePoint.getX(), internalUsePoint.getY()));
+                if (numLocations < x.length) {
+                    x[numLocations] = internalUsePoint.getX();
+                    y[numLocations] = internalUsePoint.getY();
+                }
+                ++numLocations;
             }
         }
-        return pipos.toArray(new Point2D[0]);
+        return numLocations;
     }
 
     private boolean isValid(Point2D p) {
@@ -94,41 +142,48 @@ public class SnapAvoidCodeDuplicationClass_SwathPixelLocator implements PixelLoc
     protected static class BestApproximations {
 
         private final GeoApproximation[] approximations;
-        private final ArrayList<GeoApproximation> best;
-        private final ArrayList<Integer> bestIdx;
-        private final ArrayList<Double> distances;
+        private final int[] allIndices;
+        private final int[] bestIdx;
+        private final double[] distances;
+        private int numBest;
 
         public BestApproximations(GeoApproximation[] approximations) {
             this.approximations = approximations;
-            best = new ArrayList<>();
-            bestIdx = new ArrayList<>();
-            distances = new ArrayList<>();
+            allIndices = new int[approximations.length];
+            for (int i = 0; i < allIndices.length; i++) {
+                allIndices[i] = i;
+            }
+            bestIdx = new int[approximations.length];
+            distances = new double[approximations.length];
         }
 
         public void findFor(double lon, double lat) {
-            emptyFields();
-            for (int i = 0; i < approximations.length; i++) {
-                GeoApproximation a = approximations[i];
+            findFor(lon, lat, allIndices);
+        }
+
+        /**
+         * @param candidates the indices of the approximations to test, in ascending order
+         */
+        public void findFor(double lon, double lat, int[] candidates) {
+            numBest = 0;
+            for (final int i : candidates) {
+                final GeoApproximation a = approximations[i];
                 final double distance = a.getDistance(lat, lon);
                 if (distance <= a.getMaxDistance()) {
-                    best.add(a);
-                    bestIdx.add(i);
-                    distances.add(distance);
+                    bestIdx[numBest] = i;
+                    distances[numBest] = distance;
+                    ++numBest;
                 }
             }
             findCouplesAndKeepTheBest();
         }
 
         private void findCouplesAndKeepTheBest() {
-            for (int i = 1; i < best.size(); i++) {
+            for (int i = 1; i < numBest; i++) {
                 final int first = i - 1;
-                final Integer i1 = bestIdx.get(first);
-                final Integer i2 = bestIdx.get(i);
-                final boolean isNeighbor = i2 - i1 == 1;
+                final boolean isNeighbor = bestIdx[i] - bestIdx[first] == 1;
                 if (isNeighbor) {
-                    final double d1 = distances.get(first);
-                    final double d2 = distances.get(i);
-                    if (d1 < d2) {
+                    if (distances[first] < distances[i]) {
                         remove(i);
                     } else {
                         remove(first);
@@ -139,23 +194,186 @@ public class SnapAvoidCodeDuplicationClass_SwathPixelLocator implements PixelLoc
         }
 
         private void remove(int i) {
-            best.remove(i);
-            bestIdx.remove(i);
-            distances.remove(i);
+            final int numMoved = numBest - i - 1;
+            System.arraycopy(bestIdx, i + 1, bestIdx, i, numMoved);
+            System.arraycopy(distances, i + 1, distances, i, numMoved);
+            --numBest;
         }
 
-        private void emptyFields() {
-            best.clear();
-            bestIdx.clear();
-            distances.clear();
+        public boolean hasApproximations() {
+            return numBest > 0;
         }
 
-        public boolean hasApproximations() {
-            return best.size() > 0;
+        public int getNumBest() {
+            return numBest;
+        }
+
+        public GeoApproximation getBest(int i) {
+            return approximations[bestIdx[i]];
         }
 
         public ArrayList<GeoApproximation> getTheBest() {
+            final ArrayList<GeoApproximation> best = new ArrayList<>(numBest);
+            for (int i = 0; i < numBest; i++) {
+                best.add(getBest(i));
+            }
             return best;
         }
     }
+
+    /**
+     * Lat/lon grid of one degree cells, each listing the approximations which may accept a geo position inside
+     * the cell. The accepted region of an approximation is a cap around the swath part it has been fitted on.
+     * Valid pixel positions are only found for geo positions inside the swath, and each of these lies within
+     * three sample spacings of a swath sample accepted by the same approximation - so a cell lists an approximation
+     * if it is closer than this margin to one of the accepted samples. The exact distance test is still applied
+     * to the candidates, the index only skips approximations which cannot match.
+     */
+    protected static class ApproximationIndex {
+
+        private static final int MAX_SAMPLES = 40000;
+        private static final int NUM_LAT_CELLS = 180;
+        private static final int NUM_LON_CELLS = 360;
+        private static final int[] NO_CANDIDATES = new int[0];
+
+        private final int[][] cells;
+
+        public ApproximationIndex(GeoApproximation[] approximations, float[] lons, float[] lats, int width, int height) {
+            final int step = Math.max(1, (int) Math.sqrt((double) width * height / MAX_SAMPLES));
+            final int[] sampleX = getSampleCoordinates(width, step);
+            final int[] sampleY = getSampleCoordinates(height, step);
+
+            final double margin = 3.0 * getMaxSampleSpacing(lons, lats, width, sampleX, sampleY);
+
+            final BitSet[] cellSets = new BitSet[NUM_LAT_CELLS * NUM_LON_CELLS];
+            final BitSet acceptedCells = new BitSet(NUM_LAT_CELLS * NUM_LON_CELLS);
+            final BitSet markedCells = new BitSet(NUM_LAT_CELLS * NUM_LON_CELLS);
+            for (int a = 0; a < approximations.length; a++) {
+                final GeoApproximation approximation = approximations[a];
+                final double maxDistance = approximation.getMaxDistance();
+                acceptedCells.clear();
+                for (final int y : sampleY) {
+                    for (final int x : sampleX) {
+                        final int index = y * width + x;
+                        final double lon = lons[index];
+                        final double lat = lats[index];
+                        if (isValidGeoPos(lon, lat) && approximation.getDistance(lat, lon) <= maxDistance) {
+                            acceptedCells.set(getLatCell(lat) * NUM_LON_CELLS + getLonCell(lon));
+                        }
+                    }
+                }
+
+                markedCells.clear();
+                for (int cell = acceptedCells.nextSetBit(0); cell >= 0; cell = acceptedCells.nextSetBit(cell + 1)) {
+                    markCells(markedCells, cell / NUM_LON_CELLS, cell % NUM_LON_CELLS, margin);
+                }
+                for (int cell = markedCells.nextSetBit(0); cell >= 0; cell = markedCells.nextSetBit(cell + 1)) {
+                    if (cellSets[cell] == null) {
+                        cellSets[cell] = new BitSet();
+                    }
+                    cellSets[cell].set(a);
+                }
+            }
+
+            cells = new int[cellSets.length][];
+            for (int i = 0; i < cellSets.length; i++) {
+                cells[i] = cellSets[i] == null ? NO_CANDIDATES : cellSets[i].stream().toArray();
+            }
+        }
+
+        public int[] getCandidates(double lon, double lat) {
+            if (!isValidGeoPos(lon, lat)) {
+                return NO_CANDIDATES;
+            }
+            return cells[getLatCell(lat) * NUM_LON_CELLS + getLonCell(lon)];
+        }
+
+        private static int[] getSampleCoordinates(int size, int step) {
+            final int numSamples = (size - 1) / step + 1;
+            final boolean addLast = (size - 1) % step != 0;
+            final int[] coordinates = new int[addLast ? numSamples + 1 : numSamples];
+            for (int i = 0; i < numSamples; i++) {
+                coordinates[i] = i * step;
+            }
+            if (addLast) {
+                coordinates[numSamples] = size - 1;
+            }
+            return coordinates;
+        }
+
+        // in degrees, the largest great circle distance between neighbouring samples
+        private static double getMaxSampleSpacing(float[] lons, float[] lats, int width, int[] sampleX, int[] sampleY) {
+            double maxSpacing = 0.0;
+            for (int j = 0; j < sampleY.length; j++) {
+                for (int i = 0; i < sampleX.length; i++) {
+                    final int index = sampleY[j] * width + sampleX[i];
+                    if (i + 1 < sampleX.length) {
+                        final int right = sampleY[j] * width + sampleX[i + 1];
+                        maxSpacing = Math.max(maxSpacing, getSpacing(lons, lats, index, right));
+                    }
+                    if (j + 1 < sampleY.length) {
+                        final int below = sampleY[j + 1] * width + sampleX[i];
+                        maxSpacing = Math.max(maxSpacing, getSpacing(lons, lats, index, below));
+                    }
+                }
+            }
+            return maxSpacing;
+        }
+
+        private static double getSpacing(float[] lons, float[] lats, int index1, int index2) {
+            final double lon1 = lons[index1];
+            final double lat1 = lats[index1];
+            final double lon2 = lons[index2];
+            final double lat2 = lats[index2];
+            if (!isValidGeoPos(lon1, lat1) || !isValidGeoPos(lon2, lat2)) {
+                return 0.0;
+            }
+
+            final double phi1 = Math.toRadians(lat1);
+            final double phi2 = Math.toRadians(lat2);
+            final double cosAngle = Math.sin(phi1) * Math.sin(phi2) + Math.cos(phi1) * Math.cos(phi2) * Math.cos(Math.toRadians(lon2 - lon1));
+            return Math.toDegrees(Math.acos(Math.max(-1.0, Math.min(1.0, cosAngle))));
+        }
+
+        // marks all cells closer than the margin to any position inside the accepted cell
+        private static void markCells(BitSet markedCells, int latCell, int lonCell, double margin) {
+            final int cellMargin = (int) Math.ceil(margin);
+            final int minLatCell = Math.max(0, latCell - cellMargin);
+            final int maxLatCell = Math.min(NUM_LAT_CELLS - 1, latCell + cellMargin);
+
+            final double maxAbsLat = Math.max(Math.abs(latCell - 90.0), Math.abs(latCell - 89.0)) + margin;
+            int minLonCell = 0;
+            int numLonCells = NUM_LON_CELLS;
+            if (maxAbsLat < 89.0) {
+                final int lonCellMargin = (int) Math.ceil(margin / Math.cos(Math.toRadians(maxAbsLat)));
+                numLonCells = Math.min(NUM_LON_CELLS, 2 * lonCellMargin + 1);
+                minLonCell = (lonCell - lonCellMargin + NUM_LON_CELLS) % NUM_LON_CELLS;
+            }
+
+            for (int lat = minLatCell; lat <= maxLatCell; lat++) {
+                final int rowStart = lat * NUM_LON_CELLS;
+                final int end = minLonCell + numLonCells;
+                if (end <= NUM_LON_CELLS) {
+                    markedCells.set(rowStart + minLonCell, rowStart + end);
+                } else {
+                    markedCells.set(rowStart + minLonCell, rowStart + NUM_LON_CELLS);
+                    markedCells.set(rowStart, rowStart + end - NUM_LON_CELLS);
+                }
+            }
+        }
+
+        private static int getLatCell(double lat) {
+            final int cell = (int) Math.floor(lat + 90.0);
+            return Math.max(0, Math.min(NUM_LAT_CELLS - 1, cell));
+        }
+
+        private static int getLonCell(double lon) {
+            final int cell = (int) Math.floor(lon + 180.0) % NUM_LON_CELLS;
+            return cell < 0 ? cell + NUM_LON_CELLS : cell;
+        }
+
+        private static boolean isValidGeoPos(double lon, double lat) {
+            return !Double.isNaN(lon) && !Double.isInfinite(lon) && lat >= -90.0 && lat <= 90.0;
+        }
+    }
 }
@@ -29,6 +29,9 @@ import java.io.IOException;
 import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 public class SystemConfigTest {
@@ -85,10 +88,144 @@ public class SystemConfigTest {
         assertEquals("VERSION", pathElements[1]);
     }
 
+    @Test
+    public void testLoadAndGet_workerThreads() throws IOException {
+        final String useCaseXml = "<system-config>" +
+                "    <worker-threads>6</worker-threads>" +
+                "</system-config>";
+        final ByteArrayInputStream inputStream = new ByteArrayInputStream(useCaseXml.getBytes());
+
+        final SystemConfig systemConfig = SystemConfig.load(inputStream);
+
+        assertEquals(6, systemConfig.getNumWorkerThreads());
+    }
+
+    @Test
+    public void testLoadAndGet_workerThreads_invalid() throws IOException {
+        final String useCaseXml = "<system-config>" +
+                "    <worker-threads>0</worker-threads>" +
+                "</system-config>";
+        final ByteArrayInputStream inputStream = new ByteArrayInputStream(useCaseXml.getBytes());
+
+        try {
+            SystemConfig.load(inputStream);
+            fail("RuntimeException expected");
+        } catch (RuntimeException expected) {
+        }
+    }
+
+    @Test
+    public void testLoadAndGet_maxMatchupsInMemory() throws IOException {
+        final String useCaseXml = "<system-config>" +
+                "    <max-matchups-in-memory>250000</max-matchups-in-memory>" +
+                "</system-config>";
+        final ByteArrayInputStream inputStream = new ByteArrayInputStream(useCaseXml.getBytes());
+
+        final SystemConfig systemConfig = SystemConfig.load(inputStream);
+
+        assertEquals(250000, systemConfig.getMaxMatchupsInMemory());
+    }
+
+    @Test
+    public void testLoadAndGet_maxMatchupsInMemory_invalid() throws IOException {
+        final String useCaseXml = "<system-config>" +
+                "    <max-matchups-in-memory>-3</max-matchups-in-memory>" +
+                "</system-config>";
+        final ByteArrayInputStream inputStream = new ByteArrayInputStream(useCaseXml.getBytes());
+
+        try {
+            SystemConfig.load(inputStream);
+            fail("RuntimeException expected");
+        } catch (RuntimeException expected) {
+        }
+    }
+
+    @Test
+    public void testLoadAndGet_geolocationCacheDir() throws IOException {
+        final String useCaseXml = "<system-config>" +
+                "    <geolocation-cache-dir>/data/mms/geolocation-cache</geolocation-cache-dir>" +
+                "</system-config>";
+        final ByteArrayInputStream inputStream = new ByteArrayInputStream(useCaseXml.getBytes());
+
+        final SystemConfig systemConfig = SystemConfig.load(inputStream);
+
+        assertEquals("/data/mms/geolocation-cache", systemConfig.getGeolocationCacheDir());
+    }
+
+    @Test
+    public void testLoadAndGet_arrayCacheSize() throws IOException {
+        final String useCaseXml = "<system-config>" +
+                "    <array-cache-size-mb>2048</array-cache-size-mb>" +
+                "</system-config>";
+        final ByteArrayInputStream inputStream = new ByteArrayInputStream(useCaseXml.getBytes());
+
+        final SystemConfig systemConfig = SystemConfig.load(inputStream);
+
+        assertEquals(2048, systemConfig.getArrayCacheSizeMb());
+    }
+
+    @Test
+    public void testLoadAndGet_arrayCacheSize_invalid() throws IOException {
+        final String useCaseXml = "<system-config>" +
+                "    <array-cache-size-mb>0</array-cache-size-mb>" +
+                "</system-config>";
+        final ByteArrayInputStream inputStream = new ByteArrayInputStream(useCaseXml.getBytes());
+
+        try {
+            SystemConfig.load(inputStream);
+            fail("RuntimeException expected");
+        } catch (RuntimeException expected) {
+        }
+    }
+
+    @Test
+    public void testLoadAndGet_copyBufferSize() throws IOException {
+        final String useCaseXml = "<system-config>" +
+                "    <copy-buffer-size-mb>32</copy-buffer-size-mb>" +
+                "</system-config>";
+        final ByteArrayInputStream inputStream = new ByteArrayInputStream(useCaseXml.getBytes());
+
+        final SystemConfig systemConfig = SystemConfig.load(inputStream);
+
+        assertEquals(32, systemConfig.getCopyBufferSizeMb());
+    }
+
+    @Test
+    public void testLoadAndGet_copyBufferSize_invalid() throws IOException {
+        final String useCaseXml = "<system-config>" +
+                "    <copy-buffer-size-mb>0</copy-buffer-size-mb>" +
+                "</system-config>";
+        final ByteArrayInputStream inputStream = new ByteArrayInputStream(useCaseXml.getBytes());
+
+        try {
+            SystemConfig.load(inputStream);
+            fail("RuntimeException expected");
+        } catch (RuntimeException expected) {
+        }
+    }
+
     @Test
     public void testDefaultValues() {
         final SystemConfig systemConfig = new SystemConfig();
 
         assertEquals("S2", systemConfig.getGeometryLibraryType());
+        assertEquals(1, systemConfig.getNumWorkerThreads());
+        assertEquals(1000000, systemConfig.getMaxMatchupsInMemory());
+        assertNull(systemConfig.getGeolocationCacheDir());
+        assertEquals(512, systemConfig.getArrayCacheSizeMb());
+        assertFalse(systemConfig.isFusedConditions());
+        assertEquals(128, systemConfig.getCopyBufferSizeMb());
+    }
+
+    @Test
+    public void testLoadAndGet_fusedConditions() throws IOException {
+        final String useCaseXml = "<system-config>" +
+                "    <fused-conditions>true</fused-conditions>" +
+                "</system-config>";
+        final ByteArrayInputStream inputStream = new ByteArrayInputStream(useCaseXml.getBytes());
+
+        final SystemConfig systemConfig = SystemConfig.load(inputStream);
+
+        assertTrue(systemConfig.isFusedConditions());
     }
 }
@@ -21,20 +21,73 @@
 package com.bc.fiduceo.db;
 
 
+import com.bc.fiduceo.core.SatelliteObservation;
+import com.bc.fiduceo.geometry.Geometry;
+import com.bc.fiduceo.geometry.GeometryFactory;
 import com.bc.fiduceo.util.TimeUtils;
 import org.junit.Test;
 
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 public class AbstractDriverTest {
 
     @Test
     public void testCreateSql_noParameter() {
-        final String sql = AbstractDriver.createSql(null);
+        final List<Object> values = new ArrayList<>();
+        final String sql = AbstractDriver.createSql(null, values);
 
         assertEquals("SELECT * FROM SATELLITE_OBSERVATION obs INNER JOIN SENSOR sen ON obs.SensorId = sen.ID INNER JOIN TIMEAXIS axis ON obs.ID = axis.ObservationId", sql);
+        assertTrue(values.isEmpty());
+    }
+
+    @Test
+    public void testCreateSql_emptyParameter() {
+        final List<Object> values = new ArrayList<>();
+        final String sql = AbstractDriver.createSql(new QueryParameter(), values);
+
+        assertEquals("SELECT * FROM SATELLITE_OBSERVATION obs INNER JOIN SENSOR sen ON obs.SensorId = sen.ID INNER JOIN TIMEAXIS axis ON obs.ID = axis.ObservationId", sql);
+        assertTrue(values.isEmpty());
+    }
+
+    @Test
+    public void testCreateDataFileSql_noParameter() {
+        final List<Object> values = new ArrayList<>();
+        final String sql = AbstractDriver.createDataFileSql(null, values);
+
+        assertEquals("SELECT obs.DataFile FROM SATELLITE_OBSERVATION obs INNER JOIN SENSOR sen ON obs.SensorId = sen.ID", sql);
+    }
+
+    @Test
+    public void testCreateDataFileSql_emptyParameter() {
+        final List<Object> values = new ArrayList<>();
+        final String sql = AbstractDriver.createDataFileSql(new QueryParameter(), values);
+
+        assertEquals("SELECT obs.DataFile FROM SATELLITE_OBSERVATION obs INNER JOIN SENSOR sen ON obs.SensorId = sen.ID", sql);
+    }
+
+    @Test
+    public void testCreateDataFileSql_sensorAndVersion() {
+        final QueryParameter parameter = new QueryParameter();
+        parameter.setSensorName("amsub-n15");
+        parameter.setVersion("v1.0");
+
+        final List<Object> values = new ArrayList<>();
+        final String sql = AbstractDriver.createDataFileSql(parameter, values);
+
+        assertEquals("SELECT obs.DataFile FROM SATELLITE_OBSERVATION obs INNER JOIN SENSOR sen ON obs.SensorId = sen.ID WHERE sen.Name = ? AND obs.Version = ?", sql);
+        assertEquals(2, values.size());
+        assertEquals("amsub-n15", values.get(0));
+        assertEquals("v1.0", values.get(1));
     }
 
     @Test
@@ -43,9 +96,12 @@ public class AbstractDriverTest {
         final Date startDate = TimeUtils.create(1300000000000L);
         parameter.setStartTime(startDate);
 
-        final String sql = AbstractDriver.createSql(parameter);
+        final List<Object> values = new ArrayList<>();
+        final String sql = AbstractDriver.createSql(parameter, values);
 
-        assertEquals("SELECT * FROM SATELLITE_OBSERVATION obs INNER JOIN SENSOR sen ON obs.SensorId = sen.ID INNER JOIN TIMEAXIS axis ON obs.ID = axis.ObservationId WHERE obs.stopDate >= '2011-03-13 07:06:40.0'", sql);
+        assertEquals("SELECT * FROM SATELLITE_OBSERVATION obs INNER JOIN SENSOR sen ON obs.SensorId = sen.ID INNER JOIN TIMEAXIS axis ON obs.ID = axis.ObservationId WHERE obs.stopDate >= ?", sql);
+        assertEquals(1, values.size());
+        assertEquals(TimeUtils.toTimestamp(startDate), values.get(0));
     }
 
     @Test
@@ -53,9 +109,12 @@ public class AbstractDriverTest {
         final QueryParameter parameter = new QueryParameter();
         parameter.setStopTime(TimeUtils.create(1210000000000L));
 
-        final String sql = AbstractDriver.createSql(parameter);
+        final List<Object> values = new ArrayList<>();
+        final String sql = AbstractDriver.createSql(parameter, values);
 
-        assertEquals("SELECT * FROM SATELLITE_OBSERVATION obs INNER JOIN SENSOR sen ON obs.SensorId = sen.ID INNER JOIN TIMEAXIS axis ON obs.ID = axis.ObservationId WHERE obs.startDate <= '2008-05-05 15:06:40.0'", sql);
+        assertEquals("SELECT * FROM SATELLITE_OBSERVATION obs INNER JOIN SENSOR sen ON obs.SensorId = sen.ID INNER JOIN TIMEAXIS axis ON obs.ID = axis.ObservationId WHERE obs.startDate <= ?", sql);
+        assertEquals(1, values.size());
+        assertEquals(new Timestamp(1210000000000L), values.get(0));
     }
 
     @Test
@@ -64,9 +123,13 @@ public class AbstractDriverTest {
         parameter.setStartTime(TimeUtils.create(1320000000000L));
         parameter.setStopTime(TimeUtils.create(1330000000000L));
 
-        final String sql = AbstractDriver.createSql(parameter);
+        final List<Object> values = new ArrayList<>();
+        final String sql = AbstractDriver.createSql(parameter, values);
 
-        assertEquals("SELECT * FROM SATELLITE_OBSERVATION obs INNER JOIN SENSOR sen ON obs.SensorId = sen.ID INNER JOIN TIMEAXIS axis ON obs.ID = axis.ObservationId WHERE obs.stopDate >= '2011-10-30 18:40:00.0' AND obs.startDate <= '2012-02-23 12:26:40.0'", sql);
+        assertEquals("SELECT * FROM SATELLITE_OBSERVATION obs INNER JOIN SENSOR sen ON obs.SensorId = sen.ID INNER JOIN TIMEAXIS axis ON obs.ID = axis.ObservationId WHERE obs.stopDate >= ? AND obs.startDate <= ?", sql);
+        assertEquals(2, values.size());
+        assertEquals(new Timestamp(1320000000000L), values.get(0));
+        assertEquals(new Timestamp(1330000000000L), values.get(1));
     }
 
     @Test
@@ -74,9 +137,12 @@ public class AbstractDriverTest {
         final QueryParameter parameter = new QueryParameter();
         parameter.setSensorName("fieberthermometer");
 
-        final String sql = AbstractDriver.createSql(parameter);
+        final List<Object> values = new ArrayList<>();
+        final String sql = AbstractDriver.createSql(parameter, values);
 
-        assertEquals("SELECT * FROM SATELLITE_OBSERVATION obs INNER JOIN SENSOR sen ON obs.SensorId = sen.ID INNER JOIN TIMEAXIS axis ON obs.ID = axis.ObservationId WHERE sen.Name = 'fieberthermometer'", sql);
+        assertEquals("SELECT * FROM SATELLITE_OBSERVATION obs INNER JOIN SENSOR sen ON obs.SensorId = sen.ID INNER JOIN TIMEAXIS axis ON obs.ID = axis.ObservationId WHERE sen.Name = ?", sql);
+        assertEquals(1, values.size());
+        assertEquals("fieberthermometer", values.get(0));
     }
 
     @Test
@@ -85,9 +151,13 @@ public class AbstractDriverTest {
         parameter.setSensorName("sensing");
         parameter.setStartTime(TimeUtils.create(1250000000000L));
 
-        final String sql = AbstractDriver.createSql(parameter);
+        final List<Object> values = new ArrayList<>();
+        final String sql = AbstractDriver.createSql(parameter, values);
 
-        assertEquals("SELECT * FROM SATELLITE_OBSERVATION obs INNER JOIN SENSOR sen ON obs.SensorId = sen.ID INNER JOIN TIMEAXIS axis ON obs.ID = axis.ObservationId WHERE obs.stopDate >= '2009-08-11 14:13:20.0' AND sen.Name = 'sensing'", sql);
+        assertEquals("SELECT * FROM SATELLITE_OBSERVATION obs INNER JOIN SENSOR sen ON obs.SensorId = sen.ID INNER JOIN TIMEAXIS axis ON obs.ID = axis.ObservationId WHERE obs.stopDate >= ? AND sen.Name = ?", sql);
+        assertEquals(2, values.size());
+        assertEquals(new Timestamp(1250000000000L), values.get(0));
+        assertEquals("sensing", values.get(1));
     }
 
     @Test
@@ -95,9 +165,12 @@ public class AbstractDriverTest {
         final QueryParameter parameter = new QueryParameter();
         parameter.setPath("/whereever/i/lay/my/hat");
 
-        final String sql = AbstractDriver.createSql(parameter);
+        final List<Object> values = new ArrayList<>();
+        final String sql = AbstractDriver.createSql(parameter, values);
 
-        assertEquals("SELECT * FROM SATELLITE_OBSERVATION obs INNER JOIN SENSOR sen ON obs.SensorId = sen.ID INNER JOIN TIMEAXIS axis ON obs.ID = axis.ObservationId WHERE obs.DataFile = '/whereever/i/lay/my/hat'", sql);
+        assertEquals("SELECT * FROM SATELLITE_OBSERVATION obs INNER JOIN SENSOR sen ON obs.SensorId = sen.ID INNER JOIN TIMEAXIS axis ON obs.ID = axis.ObservationId WHERE obs.DataFile = ?", sql);
+        assertEquals(1, values.size());
+        assertEquals("/whereever/i/lay/my/hat", values.get(0));
     }
 
     @Test
@@ -105,8 +178,110 @@ public class AbstractDriverTest {
         final QueryParameter parameter = new QueryParameter();
         parameter.setVersion("v2.0");
 
-        final String sql = AbstractDriver.createSql(parameter);
+        final List<Object> values = new ArrayList<>();
+        final String sql = AbstractDriver.createSql(parameter, values);
+
+        assertEquals("SELECT * FROM SATELLITE_OBSERVATION obs INNER JOIN SENSOR sen ON obs.SensorId = sen.ID INNER JOIN TIMEAXIS axis ON obs.ID = axis.ObservationId WHERE obs.Version = ?", sql);
+        assertEquals(1, values.size());
+        assertEquals("v2.0", values.get(0));
+    }
+
+    @Test
+    public void testCreateSql_geometryConstraint() {
+        final QueryParameter parameter = new QueryParameter();
+        parameter.setSensorName("sensing");
+
+        final List<Object> values = new ArrayList<>();
+        final String sql = AbstractDriver.createSql(parameter, "ST_Intersects(a, b)", values);
+
+        assertEquals("SELECT * FROM SATELLITE_OBSERVATION obs INNER JOIN SENSOR sen ON obs.SensorId = sen.ID INNER JOIN TIMEAXIS axis ON obs.ID = axis.ObservationId WHERE sen.Name = ? AND ST_Intersects(a, b)", sql);
+        assertEquals(1, values.size());
+        assertEquals("sensing", values.get(0));
+    }
+
+    @Test
+    public void testCreateSql_versionAndGeometryConstraint() {
+        final QueryParameter parameter = new QueryParameter();
+        parameter.setVersion("v2.0");
+
+        final List<Object> values = new ArrayList<>();
+        final String sql = AbstractDriver.createSql(parameter, "ST_Intersects(a, b)", values);
+
+        assertEquals("SELECT * FROM SATELLITE_OBSERVATION obs INNER JOIN SENSOR sen ON obs.SensorId = sen.ID INNER JOIN TIMEAXIS axis ON obs.ID = axis.ObservationId WHERE obs.Version = ? AND ST_Intersects(a, b)", sql);
+        assertEquals(1, values.size());
+        assertEquals("v2.0", values.get(0));
+    }
+
+    @Test
+    public void testCreateSql_onlyGeometryConstraint() {
+        final List<Object> values = new ArrayList<>();
+        final String sql = AbstractDriver.createSql(new QueryParameter(), "ST_Intersects(a, b)", values);
+
+        assertEquals("SELECT * FROM SATELLITE_OBSERVATION obs INNER JOIN SENSOR sen ON obs.SensorId = sen.ID INNER JOIN TIMEAXIS axis ON obs.ID = axis.ObservationId WHERE ST_Intersects(a, b)", sql);
+    }
+
+    @Test
+    public void testIntersects() {
+        final GeometryFactory geometryFactory = new GeometryFactory(GeometryFactory.Type.S2);
+        final Geometry geoBounds = geometryFactory.parse("POLYGON((10 5, 12 5, 12 7, 10 7, 10 5))");
+
+        assertTrue(AbstractDriver.intersects(geoBounds, geometryFactory.parse("POLYGON((11 6, 13 6, 13 8, 11 8, 11 6))")));
+        assertFalse(AbstractDriver.intersects(geoBounds, geometryFactory.parse("POLYGON((-170 -40, -168 -40, -168 -38, -170 -38, -170 -40))")));
+    }
+
+    @Test
+    public void testIntersects_geometryCollection() {
+        final GeometryFactory geometryFactory = new GeometryFactory(GeometryFactory.Type.S2);
+        final Geometry geoBounds = geometryFactory.createGeometryCollection(new Geometry[]{
+                geometryFactory.parse("POLYGON((-2 -1, 0 -1, 0 2, -2 2, -2 -1))"),
+                geometryFactory.parse("POLYGON((-2 -4, 0 -4, 0 -1, -2 -1, -2 -4))")});
+
+        assertTrue(AbstractDriver.intersects(geoBounds, geometryFactory.parse("POLYGON((-1 -6, 1 -6, 1 -3, -1 -3, -1 -6))")));
+        assertFalse(AbstractDriver.intersects(geoBounds, geometryFactory.parse("POLYGON((1 -2, 3 -2, 3 4, 1 4, 1 -2))")));
+    }
+
+    @Test
+    public void testIntersects_noGeoBounds() {
+        final GeometryFactory geometryFactory = new GeometryFactory(GeometryFactory.Type.S2);
+
+        assertFalse(AbstractDriver.intersects(null, geometryFactory.parse("POLYGON((11 6, 13 6, 13 8, 11 8, 11 6))")));
+    }
+
+    @Test
+    public void testReadObservations_rowsOfObservationsNotConsecutive() throws Exception {
+        final GeometryFactory geometryFactory = new GeometryFactory(GeometryFactory.Type.S2);
+        final H2Driver driver = new H2Driver();
+        driver.setGeometryFactory(geometryFactory);
+
+        final byte[] firstAxis = geometryFactory.toStorageFormat(geometryFactory.parse("LINESTRING(1 2, 1 3)"));
+        final byte[] secondAxis = geometryFactory.toStorageFormat(geometryFactory.parse("LINESTRING(5 6, 5 7)"));
+        final byte[] thirdAxis = geometryFactory.toStorageFormat(geometryFactory.parse("LINESTRING(1 4, 1 5)"));
+        final Timestamp timestamp = new Timestamp(1480000000000L);
+
+        final ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.next()).thenReturn(true, true, true, false);
+        when(resultSet.getInt("ObservationId")).thenReturn(17, 23, 17);
+        when(resultSet.getObject("Axis")).thenReturn(firstAxis, secondAxis, thirdAxis);
+        when(resultSet.getString("DataFile")).thenReturn("first.nc", "second.nc");
+        when(resultSet.getString("Name")).thenReturn("amsub-n15", "mhs-n18");
+        when(resultSet.getTimestamp("StartDate")).thenReturn(timestamp);
+        when(resultSet.getTimestamp("StopDate")).thenReturn(timestamp);
+        when(resultSet.getTimestamp("StartTime")).thenReturn(timestamp);
+        when(resultSet.getTimestamp("StopTime")).thenReturn(timestamp);
+
+        final List<SatelliteObservation> observations = driver.readObservations(resultSet, null);
+        assertEquals(2, observations.size());
+
+        final SatelliteObservation first = observations.get(0);
+        assertEquals("first.nc", first.getDataFilePath().toString());
+        assertEquals("amsub-n15", first.getSensor().getName());
+        assertEquals(2, first.getTimeAxes().length);
+        assertEquals(1.0, first.getTimeAxes()[0].getGeometry().getCoordinates()[0].getLon(), 1e-8);
+        assertEquals(4.0, first.getTimeAxes()[1].getGeometry().getCoordinates()[0].getLat(), 1e-8);
 
-        assertEquals("SELECT * FROM SATELLITE_OBSERVATION obs INNER JOIN SENSOR sen ON obs.SensorId = sen.ID INNER JOIN TIMEAXIS axis ON obs.ID = axis.ObservationId WHERE obs.Version = 'v2.0'", sql);
+        final SatelliteObservation second = observations.get(1);
+        assertEquals("second.nc", second.getDataFilePath().toString());
+        assertEquals("mhs-n18", second.getSensor().getName());
+        assertEquals(1, second.getTimeAxes().length);
     }
 }
@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2017 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+
+package com.bc.fiduceo.db;
+
+import com.bc.fiduceo.geometry.Geometry;
+import com.bc.fiduceo.geometry.TimeAxis;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+
+public class GeometryCacheTest {
+
+    private GeometryCache cache;
+
+    @Before
+    public void setUp() {
+        cache = new GeometryCache(2);
+    }
+
+    @Test
+    public void testPutAndGet() {
+        final Geometry geoBounds = mock(Geometry.class);
+        final TimeAxis timeAxis = mock(TimeAxis.class);
+        final TimeAxis[] timeAxes = {timeAxis};
+
+        cache.put(12, geoBounds, timeAxes);
+
+        final GeometryCache.Entry entry = cache.get(12);
+        assertNotNull(entry);
+        assertSame(geoBounds, entry.getGeoBounds());
+        final TimeAxis[] cachedTimeAxes = entry.getTimeAxes();
+        assertNotSame(timeAxes, cachedTimeAxes);
+        assertEquals(1, cachedTimeAxes.length);
+        assertSame(timeAxis, cachedTimeAxes[0]);
+
+        assertNull(cache.get(13));
+    }
+
+    @Test
+    public void testGetTimeAxes_modificationDoesNotAffectCache() {
+        final TimeAxis timeAxis = mock(TimeAxis.class);
+        final TimeAxis[] timeAxes = {timeAxis};
+        cache.put(12, null, timeAxes);
+
+        timeAxes[0] = null;
+        cache.get(12).getTimeAxes()[0] = null;
+
+        assertSame(timeAxis, cache.get(12).getTimeAxes()[0]);
+    }
+
+    @Test
+    public void testPut_overCapacity_leastRecentlyUsedEvicted() {
+        cache.put(1, mock(Geometry.class), new TimeAxis[0]);
+        cache.put(2, mock(Geometry.class), new TimeAxis[0]);
+        // touch the first one, the second is now the least recently used
+        cache.get(1);
+        cache.put(3, mock(Geometry.class), new TimeAxis[0]);
+
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get(1));
+        assertNull(cache.get(2));
+        assertNotNull(cache.get(3));
+    }
+
+    @Test
+    public void testClear() {
+        cache.put(1, mock(Geometry.class), new TimeAxis[0]);
+        cache.put(2, mock(Geometry.class), new TimeAxis[0]);
+
+        cache.clear();
+
+        assertEquals(0, cache.size());
+        assertNull(cache.get(1));
+    }
+}
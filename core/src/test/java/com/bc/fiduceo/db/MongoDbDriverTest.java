@@ -357,6 +357,23 @@ public class MongoDbDriverTest {
         assertEquals("/some/where/over/the/rainbow", dataFile);
     }
 
+    @Test
+    public void testCreateQueryDocument_geometry() {
+        final QueryParameter queryParameter = new QueryParameter();
+        queryParameter.setGeometry(geometryFactory.parse("POLYGON((10 5, 12 5, 12 7, 10 7, 10 5))"));
+
+        final Document queryDocument = MongoDbDriver.createQueryDocument(queryParameter);
+        assertNotNull(queryDocument);
+
+        final Document geoBoundsDoc = (Document) queryDocument.get("geoBounds");
+        final Document intersectsDoc = (Document) geoBoundsDoc.get("$geoIntersects");
+        final com.mongodb.client.model.geojson.Polygon polygon = (com.mongodb.client.model.geojson.Polygon) intersectsDoc.get("$geometry");
+        final List<Position> exterior = polygon.getExterior();
+        assertEquals(5, exterior.size());
+        assertEquals(10, exterior.get(0).getValues().get(0), 1e-8);
+        assertEquals(5, exterior.get(0).getValues().get(1), 1e-8);
+    }
+
     @Test
     public void testParseAddress() {
         assertEquals("localhost", MongoDbDriver.parseAddress("mongodb://localhost:33456/nasenmann"));
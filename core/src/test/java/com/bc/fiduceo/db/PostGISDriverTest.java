@@ -21,9 +21,15 @@
 package com.bc.fiduceo.db;
 
 
+import com.bc.fiduceo.geometry.Geometry;
+import com.bc.fiduceo.geometry.GeometryFactory;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 public class PostGISDriverTest {
 
@@ -32,4 +38,52 @@ public class PostGISDriverTest {
         final PostGISDriver driver = new PostGISDriver();
         assertEquals("jdbc:postgresql", driver.getUrlPattern());
     }
+
+    @Test
+    public void testCreateGeometryConstraint() {
+        final GeometryFactory geometryFactory = new GeometryFactory(GeometryFactory.Type.S2);
+        final PostGISDriver driver = new PostGISDriver();
+        driver.setGeometryFactory(geometryFactory);
+
+        final QueryParameter parameter = new QueryParameter();
+        parameter.setGeometry(geometryFactory.parse("POLYGON((10 5, 12 5, 12 7, 10 7, 10 5))"));
+
+        final String constraint = driver.createGeometryConstraint(parameter);
+        assertEquals("(ST_Intersects(geography(ST_SetSRID(GeoBounds, 4326)), ST_GeogFromText(?)))", constraint);
+
+        final List<Object> values = new ArrayList<>();
+        driver.appendGeometryValues(parameter, values);
+        assertEquals(1, values.size());
+        assertEquals("SRID=4326;" + geometryFactory.format(parameter.getGeometry()), values.get(0));
+    }
+
+    @Test
+    public void testCreateGeometryConstraint_geometryCollection() {
+        final GeometryFactory geometryFactory = new GeometryFactory(GeometryFactory.Type.S2);
+        final PostGISDriver driver = new PostGISDriver();
+        driver.setGeometryFactory(geometryFactory);
+
+        final Geometry upper = geometryFactory.parse("POLYGON((-2 -1, 0 -1, 0 2, -2 2, -2 -1))");
+        final Geometry lower = geometryFactory.parse("POLYGON((-2 -4, 0 -4, 0 -1, -2 -1, -2 -4))");
+        final QueryParameter parameter = new QueryParameter();
+        parameter.setGeometry(geometryFactory.createGeometryCollection(new Geometry[]{upper, lower}));
+
+        final String constraint = driver.createGeometryConstraint(parameter);
+        assertEquals("(ST_Intersects(geography(ST_SetSRID(GeoBounds, 4326)), ST_GeogFromText(?))" +
+                " OR ST_Intersects(geography(ST_SetSRID(GeoBounds, 4326)), ST_GeogFromText(?)))", constraint);
+
+        final List<Object> values = new ArrayList<>();
+        driver.appendGeometryValues(parameter, values);
+        assertEquals(2, values.size());
+        assertEquals("SRID=4326;" + geometryFactory.format(upper), values.get(0));
+        assertEquals("SRID=4326;" + geometryFactory.format(lower), values.get(1));
+    }
+
+    @Test
+    public void testCreateGeometryConstraint_noGeometry() {
+        final PostGISDriver driver = new PostGISDriver();
+
+        assertNull(driver.createGeometryConstraint(null));
+        assertNull(driver.createGeometryConstraint(new QueryParameter()));
+    }
 }
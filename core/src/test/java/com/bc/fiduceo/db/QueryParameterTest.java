@@ -20,12 +20,16 @@
 
 package com.bc.fiduceo.db;
 
+import com.bc.fiduceo.geometry.Geometry;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.util.Date;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
 
 public class QueryParameterTest {
 
@@ -87,4 +91,15 @@ public class QueryParameterTest {
         parameter.setPath(path_2);
         assertEquals(path_2, parameter.getPath());
     }
+
+    @Test
+    public void testSetGetGeometry() {
+        final Geometry geometry = mock(Geometry.class);
+
+        parameter.setGeometry(geometry);
+        assertSame(geometry, parameter.getGeometry());
+
+        parameter.setGeometry(null);
+        assertNull(parameter.getGeometry());
+    }
 }
@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2017 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+
+package com.bc.fiduceo.db;
+
+
+import com.bc.fiduceo.TestUtil;
+import com.bc.fiduceo.core.NodeType;
+import com.bc.fiduceo.core.SatelliteObservation;
+import com.bc.fiduceo.core.Sensor;
+import com.bc.fiduceo.geometry.Geometry;
+import com.bc.fiduceo.geometry.GeometryFactory;
+import com.bc.fiduceo.geometry.LineString;
+import com.bc.fiduceo.geometry.TimeAxis;
+import org.apache.commons.dbcp2.BasicDataSource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(DatabaseTestRunner.class)
+public class StorageTest_FormerSchema_H2 {
+
+    private BasicDataSource dataSource;
+    private GeometryFactory geometryFactory;
+    private Storage storage;
+
+    @Before
+    public void setUp() throws SQLException {
+        dataSource = TestUtil.getDatasource_H2();
+        geometryFactory = new GeometryFactory(GeometryFactory.Type.S2);
+        storage = Storage.create(dataSource, geometryFactory);
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        if (storage != null) {
+            storage.clear();
+            storage.close();
+        }
+    }
+
+    @Test
+    public void testInsert_andGet_formerGeometryColumns() throws SQLException {
+        // tables as created by former versions
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.executeUpdate("CREATE TABLE SATELLITE_OBSERVATION (ID INT AUTO_INCREMENT PRIMARY KEY, StartDate TIMESTAMP, StopDate TIMESTAMP, " +
+                                    "NodeType TINYINT, GeoBounds GEOMETRY, SensorId INT, Version VARCHAR(16), DataFile VARCHAR(256))");
+            statement.executeUpdate("CREATE TABLE SENSOR (ID INT AUTO_INCREMENT PRIMARY KEY, Name VARCHAR(64))");
+            statement.executeUpdate("CREATE TABLE TIMEAXIS (ID INT AUTO_INCREMENT PRIMARY KEY, ObservationId INT, Axis GEOMETRY, StartTime TIMESTAMP, " +
+                                    "StopTime TIMESTAMP, FOREIGN KEY (ObservationId) REFERENCES SATELLITE_OBSERVATION(ID))");
+        }
+
+        storage.insert(createSatelliteObservation());
+
+        // the geometries are stored as GEOMETRY values readable by former versions
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT GeoBounds FROM SATELLITE_OBSERVATION")) {
+            assertTrue(resultSet.next());
+            assertTrue(resultSet.getObject(1) instanceof com.vividsolutions.jts.geom.Geometry);
+        }
+
+        final List<SatelliteObservation> observations = storage.get();
+        assertEquals(1, observations.size());
+        final SatelliteObservation observation = observations.get(0);
+        assertFalse(observation.getGeoBounds().isEmpty());
+        assertEquals(1, observation.getTimeAxes().length);
+        assertEquals(3, observation.getTimeAxes()[0].getGeometry().getCoordinates().length);
+    }
+
+    @Test
+    public void testInsert_andGet_currentSchema() throws SQLException {
+        storage.initialize();
+
+        storage.insert(createSatelliteObservation());
+
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT GeoBounds FROM SATELLITE_OBSERVATION")) {
+            assertTrue(resultSet.next());
+            assertTrue(resultSet.getObject(1) instanceof byte[]);
+        }
+
+        final List<SatelliteObservation> observations = storage.get();
+        assertEquals(1, observations.size());
+        assertEquals(1, observations.get(0).getTimeAxes().length);
+    }
+
+    private SatelliteObservation createSatelliteObservation() {
+        final SatelliteObservation observation = new SatelliteObservation();
+        observation.setStartTime(new Date(1430000000000L));
+        observation.setStopTime(new Date(1430001000000L));
+        observation.setNodeType(NodeType.ASCENDING);
+        observation.setSensor(new Sensor("test_sensor"));
+        observation.setDataFilePath("the_data.file");
+        observation.setVersion("ver1.0");
+
+        final Geometry geoBounds = geometryFactory.parse("POLYGON((10 5, 12 5, 12 7, 10 7, 10 5))");
+        observation.setGeoBounds(geoBounds);
+
+        final LineString axis = (LineString) geometryFactory.parse("LINESTRING(1 5, 1 6, 1 7)");
+        final TimeAxis timeAxis = geometryFactory.createTimeAxis(axis, new Date(1430000000000L), new Date(1430001000000L));
+        observation.setTimeAxes(new TimeAxis[]{timeAxis});
+        return observation;
+    }
+}
@@ -28,6 +28,7 @@ import com.bc.fiduceo.core.Sensor;
 import com.bc.fiduceo.geometry.Geometry;
 import com.bc.fiduceo.geometry.GeometryFactory;
 import com.bc.fiduceo.geometry.LineString;
+import com.bc.fiduceo.geometry.Point;
 import com.bc.fiduceo.geometry.TimeAxis;
 import com.bc.fiduceo.util.TimeUtils;
 import com.vividsolutions.jts.io.ParseException;
@@ -38,11 +39,16 @@ import org.junit.Test;
 
 import java.io.IOException;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Set;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public abstract class StorageTest_SatelliteObservation {
 
@@ -92,8 +98,7 @@ public abstract class StorageTest_SatelliteObservation {
         assertEquals(observation.getVersion(), observationFromDb.getVersion());
 
         final Geometry geoBoundsFromDb = observationFromDb.getGeoBounds();
-        final String geoBoundsWkt = geometryFactory.format(geoBoundsFromDb);
-        assertEquals("POLYGON((12.0 4.999999999999998,12.000000000000004 7.000000000000001,9.999999999999998 7.0,9.999999999999998 4.999999999999998,12.0 4.999999999999998))", geoBoundsWkt);
+        assertStoredGeometry("POLYGON((12.0 4.999999999999998,12.000000000000004 7.000000000000001,9.999999999999998 7.0,9.999999999999998 4.999999999999998,12.0 4.999999999999998))", geoBoundsFromDb);
 
         assertEquals(observation.getSensor().getName(), observationFromDb.getSensor().getName());
         assertEquals(observation.getDataFilePath().toString(), observationFromDb.getDataFilePath().toString());
@@ -103,7 +108,25 @@ public abstract class StorageTest_SatelliteObservation {
         TestUtil.assertCorrectUTCDate(2015, 4, 25, 22, 13, 20, 0, timeAxes[0].getStartTime());
         TestUtil.assertCorrectUTCDate(2015, 4, 25, 22, 30, 0, 0, timeAxes[0].getEndTime());
         final Geometry geometry = timeAxes[0].getGeometry();
-        assertEquals("LINESTRING(0.9999999999999997 4.999999999999998,0.9999999999999997 6.0,0.9999999999999997 6.999999999999999)", geometryFactory.format(geometry));
+        assertStoredGeometry("LINESTRING(0.9999999999999997 4.999999999999998,0.9999999999999997 6.0,0.9999999999999997 6.999999999999999)", geometry);
+    }
+
+    @Test
+    public void testInsert_andGetTwice_sameGeometries() throws SQLException, ParseException {
+        final SatelliteObservation observation = createSatelliteObservation();
+        storage.insert(observation);
+
+        final SatelliteObservation first = storage.get().get(0);
+        final SatelliteObservation second = storage.get().get(0);
+
+        assertEquals(geometryFactory.format(first.getGeoBounds()), geometryFactory.format(second.getGeoBounds()));
+        final TimeAxis[] firstTimeAxes = first.getTimeAxes();
+        final TimeAxis[] secondTimeAxes = second.getTimeAxes();
+        assertEquals(1, secondTimeAxes.length);
+        assertNotSame(firstTimeAxes, secondTimeAxes);
+        assertEquals(geometryFactory.format(firstTimeAxes[0].getGeometry()), geometryFactory.format(secondTimeAxes[0].getGeometry()));
+        assertEquals(firstTimeAxes[0].getStartTime().getTime(), secondTimeAxes[0].getStartTime().getTime());
+        assertEquals(firstTimeAxes[0].getEndTime().getTime(), secondTimeAxes[0].getEndTime().getTime());
     }
 
     @Test
@@ -151,7 +174,7 @@ public abstract class StorageTest_SatelliteObservation {
         TestUtil.assertCorrectUTCDate(2015, 4, 25, 22, 13, 20, 0, timeAxesFromDb[0].getStartTime());
         TestUtil.assertCorrectUTCDate(2015, 4, 25, 22, 30, 0, 0, timeAxesFromDb[0].getEndTime());
         final Geometry geometry = timeAxesFromDb[0].getGeometry();
-        assertEquals("LINESTRING(0.9999999999999997 4.999999999999998,0.9999999999999997 6.0,0.9999999999999997 6.999999999999999)", geometryFactory.format(geometry));
+        assertStoredGeometry("LINESTRING(0.9999999999999997 4.999999999999998,0.9999999999999997 6.0,0.9999999999999997 6.999999999999999)", geometry);
     }
 
     @Test
@@ -189,7 +212,7 @@ public abstract class StorageTest_SatelliteObservation {
         TestUtil.assertCorrectUTCDate(1970, 1, 12, 13, 46, 40, 0, timeAxes[0].getStartTime());
         TestUtil.assertCorrectUTCDate(1970, 1, 12, 14, 3, 20, 0, timeAxes[0].getEndTime());
         final Geometry geometry = timeAxes[0].getGeometry();
-        assertEquals("LINESTRING(0.9999999999999997 4.999999999999998,0.9999999999999997 6.0,0.9999999999999997 6.999999999999999)", geometryFactory.format(geometry));
+        assertStoredGeometry("LINESTRING(0.9999999999999997 4.999999999999998,0.9999999999999997 6.0,0.9999999999999997 6.999999999999999)", geometry);
     }
 
     @Test
@@ -227,7 +250,7 @@ public abstract class StorageTest_SatelliteObservation {
         TestUtil.assertCorrectUTCDate(1970, 1, 12, 13, 46, 40, 0, timeAxes[0].getStartTime());
         TestUtil.assertCorrectUTCDate(1970, 1, 12, 14, 3, 20, 0, timeAxes[0].getEndTime());
         final Geometry geometry = timeAxes[0].getGeometry();
-        assertEquals("LINESTRING(0.9999999999999997 4.999999999999998,0.9999999999999997 6.0,0.9999999999999997 6.999999999999999)", geometryFactory.format(geometry));
+        assertStoredGeometry("LINESTRING(0.9999999999999997 4.999999999999998,0.9999999999999997 6.0,0.9999999999999997 6.999999999999999)", geometry);
     }
 
     @Test
@@ -423,6 +446,116 @@ public abstract class StorageTest_SatelliteObservation {
         assertEquals(1, satelliteObservations.size());
     }
 
+    @Test
+    public void testInsertList_andGet() throws SQLException, ParseException {
+        final List<SatelliteObservation> observations = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            final SatelliteObservation observation = createSatelliteObservation();
+            observation.setDataFilePath("data_file_" + i);
+            observations.add(observation);
+        }
+
+        storage.insert(observations);
+
+        final List<SatelliteObservation> satelliteObservations = storage.get();
+        assertEquals(3, satelliteObservations.size());
+        for (final SatelliteObservation observation : satelliteObservations) {
+            assertEquals(SENSOR_NAME, observation.getSensor().getName());
+            assertEquals(1, observation.getTimeAxes().length);
+        }
+    }
+
+    @Test
+    public void testInsertList_invalidObservation_nothingInserted() throws SQLException, ParseException {
+        final SatelliteObservation valid = createSatelliteObservation();
+        final SatelliteObservation invalid = createSatelliteObservation();
+        invalid.setNodeType(null);
+        final List<SatelliteObservation> observations = new ArrayList<>();
+        observations.add(valid);
+        observations.add(invalid);
+
+        try {
+            storage.insert(observations);
+            fail("RuntimeException expected");
+        } catch (RuntimeException expected) {
+        }
+
+        assertEquals(0, storage.get().size());
+
+        // the sensor inserted with the failed batch must be registered again
+        storage.insert(valid);
+        final List<SatelliteObservation> satelliteObservations = storage.get();
+        assertEquals(1, satelliteObservations.size());
+        assertEquals(SENSOR_NAME, satelliteObservations.get(0).getSensor().getName());
+    }
+
+    @Test
+    public void testInsertList_empty() throws SQLException {
+        storage.insert(new ArrayList<>());
+
+        final List<SatelliteObservation> satelliteObservations = storage.get();
+        assertEquals(0, satelliteObservations.size());
+    }
+
+    @Test
+    public void testGetDataFilePaths() throws SQLException, ParseException {
+        SatelliteObservation observation = createSatelliteObservation();
+        observation.setDataFilePath("first_file");
+        storage.insert(observation);
+
+        observation = createSatelliteObservation();
+        observation.setDataFilePath("second_file");
+        storage.insert(observation);
+
+        observation = createSatelliteObservation();
+        observation.setDataFilePath("other_version_file");
+        observation.setVersion("v2.0");
+        storage.insert(observation);
+
+        final QueryParameter queryParameter = new QueryParameter();
+        queryParameter.setSensorName(SENSOR_NAME);
+        queryParameter.setVersion(VERSION);
+
+        final Set<String> dataFilePaths = storage.getDataFilePaths(queryParameter);
+        assertEquals(2, dataFilePaths.size());
+        assertTrue(dataFilePaths.contains("first_file"));
+        assertTrue(dataFilePaths.contains("second_file"));
+
+        assertEquals(3, storage.getDataFilePaths(null).size());
+    }
+
+    @Test
+    public void testGetDataFilePaths_emptyDatabase() throws SQLException {
+        final Set<String> dataFilePaths = storage.getDataFilePaths(new QueryParameter());
+        assertEquals(0, dataFilePaths.size());
+    }
+
+    @Test
+    public void testSearchByGeometry_intersecting() throws ParseException, SQLException {
+        final SatelliteObservation observation = createSatelliteObservation();
+        storage.insert(observation);
+
+        final QueryParameter queryParameter = new QueryParameter();
+        queryParameter.setSensorName(SENSOR_NAME);
+        queryParameter.setGeometry(geometryFactory.parse("POLYGON((11 6, 13 6, 13 8, 11 8, 11 6))"));
+
+        final List<SatelliteObservation> satelliteObservations = storage.get(queryParameter);
+        assertEquals(1, satelliteObservations.size());
+    }
+
+    @Test
+    public void testSearchByGeometry_notIntersecting() throws ParseException, SQLException {
+        final SatelliteObservation observation = createSatelliteObservation();
+        storage.insert(observation);
+
+        final QueryParameter queryParameter = new QueryParameter();
+        queryParameter.setSensorName(SENSOR_NAME);
+        queryParameter.setGeometry(geometryFactory.parse("POLYGON((-170 -40, -168 -40, -168 -38, -170 -38, -170 -40))"));
+
+        final List<SatelliteObservation> satelliteObservations = storage.get(queryParameter);
+        assertEquals(0, satelliteObservations.size());
+    }
+
     @Test
     public void testMultipleTimeAxes() throws ParseException, SQLException {
         final SatelliteObservation observation = createSatelliteObservation();
@@ -544,6 +677,17 @@ public abstract class StorageTest_SatelliteObservation {
         return observation;
     }
 
+    // databases storing WKT add a rounding step, the binary storage format restores the geometry exactly
+    private void assertStoredGeometry(String expectedWkt, Geometry geometry) {
+        final Point[] expected = geometryFactory.parse(expectedWkt).getCoordinates();
+        final Point[] actual = geometry.getCoordinates();
+        assertEquals(expected.length, actual.length);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i].getLon(), actual[i].getLon(), 1e-12);
+            assertEquals(expected[i].getLat(), actual[i].getLat(), 1e-12);
+        }
+    }
+
     private TimeAxis createTimeAxis(String geometry, Date startTime, Date stopTime) {
         final LineString timeAxisGeometry = (LineString) geometryFactory.parse(geometry);
         return geometryFactory.createTimeAxis(timeAxisGeometry, startTime, stopTime);
@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2017 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+
+package com.bc.fiduceo.geometry.s2;
+
+
+import com.bc.fiduceo.geometry.Geometry;
+import com.bc.fiduceo.geometry.GeometryFactory;
+import com.google.common.geometry.S2CellId;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class BcS2CellCoveringTest {
+
+    private GeometryFactory geometryFactory;
+
+    @Before
+    public void setUp() {
+        geometryFactory = new GeometryFactory(GeometryFactory.Type.S2);
+    }
+
+    @Test
+    public void testGetAncestorCellIds() {
+        final long[] cellIds = BcS2CellCovering.getAncestorCellIds(12.5, -34.2);
+        assertEquals(BcS2CellCovering.MAX_LEVEL + 1, cellIds.length);
+
+        for (int level = 0; level < cellIds.length; level++) {
+            final S2CellId cellId = new S2CellId(cellIds[level]);
+            assertEquals(level, cellId.level());
+            if (level > 0) {
+                assertEquals(cellIds[level - 1], cellId.parent().id());
+            }
+        }
+    }
+
+    @Test
+    public void testGetCellIds_polygon() {
+        final Geometry polygon = geometryFactory.parse("POLYGON((10 5, 12 5, 12 7, 10 7, 10 5))");
+
+        final long[] cellIds = BcS2CellCovering.getCellIds(polygon);
+        assertNotNull(cellIds);
+        assertTrue(cellIds.length > 0);
+        assertTrue(cellIds.length <= 16);
+
+        assertTrue(isCovered(cellIds, 11.0, 6.0));
+        assertTrue(isCovered(cellIds, 10.01, 5.01));
+        assertFalse(isCovered(cellIds, -170.0, -40.0));
+    }
+
+    @Test
+    public void testGetCellIds_geometryCollection() {
+        final Geometry collection = geometryFactory.createGeometryCollection(new Geometry[]{
+                geometryFactory.parse("POLYGON((-2 -1, 0 -1, 0 2, -2 2, -2 -1))"),
+                geometryFactory.parse("POLYGON((-2 -4, 0 -4, 0 -1, -2 -1, -2 -4))")});
+
+        final long[] cellIds = BcS2CellCovering.getCellIds(collection);
+        assertNotNull(cellIds);
+
+        assertTrue(isCovered(cellIds, -1.0, 1.0));
+        assertTrue(isCovered(cellIds, -1.0, -3.0));
+        assertFalse(isCovered(cellIds, 100.0, 45.0));
+    }
+
+    @Test
+    public void testGetCellIds_unsupportedGeometry() {
+        assertNull(BcS2CellCovering.getCellIds(geometryFactory.createPoint(12.0, 13.0)));
+        assertNull(BcS2CellCovering.getCellIds(mock(Geometry.class)));
+    }
+
+    private static boolean isCovered(long[] cellIds, double lon, double lat) {
+        final long[] ancestorIds = BcS2CellCovering.getAncestorCellIds(lon, lat);
+        for (final long ancestorId : ancestorIds) {
+            for (final long cellId : cellIds) {
+                if (cellId == ancestorId) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
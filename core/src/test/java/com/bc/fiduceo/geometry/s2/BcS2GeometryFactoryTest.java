@@ -235,23 +235,82 @@ public class BcS2GeometryFactoryTest {
         final Geometry point = factory.parse("POINT(-22.5 67.23)");
 
         final byte[] storageFormat = factory.toStorageFormat(point);
-        assertEquals("POINT(-22.500000000000004,67.23)", new String(storageFormat));
+        assertEquals(19, storageFormat.length);
+        assertEquals(0, storageFormat[0]);
+
+        final Geometry restored = factory.fromStorageFormat(storageFormat);
+        assertTrue(restored instanceof Point);
+        assertEquals("POINT(-22.500000000000004,67.23)", factory.format(restored));
     }
 
     @Test
     public void testToStorageFormat_lineString() {
-        final Geometry point = factory.parse("LINESTRING(1 8, 2 8.5, 3 8.7)");
+        final Geometry lineString = factory.parse("LINESTRING(1 8, 2 8.5, 3 8.7)");
 
-        final byte[] storageFormat = factory.toStorageFormat(point);
-        assertEquals("LINESTRING(1.0 7.999999999999998,2.0 8.5,3.0000000000000004 8.700000000000001)", new String(storageFormat));
+        final byte[] storageFormat = factory.toStorageFormat(lineString);
+        assertEquals(0, storageFormat[0]);
+
+        final Geometry restored = factory.fromStorageFormat(storageFormat);
+        assertTrue(restored instanceof LineString);
+        assertEquals("LINESTRING(1.0 7.999999999999998,2.0 8.5,3.0000000000000004 8.700000000000001)", factory.format(restored));
     }
 
     @Test
     public void testToStorageFormat_polygon() {
-        final Geometry point = factory.parse("POLYGON((1 8, 2 8.5, 3 8.2, 1 8))");
+        final Geometry polygon = factory.parse("POLYGON((1 8, 2 8.5, 3 8.2, 1 8))");
 
-        final byte[] storageFormat = factory.toStorageFormat(point);
-        assertEquals("POLYGON((3.0000000000000004 8.2,2.0 8.5,1.0 7.999999999999998,3.0000000000000004 8.2))", new String(storageFormat));
+        final byte[] storageFormat = factory.toStorageFormat(polygon);
+        assertEquals(0, storageFormat[0]);
+
+        final Geometry restored = factory.fromStorageFormat(storageFormat);
+        assertTrue(restored instanceof Polygon);
+        assertEquals("POLYGON((3.0000000000000004 8.2,2.0 8.5,1.0 7.999999999999998,3.0000000000000004 8.2))", factory.format(restored));
+    }
+
+    @Test
+    public void testToStorageFormat_polygonWithHole() {
+        final Geometry polygon = factory.parse("POLYGON((-10 -10, 10 -10, 10 10, -10 10, -10 -10),(-5 -5, -5 5, 5 5, 5 -5, -5 -5))");
+
+        final Geometry restored = factory.fromStorageFormat(factory.toStorageFormat(polygon));
+        assertEqualCoordinates(polygon, restored);
+        final Point inner = factory.createPoint(0, 0);
+        final Point outer = factory.createPoint(7, 0);
+        assertEquals(((Polygon) polygon).contains(inner), ((Polygon) restored).contains(inner));
+        assertEquals(((Polygon) polygon).contains(outer), ((Polygon) restored).contains(outer));
+    }
+
+    @Test
+    public void testToStorageFormat_multiPolygon() {
+        final Geometry multiPolygon = factory.parse("MULTIPOLYGON(((1 1, 2 1, 2 2, 1 2, 1 1)),((5 5, 6 5, 6 6, 5 6, 5 5)))");
+
+        final Geometry restored = factory.fromStorageFormat(factory.toStorageFormat(multiPolygon));
+        assertTrue(restored instanceof MultiPolygon);
+        assertEqualCoordinates(multiPolygon, restored);
+    }
+
+    @Test
+    public void testToStorageFormat_geometryCollection() {
+        final Geometry[] geometries = new Geometry[]{
+                factory.parse("POLYGON((1 1, 2 1, 2 2, 1 2, 1 1))"),
+                factory.parse("POLYGON((5 5, 6 5, 6 6, 5 6, 5 5))")
+        };
+        final GeometryCollection collection = factory.createGeometryCollection(geometries);
+
+        final Geometry restored = factory.fromStorageFormat(factory.toStorageFormat(collection));
+        assertTrue(restored instanceof GeometryCollection);
+        final Geometry[] restoredGeometries = ((GeometryCollection) restored).getGeometries();
+        assertEquals(2, restoredGeometries.length);
+        assertEqualCoordinates(geometries[0], restoredGeometries[0]);
+        assertEqualCoordinates(geometries[1], restoredGeometries[1]);
+    }
+
+    @Test
+    public void testFromStorageFormat_unsupportedVersion() {
+        try {
+            factory.fromStorageFormat(new byte[]{0, 7, 1});
+            fail("RuntimeException expected");
+        } catch (RuntimeException expected) {
+        }
     }
 
     @Test
@@ -318,4 +377,14 @@ public class BcS2GeometryFactoryTest {
         assertEquals(3, s2Points.size());
         assertEquals("(44.0, 33.0)", s2Points.get(1).toDegreesString());
     }
+
+    private static void assertEqualCoordinates(Geometry expected, Geometry actual) {
+        final Point[] expectedCoordinates = expected.getCoordinates();
+        final Point[] actualCoordinates = actual.getCoordinates();
+        assertEquals(expectedCoordinates.length, actualCoordinates.length);
+        for (int i = 0; i < expectedCoordinates.length; i++) {
+            assertEquals(expectedCoordinates[i].getLon(), actualCoordinates[i].getLon(), 0.0);
+            assertEquals(expectedCoordinates[i].getLat(), actualCoordinates[i].getLat(), 0.0);
+        }
+    }
 }
@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2017 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+package com.bc.fiduceo.geometry.s2;
+
+
+import com.bc.fiduceo.geometry.GeometryFactory;
+import com.bc.fiduceo.geometry.Polygon;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class BcS2PolygonEdgesTest {
+
+    private GeometryFactory geometryFactory;
+
+    @Before
+    public void setUp() {
+        geometryFactory = new GeometryFactory(GeometryFactory.Type.S2);
+    }
+
+    @Test
+    public void testCreate() {
+        final Polygon polygon = (Polygon) geometryFactory.parse("POLYGON((10 10, 20 10, 20 20, 10 20, 10 10))");
+
+        final BcS2PolygonEdges edges = BcS2PolygonEdges.create(polygon);
+        assertNotNull(edges);
+        assertEquals(4, edges.getNumEdges());
+    }
+
+    @Test
+    public void testCreate_notS2() {
+        final GeometryFactory jtsFactory = new GeometryFactory(GeometryFactory.Type.JTS);
+        final Polygon polygon = (Polygon) jtsFactory.parse("POLYGON((10 10, 20 10, 20 20, 10 20, 10 10))");
+
+        assertNull(BcS2PolygonEdges.create(polygon));
+    }
+
+    @Test
+    public void testSetScanline_selectsCandidateEdges() {
+        final Polygon polygon = (Polygon) geometryFactory.parse("POLYGON((10 10, 20 10, 20 20, 10 20, 10 10))");
+        final BcS2PolygonEdges edges = BcS2PolygonEdges.create(polygon);
+
+        // crosses the left and the right edge only
+        edges.setScanline(new double[]{5, 15, 25}, new double[]{15, 15, 15}, 3);
+        assertEquals(2, edges.getNumCandidates());
+
+        // far away from the polygon
+        edges.setScanline(new double[]{-100, -99, -98}, new double[]{-45, -45, -45}, 3);
+        assertEquals(0, edges.getNumCandidates());
+    }
+
+    @Test
+    public void testMayCrossBoundary() {
+        final Polygon polygon = (Polygon) geometryFactory.parse("POLYGON((10 10, 20 10, 20 20, 10 20, 10 10))");
+        final BcS2PolygonEdges edges = BcS2PolygonEdges.create(polygon);
+
+        edges.setScanline(new double[]{8, 9, 11, 12, 18, 19, 21, 22}, new double[]{15, 15, 15, 15, 15, 15, 15, 15}, 8);
+
+        assertFalse(edges.mayCrossBoundary(1));
+        assertTrue(edges.mayCrossBoundary(2));
+        assertFalse(edges.mayCrossBoundary(3));
+        assertFalse(edges.mayCrossBoundary(4));
+        assertFalse(edges.mayCrossBoundary(5));
+        assertTrue(edges.mayCrossBoundary(6));
+        assertFalse(edges.mayCrossBoundary(7));
+    }
+
+    @Test
+    public void testMayCrossBoundary_onVertex() {
+        final Polygon polygon = (Polygon) geometryFactory.parse("POLYGON((10 10, 20 10, 20 20, 10 20, 10 10))");
+        final BcS2PolygonEdges edges = BcS2PolygonEdges.create(polygon);
+
+        edges.setScanline(new double[]{9, 10, 11}, new double[]{10, 10, 10}, 3);
+
+        assertTrue(edges.mayCrossBoundary(1));
+        assertTrue(edges.mayCrossBoundary(2));
+    }
+
+    @Test
+    public void testMayCrossBoundary_invalidLocation() {
+        final Polygon polygon = (Polygon) geometryFactory.parse("POLYGON((10 10, 20 10, 20 20, 10 20, 10 10))");
+        final BcS2PolygonEdges edges = BcS2PolygonEdges.create(polygon);
+
+        edges.setScanline(new double[]{12, Double.NaN, 14, 15}, new double[]{15, 15, 15, 15}, 4);
+
+        assertTrue(edges.mayCrossBoundary(1));
+        assertTrue(edges.mayCrossBoundary(2));
+        assertFalse(edges.mayCrossBoundary(3));
+    }
+
+    @Test
+    public void testMayCrossBoundary_invalidIndex() {
+        final Polygon polygon = (Polygon) geometryFactory.parse("POLYGON((10 10, 20 10, 20 20, 10 20, 10 10))");
+        final BcS2PolygonEdges edges = BcS2PolygonEdges.create(polygon);
+        edges.setScanline(new double[]{12, 13}, new double[]{15, 15}, 2);
+
+        try {
+            edges.mayCrossBoundary(0);
+            fail("IllegalArgumentException expected");
+        } catch (IllegalArgumentException expected) {
+        }
+
+        try {
+            edges.mayCrossBoundary(2);
+            fail("IllegalArgumentException expected");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    @Test
+    public void testContainmentChangesOnlyAtReportedCrossings() {
+        final Polygon polygon = (Polygon) geometryFactory.parse("POLYGON((-10 -10, 10 -10, 10 10, 2 10, 0 -2, -2 10, -10 10, -10 -10),(-8 -8, -4 -8, -4 -4, -8 -4, -8 -8))");
+        final BcS2PolygonEdges edges = BcS2PolygonEdges.create(polygon);
+
+        final int width = 300;
+        final double[] lons = new double[width];
+        final double[] lats = new double[width];
+        for (double lat = -12.05; lat < 12.0; lat += 0.3) {
+            for (int i = 0; i < width; i++) {
+                lons[i] = -15.0 + 0.1 * i;
+                lats[i] = lat + 0.001 * i;
+            }
+            edges.setScanline(lons, lats, width);
+
+            boolean previous = polygon.contains(geometryFactory.createPoint(lons[0], lats[0]));
+            for (int i = 1; i < width; i++) {
+                final boolean current = polygon.contains(geometryFactory.createPoint(lons[i], lats[i]));
+                if (current != previous) {
+                    assertTrue("lat: " + lat + " index: " + i, edges.mayCrossBoundary(i));
+                }
+                previous = current;
+            }
+        }
+    }
+
+    @Test
+    public void testGetSagittaBound() {
+        // quarter circle: chord length sqrt(2), sagitta 1 - sqrt(0.5)
+        final double bound = BcS2PolygonEdges.getSagittaBound(1, 0, 0, 0, 1, 0);
+        assertTrue(bound >= 1.0 - Math.sqrt(0.5));
+        assertEquals(0.5, bound, 1e-8);
+    }
+}
@@ -47,13 +47,16 @@ import com.bc.fiduceo.geometry.Point;
 import com.bc.fiduceo.geometry.Polygon;
 import com.bc.fiduceo.math.TimeInterval;
 import com.bc.geometry.s2.S2WKTReader;
+import com.google.common.geometry.S2LatLng;
 import com.google.common.geometry.S2Point;
 import com.google.common.geometry.S2Polyline;
 import com.vividsolutions.jts.io.ParseException;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
@@ -201,78 +204,36 @@ public class BcS2TimeAxisTest {
     }
 
     @Test
-    public void testCreateSubLineTo_twoPoints_closeToStart() {
-        final S2Polyline polyline = (S2Polyline) wktReader.read("LINESTRING(5 3, 8 3)");
-        final S2Point point = (S2Point) wktReader.read("POINT(6 3)");
-
-        final BcS2TimeAxis timeAxis = new BcS2TimeAxis(new BcS2LineString(polyline), new Date(), new Date());
-        final S2Polyline subLineTo = timeAxis.createSubLineTo(point);
-
-        assertEqualPoints(subLineTo.vertex(0), polyline.vertex(0));
-        assertEquals(0.01742937278317369, subLineTo.getArclengthAngle().radians(), 1e-8);
-    }
-
-    @Test
-    public void testCreateSubLineTo_twoPoints_closeToEnd() {
-        final S2Polyline polyline = (S2Polyline) wktReader.read("LINESTRING(5 3, 8 3)");
-        final S2Point point = (S2Point) wktReader.read("POINT(7 3)");
-
-        final BcS2TimeAxis timeAxis = new BcS2TimeAxis(new BcS2LineString(polyline), new Date(), new Date());
-        final S2Polyline subLineTo = timeAxis.createSubLineTo(point);
-
-        assertEqualPoints(subLineTo.vertex(0), polyline.vertex(0));
-        assertEquals(0.034858741930189, subLineTo.getArclengthAngle().radians(), 1e-8);
-    }
-
-    @Test
-    public void testCreateSubLineTo_threePoints_secondSegment_closeToStart() {
-        final S2Polyline polyline = (S2Polyline) wktReader.read("LINESTRING(-3 11, -1 13, 0 16)");
-        final S2Point point = (S2Point) wktReader.read("POINT(-0.66667 14)");
-
-        final BcS2TimeAxis timeAxis = new BcS2TimeAxis(new BcS2LineString(polyline), new Date(), new Date());
-        final S2Polyline subLineTo = timeAxis.createSubLineTo(point);
-
-        assertEqualPoints(subLineTo.vertex(0), polyline.vertex(0));
-        assertEquals(0.06717461517369061, subLineTo.getArclengthAngle().radians(), 1e-8);
+    public void testGetTime_sameAsSubLineLength() throws ParseException {
+        final S2Polyline lineString = (S2Polyline) wktReader.read("LINESTRING(2 5, 1 3, -1 1, -3 0, -4 -2, -4.5 -5)");
+        final Date startTime = new Date(1000000000000L);
+        final BcS2TimeAxis timeAxis = new BcS2TimeAxis(new BcS2LineString(lineString), startTime, new Date(1000001000000L));
+        final double totalLength = lineString.getArclengthAngle().radians();
+
+        final Point[] points = new Point[]{
+                (Point) geometryFactory.parse("POINT(3 2)"),
+                (Point) geometryFactory.parse("POINT(0.5 2.5)"),
+                (Point) geometryFactory.parse("POINT(-2 0)"),
+                (Point) geometryFactory.parse("POINT(-4.1 -3.2)")
+        };
+        for (int i = 0; i < points.length; i++) {
+            final S2Point s2Point = ((S2LatLng) points[i].getInner()).toPoint();
+            final double subLength = createSubLineTo(lineString, s2Point).getArclengthAngle().radians();
+            final long expected = startTime.getTime() + (long) (1000000L * subLength * (1.0 / totalLength));
+            assertEquals("Index = " + i, expected, timeAxis.getTime(points[i]).getTime());
+        }
     }
 
     @Test
-    public void testCreateSubLineTo_threePoints_secondSegment_closeToEnd() {
-        final S2Polyline polyline = (S2Polyline) wktReader.read("LINESTRING(-3 11, -1 13, 0 16)");
-        final S2Point point = (S2Point) wktReader.read("POINT(-0.3333 15)");
-
-        final BcS2TimeAxis timeAxis = new BcS2TimeAxis(new BcS2LineString(polyline), new Date(), new Date());
-        final S2Polyline subLineTo = timeAxis.createSubLineTo(point);
-
-        assertEquals(3, subLineTo.numVertices());
-        assertEqualPoints(subLineTo.vertex(0), polyline.vertex(0));
-        assertEquals(0.08551440716241719, subLineTo.getArclengthAngle().radians(), 1e-8);
-    }
-
-    @Test
-    public void testCreateSubLineTo_threePoints_firstSegment_closeToStart() {
-        final S2Polyline polyline = (S2Polyline) wktReader.read("LINESTRING(-3 11, -1 13, 0 16)");
-        final S2Point point = (S2Point) wktReader.read("POINT(-2.66667 11.3333)");
-
-        final BcS2TimeAxis timeAxis = new BcS2TimeAxis(new BcS2LineString(polyline), new Date(), new Date());
-        final S2Polyline subLineTo = timeAxis.createSubLineTo(point);
-
-        assertEquals(2, subLineTo.numVertices());
-        assertEqualPoints(subLineTo.vertex(0), polyline.vertex(0));
-        assertEquals(0.008149505938956792, subLineTo.getArclengthAngle().radians(), 1e-8);
-    }
-
-    @Test
-    public void testCreateSubLineTo_threePoints_firstSegment_closeToEnd() {
-        final S2Polyline polyline = (S2Polyline) wktReader.read("LINESTRING(-3 11, -1 13, 0 16)");
-        final S2Point point = (S2Point) wktReader.read("POINT(-1.5 12.6667)");
-
-        final BcS2TimeAxis timeAxis = new BcS2TimeAxis(new BcS2LineString(polyline), new Date(), new Date());
-        final S2Polyline subLineTo = timeAxis.createSubLineTo(point);
-
-        assertEquals(2, subLineTo.numVertices());
-        assertEqualPoints(subLineTo.vertex(0), polyline.vertex(0));
-        assertEquals(0.03871381307846636, subLineTo.getArclengthAngle().radians(), 1e-8);
+    public void testCalculateVertexArcLengths() {
+        final S2Polyline polyline = (S2Polyline) wktReader.read("LINESTRING(0 0, 1 0, 1 1, 3 1)");
+
+        final double[] arcLengths = BcS2TimeAxis.calculateVertexArcLengths(polyline);
+        assertEquals(4, arcLengths.length);
+        assertEquals(0.0, arcLengths[0], 1e-12);
+        assertEquals(0.017453292519943295, arcLengths[1], 1e-12);
+        assertEquals(0.03490658503988659, arcLengths[2], 1e-12);
+        assertEquals(polyline.getArclengthAngle().radians(), arcLengths[3], 0.0);
     }
 
     @Test
@@ -376,7 +337,14 @@ public class BcS2TimeAxisTest {
         assertEquals(expectedStop, timeInterval.getStopTime().getTime());
     }
 
-    private void assertEqualPoints(S2Point point_1, S2Point point_2) {
-        assertEquals(0, point_1.compareTo(point_2));
+    // the polyline from the start to the projected point, the time axis formerly measured its length per query
+    private static S2Polyline createSubLineTo(S2Polyline polyline, S2Point point) {
+        final int nearestEdgeIndex = polyline.getNearestEdgeIndex(point);
+        final List<S2Point> vertices = new ArrayList<>();
+        for (int i = 0; i <= nearestEdgeIndex; i++) {
+            vertices.add(polyline.vertex(i));
+        }
+        vertices.add(polyline.projectToEdge(point, nearestEdgeIndex));
+        return new S2Polyline(vertices);
     }
 }
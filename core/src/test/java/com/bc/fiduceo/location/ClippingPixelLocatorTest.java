@@ -31,4 +31,30 @@ public class ClippingPixelLocatorTest {
         assertSame(yIs3, locations[0]);
         assertSame(yIs7, locations[1]);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testClipPixelAnswer_buffers() throws Exception {
+        final PixelLocator mock = mock(PixelLocator.class);
+        when(mock.getPixelLocation(anyDouble(), anyDouble(), any(double[].class), any(double[].class))).thenAnswer(invocation -> {
+            final double[] x = (double[]) invocation.getArguments()[2];
+            final double[] y = (double[]) invocation.getArguments()[3];
+            final double[] yValues = {2, 3.5, 7.9, 8};
+            for (int i = 0; i < yValues.length; i++) {
+                x[i] = 200 + i;
+                y[i] = yValues[i];
+            }
+            return yValues.length;
+        });
+
+        final ClippingPixelLocator locator = new ClippingPixelLocator(mock, 3, 7);
+        final double[] x = new double[4];
+        final double[] y = new double[4];
+        final int numLocations = locator.getPixelLocation(13, 14, x, y);
+
+        assertEquals(2, numLocations);
+        assertEquals(201, x[0], 1e-8);
+        assertEquals(3.5, y[0], 1e-8);
+        assertEquals(202, x[1], 1e-8);
+        assertEquals(7.9, y[1], 1e-8);
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright (C) 2017 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+
+
+package com.bc.fiduceo.location;
+
+import com.bc.fiduceo.TestUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import ucar.ma2.Array;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class GeolocationCacheTest {
+
+    private File testDirectory;
+    private File productFile;
+    private GeolocationCache cache;
+
+    @Before
+    public void setUp() throws IOException {
+        testDirectory = TestUtil.createTestDirectory();
+        productFile = new File(testDirectory, "product.nc");
+        writeProduct(productFile, new byte[]{1, 2, 3, 4, 5});
+
+        cache = new GeolocationCache(new File(testDirectory, "cache"));
+    }
+
+    @After
+    public void tearDown() {
+        TestUtil.deleteTestDirectory();
+    }
+
+    @Test
+    public void testGet_notCached() throws IOException {
+        assertNull(cache.get(productFile));
+    }
+
+    @Test
+    public void testPutAndGet() throws IOException {
+        final float[] lons = {10.f, 10.5f, 11.f, 10.1f, 10.6f, 11.1f};
+        final float[] lats = {-20.f, -20.1f, -20.2f, -19.f, -19.1f, -19.2f};
+        final int[] shape = {2, 3};
+
+        cache.put(productFile, Array.factory(float.class, shape, lons), Array.factory(float.class, shape, lats));
+
+        final Array[] geolocation = cache.get(productFile);
+        assertNotNull(geolocation);
+        assertEquals(2, geolocation.length);
+        assertArrayEquals(shape, geolocation[0].getShape());
+        assertArrayEquals(shape, geolocation[1].getShape());
+        assertArrayEquals(lons, (float[]) geolocation[0].getStorage(), 0.f);
+        assertArrayEquals(lats, (float[]) geolocation[1].getStorage(), 0.f);
+    }
+
+    @Test
+    public void testPutAndGet_gridLargerThanReadBlock() throws IOException {
+        final int[] shape = {200, 300};
+        final float[] lons = new float[60000];
+        final float[] lats = new float[60000];
+        for (int i = 0; i < lons.length; i++) {
+            lons[i] = i * 0.001f;
+            lats[i] = -i * 0.0005f;
+        }
+
+        cache.put(productFile, Array.factory(float.class, shape, lons), Array.factory(float.class, shape, lats));
+
+        final Array[] geolocation = cache.get(productFile);
+        assertNotNull(geolocation);
+        assertArrayEquals(lons, (float[]) geolocation[0].getStorage(), 0.f);
+        assertArrayEquals(lats, (float[]) geolocation[1].getStorage(), 0.f);
+    }
+
+    @Test
+    public void testGet_truncatedEntry() throws IOException {
+        final int[] shape = {1, 2};
+        cache.put(productFile, Array.factory(float.class, shape, new float[]{1.f, 2.f}), Array.factory(float.class, shape, new float[]{3.f, 4.f}));
+
+        final File cacheFile = cache.getCacheFile(productFile);
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(cacheFile, "rw")) {
+            randomAccessFile.setLength(cacheFile.length() - 4);
+        }
+
+        assertNull(cache.get(productFile));
+        assertEquals(1, cache.purge());
+    }
+
+    @Test
+    public void testGet_productChanged() throws IOException {
+        final int[] shape = {1, 2};
+        cache.put(productFile, Array.factory(float.class, shape, new float[]{1.f, 2.f}), Array.factory(float.class, shape, new float[]{3.f, 4.f}));
+
+        writeProduct(productFile, new byte[]{5, 4, 3, 2, 1});
+
+        assertNull(cache.get(productFile));
+    }
+
+    @Test
+    public void testPurge() throws IOException {
+        final File otherProductFile = new File(testDirectory, "other_product.nc");
+        writeProduct(otherProductFile, new byte[]{6, 7, 8});
+
+        final int[] shape = {1, 2};
+        cache.put(productFile, Array.factory(float.class, shape, new float[]{1.f, 2.f}), Array.factory(float.class, shape, new float[]{3.f, 4.f}));
+        cache.put(otherProductFile, Array.factory(float.class, shape, new float[]{5.f, 6.f}), Array.factory(float.class, shape, new float[]{7.f, 8.f}));
+
+        assertEquals(0, cache.purge());
+
+        assertTrue(otherProductFile.delete());
+        assertEquals(1, cache.purge());
+
+        assertTrue(cache.getCacheFile(productFile).isFile());
+        assertFalse(cache.getCacheFile(otherProductFile).isFile());
+        assertNotNull(cache.get(productFile));
+    }
+
+    @Test
+    public void testGetCacheFile() {
+        final File cacheFile = cache.getCacheFile(productFile);
+        assertTrue(cacheFile.getName().startsWith("product.nc-"));
+        assertTrue(cacheFile.getName().endsWith(".geoloc"));
+
+        final File otherDirFile = new File(new File(testDirectory, "other"), "product.nc");
+        assertNotEquals(cacheFile, cache.getCacheFile(otherDirFile));
+    }
+
+    @Test
+    public void testCalculateChecksum() throws IOException {
+        final long checksum = GeolocationCache.calculateChecksum(productFile);
+        assertEquals(checksum, GeolocationCache.calculateChecksum(productFile));
+
+        final byte[] largeContent = new byte[200000];
+        largeContent[150000] = 12;
+        writeProduct(productFile, largeContent);
+        final long largeChecksum = GeolocationCache.calculateChecksum(productFile);
+
+        // a change in the tail of the file is detected
+        largeContent[199999] = 13;
+        writeProduct(productFile, largeContent);
+        assertNotEquals(largeChecksum, GeolocationCache.calculateChecksum(productFile));
+    }
+
+    private static void writeProduct(File file, byte[] content) throws IOException {
+        try (FileOutputStream outputStream = new FileOutputStream(file)) {
+            outputStream.write(content);
+        }
+    }
+}
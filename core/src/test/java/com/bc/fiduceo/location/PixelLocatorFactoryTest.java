@@ -20,6 +20,7 @@
 
 package com.bc.fiduceo.location;
 
+import com.bc.fiduceo.TestUtil;
 import com.bc.fiduceo.geometry.GeometryFactory;
 import com.bc.fiduceo.geometry.Polygon;
 import org.junit.Before;
@@ -27,6 +28,8 @@ import org.junit.Test;
 import ucar.ma2.Array;
 
 import java.awt.geom.Point2D;
+import java.io.File;
+import java.io.IOException;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
@@ -68,6 +71,29 @@ public class PixelLocatorFactoryTest {
         assertTrue(pixelLocator instanceof SwathPixelLocator);
     }
 
+    @Test
+    public void testGetSwath_withGeolocationCache() throws IOException {
+        final File testDirectory = TestUtil.createTestDirectory();
+        try {
+            final File productFile = TestUtil.createFileInTestDir("product.nc");
+            PixelLocatorFactory.setGeolocationCache(new GeolocationCache(new File(testDirectory, "cache")));
+
+            final PixelLocatorFactory.GeolocationProvider provider = mock(PixelLocatorFactory.GeolocationProvider.class);
+            when(provider.getLongitudes()).thenReturn(Array.factory(float.class, new int[]{2, 2}, new float[]{1.f, 2.f, 3.f, 4.f}));
+            when(provider.getLatitudes()).thenReturn(Array.factory(float.class, new int[]{2, 2}, new float[]{5.f, 6.f, 7.f, 8.f}));
+
+            assertTrue(PixelLocatorFactory.getSwathPixelLocator(productFile, provider) instanceof SwathPixelLocator);
+            assertTrue(PixelLocatorFactory.getSwathPixelLocator(productFile, provider) instanceof SwathPixelLocator);
+
+            verify(provider, times(1)).getLongitudes();
+            verify(provider, times(1)).getLatitudes();
+            verifyNoMoreInteractions(provider);
+        } finally {
+            PixelLocatorFactory.setGeolocationCache(null);
+            TestUtil.deleteTestDirectory();
+        }
+    }
+
     @Test
     public void testGetSubScenePixelLocator_firstScene() throws Exception {
         final Polygon polygon = mock(Polygon.class);
@@ -82,6 +82,36 @@ public class SwathPixelLocatorTest {
         }
     }
 
+    @Test
+    public void testIndexedLookupFindsSameLocationsAsExhaustiveSearch() throws Exception {
+        final SwathPixelLocator swathPixelLocator = (SwathPixelLocator) pixelLocator;
+        final double[] pixelX = new double[4];
+        final double[] pixelY = new double[4];
+
+        for (int h = 0; h < height; h += 7) {
+            for (int w = 0; w < width; w += 5) {
+                final Point2D geoPos = pixelLocator.getGeoLocation(w + 0.5, h + 0.5, null);
+                final double lon = geoPos.getX();
+                final double lat = geoPos.getY();
+
+                final Point2D[] expected = swathPixelLocator.getPixelLocationExhaustive(lon, lat);
+                final Point2D[] actual = pixelLocator.getPixelLocation(lon, lat);
+                assertEquals("lon=" + lon + " lat=" + lat, expected.length, actual.length);
+                for (int i = 0; i < expected.length; i++) {
+                    assertEquals(expected[i].getX(), actual[i].getX(), 1e-8);
+                    assertEquals(expected[i].getY(), actual[i].getY(), 1e-8);
+                }
+
+                final int numFound = pixelLocator.getPixelLocation(lon, lat, pixelX, pixelY);
+                assertEquals(expected.length, numFound);
+                for (int i = 0; i < numFound; i++) {
+                    assertEquals(expected[i].getX(), pixelX[i], 1e-8);
+                    assertEquals(expected[i].getY(), pixelY[i], 1e-8);
+                }
+            }
+        }
+    }
+
     private int getCloserIndex(double y, Point2D[] locations) {
         return Math.abs(y - locations[0].getY()) < Math.abs(y - locations[1].getY()) ? 0 : 1;
     }
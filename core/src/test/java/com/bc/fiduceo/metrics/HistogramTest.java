@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2016 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+
+package com.bc.fiduceo.metrics;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class HistogramTest {
+
+    private Histogram histogram;
+
+    @Before
+    public void setUp() {
+        histogram = new Histogram();
+    }
+
+    @Test
+    public void testEmpty() {
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getSum());
+        assertEquals(0, histogram.getMin());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0.0, histogram.getMean(), 1e-8);
+        assertEquals(0, histogram.getQuantile(0.5));
+    }
+
+    @Test
+    public void testRecord() {
+        histogram.record(4);
+        histogram.record(0);
+        histogram.record(11);
+
+        assertEquals(3, histogram.getCount());
+        assertEquals(15, histogram.getSum());
+        assertEquals(0, histogram.getMin());
+        assertEquals(11, histogram.getMax());
+        assertEquals(5.0, histogram.getMean(), 1e-8);
+    }
+
+    @Test
+    public void testRecord_negative() {
+        try {
+            histogram.record(-1);
+            fail("IllegalArgumentException expected");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    @Test
+    public void testGetQuantile() {
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i);
+        }
+
+        assertEquals(1, histogram.getQuantile(0.0));
+        assertEquals(63, histogram.getQuantile(0.5));
+        assertEquals(100, histogram.getQuantile(0.9));
+        assertEquals(100, histogram.getQuantile(1.0));
+    }
+
+    @Test
+    public void testGetBucketIndex() {
+        assertEquals(0, Histogram.getBucketIndex(0));
+        assertEquals(1, Histogram.getBucketIndex(1));
+        assertEquals(2, Histogram.getBucketIndex(2));
+        assertEquals(2, Histogram.getBucketIndex(3));
+        assertEquals(3, Histogram.getBucketIndex(4));
+        assertEquals(11, Histogram.getBucketIndex(1024));
+        assertEquals(63, Histogram.getBucketIndex(Long.MAX_VALUE));
+    }
+}
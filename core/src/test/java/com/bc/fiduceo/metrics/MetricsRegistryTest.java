@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2016 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+
+package com.bc.fiduceo.metrics;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.SortedMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class MetricsRegistryTest {
+
+    private MetricsRegistry registry;
+
+    @Before
+    public void setUp() {
+        registry = new MetricsRegistry();
+    }
+
+    @Test
+    public void testCounter() {
+        final Counter counter = registry.counter("the.counter");
+        assertSame(counter, registry.counter("the.counter"));
+
+        counter.increment();
+        counter.add(5);
+        assertEquals(6, registry.counter("the.counter").getCount());
+    }
+
+    @Test
+    public void testTimer() {
+        final Timer timer = registry.timer("the.timer");
+        assertSame(timer, registry.timer("the.timer"));
+
+        timer.record(200);
+        timer.record(1000);
+        try (Timer.Context ignored = timer.start()) {
+            assertEquals(2, timer.getCount());
+        }
+
+        assertEquals(3, timer.getCount());
+        assertTrue(timer.getTotalNanos() >= 1200);
+        assertTrue(timer.getMaxNanos() >= 1000);
+    }
+
+    @Test
+    public void testGetMetrics_sortedByName() {
+        registry.counter("b");
+        registry.counter("a");
+        registry.timer("t");
+        registry.histogram("h");
+
+        final SortedMap<String, Counter> counters = registry.getCounters();
+        assertEquals(2, counters.size());
+        assertEquals("a", counters.firstKey());
+        assertEquals("b", counters.lastKey());
+        assertEquals(1, registry.getTimers().size());
+        assertEquals(1, registry.getHistograms().size());
+    }
+
+    @Test
+    public void testClear() {
+        registry.counter("a").increment();
+        registry.timer("t");
+        registry.histogram("h");
+
+        registry.clear();
+
+        assertTrue(registry.getCounters().isEmpty());
+        assertTrue(registry.getTimers().isEmpty());
+        assertTrue(registry.getHistograms().isEmpty());
+        assertEquals(0, registry.counter("a").getCount());
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (C) 2016 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+
+package com.bc.fiduceo.metrics;
+
+import com.bc.fiduceo.TestUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static com.bc.fiduceo.FiduceoConstants.VERSION_NUMBER;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RunReportTest {
+
+    private MetricsRegistry registry;
+
+    @Before
+    public void setUp() {
+        registry = new MetricsRegistry();
+    }
+
+    @After
+    public void tearDown() {
+        TestUtil.deleteTestDirectory();
+    }
+
+    @Test
+    public void testToJson_empty() {
+        final RunReport runReport = new RunReport("the-tool", new String[]{"-c", "a \"quoted\" path"}, null, registry);
+
+        final String json = runReport.toJson(RunReport.STATUS_RUNNING, System.currentTimeMillis());
+        assertTrue(json.startsWith("{\n  \"tool\": \"the-tool\",\n  \"version\": \"" + VERSION_NUMBER + "\",\n  \"status\": \"running\",\n"));
+        assertTrue(json.contains("  \"arguments\": [\n    \"-c\",\n    \"a \\\"quoted\\\" path\"\n  ],\n"));
+        assertTrue(json.contains("  \"counters\": {},\n  \"timers\": {},\n  \"histograms\": {}\n}"));
+    }
+
+    @Test
+    public void testToJson_metrics() {
+        registry.counter("db.query").add(3);
+        registry.timer("intersection").record(2000000L);
+        registry.timer("intersection").record(4000000L);
+        registry.histogram("samples").record(5);
+
+        final RunReport runReport = new RunReport("the-tool", new String[0], null, registry);
+
+        final String json = runReport.toJson(RunReport.STATUS_SUCCEEDED, System.currentTimeMillis());
+        assertTrue(json.contains("  \"status\": \"succeeded\",\n"));
+        assertTrue(json.contains("  \"arguments\": [],\n"));
+        assertTrue(json.contains("  \"counters\": {\n    \"db.query\": 3\n  },\n"));
+        assertTrue(json.contains("    \"intersection\": {\n" +
+                                 "      \"count\": 2,\n" +
+                                 "      \"total_ms\": 6.000,\n" +
+                                 "      \"mean_ms\": 3.000,\n" +
+                                 "      \"max_ms\": 4.000\n" +
+                                 "    }\n"));
+        assertTrue(json.contains("    \"samples\": {\n" +
+                                 "      \"count\": 1,\n" +
+                                 "      \"sum\": 5,\n" +
+                                 "      \"min\": 5,\n" +
+                                 "      \"max\": 5,\n" +
+                                 "      \"mean\": 5.000,\n" +
+                                 "      \"p50\": 5,\n" +
+                                 "      \"p90\": 5,\n" +
+                                 "      \"p99\": 5\n" +
+                                 "    }\n"));
+    }
+
+    @Test
+    public void testFinish_writesReport() throws IOException {
+        final File testDirectory = TestUtil.createTestDirectory();
+        final File reportFile = new File(testDirectory, "report.json");
+        registry.counter("mmd.matchups").add(12);
+
+        final RunReport runReport = new RunReport("matchup-tool", new String[]{"-u", "usecase.xml"}, reportFile, registry);
+        runReport.finish(false);
+
+        assertTrue(reportFile.isFile());
+        final String json = new String(Files.readAllBytes(reportFile.toPath()), StandardCharsets.UTF_8);
+        assertTrue(json.contains("  \"status\": \"failed\",\n"));
+        assertTrue(json.contains("    \"mmd.matchups\": 12\n"));
+
+        final String[] remainingFiles = testDirectory.list();
+        assertEquals(1, remainingFiles.length);
+    }
+
+    @Test
+    public void testCreate_noReport() {
+        final RunReport runReport = RunReport.create("the-tool", new String[0], null, null);
+        runReport.finish(true);
+
+        final File testDirectory = TestUtil.createTestDirectory();
+        assertEquals(0, testDirectory.list().length);
+    }
+
+    @Test
+    public void testCreate_intervalWithoutReport() {
+        try {
+            RunReport.create("the-tool", new String[0], null, "30");
+            fail("RuntimeException expected");
+        } catch (RuntimeException expected) {
+            assertEquals("The report interval requires a report file", expected.getMessage());
+        }
+    }
+
+    @Test
+    public void testParseInterval() {
+        assertEquals(30, RunReport.parseInterval("30"));
+        assertEquals(5, RunReport.parseInterval(" 5 "));
+
+        assertInvalidInterval("0");
+        assertInvalidInterval("-2");
+        assertInvalidInterval("often");
+    }
+
+    private static void assertInvalidInterval(String intervalSeconds) {
+        try {
+            RunReport.parseInterval(intervalSeconds);
+            fail("RuntimeException expected");
+        } catch (RuntimeException expected) {
+            assertEquals("Invalid report interval: " + intervalSeconds, expected.getMessage());
+        }
+    }
+}
@@ -21,9 +21,11 @@
 package com.bc.fiduceo.reader;
 
 
+import com.bc.fiduceo.core.Interval;
 import org.junit.Before;
 import org.junit.Test;
 import ucar.ma2.Array;
+import ucar.ma2.InvalidRangeException;
 import ucar.nc2.Attribute;
 import ucar.nc2.Group;
 import ucar.nc2.NetcdfFile;
@@ -34,7 +36,9 @@ import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -163,7 +167,7 @@ public class ArrayCacheTest {
         }
 
         verify(netcdfFile, times(1)).findVariable(null, "a_variable");
-        verify(variable, times(1)).read();
+        verify(variable, never()).read();
         verify(variable, times(1)).getAttributes();
         verifyNoMoreInteractions(netcdfFile, variable);
     }
@@ -183,7 +187,7 @@ public class ArrayCacheTest {
         }
 
         verify(netcdfFile, times(1)).findVariable(null, "a_variable");
-        verify(variable, times(1)).read();
+        verify(variable, never()).read();
         verify(variable, times(1)).getAttributes();
         verifyNoMoreInteractions(netcdfFile, variable);
     }
@@ -329,7 +333,7 @@ public class ArrayCacheTest {
         assertNull(attributeValue);
 
         verify(netcdfFile, times(1)).findVariable(null, "a_variable");
-        verify(variable, times(1)).read();
+        verify(variable, never()).read();
         verify(variable, times(1)).getAttributes();
         verifyNoMoreInteractions(netcdfFile, variable);
     }
@@ -350,7 +354,7 @@ public class ArrayCacheTest {
         assertEquals("the_value", attributeValue);
 
         verify(netcdfFile, times(1)).findVariable(null, "a_variable");
-        verify(variable, times(1)).read();
+        verify(variable, never()).read();
         verify(variable, times(1)).getAttributes();
         verifyNoMoreInteractions(netcdfFile, variable);
     }
@@ -389,7 +393,7 @@ public class ArrayCacheTest {
 
         verify(netcdfFile, times(1)).findGroup("a_group");
         verify(netcdfFile, times(1)).findVariable(group, "a_group_variable");
-        verify(variable, times(1)).read();
+        verify(variable, never()).read();
         verify(variable, times(1)).getAttributes();
         verifyNoMoreInteractions(netcdfFile, variable);
     }
@@ -411,7 +415,7 @@ public class ArrayCacheTest {
 
         verify(netcdfFile, times(1)).findGroup("a_group");
         verify(netcdfFile, times(1)).findVariable(group, "a_group_variable");
-        verify(variable, times(1)).read();
+        verify(variable, never()).read();
         verify(variable, times(1)).getAttributes();
         verifyNoMoreInteractions(netcdfFile, variable);
     }
@@ -427,7 +431,7 @@ public class ArrayCacheTest {
         assertEquals(-99999, attributeValue.intValue());
 
         verify(netcdfFile, times(1)).findVariable(null, "a_variable");
-        verify(variable, times(1)).read();
+        verify(variable, never()).read();
         verify(variable, times(1)).getAttributes();
         verifyNoMoreInteractions(netcdfFile, variable);
     }
@@ -444,7 +448,7 @@ public class ArrayCacheTest {
 
         verify(netcdfFile, times(1)).findGroup("a_group");
         verify(netcdfFile, times(1)).findVariable(group, "a_group_variable");
-        verify(variable, times(1)).read();
+        verify(variable, never()).read();
         verify(variable, times(1)).getAttributes();
         verifyNoMoreInteractions(netcdfFile, variable);
     }
@@ -463,4 +467,90 @@ public class ArrayCacheTest {
         assertNotNull(injectedArray);
         assertEquals(2, injectedArray.getInt(0));
     }
+
+    @Test
+    public void testReadWindow_readsOnlyTheCoveringChunk() throws IOException, InvalidRangeException {
+        prepareLargeVariable();
+
+        final Array window = arrayCache.readWindow("a_variable", 5, 7, new Interval(3, 3), -1, 20000);
+        assertArrayEquals(new int[]{3, 3}, window.getShape());
+        assertArrayEquals(new int[]{604, 605, 606, 704, 705, 706, 804, 805, 806}, (int[]) window.copyTo1DJavaArray());
+
+        verify(variable, times(1)).read(new int[]{6, 0}, new int[]{3, 20000});
+        verify(variable, never()).read();
+    }
+
+    @Test
+    public void testReadWindow_acrossChunkBorder() throws IOException, InvalidRangeException {
+        prepareLargeVariable();
+
+        final Array window = arrayCache.readWindow("a_variable", 10, 5, new Interval(3, 3), -1, 20000);
+        assertArrayEquals(new int[]{409, 410, 411, 509, 510, 511, 609, 610, 611}, (int[]) window.copyTo1DJavaArray());
+
+        verify(variable, times(1)).read(new int[]{3, 0}, new int[]{3, 20000});
+        verify(variable, times(1)).read(new int[]{6, 0}, new int[]{3, 20000});
+        verify(variable, never()).read();
+    }
+
+    @Test
+    public void testReadWindow_atProductBorder() throws IOException, InvalidRangeException {
+        prepareLargeVariable();
+
+        final Array window = arrayCache.readWindow("a_variable", 0, 10, new Interval(3, 3), -1, 20000);
+        assertArrayEquals(new int[]{-1, 900, 901, -1, -1, -1, -1, -1, -1}, (int[]) window.copyTo1DJavaArray());
+
+        // the last chunk holds a single row, the chunk before is added
+        verify(variable, times(1)).read(new int[]{6, 0}, new int[]{3, 20000});
+        verify(variable, times(1)).read(new int[]{9, 0}, new int[]{1, 20000});
+    }
+
+    @Test
+    public void testReadWindow_chunksAreTakenFromCache() throws IOException, InvalidRangeException {
+        prepareLargeVariable();
+
+        arrayCache.readWindow("a_variable", 5, 7, new Interval(3, 3), -1, 20000);
+        final Array window = arrayCache.readWindow("a_variable", 6, 6, new Interval(1, 1), -1, 20000);
+        assertArrayEquals(new int[]{606}, (int[]) window.copyTo1DJavaArray());
+
+        verify(variable, times(1)).read(new int[]{6, 0}, new int[]{3, 20000});
+    }
+
+    @Test
+    public void testDispose_removesDataFromSharedCache() throws IOException, InvalidRangeException {
+        prepareLargeVariable();
+        final ChunkCache chunkCache = ArrayCache.getChunkCache();
+        final int sizeBefore = chunkCache.size();
+
+        arrayCache.readWindow("a_variable", 10, 5, new Interval(3, 3), -1, 20000);
+        assertEquals(sizeBefore + 2, chunkCache.size());
+
+        arrayCache.dispose();
+        assertEquals(sizeBefore, chunkCache.size());
+    }
+
+    @Test
+    public void testGetRowDimension() {
+        assertEquals(0, ArrayCache.getRowDimension(new int[]{12}));
+        assertEquals(1, ArrayCache.getRowDimension(new int[]{1, 12}));
+        assertEquals(0, ArrayCache.getRowDimension(new int[]{12, 409}));
+        assertEquals(1, ArrayCache.getRowDimension(new int[]{1, 12, 409}));
+        assertEquals(-1, ArrayCache.getRowDimension(new int[]{12, 409, 19}));
+    }
+
+    // 10 rows of 20000 int values, three rows per chunk; the values encode row and column
+    private void prepareLargeVariable() throws IOException, InvalidRangeException {
+        when(variable.getShape()).thenReturn(new int[]{10, 20000});
+        when(variable.getElementSize()).thenReturn(4);
+        when(variable.read(any(int[].class), any(int[].class))).thenAnswer(invocation -> {
+            final int[] origin = (int[]) invocation.getArguments()[0];
+            final int[] shape = (int[]) invocation.getArguments()[1];
+            final int[] data = new int[shape[0] * shape[1]];
+            for (int y = 0; y < shape[0]; y++) {
+                for (int x = 0; x < shape[1]; x++) {
+                    data[y * shape[1] + x] = (origin[0] + y) * 100 + x % 100;
+                }
+            }
+            return Array.factory(int.class, shape, data);
+        });
+    }
 }
@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2016 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+package com.bc.fiduceo.reader;
+
+
+import org.junit.Before;
+import org.junit.Test;
+import ucar.ma2.Array;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class ChunkCacheTest {
+
+    private ChunkCache chunkCache;
+    private Object owner;
+
+    @Before
+    public void setUp() {
+        chunkCache = new ChunkCache(100);
+        owner = new Object();
+    }
+
+    @Test
+    public void testPutAndGet() {
+        final Array array = Array.factory(new int[]{1, 2, 3});
+        chunkCache.put(owner, "var", 2, array);
+
+        assertSame(array, chunkCache.get(owner, "var", 2));
+        assertNull(chunkCache.get(owner, "var", 1));
+        assertNull(chunkCache.get(owner, "other", 2));
+        assertNull(chunkCache.get(new Object(), "var", 2));
+        assertEquals(12, chunkCache.getSizeInBytes());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() {
+        chunkCache.put(owner, "var", 0, Array.factory(new int[10]));
+        chunkCache.put(owner, "var", 1, Array.factory(new int[10]));
+        assertEquals(80, chunkCache.getSizeInBytes());
+
+        chunkCache.get(owner, "var", 0);
+        chunkCache.put(owner, "var", 2, Array.factory(new int[10]));
+
+        assertEquals(2, chunkCache.size());
+        assertEquals(80, chunkCache.getSizeInBytes());
+        assertNull(chunkCache.get(owner, "var", 1));
+    }
+
+    @Test
+    public void testEntryLargerThanBudgetIsKeptUntilNextPut() {
+        final Array large = Array.factory(new double[20]);
+        chunkCache.put(owner, "var", 0, Array.factory(new int[10]));
+        chunkCache.put(owner, "large", -1, large);
+
+        assertEquals(1, chunkCache.size());
+        assertSame(large, chunkCache.get(owner, "large", -1));
+
+        chunkCache.put(owner, "var", 0, Array.factory(new int[10]));
+        assertEquals(1, chunkCache.size());
+        assertEquals(40, chunkCache.getSizeInBytes());
+    }
+
+    @Test
+    public void testReplaceEntry() {
+        chunkCache.put(owner, "var", 0, Array.factory(new int[10]));
+        chunkCache.put(owner, "var", 0, Array.factory(new int[5]));
+
+        assertEquals(1, chunkCache.size());
+        assertEquals(20, chunkCache.getSizeInBytes());
+    }
+
+    @Test
+    public void testRemoveOwner() {
+        final Object otherOwner = new Object();
+        chunkCache.put(owner, "var", 0, Array.factory(new int[5]));
+        chunkCache.put(otherOwner, "var", 0, Array.factory(new int[5]));
+        chunkCache.put(owner, "var", 1, Array.factory(new int[5]));
+
+        chunkCache.remove(owner);
+
+        assertEquals(1, chunkCache.size());
+        assertEquals(20, chunkCache.getSizeInBytes());
+        assertNull(chunkCache.get(owner, "var", 0));
+    }
+
+    @Test
+    public void testSetMaxBytes_evicts() {
+        chunkCache.put(owner, "var", 0, Array.factory(new int[5]));
+        chunkCache.put(owner, "var", 1, Array.factory(new int[5]));
+
+        chunkCache.setMaxBytes(30);
+
+        assertEquals(1, chunkCache.size());
+        assertNull(chunkCache.get(owner, "var", 0));
+    }
+}
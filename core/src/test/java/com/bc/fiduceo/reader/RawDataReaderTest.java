@@ -21,8 +21,12 @@
 package com.bc.fiduceo.reader;
 
 
+import com.bc.fiduceo.core.Interval;
 import org.junit.Test;
+import ucar.ma2.Array;
+import ucar.ma2.InvalidRangeException;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
 public class RawDataReaderTest {
@@ -41,4 +45,127 @@ public class RawDataReaderTest {
         assertEquals(RawDataReader.InputDimension.THREE_D_FALSE_DIMENSION, RawDataReader.getInputDimension(3, new int[]{1, 409, 4443}));
         assertEquals(RawDataReader.InputDimension.THREE_D_FALSE_DIMENSION, RawDataReader.getInputDimension(3, new int[]{1, 10, 10}));
     }
+
+    @Test
+    public void testRead_intoTarget() throws InvalidRangeException {
+        final Array rawArray = Array.factory(int.class, new int[]{4, 5}, new int[]{
+                0, 1, 2, 3, 4,
+                10, 11, 12, 13, 14,
+                20, 21, 22, 23, 24,
+                30, 31, 32, 33, 34});
+        final Array target = Array.factory(int.class, new int[]{2, 3, 3});
+
+        RawDataReader.read(1, 1, new Interval(3, 3), -1, rawArray, 5, target, 0);
+        RawDataReader.read(4, 3, new Interval(3, 3), -1, rawArray, 5, target, 9);
+
+        assertArrayEquals(new int[]{
+                0, 1, 2,
+                10, 11, 12,
+                20, 21, 22,
+
+                23, 24, -1,
+                33, 34, -1,
+                -1, -1, -1}, (int[]) target.copyTo1DJavaArray());
+    }
+
+    @Test
+    public void testRead_intoTarget_oneDimensional() throws InvalidRangeException {
+        final Array rawArray = Array.factory(new short[]{5, 6, 7});
+        final Array target = Array.factory(short.class, new int[]{1, 3, 3});
+
+        RawDataReader.read(0, 2, new Interval(3, 3), (short) -9, rawArray, 4, target, 0);
+
+        assertArrayEquals(new short[]{
+                -9, 6, 6,
+                -9, 7, 7,
+                -9, -9, -9}, (short[]) target.copyTo1DJavaArray());
+    }
+
+    @Test
+    public void testRead_intoTarget_nonContiguousRawData() throws InvalidRangeException {
+        final Array array = Array.factory(float.class, new int[]{3, 3}, new float[]{
+                0, 10, 20,
+                1, 11, 21,
+                2, 12, 22});
+        final Array rawArray = array.transpose(0, 1);
+        final Array target = Array.factory(float.class, new int[]{1, 2, 2});
+
+        RawDataReader.read(2, 1, new Interval(2, 2), Float.NaN, rawArray, 3, target, 0);
+
+        assertArrayEquals(new float[]{1, 2, 11, 12}, (float[]) target.copyTo1DJavaArray(), 1e-8f);
+    }
+
+    @Test
+    public void testRead_intoTarget_differentDataType() throws InvalidRangeException {
+        final Array rawArray = Array.factory(int.class, new int[]{2, 2}, new int[]{1, 2, 3, 4});
+        final Array target = Array.factory(double.class, new int[]{1, 1, 1});
+
+        RawDataReader.read(1, 1, new Interval(1, 1), -1, rawArray, 2, target, 0);
+
+        assertEquals(4.0, target.getDouble(0), 1e-8);
+    }
+
+    @Test
+    public void testReadScaled_pixels() {
+        final Array rawArray = Array.factory(short.class, new int[]{3, 4}, new short[]{
+                0, 1, 2, 3,
+                10, 11, 12, 13,
+                20, 21, 22, 23});
+        final int[] x = {0, 3, 2, 7};
+        final int[] y = {0, 2, 1, 7};
+        final double[] target = new double[3];
+
+        RawDataReader.readScaled(x, y, 3, new Interval(1, 1), -1, rawArray, 4, 0.5, 1.0, target);
+
+        assertArrayEquals(new double[]{1.0, 12.5, 7.0}, target, 1e-8);
+    }
+
+    @Test
+    public void testReadScaled_windowsAtBorder() {
+        final Array rawArray = Array.factory(int.class, new int[]{3, 4}, new int[]{
+                0, 1, 2, 3,
+                10, 11, 12, 13,
+                20, 21, 22, 23});
+        final int[] x = {0, 3};
+        final int[] y = {0, 1};
+        final double[] target = new double[18];
+
+        RawDataReader.readScaled(x, y, 2, new Interval(3, 3), -1, rawArray, 4, 1.0, 0.0, target);
+
+        assertArrayEquals(new double[]{
+                -1, -1, -1,
+                -1, 0, 1,
+                -1, 10, 11,
+
+                2, 3, -1,
+                12, 13, -1,
+                22, 23, -1}, target, 1e-8);
+    }
+
+    @Test
+    public void testReadScaled_oneDimensional() {
+        final Array rawArray = Array.factory(new float[]{1.5f, 2.5f});
+        final double[] target = new double[6];
+
+        RawDataReader.readScaled(new int[]{1}, new int[]{1}, 1, new Interval(3, 2), Float.NaN, rawArray, 3, 2.0, 0.0, target);
+
+        assertArrayEquals(new double[]{
+                3.0, 3.0, 3.0,
+                5.0, 5.0, 5.0}, target, 1e-8);
+    }
+
+    @Test
+    public void testReadScaled_sameValuesAsWindowRead() throws InvalidRangeException {
+        final Array rawArray = Array.factory(int.class, new int[]{1, 3, 3}, new int[]{
+                1, 2, 3,
+                4, 5, 6,
+                7, 8, 9});
+        final Interval interval = new Interval(3, 3);
+        final double[] target = new double[9];
+
+        RawDataReader.readScaled(new int[]{2}, new int[]{0}, 1, interval, 99, rawArray, 3, 1.0, 0.0, target);
+
+        final Array window = RawDataReader.read(2, 0, interval, 99, rawArray, 3);
+        assertArrayEquals((double[]) window.get1DJavaArray(double.class), target, 1e-8);
+    }
 }
@@ -0,0 +1,237 @@
+/*
+ * Copyright (C) 2017 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+
+package com.bc.fiduceo.reader;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ReaderCacheTest {
+
+    private static final Path PATH_ONE = Paths.get("a/relative/path/one");
+    private static final Path PATH_TWO = Paths.get("a/relative/path/two");
+    private static final Path PATH_THREE = Paths.get("a/relative/path/three");
+
+    private ReaderFactory readerFactory;
+    private ReaderCache readerCache;
+
+    @Before
+    public void setUp() {
+        readerFactory = mock(ReaderFactory.class);
+        readerCache = new ReaderCache(readerFactory, 2, 0);
+    }
+
+    @Test
+    public void testBorrow_emptyCache_opensReader() throws IOException {
+        final Reader reader = mock(Reader.class);
+        when(readerFactory.getReader("the_sensor")).thenReturn(reader);
+
+        final Reader borrowed = readerCache.borrow("the_sensor", PATH_ONE);
+        assertSame(reader, borrowed);
+
+        verify(reader, times(1)).open(PATH_ONE.toFile());
+        assertEquals(0, readerCache.getNumHits());
+        assertEquals(1, readerCache.getNumMisses());
+        assertEquals(1, readerCache.getNumOpenReaders());
+    }
+
+    @Test
+    public void testBorrowReleaseBorrow_readerReused() throws IOException {
+        final Reader reader = mock(Reader.class);
+        when(readerFactory.getReader("the_sensor")).thenReturn(reader);
+
+        final Reader first = readerCache.borrow("the_sensor", PATH_ONE);
+        readerCache.release(first);
+        final Reader second = readerCache.borrow("the_sensor", PATH_ONE);
+
+        assertSame(first, second);
+        verify(reader, times(1)).open(any(File.class));
+        verify(reader, never()).close();
+        assertEquals(1, readerCache.getNumHits());
+        assertEquals(1, readerCache.getNumMisses());
+    }
+
+    @Test
+    public void testBorrow_samePathDifferentSensor_notShared() throws IOException {
+        final Reader reader_1 = mock(Reader.class);
+        final Reader reader_2 = mock(Reader.class);
+        when(readerFactory.getReader("sensor_a")).thenReturn(reader_1);
+        when(readerFactory.getReader("sensor_b")).thenReturn(reader_2);
+
+        readerCache.release(readerCache.borrow("sensor_a", PATH_ONE));
+        final Reader borrowed = readerCache.borrow("sensor_b", PATH_ONE);
+
+        assertSame(reader_2, borrowed);
+        assertEquals(2, readerCache.getNumMisses());
+    }
+
+    @Test
+    public void testBorrow_isExclusive() throws IOException {
+        final Reader reader_1 = mock(Reader.class);
+        final Reader reader_2 = mock(Reader.class);
+        when(readerFactory.getReader("the_sensor")).thenReturn(reader_1, reader_2);
+
+        final Reader first = readerCache.borrow("the_sensor", PATH_ONE);
+        final Reader second = readerCache.borrow("the_sensor", PATH_ONE);
+
+        assertNotSame(first, second);
+        assertEquals(2, readerCache.getNumMisses());
+        assertEquals(2, readerCache.getNumOpenReaders());
+    }
+
+    @Test
+    public void testRelease_overHandleBudget_leastRecentlyUsedEvicted() throws IOException {
+        final Reader reader_1 = mock(Reader.class);
+        final Reader reader_2 = mock(Reader.class);
+        final Reader reader_3 = mock(Reader.class);
+        when(readerFactory.getReader("the_sensor")).thenReturn(reader_1, reader_2, reader_3);
+
+        readerCache.release(readerCache.borrow("the_sensor", PATH_ONE));
+        readerCache.release(readerCache.borrow("the_sensor", PATH_TWO));
+        // touch the first one, the second is now the least recently used
+        readerCache.release(readerCache.borrow("the_sensor", PATH_ONE));
+        readerCache.release(readerCache.borrow("the_sensor", PATH_THREE));
+
+        verify(reader_1, never()).close();
+        verify(reader_2, times(1)).close();
+        verify(reader_3, never()).close();
+        assertEquals(1, readerCache.getNumEvictions());
+        assertEquals(2, readerCache.getNumOpenReaders());
+
+        assertSame(reader_1, readerCache.borrow("the_sensor", PATH_ONE));
+        assertSame(reader_3, readerCache.borrow("the_sensor", PATH_THREE));
+    }
+
+    @Test
+    public void testBorrow_borrowedReadersAreNotEvicted() throws IOException {
+        final Reader reader_1 = mock(Reader.class);
+        final Reader reader_2 = mock(Reader.class);
+        final Reader reader_3 = mock(Reader.class);
+        when(readerFactory.getReader("the_sensor")).thenReturn(reader_1, reader_2, reader_3);
+
+        readerCache.borrow("the_sensor", PATH_ONE);
+        readerCache.borrow("the_sensor", PATH_TWO);
+        readerCache.borrow("the_sensor", PATH_THREE);
+
+        verify(reader_1, never()).close();
+        verify(reader_2, never()).close();
+        verify(reader_3, never()).close();
+        assertEquals(3, readerCache.getNumOpenReaders());
+
+        readerCache.release(reader_2);
+        verify(reader_2, times(1)).close();
+        assertEquals(2, readerCache.getNumOpenReaders());
+    }
+
+    @Test
+    public void testRelease_zeroSize_closesImmediately() throws IOException {
+        final Reader reader = mock(Reader.class);
+        when(readerFactory.getReader("the_sensor")).thenReturn(reader);
+        readerCache = new ReaderCache(readerFactory, 0, 0);
+
+        readerCache.release(readerCache.borrow("the_sensor", PATH_ONE));
+
+        verify(reader, times(1)).close();
+        assertEquals(0, readerCache.getNumOpenReaders());
+    }
+
+    @Test
+    public void testRelease_notBorrowed() throws IOException {
+        try {
+            readerCache.release(mock(Reader.class));
+            fail("RuntimeException expected");
+        } catch (RuntimeException expected) {
+        }
+    }
+
+    @Test
+    public void testBorrow_openFails_readerClosed() throws IOException {
+        final Reader reader = mock(Reader.class);
+        when(readerFactory.getReader("the_sensor")).thenReturn(reader);
+        doThrow(new IOException("boom")).when(reader).open(any(File.class));
+
+        try {
+            readerCache.borrow("the_sensor", PATH_ONE);
+            fail("IOException expected");
+        } catch (IOException expected) {
+        }
+
+        verify(reader, times(1)).close();
+        assertEquals(0, readerCache.getNumOpenReaders());
+    }
+
+    @Test
+    public void testClose() throws IOException {
+        final Reader reader_1 = mock(Reader.class);
+        final Reader reader_2 = mock(Reader.class);
+        when(readerFactory.getReader("the_sensor")).thenReturn(reader_1, reader_2);
+
+        readerCache.release(readerCache.borrow("the_sensor", PATH_ONE));
+        final Reader borrowed = readerCache.borrow("the_sensor", PATH_TWO);
+
+        readerCache.close();
+
+        verify(reader_1, times(1)).close();
+        verify(reader_2, never()).close();
+
+        readerCache.release(borrowed);
+        verify(reader_2, times(1)).close();
+        assertEquals(0, readerCache.getNumOpenReaders());
+    }
+
+    @Test
+    public void testBorrow_afterClose() throws IOException {
+        readerCache.close();
+
+        try {
+            readerCache.borrow("the_sensor", PATH_ONE);
+            fail("RuntimeException expected");
+        } catch (RuntimeException expected) {
+        }
+    }
+
+    @Test
+    public void testCreateKey() {
+        final String key = ReaderCache.createKey("avhrr-n18", Paths.get("data/../data/file.nc"));
+        assertEquals("avhrr-n18|" + Paths.get("data/file.nc").toAbsolutePath().toString(), key);
+    }
+
+    @Test
+    public void testGetFileSize_notExisting() throws IOException {
+        assertEquals(0, ReaderCache.getFileSize(Paths.get("not/existing/file.nc")));
+    }
+}
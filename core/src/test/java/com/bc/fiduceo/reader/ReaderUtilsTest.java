@@ -22,6 +22,7 @@ package com.bc.fiduceo.reader;
 
 import org.esa.snap.core.datamodel.ProductData;
 import org.junit.Test;
+import ucar.ma2.Array;
 import ucar.nc2.iosp.netcdf3.N3iosp;
 
 import static org.junit.Assert.assertEquals;
@@ -86,4 +87,30 @@ public class ReaderUtilsTest {
         assertEquals(0, ReaderUtils.getChannelIndex("lon"));
         assertEquals(0, ReaderUtils.getChannelIndex("a_strange_channel"));
     }
+
+    @Test
+    public void testReadGeolocation() {
+        final Array lonArray = Array.factory(new double[][]{{10.1, 10.2, 10.3}, {11.1, 11.2, 11.3}});
+        final Array latArray = Array.factory(new float[][]{{50.1f, 50.2f, 50.3f}, {51.1f, 51.2f, 51.3f}});
+        final double[] lons = new double[2];
+        final double[] lats = new double[2];
+
+        assertTrue(ReaderUtils.readGeolocation(lonArray, latArray, 1, 1, 2, lons, lats));
+        assertEquals((float) 11.2, lons[0], 0.0);
+        assertEquals((float) 11.3, lons[1], 0.0);
+        assertEquals(51.2f, lats[0], 0.0);
+        assertEquals(51.3f, lats[1], 0.0);
+    }
+
+    @Test
+    public void testReadGeolocation_outOfArray() {
+        final Array lonArray = Array.factory(new float[][]{{10.1f, 10.2f, 10.3f}, {11.1f, 11.2f, 11.3f}});
+        final Array latArray = Array.factory(new float[][]{{50.1f, 50.2f, 50.3f}, {51.1f, 51.2f, 51.3f}});
+        final double[] lons = new double[3];
+        final double[] lats = new double[3];
+
+        assertFalse(ReaderUtils.readGeolocation(lonArray, latArray, 1, 0, 3, lons, lats));
+        assertFalse(ReaderUtils.readGeolocation(lonArray, latArray, -1, 0, 2, lons, lats));
+        assertFalse(ReaderUtils.readGeolocation(lonArray, latArray, 0, 2, 3, lons, lats));
+    }
 }
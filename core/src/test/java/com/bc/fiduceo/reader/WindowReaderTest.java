@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2017 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+package com.bc.fiduceo.reader;
+
+import org.junit.Test;
+import ucar.ma2.Array;
+import ucar.ma2.ArrayChar;
+import ucar.ma2.DataType;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class WindowReaderTest {
+
+    @Test
+    public void testReadWindow_char() {
+        final ArrayChar.D2 rawArray = new ArrayChar.D2(3, 4);
+        final char[] rawStorage = (char[]) rawArray.getStorage();
+        for (int i = 0; i < rawStorage.length; i++) {
+            rawStorage[i] = (char) ('a' + i);
+        }
+
+        final Array window = WindowReader.readWindow(2, -1, 3, 3, 32, rawArray, 4, 3);
+
+        assertEquals(DataType.CHAR, window.getDataType());
+        assertArrayEquals(new int[]{3, 3}, window.getShape());
+        assertArrayEquals(new char[]{
+                ' ', ' ', ' ',
+                'c', 'd', ' ',
+                'g', 'h', ' '
+        }, (char[]) window.getStorage());
+    }
+
+    @Test
+    public void testReadWindow_char_oneDimensional() {
+        final Array rawArray = Array.factory(new char[]{'x', 'y', 'z'});
+
+        final Array window = WindowReader.readWindow(0, 1, 2, 3, 32, rawArray, 2, 3);
+
+        assertArrayEquals(new char[]{
+                'y', 'y',
+                'z', 'z',
+                ' ', ' '
+        }, (char[]) window.getStorage());
+    }
+
+    @Test
+    public void testReadWindow_boolean() {
+        final Array rawArray = Array.factory(new boolean[][]{{true, false}, {false, true}});
+
+        final Array window = WindowReader.readWindow(1, 0, 3, 2, 0, rawArray, 2, 2);
+
+        assertEquals(DataType.BOOLEAN, window.getDataType());
+        final boolean[] storage = (boolean[]) window.getStorage();
+        assertFalse(storage[0]);
+        assertFalse(storage[1]);
+        assertFalse(storage[2]);
+        assertTrue(storage[3]);
+        assertFalse(storage[4]);
+        assertFalse(storage[5]);
+    }
+}
@@ -48,6 +48,7 @@ import com.bc.fiduceo.core.UseCaseConfig;
 import com.bc.fiduceo.core.UseCaseConfigBuilder;
 import com.bc.fiduceo.db.Storage;
 import com.bc.fiduceo.geometry.GeometryFactory;
+import com.bc.fiduceo.reader.ReaderCache;
 import org.junit.*;
 
 import java.util.Date;
@@ -98,4 +99,12 @@ public class ToolContextTest {
         context.setGeometryFactory(geometryFactory);
         assertSame(geometryFactory, context.getGeometryFactory());
     }
+
+    @Test
+    public void testSetGetReaderCache() {
+        final ReaderCache readerCache = mock(ReaderCache.class);
+
+        context.setReaderCache(readerCache);
+        assertSame(readerCache, context.getReaderCache());
+    }
 }
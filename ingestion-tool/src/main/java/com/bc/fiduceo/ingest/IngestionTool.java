@@ -27,11 +27,15 @@ import com.bc.fiduceo.archive.ArchiveConfig;
 import com.bc.fiduceo.core.SatelliteObservation;
 import com.bc.fiduceo.core.Sensor;
 import com.bc.fiduceo.core.SystemConfig;
+import com.bc.fiduceo.db.BatchInsertException;
 import com.bc.fiduceo.db.DatabaseConfig;
 import com.bc.fiduceo.db.QueryParameter;
 import com.bc.fiduceo.db.Storage;
 import com.bc.fiduceo.geometry.GeometryFactory;
+import com.bc.fiduceo.location.GeolocationCache;
 import com.bc.fiduceo.log.FiduceoLogger;
+import com.bc.fiduceo.metrics.MetricsRegistry;
+import com.bc.fiduceo.metrics.Timer;
 import com.bc.fiduceo.reader.AcquisitionInfo;
 import com.bc.fiduceo.reader.Reader;
 import com.bc.fiduceo.reader.ReaderFactory;
@@ -49,14 +53,23 @@ import java.io.PrintWriter;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Logger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 class IngestionTool {
 
+    private static final int DEFAULT_BATCH_SIZE = 50;
+
     private final Logger logger;
 
     IngestionTool() {
@@ -69,27 +82,42 @@ class IngestionTool {
         final String configDirPath = commandLine.getOptionValue("config");
         final Path confDirPath = Paths.get(configDirPath);
 
+        if (commandLine.hasOption("purge")) {
+            purgeGeolocationCache(confDirPath);
+            return;
+        }
+
         final String sensorType = commandLine.getOptionValue("s");
         final String processingVersion = commandLine.getOptionValue("v");
 
+        final int batchSize = getBatchSize(commandLine);
+
         final ToolContext context = initializeContext(commandLine, confDirPath);
         logger.info("Successfully initialized tool");
 
         try {
-            ingestMetadata(context, sensorType, processingVersion);
+            ingestMetadata(context, sensorType, processingVersion, batchSize);
         } finally {
             context.getStorage().close();
         }
     }
 
-    private void ingestMetadata(ToolContext context, String sensorType, String processingVersion) throws SQLException, IOException {
-        final ReaderFactory readerFactory = context.getReaderFactory();
-        final Reader reader = readerFactory.getReader(sensorType);
+    private void purgeGeolocationCache(Path confDirPath) throws IOException {
+        final SystemConfig systemConfig = SystemConfig.loadFrom(confDirPath.toFile());
+        final GeolocationCache geolocationCache = GeolocationCache.create(systemConfig);
+        if (geolocationCache == null) {
+            logger.warning("No geolocation cache configured, nothing to purge");
+            return;
+        }
 
-        final Pattern pattern = getPattern(reader);
-        final Storage storage = context.getStorage();
+        final int numRemoved = geolocationCache.purge();
+        logger.info("Removed " + numRemoved + " outdated entries from the geolocation cache");
+    }
 
-        final QueryParameter queryParameter = new QueryParameter();
+    private void ingestMetadata(ToolContext context, String sensorType, String processingVersion, int batchSize) throws SQLException, IOException {
+        final ReaderFactory readerFactory = context.getReaderFactory();
+        final Pattern pattern = getPattern(readerFactory.getReader(sensorType));
+        final Storage storage = context.getStorage();
 
         final SystemConfig systemConfig = context.getSystemConfig();
         final ArchiveConfig archiveConfig = systemConfig.getArchiveConfig();
@@ -98,48 +126,166 @@ class IngestionTool {
         final Date endDate = context.getEndDate();
 
         final Path[] productPaths = archive.get(startDate, endDate, processingVersion, sensorType);
-        for (final Path filePath : productPaths) {
-            final Matcher matcher = getMatcher(filePath, pattern);
-            final String dataFilePath = filePath.toString();
-            if (!matcher.matches()) {
-                logger.warning("The file '" + dataFilePath + "' does not follow the file naming pattern. Skipping");
-                continue;
+        final Set<String> registeredPaths = getRegisteredPaths(storage, sensorType);
+
+        // the products are read concurrently, each task uses a reader of its own. Database access stays on this
+        // thread, the observations are inserted in the order of the archive listing
+        final int numWorkerThreads = systemConfig.getNumWorkerThreads();
+        final int maxPendingTasks = 2 * numWorkerThreads;
+        final ArrayDeque<Future<SatelliteObservation>> pendingResults = new ArrayDeque<>();
+        final List<SatelliteObservation> batch = new ArrayList<>(batchSize);
+        final ExecutorService executorService = Executors.newFixedThreadPool(numWorkerThreads);
+        try {
+            for (final Path filePath : productPaths) {
+                final Matcher matcher = getMatcher(filePath, pattern);
+                final String dataFilePath = filePath.toString();
+                if (!matcher.matches()) {
+                    logger.warning("The file '" + dataFilePath + "' does not follow the file naming pattern. Skipping");
+                    continue;
+                }
+
+                if (registeredPaths.contains(dataFilePath)) {
+                    logger.info("The file '" + dataFilePath + "' is already registered to the database. Skipping");
+                    continue;
+                }
+
+                pendingResults.add(executorService.submit(() -> readObservation(readerFactory, filePath, sensorType, processingVersion)));
+                while (pendingResults.size() >= maxPendingTasks) {
+                    collectResult(pendingResults.poll(), batch, batchSize, storage);
+                }
             }
 
-            queryParameter.setPath(dataFilePath);
-            final List<SatelliteObservation> observations = storage.get(queryParameter);
-            if (observations.size() > 0) {
-                logger.info("The file '" + dataFilePath + "' is already registered to the database. Skipping");
-                continue;
+            while (!pendingResults.isEmpty()) {
+                collectResult(pendingResults.poll(), batch, batchSize, storage);
+            }
+            insertBatch(batch, storage);
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    // runs on a worker thread, returns null when the file cannot be read
+    private SatelliteObservation readObservation(ReaderFactory readerFactory, Path filePath, String sensorType, String processingVersion) {
+        final String dataFilePath = filePath.toString();
+        logger.info("registering '" + dataFilePath + "' ...");
+
+        final Reader reader = readerFactory.getReader(sensorType);
+        try {
+            final AcquisitionInfo acquisitionInfo;
+            try (Timer.Context ignored = MetricsRegistry.get().timer("ingestion.read").start()) {
+                reader.open(filePath.toFile());
+                acquisitionInfo = reader.read();
             }
 
-            logger.info("registering '" + dataFilePath + "' ...");
-            reader.open(filePath.toFile());
+            final SatelliteObservation satelliteObservation = new SatelliteObservation();
+            satelliteObservation.setSensor(new Sensor(sensorType));
+            satelliteObservation.setStartTime(acquisitionInfo.getSensingStart());
+            satelliteObservation.setStopTime(acquisitionInfo.getSensingStop());
+            satelliteObservation.setDataFilePath(dataFilePath);
+            satelliteObservation.setGeoBounds(acquisitionInfo.getBoundingGeometry());
+            satelliteObservation.setTimeAxes(acquisitionInfo.getTimeAxes());
+            satelliteObservation.setNodeType(acquisitionInfo.getNodeType());
+            satelliteObservation.setVersion(processingVersion);
+            return satelliteObservation;
+        } catch (Exception e) {
+            logUnableToRegister(dataFilePath, e);
+            return null;
+        } finally {
             try {
-                final AcquisitionInfo acquisitionInfo = reader.read();
-
-                final SatelliteObservation satelliteObservation = new SatelliteObservation();
-                satelliteObservation.setSensor(new Sensor(sensorType));
-                satelliteObservation.setStartTime(acquisitionInfo.getSensingStart());
-                satelliteObservation.setStopTime(acquisitionInfo.getSensingStop());
-                satelliteObservation.setDataFilePath(dataFilePath);
-                satelliteObservation.setGeoBounds(acquisitionInfo.getBoundingGeometry());
-                satelliteObservation.setTimeAxes(acquisitionInfo.getTimeAxes());
-                satelliteObservation.setNodeType(acquisitionInfo.getNodeType());
-                satelliteObservation.setVersion(processingVersion);
-                storage.insert(satelliteObservation);
-            } catch (Exception e) {
-                logger.severe("Unable to register the file '" + dataFilePath + "'");
-                logger.severe("Cause: " + e.getMessage());
-                e.printStackTrace();
-                continue;
-            } finally {
                 reader.close();
+            } catch (IOException e) {
+                logger.warning("Unable to close the file '" + dataFilePath + "': " + e.getMessage());
             }
-            logger.info("success");
         }
     }
 
+    private void collectResult(Future<SatelliteObservation> result, List<SatelliteObservation> batch, int batchSize, Storage storage) {
+        final SatelliteObservation satelliteObservation;
+        try {
+            satelliteObservation = result.get();
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException("Ingestion interrupted: " + e.getMessage(), e);
+        }
+
+        if (satelliteObservation == null) {
+            return;
+        }
+
+        batch.add(satelliteObservation);
+        if (batch.size() >= batchSize) {
+            insertBatch(batch, storage);
+        }
+    }
+
+    // package access for testing only
+    void insertBatch(List<SatelliteObservation> batch, Storage storage) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            storage.insert(batch);
+            logRegistered(batch, batch.size());
+        } catch (Exception batchException) {
+            // the SQL drivers roll back the whole batch, drivers without transactions report the number of
+            // observations stored before the failure - only the remaining observations are inserted one by one
+            final int numStored = batchException instanceof BatchInsertException ? ((BatchInsertException) batchException).getNumStored() : 0;
+            logRegistered(batch, numStored);
+
+            logger.warning("Unable to insert batch of " + batch.size() + " observations, inserting " + (batch.size() - numStored) + " one by one: " + batchException.getMessage());
+            for (final SatelliteObservation satelliteObservation : batch.subList(numStored, batch.size())) {
+                try {
+                    storage.insert(satelliteObservation);
+                    logger.info("success: '" + satelliteObservation.getDataFilePath() + "'");
+                    MetricsRegistry.get().counter("ingestion.products.registered").increment();
+                } catch (Exception e) {
+                    logUnableToRegister(satelliteObservation.getDataFilePath().toString(), e);
+                }
+            }
+        }
+        batch.clear();
+    }
+
+    private void logRegistered(List<SatelliteObservation> observations, int numRegistered) {
+        for (int i = 0; i < numRegistered; i++) {
+            logger.info("success: '" + observations.get(i).getDataFilePath() + "'");
+        }
+        MetricsRegistry.get().counter("ingestion.products.registered").add(numRegistered);
+    }
+
+    private void logUnableToRegister(String dataFilePath, Exception e) {
+        MetricsRegistry.get().counter("ingestion.products.failed").increment();
+        logger.severe("Unable to register the file '" + dataFilePath + "'");
+        logger.severe("Cause: " + e.getMessage());
+        e.printStackTrace();
+    }
+
+    // package access for testing only
+    static Set<String> getRegisteredPaths(Storage storage, String sensorType) throws SQLException {
+        final QueryParameter queryParameter = new QueryParameter();
+        queryParameter.setSensorName(sensorType);
+        return storage.getDataFilePaths(queryParameter);
+    }
+
+    // package access for testing only
+    static int getBatchSize(CommandLine commandLine) {
+        final String batchSizeString = commandLine.getOptionValue("batch-size");
+        if (StringUtils.isNullOrEmpty(batchSizeString)) {
+            return DEFAULT_BATCH_SIZE;
+        }
+
+        final int batchSize;
+        try {
+            batchSize = Integer.parseInt(batchSizeString.trim());
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Invalid batch size: " + batchSizeString);
+        }
+        if (batchSize < 1) {
+            throw new RuntimeException("Invalid batch size: " + batchSize);
+        }
+        return batchSize;
+    }
+
     void printUsageTo(OutputStream outputStream) {
         final String ls = System.lineSeparator();
         final PrintWriter writer = new PrintWriter(outputStream);
@@ -176,6 +322,18 @@ class IngestionTool {
         final Option versionOption = new Option("v", "version", true, "Define the sensor version.");
         options.addOption(versionOption);
 
+        final Option batchSizeOption = new Option("b", "batch-size", true, "Defines the number of observations inserted per database transaction. Defaults to " + DEFAULT_BATCH_SIZE + ".");
+        options.addOption(batchSizeOption);
+
+        final Option purgeOption = new Option("p", "purge", false, "Removes outdated entries from the geolocation cache and exits.");
+        options.addOption(purgeOption);
+
+        final Option reportOption = new Option("r", "report", true, "Writes a JSON run report with the processing metrics to the file.");
+        options.addOption(reportOption);
+
+        final Option reportIntervalOption = new Option("ri", "report-interval", true, "Defines the interval in seconds for updating the run report while running.");
+        options.addOption(reportIntervalOption);
+
         return options;
     }
 
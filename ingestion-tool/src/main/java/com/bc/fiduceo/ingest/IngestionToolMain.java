@@ -21,6 +21,7 @@
 package com.bc.fiduceo.ingest;
 
 import com.bc.fiduceo.log.FiduceoLogger;
+import com.bc.fiduceo.metrics.RunReport;
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.CommandLineParser;
 import org.apache.commons.cli.ParseException;
@@ -46,11 +47,14 @@ public class IngestionToolMain {
             return;
         }
 
+        final RunReport runReport = RunReport.create("ingestion-tool", args, commandLine.getOptionValue("report"), commandLine.getOptionValue("report-interval"));
         try {
             ingestionTool.run(commandLine);
+            runReport.finish(true);
         } catch (Throwable e) {
             FiduceoLogger.getLogger().severe(e.getMessage());
             e.printStackTrace();
+            runReport.finish(false);
             System.exit(-1);
         }
     }
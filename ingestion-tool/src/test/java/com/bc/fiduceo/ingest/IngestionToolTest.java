@@ -20,22 +20,43 @@
 
 package com.bc.fiduceo.ingest;
 
+import com.bc.fiduceo.core.SatelliteObservation;
+import com.bc.fiduceo.db.BatchInsertException;
+import com.bc.fiduceo.db.QueryParameter;
+import com.bc.fiduceo.db.Storage;
 import com.bc.fiduceo.reader.Reader;
+import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.Option;
 import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+import org.apache.commons.cli.PosixParser;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 
 import java.io.ByteArrayOutputStream;
 import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class IngestionToolTest {
@@ -59,12 +80,16 @@ public class IngestionToolTest {
                 ls +
                 "usage: ingestion-tool <options>" + ls +
                 "Valid options are:" + ls +
-                "   -c,--config <arg>            Defines the configuration directory. Defaults to './config'." + ls +
-                "   -end,--end-time <Date>       Define the ending time of products to inject." + ls +
-                "   -h,--help                    Prints the tool usage." + ls +
-                "   -s,--sensor <arg>            Defines the sensor to be ingested." + ls +
-                "   -start,--start-time <Date>   Define the starting time of products to inject." + ls +
-                "   -v,--version <arg>           Define the sensor version." + ls, outputStream.toString());
+                "   -b,--batch-size <arg>         Defines the number of observations inserted per database transaction. Defaults to 50." + ls +
+                "   -c,--config <arg>             Defines the configuration directory. Defaults to './config'." + ls +
+                "   -end,--end-time <Date>        Define the ending time of products to inject." + ls +
+                "   -h,--help                     Prints the tool usage." + ls +
+                "   -p,--purge                    Removes outdated entries from the geolocation cache and exits." + ls +
+                "   -r,--report <arg>             Writes a JSON run report with the processing metrics to the file." + ls +
+                "   -ri,--report-interval <arg>   Defines the interval in seconds for updating the run report while running." + ls +
+                "   -s,--sensor <arg>             Defines the sensor to be ingested." + ls +
+                "   -start,--start-time <Date>    Define the starting time of products to inject." + ls +
+                "   -v,--version <arg>            Define the sensor version." + ls, outputStream.toString());
     }
 
     @Test
@@ -115,6 +140,82 @@ public class IngestionToolTest {
         assertEquals("version", version.getLongOpt());
         assertEquals("Define the sensor version.", version.getDescription());
         assertTrue(version.hasArg());
+
+        final Option batchSize = options.getOption("batch-size");
+        assertNotNull(batchSize);
+        assertEquals("b", batchSize.getOpt());
+        assertEquals("batch-size", batchSize.getLongOpt());
+        assertEquals("Defines the number of observations inserted per database transaction. Defaults to 50.", batchSize.getDescription());
+        assertTrue(batchSize.hasArg());
+
+        final Option purge = options.getOption("purge");
+        assertNotNull(purge);
+        assertEquals("p", purge.getOpt());
+        assertEquals("purge", purge.getLongOpt());
+        assertEquals("Removes outdated entries from the geolocation cache and exits.", purge.getDescription());
+        assertFalse(purge.hasArg());
+
+        final Option reportOption = options.getOption("report");
+        assertNotNull(reportOption);
+        assertEquals("r", reportOption.getOpt());
+        assertEquals("report", reportOption.getLongOpt());
+        assertEquals("Writes a JSON run report with the processing metrics to the file.", reportOption.getDescription());
+        assertTrue(reportOption.hasArg());
+
+        final Option reportIntervalOption = options.getOption("report-interval");
+        assertNotNull(reportIntervalOption);
+        assertEquals("ri", reportIntervalOption.getOpt());
+        assertEquals("report-interval", reportIntervalOption.getLongOpt());
+        assertEquals("Defines the interval in seconds for updating the run report while running.", reportIntervalOption.getDescription());
+        assertTrue(reportIntervalOption.hasArg());
+    }
+
+    @Test
+    public void testGetBatchSize() throws ParseException {
+        final CommandLine commandLine = new PosixParser().parse(IngestionTool.getOptions(), new String[]{"-b", "200"});
+
+        assertEquals(200, IngestionTool.getBatchSize(commandLine));
+    }
+
+    @Test
+    public void testGetBatchSize_default() throws ParseException {
+        final CommandLine commandLine = new PosixParser().parse(IngestionTool.getOptions(), new String[]{"-s", "amsub-n15"});
+
+        assertEquals(50, IngestionTool.getBatchSize(commandLine));
+    }
+
+    @Test
+    public void testGetBatchSize_invalid() throws ParseException {
+        CommandLine commandLine = new PosixParser().parse(IngestionTool.getOptions(), new String[]{"--batch-size", "0"});
+        try {
+            IngestionTool.getBatchSize(commandLine);
+            fail("RuntimeException expected");
+        } catch (RuntimeException expected) {
+        }
+
+        commandLine = new PosixParser().parse(IngestionTool.getOptions(), new String[]{"--batch-size", "many"});
+        try {
+            IngestionTool.getBatchSize(commandLine);
+            fail("RuntimeException expected");
+        } catch (RuntimeException expected) {
+        }
+    }
+
+    @Test
+    public void testGetRegisteredPaths() throws SQLException {
+        final Storage storage = mock(Storage.class);
+        final HashSet<String> paths = new HashSet<>();
+        paths.add("/archive/amsub-n15/file.nc");
+        when(storage.getDataFilePaths(any(QueryParameter.class))).thenReturn(paths);
+
+        final Set<String> registeredPaths = IngestionTool.getRegisteredPaths(storage, "amsub-n15");
+        assertEquals(1, registeredPaths.size());
+        assertTrue(registeredPaths.contains("/archive/amsub-n15/file.nc"));
+
+        final ArgumentCaptor<QueryParameter> captor = ArgumentCaptor.forClass(QueryParameter.class);
+        verify(storage, times(1)).getDataFilePaths(captor.capture());
+        assertEquals("amsub-n15", captor.getValue().getSensorName());
+        assertNull(captor.getValue().getPath());
     }
 
     @Test
@@ -141,4 +242,57 @@ public class IngestionToolTest {
         matcher = IngestionTool.getMatcher(path, pattern);
         assertFalse(matcher.matches());
     }
+
+    @Test
+    public void testInsertBatch() throws SQLException {
+        final Storage storage = mock(Storage.class);
+        final List<SatelliteObservation> batch = createBatch(3);
+
+        ingestionTool.insertBatch(batch, storage);
+
+        verify(storage, times(1)).insert(any(List.class));
+        verify(storage, never()).insert(any(SatelliteObservation.class));
+        assertTrue(batch.isEmpty());
+    }
+
+    @Test
+    public void testInsertBatch_rolledBack_insertsAllOneByOne() throws SQLException {
+        final Storage storage = mock(Storage.class);
+        final List<SatelliteObservation> batch = createBatch(3);
+        final List<SatelliteObservation> observations = new ArrayList<>(batch);
+        doThrow(new SQLException("rolled back")).when(storage).insert(any(List.class));
+
+        ingestionTool.insertBatch(batch, storage);
+
+        for (final SatelliteObservation observation : observations) {
+            verify(storage, times(1)).insert(observation);
+        }
+        assertTrue(batch.isEmpty());
+    }
+
+    @Test
+    public void testInsertBatch_partiallyStored_insertsOnlyTheRemaining() throws SQLException {
+        final Storage storage = mock(Storage.class);
+        final List<SatelliteObservation> batch = createBatch(4);
+        final List<SatelliteObservation> observations = new ArrayList<>(batch);
+        doThrow(new BatchInsertException("duplicate key", 2, null)).when(storage).insert(any(List.class));
+
+        ingestionTool.insertBatch(batch, storage);
+
+        verify(storage, never()).insert(observations.get(0));
+        verify(storage, never()).insert(observations.get(1));
+        verify(storage, times(1)).insert(observations.get(2));
+        verify(storage, times(1)).insert(observations.get(3));
+        assertTrue(batch.isEmpty());
+    }
+
+    private static List<SatelliteObservation> createBatch(int numObservations) {
+        final List<SatelliteObservation> batch = new ArrayList<>();
+        for (int i = 0; i < numObservations; i++) {
+            final SatelliteObservation observation = new SatelliteObservation();
+            observation.setDataFilePath(Paths.get("data", "product_" + i + ".nc").toString());
+            batch.add(observation);
+        }
+        return batch;
+    }
 }
@@ -20,30 +20,179 @@
 
 package com.bc.fiduceo.matchup;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 
-public class MatchupCollection {
+/**
+ * Collects the matchup sets of a processing run.
+ * <p>
+ * When constructed with a memory limit, the sets are spilled to a temporary binary file as soon as the number of
+ * matchups held in memory exceeds the limit. The sets are then only available through iterator(), in the order
+ * they have been added. Call close() to delete the temporary file.
+ */
+public class MatchupCollection implements Iterable<MatchupSet>, Closeable {
+
+    private static final int BUFFER_SIZE = 1024 * 1024;
 
     private final List<MatchupSet> matchupSets;
+    private final int maxMatchupsInMemory;
+
+    private final List<DataInputStream> readStreams;
+
+    private Path spillFile;
+    private DataOutputStream spillStream;
+    private int numMatchupsInMemory;
+    private int numSpilledSets;
+    private int numSpilledMatchups;
 
     public MatchupCollection() {
+        this(0);
+    }
+
+    /**
+     * @param maxMatchupsInMemory the number of matchups kept in memory before spilling to disk, 0 keeps all in memory
+     */
+    public MatchupCollection(int maxMatchupsInMemory) {
+        this.maxMatchupsInMemory = maxMatchupsInMemory;
         matchupSets = new ArrayList<>();
+        readStreams = new ArrayList<>();
     }
 
+    /**
+     * Adds the matchup set. The number of matchups is counted when adding, so the set must not be changed afterwards.
+     *
+     * @param matchupSet the matchup set
+     */
     public void add(MatchupSet matchupSet) {
         matchupSets.add(matchupSet);
+        numMatchupsInMemory += matchupSet.getNumObservations();
+
+        if (maxMatchupsInMemory > 0 && numMatchupsInMemory > maxMatchupsInMemory) {
+            spill();
+        }
     }
 
+    /**
+     * Retrieves the matchup sets held in memory. Use iterator() for collections that may have been spilled to disk.
+     *
+     * @return the list of sets
+     */
     public List<MatchupSet> getSets() {
+        if (spillFile != null) {
+            throw new IllegalStateException("Matchup sets have been written to disk, use iterator() to access them");
+        }
         return matchupSets;
     }
 
     public int getNumMatchups() {
-        int numMatchups = 0;
-        for (final MatchupSet set : matchupSets) {
-            numMatchups += set.getNumObservations();
+        return numSpilledMatchups + numMatchupsInMemory;
+    }
+
+    public boolean isSpilled() {
+        return spillFile != null;
+    }
+
+    @Override
+    public Iterator<MatchupSet> iterator() {
+        if (spillFile == null) {
+            return matchupSets.iterator();
+        }
+
+        try {
+            spillStream.flush();
+            final DataInputStream inputStream = new DataInputStream(new BufferedInputStream(Files.newInputStream(spillFile), BUFFER_SIZE));
+            // iterations that stop early leave the stream open, these are closed with the collection
+            readStreams.add(inputStream);
+            return new SpilledSetIterator(inputStream);
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to read matchups from '" + spillFile + "': " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (spillFile == null) {
+            return;
+        }
+
+        try {
+            for (final DataInputStream readStream : readStreams) {
+                readStream.close();
+            }
+            readStreams.clear();
+            spillStream.close();
+        } finally {
+            Files.deleteIfExists(spillFile);
+            spillFile = null;
+            spillStream = null;
+        }
+    }
+
+    private void spill() {
+        try {
+            if (spillFile == null) {
+                spillFile = Files.createTempFile("matchups", ".bin");
+                spillFile.toFile().deleteOnExit();
+                spillStream = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(spillFile), BUFFER_SIZE));
+            }
+
+            for (final MatchupSet set : matchupSets) {
+                set.writeTo(spillStream);
+                ++numSpilledSets;
+            }
+            numSpilledMatchups += numMatchupsInMemory;
+            numMatchupsInMemory = 0;
+            matchupSets.clear();
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to write matchups to temporary file: " + e.getMessage(), e);
+        }
+    }
+
+    // delivers the sets from disk first, then the ones still held in memory
+    private class SpilledSetIterator implements Iterator<MatchupSet> {
+
+        private final DataInputStream inputStream;
+        private final Iterator<MatchupSet> memoryIterator;
+        private int numSetsRead;
+
+        SpilledSetIterator(DataInputStream inputStream) {
+            this.inputStream = inputStream;
+            memoryIterator = matchupSets.iterator();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return numSetsRead < numSpilledSets || memoryIterator.hasNext();
+        }
+
+        @Override
+        public MatchupSet next() {
+            if (numSetsRead < numSpilledSets) {
+                try {
+                    final MatchupSet matchupSet = MatchupSet.readFrom(inputStream);
+                    if (++numSetsRead == numSpilledSets) {
+                        inputStream.close();
+                    }
+                    return matchupSet;
+                } catch (IOException e) {
+                    throw new RuntimeException("Unable to read matchups from '" + spillFile + "': " + e.getMessage(), e);
+                }
+            }
+
+            if (!memoryIterator.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return memoryIterator.next();
         }
-        return numMatchups;
     }
 }
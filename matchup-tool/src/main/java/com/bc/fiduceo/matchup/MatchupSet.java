@@ -20,19 +20,57 @@
 
 package com.bc.fiduceo.matchup;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
+/**
+ * Holds the matchup samples of one pair of observations.
+ * <p>
+ * The sample data is stored column-wise in primitive arrays, one entry per matchup. Conditions and screenings
+ * operate on the sample index and remove matchups by compacting the columns in place, so that no objects are
+ * created per matchup pixel. The Sample/SampleSet based accessors create objects on each call and are intended
+ * for testing and small data volumes.
+ */
 public class MatchupSet {
 
-    private List<SampleSet> sampleSets;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private static final byte HAS_PRIMARY = 0x01;
+    private static final byte HAS_SECONDARY = 0x02;
 
     private Path primaryObservationPath;
     private Path secondaryObservationPath;
 
+    private int numObservations;
+
+    private int[] primaryX;
+    private int[] primaryY;
+    private double[] primaryLon;
+    private double[] primaryLat;
+    private long[] primaryTime;
+
+    private int[] secondaryX;
+    private int[] secondaryY;
+    private double[] secondaryLon;
+    private double[] secondaryLat;
+    private long[] secondaryTime;
+
+    private float[] sphericalDistance;
+    private byte[] flags;
+
     public MatchupSet() {
-        sampleSets = new ArrayList<>();
+        this(INITIAL_CAPACITY);
+    }
+
+    public MatchupSet(int initialCapacity) {
+        allocate(Math.max(initialCapacity, 1));
     }
 
     public Path getPrimaryObservationPath() {
@@ -51,22 +89,350 @@ public class MatchupSet {
         this.secondaryObservationPath = secondaryObservationPath;
     }
 
+    public int getNumObservations() {
+        return numObservations;
+    }
+
     public void addPrimary(Sample primarySample) {
-        final SampleSet sampleSet = new SampleSet();
-        sampleSet.setPrimary(primarySample);
+        addPrimary(primarySample.x, primarySample.y, primarySample.lon, primarySample.lat, primarySample.time);
+    }
 
-        sampleSets.add(sampleSet);
+    /**
+     * Appends a matchup consisting of the primary sample only.
+     *
+     * @return the index of the new matchup
+     */
+    public int addPrimary(int x, int y, double lon, double lat, long time) {
+        final int index = append();
+        setPrimary(index, x, y, lon, lat, time);
+        return index;
     }
 
-    public int getNumObservations() {
-        return sampleSets.size();
+    public void setPrimary(int index, int x, int y, double lon, double lat, long time) {
+        primaryX[index] = x;
+        primaryY[index] = y;
+        primaryLon[index] = lon;
+        primaryLat[index] = lat;
+        primaryTime[index] = time;
+        flags[index] |= HAS_PRIMARY;
+    }
+
+    public void setSecondary(int index, int x, int y, double lon, double lat, long time) {
+        secondaryX[index] = x;
+        secondaryY[index] = y;
+        secondaryLon[index] = lon;
+        secondaryLat[index] = lat;
+        secondaryTime[index] = time;
+        flags[index] |= HAS_SECONDARY;
+    }
+
+    public int getPrimaryX(int index) {
+        return primaryX[index];
+    }
+
+    public int getPrimaryY(int index) {
+        return primaryY[index];
+    }
+
+    public double getPrimaryLon(int index) {
+        return primaryLon[index];
+    }
+
+    public double getPrimaryLat(int index) {
+        return primaryLat[index];
+    }
+
+    public long getPrimaryTime(int index) {
+        return primaryTime[index];
+    }
+
+    public int getSecondaryX(int index) {
+        return secondaryX[index];
+    }
+
+    public int getSecondaryY(int index) {
+        return secondaryY[index];
+    }
+
+    public double getSecondaryLon(int index) {
+        return secondaryLon[index];
+    }
+
+    public double getSecondaryLat(int index) {
+        return secondaryLat[index];
+    }
+
+    public long getSecondaryTime(int index) {
+        return secondaryTime[index];
+    }
+
+    public float getSphericalDistance(int index) {
+        return sphericalDistance[index];
+    }
+
+    public void setSphericalDistance(int index, float distance) {
+        sphericalDistance[index] = distance;
+    }
+
+    /**
+     * Copies the matchup at sourceIndex to targetIndex. Used to compact the set in place when removing
+     * matchups: all accepted matchups are moved to the front, then the set is truncated.
+     */
+    public void moveSample(int sourceIndex, int targetIndex) {
+        if (sourceIndex != targetIndex) {
+            copy(this, sourceIndex, targetIndex);
+        }
     }
 
+    /**
+     * Keeps the matchups at the given indices, in the order of the index array.
+     */
+    public void select(int[] indices, int numIndices) {
+        final MatchupSet selected = new MatchupSet(numIndices);
+        for (int i = 0; i < numIndices; i++) {
+            selected.append();
+            copy(selected, indices[i], i);
+        }
+        setSamples(selected);
+    }
+
+    /**
+     * Replaces the matchups of this set with the ones of the set passed in. The source set must not be used afterwards.
+     */
+    public void setSamples(MatchupSet source) {
+        numObservations = source.numObservations;
+        primaryX = source.primaryX;
+        primaryY = source.primaryY;
+        primaryLon = source.primaryLon;
+        primaryLat = source.primaryLat;
+        primaryTime = source.primaryTime;
+        secondaryX = source.secondaryX;
+        secondaryY = source.secondaryY;
+        secondaryLon = source.secondaryLon;
+        secondaryLat = source.secondaryLat;
+        secondaryTime = source.secondaryTime;
+        sphericalDistance = source.sphericalDistance;
+        flags = source.flags;
+    }
+
+    public void truncate(int numObservations) {
+        if (numObservations < 0 || numObservations > this.numObservations) {
+            throw new IllegalArgumentException("Invalid number of observations: " + numObservations);
+        }
+        this.numObservations = numObservations;
+    }
+
+    /**
+     * Writes the matchups in a compact binary format, column by column.
+     */
+    void writeTo(DataOutput out) throws IOException {
+        writePath(out, primaryObservationPath);
+        writePath(out, secondaryObservationPath);
+
+        out.writeInt(numObservations);
+        for (int i = 0; i < numObservations; i++) {
+            out.writeInt(primaryX[i]);
+        }
+        for (int i = 0; i < numObservations; i++) {
+            out.writeInt(primaryY[i]);
+        }
+        for (int i = 0; i < numObservations; i++) {
+            out.writeDouble(primaryLon[i]);
+        }
+        for (int i = 0; i < numObservations; i++) {
+            out.writeDouble(primaryLat[i]);
+        }
+        for (int i = 0; i < numObservations; i++) {
+            out.writeLong(primaryTime[i]);
+        }
+        for (int i = 0; i < numObservations; i++) {
+            out.writeInt(secondaryX[i]);
+        }
+        for (int i = 0; i < numObservations; i++) {
+            out.writeInt(secondaryY[i]);
+        }
+        for (int i = 0; i < numObservations; i++) {
+            out.writeDouble(secondaryLon[i]);
+        }
+        for (int i = 0; i < numObservations; i++) {
+            out.writeDouble(secondaryLat[i]);
+        }
+        for (int i = 0; i < numObservations; i++) {
+            out.writeLong(secondaryTime[i]);
+        }
+        for (int i = 0; i < numObservations; i++) {
+            out.writeFloat(sphericalDistance[i]);
+        }
+        out.write(flags, 0, numObservations);
+    }
+
+    /**
+     * Reads matchups written with writeTo().
+     */
+    static MatchupSet readFrom(DataInput in) throws IOException {
+        final Path primaryPath = readPath(in);
+        final Path secondaryPath = readPath(in);
+
+        final int numObservations = in.readInt();
+        final MatchupSet matchupSet = new MatchupSet(numObservations);
+        matchupSet.setPrimaryObservationPath(primaryPath);
+        matchupSet.setSecondaryObservationPath(secondaryPath);
+        matchupSet.numObservations = numObservations;
+
+        for (int i = 0; i < numObservations; i++) {
+            matchupSet.primaryX[i] = in.readInt();
+        }
+        for (int i = 0; i < numObservations; i++) {
+            matchupSet.primaryY[i] = in.readInt();
+        }
+        for (int i = 0; i < numObservations; i++) {
+            matchupSet.primaryLon[i] = in.readDouble();
+        }
+        for (int i = 0; i < numObservations; i++) {
+            matchupSet.primaryLat[i] = in.readDouble();
+        }
+        for (int i = 0; i < numObservations; i++) {
+            matchupSet.primaryTime[i] = in.readLong();
+        }
+        for (int i = 0; i < numObservations; i++) {
+            matchupSet.secondaryX[i] = in.readInt();
+        }
+        for (int i = 0; i < numObservations; i++) {
+            matchupSet.secondaryY[i] = in.readInt();
+        }
+        for (int i = 0; i < numObservations; i++) {
+            matchupSet.secondaryLon[i] = in.readDouble();
+        }
+        for (int i = 0; i < numObservations; i++) {
+            matchupSet.secondaryLat[i] = in.readDouble();
+        }
+        for (int i = 0; i < numObservations; i++) {
+            matchupSet.secondaryTime[i] = in.readLong();
+        }
+        for (int i = 0; i < numObservations; i++) {
+            matchupSet.sphericalDistance[i] = in.readFloat();
+        }
+        in.readFully(matchupSet.flags, 0, numObservations);
+        return matchupSet;
+    }
+
+    /**
+     * Returns an unmodifiable snapshot of the matchups. The SampleSets are copies, use the index based
+     * accessors to change the matchups.
+     */
     public List<SampleSet> getSampleSets() {
-        return sampleSets;
+        final List<SampleSet> sampleSets = new ArrayList<>(numObservations);
+        for (int i = 0; i < numObservations; i++) {
+            sampleSets.add(get(i));
+        }
+        return Collections.unmodifiableList(sampleSets);
     }
 
     public void setSampleSets(List<SampleSet> sampleSets) {
-        this.sampleSets = sampleSets;
+        final MatchupSet target = new MatchupSet(sampleSets.size());
+        for (final SampleSet sampleSet : sampleSets) {
+            target.addSampleSet(sampleSet);
+        }
+        setSamples(target);
+    }
+
+    public void addSampleSet(SampleSet sampleSet) {
+        final int index = append();
+        set(index, sampleSet);
+    }
+
+    private void set(int index, SampleSet sampleSet) {
+        flags[index] = 0;
+        final Sample primary = sampleSet.getPrimary();
+        if (primary != null) {
+            setPrimary(index, primary.x, primary.y, primary.lon, primary.lat, primary.time);
+        }
+        final Sample secondary = sampleSet.getSecondary();
+        if (secondary != null) {
+            setSecondary(index, secondary.x, secondary.y, secondary.lon, secondary.lat, secondary.time);
+        }
+        sphericalDistance[index] = sampleSet.getSphericalDistance();
+    }
+
+    private SampleSet get(int index) {
+        final SampleSet sampleSet = new SampleSet();
+        if ((flags[index] & HAS_PRIMARY) != 0) {
+            sampleSet.setPrimary(new Sample(primaryX[index], primaryY[index], primaryLon[index], primaryLat[index], primaryTime[index]));
+        }
+        if ((flags[index] & HAS_SECONDARY) != 0) {
+            sampleSet.setSecondary(new Sample(secondaryX[index], secondaryY[index], secondaryLon[index], secondaryLat[index], secondaryTime[index]));
+        }
+        sampleSet.setSphericalDistance(sphericalDistance[index]);
+        return sampleSet;
+    }
+
+    private int append() {
+        if (numObservations == primaryX.length) {
+            grow(numObservations + (numObservations >> 1) + 1);
+        }
+        final int index = numObservations++;
+        sphericalDistance[index] = Float.MIN_VALUE;
+        flags[index] = 0;
+        return index;
+    }
+
+    // copies the matchup at sourceIndex of this set to targetIndex of the target set
+    private void copy(MatchupSet target, int sourceIndex, int targetIndex) {
+        target.primaryX[targetIndex] = primaryX[sourceIndex];
+        target.primaryY[targetIndex] = primaryY[sourceIndex];
+        target.primaryLon[targetIndex] = primaryLon[sourceIndex];
+        target.primaryLat[targetIndex] = primaryLat[sourceIndex];
+        target.primaryTime[targetIndex] = primaryTime[sourceIndex];
+        target.secondaryX[targetIndex] = secondaryX[sourceIndex];
+        target.secondaryY[targetIndex] = secondaryY[sourceIndex];
+        target.secondaryLon[targetIndex] = secondaryLon[sourceIndex];
+        target.secondaryLat[targetIndex] = secondaryLat[sourceIndex];
+        target.secondaryTime[targetIndex] = secondaryTime[sourceIndex];
+        target.sphericalDistance[targetIndex] = sphericalDistance[sourceIndex];
+        target.flags[targetIndex] = flags[sourceIndex];
+    }
+
+    private void allocate(int capacity) {
+        primaryX = new int[capacity];
+        primaryY = new int[capacity];
+        primaryLon = new double[capacity];
+        primaryLat = new double[capacity];
+        primaryTime = new long[capacity];
+        secondaryX = new int[capacity];
+        secondaryY = new int[capacity];
+        secondaryLon = new double[capacity];
+        secondaryLat = new double[capacity];
+        secondaryTime = new long[capacity];
+        sphericalDistance = new float[capacity];
+        flags = new byte[capacity];
+    }
+
+    private void grow(int capacity) {
+        primaryX = Arrays.copyOf(primaryX, capacity);
+        primaryY = Arrays.copyOf(primaryY, capacity);
+        primaryLon = Arrays.copyOf(primaryLon, capacity);
+        primaryLat = Arrays.copyOf(primaryLat, capacity);
+        primaryTime = Arrays.copyOf(primaryTime, capacity);
+        secondaryX = Arrays.copyOf(secondaryX, capacity);
+        secondaryY = Arrays.copyOf(secondaryY, capacity);
+        secondaryLon = Arrays.copyOf(secondaryLon, capacity);
+        secondaryLat = Arrays.copyOf(secondaryLat, capacity);
+        secondaryTime = Arrays.copyOf(secondaryTime, capacity);
+        sphericalDistance = Arrays.copyOf(sphericalDistance, capacity);
+        flags = Arrays.copyOf(flags, capacity);
+    }
+
+    private static void writePath(DataOutput out, Path path) throws IOException {
+        out.writeBoolean(path != null);
+        if (path != null) {
+            out.writeUTF(path.toString());
+        }
+    }
+
+    private static Path readPath(DataInput in) throws IOException {
+        if (in.readBoolean()) {
+            return Paths.get(in.readUTF());
+        }
+        return null;
     }
 }
@@ -27,6 +27,8 @@ import com.bc.fiduceo.core.ValidationResult;
 import com.bc.fiduceo.db.DatabaseConfig;
 import com.bc.fiduceo.db.Storage;
 import com.bc.fiduceo.geometry.GeometryFactory;
+import com.bc.fiduceo.location.GeolocationCache;
+import com.bc.fiduceo.location.PixelLocatorFactory;
 import com.bc.fiduceo.log.FiduceoLogger;
 import com.bc.fiduceo.matchup.strategy.AbstractMatchupStrategy;
 import com.bc.fiduceo.matchup.strategy.MatchupStrategyFactory;
@@ -41,6 +43,8 @@ import com.bc.fiduceo.matchup.writer.MmdWriterFactory;
 import com.bc.fiduceo.matchup.writer.ReaderContainer;
 import com.bc.fiduceo.matchup.writer.SourcePathWritingIOVariable;
 import com.bc.fiduceo.matchup.writer.VariablesConfiguration;
+import com.bc.fiduceo.reader.ArrayCache;
+import com.bc.fiduceo.reader.ReaderCache;
 import com.bc.fiduceo.reader.ReaderFactory;
 import com.bc.fiduceo.tool.ToolContext;
 import com.bc.fiduceo.util.TimeUtils;
@@ -61,6 +65,7 @@ import java.io.PrintWriter;
 import java.nio.file.Path;
 import java.sql.SQLException;
 import java.util.Date;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.logging.Logger;
@@ -82,7 +87,18 @@ class MatchupTool {
         final ToolContext context = initialize(commandLine);
         final MmdWriterConfig mmdWriterConfig = loadWriterConfig(commandLine);
 
-        runMatchupGeneration(context, mmdWriterConfig);
+        // the readers opened during matchup finding are kept for writing the MMD
+        final ReaderCache readerCache = new ReaderCache(context.getReaderFactory(),
+                                                        mmdWriterConfig.getReaderCacheSize(),
+                                                        mmdWriterConfig.getReaderCacheBytes());
+        context.setReaderCache(readerCache);
+        try {
+            runMatchupGeneration(context, mmdWriterConfig);
+        } finally {
+            readerCache.close();
+            logger.info("Reader cache: " + readerCache.getNumHits() + " hits, " + readerCache.getNumMisses() + " misses, " +
+                        readerCache.getNumEvictions() + " evictions");
+        }
     }
 
     // package access for testing only tb 2016-02-18
@@ -99,9 +115,9 @@ class MatchupTool {
     }
 
     static MatchupSet getFirstMatchupSet(MatchupCollection matchupCollection) {
-        final List<MatchupSet> sets = matchupCollection.getSets();
-        if (sets.size() > 0) {
-            return sets.get(0);
+        final Iterator<MatchupSet> iterator = matchupCollection.iterator();
+        if (iterator.hasNext()) {
+            return iterator.next();
         }
         throw new IllegalStateException("Called getFirst() on empty matchupCollection.");
     }
@@ -142,10 +158,10 @@ class MatchupTool {
 
     // package access for testing only tb 2016-08-16
     static void calculateDistance(MatchupSet matchupSet) {
-        final List<SampleSet> sourceSamples = matchupSet.getSampleSets();
-        for (final SampleSet sampleSet : sourceSamples) {
-            final double km = SphericalDistanceCalculator.calculateKm(sampleSet);
-            sampleSet.setSphericalDistance((float) km);
+        final int numObservations = matchupSet.getNumObservations();
+        for (int i = 0; i < numObservations; i++) {
+            final double km = SphericalDistanceCalculator.calculateKm(matchupSet, i);
+            matchupSet.setSphericalDistance(i, (float) km);
         }
     }
 
@@ -264,6 +280,12 @@ class MatchupTool {
         final Option useCaseOption = new Option("u", "usecase", true, "Defines the path to the use-case configuration file. Path is relative to the configuration directory.");
         options.addOption(useCaseOption);
 
+        final Option reportOption = new Option("r", "report", true, "Writes a JSON run report with the processing metrics to the file.");
+        options.addOption(reportOption);
+
+        final Option reportIntervalOption = new Option("ri", "report-interval", true, "Defines the interval in seconds for updating the run report while running.");
+        options.addOption(reportIntervalOption);
+
         return options;
     }
 
@@ -327,6 +349,8 @@ class MatchupTool {
 
         final SystemConfig systemConfig = SystemConfig.loadFrom(configDirectory);
         context.setSystemConfig(systemConfig);
+        PixelLocatorFactory.setGeolocationCache(GeolocationCache.create(systemConfig));
+        ArrayCache.setMaxCacheSize(systemConfig.getArrayCacheSizeMb() * 1024L * 1024L);
 
         context.setStartDate(getStartDate(commandLine));
         context.setEndDate(getEndDate(commandLine));
@@ -357,26 +381,29 @@ class MatchupTool {
 
         final AbstractMatchupStrategy matchupStrategy = MatchupStrategyFactory.get(useCaseConfig, logger);
         final MatchupCollection matchupCollection = matchupStrategy.createMatchupCollection(context);
+        try {
+            if (matchupCollection.getNumMatchups() == 0) {
+                logger.warning("No matchups in time interval, creation of MMD file skipped.");
+                return;
+            }
 
-        if (matchupCollection.getNumMatchups() == 0) {
-            logger.warning("No matchups in time interval, creation of MMD file skipped.");
-            return;
-        }
-
-        final MmdWriter mmdWriter = MmdWriterFactory.createFileWriter(writerConfig);
+            final MmdWriter mmdWriter = MmdWriterFactory.createFileWriter(writerConfig);
 
-        final IOVariablesList ioVariablesList = new IOVariablesList(context.getReaderFactory());
+            final IOVariablesList ioVariablesList = new IOVariablesList(context.getReaderFactory());
 
-        final VariablesConfiguration variablesConfiguration = writerConfig.getVariablesConfiguration();
-        createIOVariablesPerSensor(ioVariablesList, matchupCollection, useCaseConfig, variablesConfiguration);
-        if (useCaseConfig.isWriteDistance()) {
-            ioVariablesList.addSampleSetVariable(createSphericalDistanceVariable());
-        }
+            final VariablesConfiguration variablesConfiguration = writerConfig.getVariablesConfiguration();
+            createIOVariablesPerSensor(ioVariablesList, matchupCollection, useCaseConfig, variablesConfiguration);
+            if (useCaseConfig.isWriteDistance()) {
+                ioVariablesList.addSampleSetVariable(createSphericalDistanceVariable());
+            }
 
-        try {
-            mmdWriter.writeMMD(matchupCollection, context, ioVariablesList);
+            try {
+                mmdWriter.writeMMD(matchupCollection, context, ioVariablesList);
+            } finally {
+                ioVariablesList.close();
+            }
         } finally {
-            ioVariablesList.close();
+            matchupCollection.close();
         }
     }
 
@@ -21,6 +21,7 @@
 package com.bc.fiduceo.matchup;
 
 import com.bc.fiduceo.log.FiduceoLogger;
+import com.bc.fiduceo.metrics.RunReport;
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.CommandLineParser;
 import org.apache.commons.cli.ParseException;
@@ -47,11 +48,14 @@ public class MatchupToolMain {
             return;
         }
 
+        final RunReport runReport = RunReport.create("matchup-tool", args, commandLine.getOptionValue("report"), commandLine.getOptionValue("report-interval"));
         try {
             matchupTool.run(commandLine);
+            runReport.finish(true);
         } catch (Throwable e) {
             FiduceoLogger.getLogger().severe(e.getMessage());
             e.printStackTrace();
+            runReport.finish(false);
             System.exit(-1);
         }
     }
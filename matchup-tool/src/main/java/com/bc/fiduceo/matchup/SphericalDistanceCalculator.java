@@ -30,4 +30,9 @@ class SphericalDistanceCalculator {
         final Sample secondary = sampleSet.getSecondary();
         return Distance.computeSpericalDistanceKm(primary.lon, primary.lat, secondary.lon, secondary.lat);
     }
+
+    static double calculateKm(MatchupSet matchupSet, int index) {
+        return Distance.computeSpericalDistanceKm(matchupSet.getPrimaryLon(index), matchupSet.getPrimaryLat(index),
+                                                  matchupSet.getSecondaryLon(index), matchupSet.getSecondaryLat(index));
+    }
 }
\ No newline at end of file
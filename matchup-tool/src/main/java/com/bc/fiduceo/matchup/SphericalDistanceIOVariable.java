@@ -31,7 +31,11 @@ class SphericalDistanceIOVariable extends SampleSetIOVariable {
     @Override
     public void writeData(int centerX, int centerY, Interval interval, int zIndex)
                 throws IOException, InvalidRangeException {
-        final double km = SphericalDistanceCalculator.calculateKm(sampleSet);
-        target.write((float) km, targetVariableName, zIndex);
+        // the distance condition stores the distance of the matchups it keeps
+        float km = matchupSet.getSphericalDistance(sampleIndex);
+        if (km == Float.MIN_VALUE) {
+            km = (float) SphericalDistanceCalculator.calculateKm(matchupSet, sampleIndex);
+        }
+        target.write(km, targetVariableName, zIndex);
     }
 }
@@ -22,11 +22,6 @@ package com.bc.fiduceo.matchup.condition;
 
 import com.bc.fiduceo.core.Dimension;
 import com.bc.fiduceo.matchup.MatchupSet;
-import com.bc.fiduceo.matchup.Sample;
-import com.bc.fiduceo.matchup.SampleSet;
-
-import java.util.ArrayList;
-import java.util.List;
 
 /* The XML template for this condition class looks like:
 
@@ -64,31 +59,40 @@ class BorderDistanceCondition implements Condition {
         final int maxYSecondary = secondarySize.getNy() - 1 - deltaY;
 
 
-        final List<SampleSet> sourceSamples = matchupSet.getSampleSets();
-        final List<SampleSet> targetSamples = new ArrayList<>();
-        for (final SampleSet sampleSet : sourceSamples) {
-            final Sample primary = sampleSet.getPrimary();
-            if (primary.x < minX || primary.x > maxXPrimary) {
+        final int numObservations = matchupSet.getNumObservations();
+        int numKept = 0;
+        for (int i = 0; i < numObservations; i++) {
+            final int primaryX = matchupSet.getPrimaryX(i);
+            if (primaryX < minX || primaryX > maxXPrimary) {
                 continue;
             }
 
-            if (primary.y < minY || primary.y > maxYPrimary) {
+            final int primaryY = matchupSet.getPrimaryY(i);
+            if (primaryY < minY || primaryY > maxYPrimary) {
                 continue;
             }
 
-            final Sample secondary = sampleSet.getSecondary();
-            if (secondary.x < minX || secondary.x > maxXSecondary) {
+            final int secondaryX = matchupSet.getSecondaryX(i);
+            if (secondaryX < minX || secondaryX > maxXSecondary) {
                 continue;
             }
 
-            if (secondary.y < minY || secondary.y > maxYSecondary) {
+            final int secondaryY = matchupSet.getSecondaryY(i);
+            if (secondaryY < minY || secondaryY > maxYSecondary) {
                 continue;
             }
 
-            targetSamples.add(sampleSet);
+            matchupSet.moveSample(i, numKept++);
         }
 
-        matchupSet.setSampleSets(targetSamples);
-        sourceSamples.clear();
+        matchupSet.truncate(numKept);
+    }
+
+    int getDeltaX() {
+        return deltaX;
+    }
+
+    int getDeltaY() {
+        return deltaY;
     }
 }
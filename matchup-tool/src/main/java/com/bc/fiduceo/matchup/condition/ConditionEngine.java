@@ -24,6 +24,8 @@ import com.bc.fiduceo.core.Dimension;
 import com.bc.fiduceo.core.Sensor;
 import com.bc.fiduceo.core.UseCaseConfig;
 import com.bc.fiduceo.matchup.MatchupSet;
+import com.bc.fiduceo.metrics.MetricsRegistry;
+import com.bc.fiduceo.metrics.Timer;
 import com.bc.fiduceo.tool.ToolContext;
 import org.jdom.Element;
 
@@ -34,19 +36,37 @@ public class ConditionEngine {
 
     public static final String TAG_NAME_CONDITIONS = "conditions";
     private final List<Condition> conditionsList;
+    private final List<Condition> processingList;
 
     public ConditionEngine() {
         conditionsList = new ArrayList<>();
+        processingList = new ArrayList<>();
     }
 
     public void process(MatchupSet matchupSet, ConditionEngineContext context) {
-        for (final Condition condition : conditionsList) {
-            condition.apply(matchupSet, context);
+        final MetricsRegistry metrics = MetricsRegistry.get();
+        for (final Condition condition : processingList) {
+            final String metricName = "matchup.condition." + condition.getClass().getSimpleName();
+            metrics.counter(metricName + ".samples-in").add(matchupSet.getNumObservations());
+            try (Timer.Context ignored = metrics.timer(metricName).start()) {
+                condition.apply(matchupSet, context);
+            }
+            metrics.counter(metricName + ".samples-out").add(matchupSet.getNumObservations());
         }
     }
 
-    @SuppressWarnings("unchecked")
     public void configure(UseCaseConfig useCaseConfig) {
+        configure(useCaseConfig, false);
+    }
+
+    /**
+     * Configures the conditions of the use case.
+     *
+     * @param useCaseConfig the use case configuration
+     * @param fused         when true, consecutive per-matchup conditions are applied in a single pass over the matchups
+     */
+    @SuppressWarnings("unchecked")
+    public void configure(UseCaseConfig useCaseConfig, boolean fused) {
         final Element conditionsElem = useCaseConfig.getDomElement(TAG_NAME_CONDITIONS);
         if (conditionsElem != null) {
             final List<Element> children = conditionsElem.getChildren();
@@ -58,6 +78,13 @@ public class ConditionEngine {
             }
         }
         conditionsList.add(new TimeRangeCondition());
+
+        processingList.clear();
+        if (fused) {
+            processingList.addAll(fuse(conditionsList));
+        } else {
+            processingList.addAll(conditionsList);
+        }
     }
 
     public long getMaxTimeDeltaInMillis() {
@@ -71,6 +98,29 @@ public class ConditionEngine {
         // the user does not want to check time differences, return 0 does the opposite 2016-09-20
     }
 
+    // conditions depending on the complete matchup set (overlap removal) are kept in place, the per-matchup conditions
+    // before and after are fused separately
+    // package access for testing only
+    static List<Condition> fuse(List<Condition> conditions) {
+        final List<Condition> fusedList = new ArrayList<>();
+        FusedCondition fusedCondition = null;
+        for (final Condition condition : conditions) {
+            if (fusedCondition != null && fusedCondition.add(condition)) {
+                continue;
+            }
+
+            final FusedCondition candidate = new FusedCondition();
+            if (candidate.add(condition)) {
+                fusedCondition = candidate;
+                fusedList.add(candidate);
+            } else {
+                fusedCondition = null;
+                fusedList.add(condition);
+            }
+        }
+        return fusedList;
+    }
+
     public static ConditionEngineContext createContext(ToolContext context) {
         final ConditionEngineContext conditionEngineContext = new ConditionEngineContext();
         conditionEngineContext.setStartDate(context.getStartDate());
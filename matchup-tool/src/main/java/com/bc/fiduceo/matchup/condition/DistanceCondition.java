@@ -21,14 +21,9 @@
 package com.bc.fiduceo.matchup.condition;
 
 import com.bc.fiduceo.matchup.MatchupSet;
-import com.bc.fiduceo.matchup.Sample;
-import com.bc.fiduceo.matchup.SampleSet;
 import org.esa.snap.core.util.math.RsMathUtils;
 import org.esa.snap.core.util.math.SphericalDistance;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /* The XML template for this condition class looks like:
 
     <spherical-distance>
@@ -50,19 +45,26 @@ class DistanceCondition implements Condition {
 
     @Override
     public void apply(MatchupSet matchupSet, ConditionEngineContext context) {
-        final List<SampleSet> sourceSamples = matchupSet.getSampleSets();
-        final List<SampleSet> targetSamples = new ArrayList<>();
-        for (final SampleSet sampleSet : sourceSamples) {
-            final Sample primary = sampleSet.getPrimary();
-            final Sample secondary = sampleSet.getSecondary();
-            final SphericalDistance sphericalDistance = new SphericalDistance(primary.lon, primary.lat);
-            final double radDistance = sphericalDistance.distance(secondary.lon, secondary.lat);
-            final double kmDistance = radDistance * MEAN_EARTH_RADIUS_IN_KM;
+        final int numObservations = matchupSet.getNumObservations();
+        int numKept = 0;
+        for (int i = 0; i < numObservations; i++) {
+            final SphericalDistance sphericalDistance = new SphericalDistance(matchupSet.getPrimaryLon(i), matchupSet.getPrimaryLat(i));
+            final double kmDistance = calculateKm(sphericalDistance, matchupSet.getSecondaryLon(i), matchupSet.getSecondaryLat(i));
             if (kmDistance <= maxDistanceInKm) {
-                targetSamples.add(sampleSet);
+                // kept for the distance output variable
+                matchupSet.setSphericalDistance(i, (float) kmDistance);
+                matchupSet.moveSample(i, numKept++);
             }
         }
-        matchupSet.setSampleSets(targetSamples);
-        sourceSamples.clear();
+        matchupSet.truncate(numKept);
+    }
+
+    double getMaxDistanceInKm() {
+        return maxDistanceInKm;
+    }
+
+    // also used by the FusedCondition, both have to store identical distances
+    static double calculateKm(SphericalDistance primaryDistance, double secondaryLon, double secondaryLat) {
+        return primaryDistance.distance(secondaryLon, secondaryLat) * MEAN_EARTH_RADIUS_IN_KM;
     }
 }
@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2016 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+
+package com.bc.fiduceo.matchup.condition;
+
+
+import com.bc.fiduceo.core.Dimension;
+import com.bc.fiduceo.matchup.MatchupSet;
+import org.esa.snap.core.util.math.SphericalDistance;
+
+/**
+ * Applies the per-matchup conditions (time range, time delta, border distance and spherical distance) in a single
+ * pass over the matchup set. The checks are ordered by cost, the spherical distance is calculated only for
+ * matchups passing all other checks and is stored in the matchup set for the distance output variable.
+ */
+class FusedCondition implements Condition {
+
+    private boolean checkTimeRange;
+    private long maxTimeDeltaInMillis;
+    private int borderDeltaX;
+    private int borderDeltaY;
+    private double maxDistanceInKm;
+
+    FusedCondition() {
+        maxTimeDeltaInMillis = -1;
+        borderDeltaX = -1;
+        borderDeltaY = -1;
+        maxDistanceInKm = Double.NaN;
+    }
+
+    /**
+     * Merges the condition into this one, if it is one of the per-matchup conditions.
+     *
+     * @param condition the condition
+     * @return true if the condition has been merged
+     */
+    boolean add(Condition condition) {
+        if (condition instanceof TimeRangeCondition) {
+            checkTimeRange = true;
+        } else if (condition instanceof TimeDeltaCondition) {
+            final long maxTimeDelta = ((TimeDeltaCondition) condition).getMaxTimeDeltaInMillis();
+            maxTimeDeltaInMillis = maxTimeDeltaInMillis < 0 ? maxTimeDelta : Math.min(maxTimeDeltaInMillis, maxTimeDelta);
+        } else if (condition instanceof BorderDistanceCondition) {
+            final BorderDistanceCondition borderDistanceCondition = (BorderDistanceCondition) condition;
+            borderDeltaX = Math.max(borderDeltaX, borderDistanceCondition.getDeltaX());
+            borderDeltaY = Math.max(borderDeltaY, borderDistanceCondition.getDeltaY());
+        } else if (condition instanceof DistanceCondition) {
+            final double maxDistance = ((DistanceCondition) condition).getMaxDistanceInKm();
+            maxDistanceInKm = Double.isNaN(maxDistanceInKm) ? maxDistance : Math.min(maxDistanceInKm, maxDistance);
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void apply(MatchupSet matchupSet, ConditionEngineContext context) {
+        final long startTime = checkTimeRange ? context.getStartDate().getTime() : Long.MIN_VALUE;
+        final long endTime = checkTimeRange ? context.getEndDate().getTime() : Long.MAX_VALUE;
+        final boolean checkTimeDelta = maxTimeDeltaInMillis >= 0;
+
+        final boolean checkBorder = borderDeltaX >= 0;
+        int maxXPrimary = 0;
+        int maxYPrimary = 0;
+        int maxXSecondary = 0;
+        int maxYSecondary = 0;
+        if (checkBorder) {
+            final Dimension primarySize = context.getPrimarySize();
+            maxXPrimary = primarySize.getNx() - 1 - borderDeltaX;
+            maxYPrimary = primarySize.getNy() - 1 - borderDeltaY;
+            final Dimension secondarySize = context.getSecondarySize();
+            maxXSecondary = secondarySize.getNx() - 1 - borderDeltaX;
+            maxYSecondary = secondarySize.getNy() - 1 - borderDeltaY;
+        }
+
+        final boolean checkDistance = !Double.isNaN(maxDistanceInKm);
+        // consecutive matchups often share the primary location, e.g. for insitu primaries - the
+        // spherical distance object holding the sine and cosine of the primary latitude is reused
+        SphericalDistance primaryDistance = null;
+        double lastLon = Double.NaN;
+        double lastLat = Double.NaN;
+
+        final int numObservations = matchupSet.getNumObservations();
+        int numKept = 0;
+        for (int i = 0; i < numObservations; i++) {
+            final long primaryTime = matchupSet.getPrimaryTime(i);
+            if (primaryTime < startTime || primaryTime > endTime) {
+                continue;
+            }
+
+            if (checkTimeDelta && Math.abs(primaryTime - matchupSet.getSecondaryTime(i)) > maxTimeDeltaInMillis) {
+                continue;
+            }
+
+            if (checkBorder) {
+                final int primaryX = matchupSet.getPrimaryX(i);
+                final int primaryY = matchupSet.getPrimaryY(i);
+                final int secondaryX = matchupSet.getSecondaryX(i);
+                final int secondaryY = matchupSet.getSecondaryY(i);
+                if (primaryX < borderDeltaX || primaryX > maxXPrimary || primaryY < borderDeltaY || primaryY > maxYPrimary
+                        || secondaryX < borderDeltaX || secondaryX > maxXSecondary || secondaryY < borderDeltaY || secondaryY > maxYSecondary) {
+                    continue;
+                }
+            }
+
+            if (checkDistance) {
+                final double primaryLon = matchupSet.getPrimaryLon(i);
+                final double primaryLat = matchupSet.getPrimaryLat(i);
+                if (primaryDistance == null || primaryLon != lastLon || primaryLat != lastLat) {
+                    primaryDistance = new SphericalDistance(primaryLon, primaryLat);
+                    lastLon = primaryLon;
+                    lastLat = primaryLat;
+                }
+
+                final double kmDistance = DistanceCondition.calculateKm(primaryDistance, matchupSet.getSecondaryLon(i), matchupSet.getSecondaryLat(i));
+                if (!(kmDistance <= maxDistanceInKm)) {
+                    continue;
+                }
+                matchupSet.setSphericalDistance(i, (float) kmDistance);
+            }
+
+            matchupSet.moveSample(i, numKept++);
+        }
+        matchupSet.truncate(numKept);
+    }
+}
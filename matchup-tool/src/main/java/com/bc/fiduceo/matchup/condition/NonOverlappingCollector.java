@@ -20,84 +20,141 @@
 
 package com.bc.fiduceo.matchup.condition;
 
-import com.bc.fiduceo.matchup.Sample;
-import com.bc.fiduceo.matchup.SampleSet;
-
-import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.Iterator;
-import java.util.List;
-import java.util.NavigableSet;
-import java.util.TreeSet;
+import java.util.Arrays;
 
+/**
+ * Collects the sample locations whose extraction windows do not overlap with the window of a location accepted
+ * before. The accepted locations are bucketed in a hash grid with the window size as cell size, so overlapping
+ * locations can only be in the 3x3 cells around the location tested.
+ */
 class NonOverlappingCollector {
 
+    private static final int EMPTY = -1;
+
     private final int width;
     private final int height;
-    private final boolean primary;
+    private final int cellWidth;
+    private final int cellHeight;
 
-    private final ArrayList<SampleSet> sampleSets;
-    private final NavigableSet<Sample> samples;
+    // locations of the accepted samples, chained per grid cell by the next index
+    private int[] xs;
+    private int[] ys;
+    private int[] next;
+    private int size;
 
-    @SuppressWarnings("SuspiciousNameCombination")
-    NonOverlappingCollector(int width, int height, boolean primary) {
+    // open addressing hash table mapping the grid cell to the last location accepted in the cell
+    private long[] cellKeys;
+    private int[] cellHeads;
+    private int numCells;
+
+    NonOverlappingCollector(int width, int height) {
         this.width = width;
         this.height = height;
-        this.primary = primary;
-
-        sampleSets = new ArrayList<>();
+        cellWidth = Math.max(1, width);
+        cellHeight = Math.max(1, height);
 
-        final Comparator<Sample> orderedComparator = (o1, o2) -> {
-            final int compareY = Integer.compare(o1.y, o2.y);
-            if (compareY == 0) {
-                return Integer.compare(o1.x, o2.x);
-            } else {
-                return compareY;
-            }
-        };
+        xs = new int[16];
+        ys = new int[16];
+        next = new int[16];
 
-        samples = new TreeSet<>(orderedComparator);
+        cellKeys = new long[32];
+        cellHeads = new int[32];
+        Arrays.fill(cellHeads, EMPTY);
     }
 
-    void add(SampleSet sampleSet) {
-        final Sample inputSample = getSample(sampleSet);
-        if (hasOverlap(inputSample)) {
-            return;
+    /**
+     * Adds the sample location if it does not overlap with one of the locations already accepted.
+     *
+     * @return true when the location has been accepted
+     */
+    boolean add(int x, int y) {
+        final int cellX = Math.floorDiv(x, cellWidth);
+        final int cellY = Math.floorDiv(y, cellHeight);
+        if (hasOverlap(x, y, cellX, cellY)) {
+            return false;
         }
 
-        sampleSets.add(sampleSet);
-        samples.add(inputSample);
+        insert(x, y, getCellKey(cellX, cellY));
+        return true;
     }
 
-    List<SampleSet> get() {
-        return sampleSets;
+    int size() {
+        return size;
     }
 
-    boolean areOverlapping(Sample p, Sample q) {
-        return Math.abs(p.x - q.x) < width && Math.abs(p.y - q.y) < height;
+    boolean areOverlapping(int px, int py, int qx, int qy) {
+        return Math.abs(px - qx) < width && Math.abs(py - qy) < height;
     }
 
-    Sample getSample(SampleSet sampleSet) {
-        if (primary) {
-            return sampleSet.getPrimary();
+    private boolean hasOverlap(int x, int y, int cellX, int cellY) {
+        for (int cy = cellY - 1; cy <= cellY + 1; cy++) {
+            for (int cx = cellX - 1; cx <= cellX + 1; cx++) {
+                for (int i = cellHeads[findSlot(getCellKey(cx, cy))]; i != EMPTY; i = next[i]) {
+                    if (areOverlapping(x, y, xs[i], ys[i])) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private void insert(int x, int y, long cellKey) {
+        if (size == xs.length) {
+            final int capacity = size + (size >> 1) + 1;
+            xs = Arrays.copyOf(xs, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+            next = Arrays.copyOf(next, capacity);
         }
 
-        return sampleSet.getSecondary();
+        final int slot = findSlot(cellKey);
+        if (cellHeads[slot] == EMPTY) {
+            cellKeys[slot] = cellKey;
+            ++numCells;
+        }
+        xs[size] = x;
+        ys[size] = y;
+        next[size] = cellHeads[slot];
+        cellHeads[slot] = size;
+        ++size;
+
+        if (2 * numCells > cellKeys.length) {
+            rehash();
+        }
     }
 
-    private boolean hasOverlap(Sample inputSample) {
-        for (Iterator<Sample> iterator = samples.descendingIterator(); iterator.hasNext(); ) {
-            final Sample other = iterator.next();
-            if (other.y < inputSample.y - height) {
-                break;
-            }
-            if (other.y > inputSample.y + height) {
-                continue;
-            }
-            if (areOverlapping(inputSample, other)) {
-                return true;
+    // the slot holding the cell, or the empty slot where it is to be inserted
+    private int findSlot(long cellKey) {
+        final int mask = cellKeys.length - 1;
+        int slot = hash(cellKey) & mask;
+        while (cellHeads[slot] != EMPTY && cellKeys[slot] != cellKey) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash() {
+        final long[] oldKeys = cellKeys;
+        final int[] oldHeads = cellHeads;
+
+        cellKeys = new long[2 * oldKeys.length];
+        cellHeads = new int[2 * oldHeads.length];
+        Arrays.fill(cellHeads, EMPTY);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldHeads[i] != EMPTY) {
+                final int slot = findSlot(oldKeys[i]);
+                cellKeys[slot] = oldKeys[i];
+                cellHeads[slot] = oldHeads[i];
             }
         }
-        return false;
+    }
+
+    private static long getCellKey(int cellX, int cellY) {
+        return ((long) cellY << 32) | (cellX & 0xffffffffL);
+    }
+
+    private static int hash(long cellKey) {
+        final long hash = cellKey * 0x9e3779b97f4a7c15L;
+        return (int) (hash ^ (hash >>> 32));
     }
 }
@@ -23,16 +23,9 @@ package com.bc.fiduceo.matchup.condition;
 
 import com.bc.fiduceo.core.Dimension;
 import com.bc.fiduceo.matchup.MatchupSet;
-import com.bc.fiduceo.matchup.Sample;
-import com.bc.fiduceo.matchup.SampleSet;
 import com.bc.fiduceo.util.JDomUtils;
 import org.jdom.Element;
 
-import java.util.Comparator;
-import java.util.List;
-import java.util.NavigableSet;
-import java.util.TreeSet;
-
 /* The XML template for this condition class looks like:
 
     <overlap-remove>
@@ -56,43 +49,55 @@ class OverlapRemoveCondition implements Condition {
     @SuppressWarnings("SuspiciousNameCombination")
     @Override
     public void apply(MatchupSet matchupSet, ConditionEngineContext context) {
-        final List<SampleSet> sampleSets = matchupSet.getSampleSets();
-        if (sampleSets.size() <= 1) {
+        final int numObservations = matchupSet.getNumObservations();
+        if (numObservations <= 1) {
             return;
         }
 
         final Dimension dimension = getDimension(context);
 
-        // we order the sample sets here by location in the file. First top-down then left-right.
-        // This way we can apply a very fast overlap-remove operation as we just need to check the close vicinity
-        // of the matchup under investigation tb 2016-11-23
-        final Comparator<SampleSet> orderedComparator = (o1, o2) -> {
-            final Sample left;
-            final Sample right;
+        final int[] xs = new int[numObservations];
+        final int[] ys = new int[numObservations];
+        for (int i = 0; i < numObservations; i++) {
             if (primary) {
-                left = o1.getPrimary();
-                right = o2.getPrimary();
-            } else {
-                left = o1.getSecondary();
-                right = o2.getSecondary();
-            }
-            final int compareY = Integer.compare(left.y, right.y);
-            if (compareY == 0) {
-                return Integer.compare(left.x, right.x);
+                xs[i] = matchupSet.getPrimaryX(i);
+                ys[i] = matchupSet.getPrimaryY(i);
             } else {
-                return compareY;
+                xs[i] = matchupSet.getSecondaryX(i);
+                ys[i] = matchupSet.getSecondaryY(i);
             }
-        };
+        }
 
-        final NavigableSet<SampleSet> orderedSampleSets = new TreeSet<>(orderedComparator);
-        orderedSampleSets.addAll(sampleSets);
+        // we order the sample sets here by location in the file. First top-down then left-right.
+        // Of overlapping sample sets the first in this order is kept, the collector just needs to check the close
+        // vicinity of the matchup under investigation tb 2016-11-23
+        final int[] order = getLocationOrder(xs, ys);
+
+        final NonOverlappingCollector collector = new NonOverlappingCollector(dimension.getNx(), dimension.getNy());
+        final int[] keptIndices = new int[numObservations];
+        int numKept = 0;
+        int lastIndex = -1;
+        for (final int index : order) {
+            // sample sets at an identical location are collapsed to the first one
+            if (lastIndex >= 0 && xs[index] == xs[lastIndex] && ys[index] == ys[lastIndex]) {
+                continue;
+            }
+            lastIndex = index;
 
-        final NonOverlappingCollector collector = new NonOverlappingCollector(dimension.getNx(), dimension.getNy(), primary);
-        for (final SampleSet sampleSet : orderedSampleSets) {
-            collector.add(sampleSet);
+            if (collector.add(xs[index], ys[index])) {
+                keptIndices[numKept++] = index;
+            }
         }
 
-        matchupSet.setSampleSets(collector.get());
+        matchupSet.select(keptIndices, numKept);
+    }
+
+    // returns the sample indices ordered by y, then x - the order of samples at the same location is preserved.
+    // Two stable counting sort passes, pixel coordinates span a limited range
+    // package access for testing only
+    static int[] getLocationOrder(int[] xs, int[] ys) {
+        final int[] byX = countingSort(identity(xs.length), xs);
+        return countingSort(byX, ys);
     }
 
     Dimension getDimension(ConditionEngineContext context) {
@@ -111,4 +116,35 @@ class OverlapRemoveCondition implements Condition {
         }
         throw new RuntimeException("Invalid reference for overlap removal: " + referenceText);
     }
+
+    private static int[] identity(int length) {
+        final int[] indices = new int[length];
+        for (int i = 0; i < length; i++) {
+            indices[i] = i;
+        }
+        return indices;
+    }
+
+    private static int[] countingSort(int[] indices, int[] keys) {
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (final int key : keys) {
+            min = Math.min(min, key);
+            max = Math.max(max, key);
+        }
+
+        final int[] counts = new int[max - min + 2];
+        for (final int key : keys) {
+            ++counts[key - min + 1];
+        }
+        for (int i = 1; i < counts.length; i++) {
+            counts[i] += counts[i - 1];
+        }
+
+        final int[] sorted = new int[indices.length];
+        for (final int index : indices) {
+            sorted[counts[keys[index] - min]++] = index;
+        }
+        return sorted;
+    }
 }
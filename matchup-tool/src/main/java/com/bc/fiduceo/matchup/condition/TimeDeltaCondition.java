@@ -21,11 +21,6 @@
 package com.bc.fiduceo.matchup.condition;
 
 import com.bc.fiduceo.matchup.MatchupSet;
-import com.bc.fiduceo.matchup.Sample;
-import com.bc.fiduceo.matchup.SampleSet;
-
-import java.util.ArrayList;
-import java.util.List;
 
 /* The XML template for this condition class looks like:
 
@@ -47,18 +42,15 @@ class TimeDeltaCondition implements Condition {
 
     @Override
     public void apply(MatchupSet matchupSet, ConditionEngineContext context) {
-        final List<SampleSet> sourceSamples = matchupSet.getSampleSets();
-        final List<SampleSet> targetSamples = new ArrayList<>();
-        for (final SampleSet sampleSet : sourceSamples) {
-            final Sample primary = sampleSet.getPrimary();
-            final Sample secondary = sampleSet.getSecondary();
-            final long actualTimeDelta = Math.abs(primary.time - secondary.time);
+        final int numObservations = matchupSet.getNumObservations();
+        int numKept = 0;
+        for (int i = 0; i < numObservations; i++) {
+            final long actualTimeDelta = Math.abs(matchupSet.getPrimaryTime(i) - matchupSet.getSecondaryTime(i));
             if (actualTimeDelta <= maxTimeDeltaInMillis) {
-                targetSamples.add(sampleSet);
+                matchupSet.moveSample(i, numKept++);
             }
         }
-        matchupSet.setSampleSets(targetSamples);
-        sourceSamples.clear();
+        matchupSet.truncate(numKept);
     }
 
     public long getMaxTimeDeltaInMillis() {
@@ -18,10 +18,6 @@
 package com.bc.fiduceo.matchup.condition;
 
 import com.bc.fiduceo.matchup.MatchupSet;
-import com.bc.fiduceo.matchup.SampleSet;
-
-import java.util.ArrayList;
-import java.util.List;
 
 class TimeRangeCondition implements Condition {
 
@@ -30,15 +26,14 @@ class TimeRangeCondition implements Condition {
         final long endTime = context.getEndDate().getTime();
         final long startTime = context.getStartDate().getTime();
 
-        final List<SampleSet> sampleSets = matchupSet.getSampleSets();
-        final List<SampleSet> targetSets = new ArrayList<>();
-        for (SampleSet sampleSet : sampleSets) {
-            final long time = sampleSet.getPrimary().time;
+        final int numObservations = matchupSet.getNumObservations();
+        int numKept = 0;
+        for (int i = 0; i < numObservations; i++) {
+            final long time = matchupSet.getPrimaryTime(i);
             if (time >= startTime && time <= endTime) {
-                targetSets.add(sampleSet);
+                matchupSet.moveSample(i, numKept++);
             }
         }
-        matchupSet.setSampleSets(targetSets);
-        sampleSets.clear();
+        matchupSet.truncate(numKept);
     }
 }
@@ -20,49 +20,38 @@
 
 package com.bc.fiduceo.matchup.screening;
 
-import com.bc.fiduceo.core.Interval;
 import com.bc.fiduceo.matchup.MatchupSet;
-import com.bc.fiduceo.matchup.Sample;
-import com.bc.fiduceo.matchup.SampleSet;
 import com.bc.fiduceo.reader.Reader;
 import org.esa.snap.core.util.math.MathUtils;
-import ucar.ma2.Array;
 import ucar.ma2.InvalidRangeException;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
 
 class AngularCosineProportionScreening implements Screening {
 
-    private final Interval singlePixel = new Interval(1, 1);
-
     private Configuration configuration;
 
     @Override
     public void apply(MatchupSet matchupSet, Reader primaryReader, Reader secondaryReader, ScreeningContext context) throws IOException, InvalidRangeException {
-        final List<SampleSet> resultSet = new ArrayList<>();
-        final List<SampleSet> sampleSets = matchupSet.getSampleSets();
-
-        for (final SampleSet sampleSet : sampleSets) {
-            final Sample primaryPixel = sampleSet.getPrimary();
-            final Array szaPrimaryArray = primaryReader.readScaled(primaryPixel.x, primaryPixel.y, singlePixel, configuration.primaryVariableName);
-            final double primaryVZA = szaPrimaryArray.getDouble(0);
+        final int numObservations = matchupSet.getNumObservations();
+        if (numObservations == 0) {
+            return;
+        }
 
-            final Sample secondaryPixel = sampleSet.getSecondary();
-            final Array szaSecondaryArray = secondaryReader.readScaled(secondaryPixel.x, secondaryPixel.y, singlePixel, configuration.secondaryVariableName);
-            final double secondaryVZA = szaSecondaryArray.getDouble(0);
+        final double[] primaryVZAs = SamplePixels.primary(matchupSet).readScaled(primaryReader, configuration.primaryVariableName);
+        final double[] secondaryVZAs = SamplePixels.secondary(matchupSet).readScaled(secondaryReader, configuration.secondaryVariableName);
 
-            final double primaryCosine = Math.cos(primaryVZA * MathUtils.DTOR);
-            final double secondaryCosine = Math.cos(secondaryVZA * MathUtils.DTOR);
+        int numKept = 0;
+        for (int i = 0; i < numObservations; i++) {
+            final double primaryCosine = Math.cos(primaryVZAs[i] * MathUtils.DTOR);
+            final double secondaryCosine = Math.cos(secondaryVZAs[i] * MathUtils.DTOR);
             final double cosineRelation = Math.abs(primaryCosine/secondaryCosine - 1.0);
             if (cosineRelation < configuration.threshold) {
-                resultSet.add(sampleSet);
+                matchupSet.moveSample(i, numKept++);
             }
         }
 
-        matchupSet.setSampleSets(resultSet);
-        sampleSets.clear();
+        matchupSet.truncate(numKept);
     }
 
     void configure(Configuration configuration) {
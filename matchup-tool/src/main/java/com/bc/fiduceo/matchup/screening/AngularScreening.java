@@ -20,22 +20,15 @@
 
 package com.bc.fiduceo.matchup.screening;
 
-import com.bc.fiduceo.core.Interval;
 import com.bc.fiduceo.matchup.MatchupSet;
-import com.bc.fiduceo.matchup.Sample;
-import com.bc.fiduceo.matchup.SampleSet;
 import com.bc.fiduceo.reader.Reader;
 import org.esa.snap.core.util.StringUtils;
-import ucar.ma2.Array;
 import ucar.ma2.InvalidRangeException;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
 
 class AngularScreening implements Screening {
 
-    private final Interval singlePixel = new Interval(1, 1);
     private Configuration configuration;
     private boolean hasPrimary;
     private boolean hasSecondary;
@@ -46,17 +39,27 @@ class AngularScreening implements Screening {
 
     @Override
     public void apply(MatchupSet matchupSet, Reader primaryReader, Reader secondaryReader, ScreeningContext context) throws IOException, InvalidRangeException {
-        final List<SampleSet> resultSet = new ArrayList<>();
-        final List<SampleSet> sampleSets = matchupSet.getSampleSets();
+        double[] primaryVZAs = null;
+        if (hasPrimary) {
+            primaryVZAs = SamplePixels.primary(matchupSet).readScaled(primaryReader, configuration.primaryVariableName);
+        }
 
-        for (final SampleSet sampleSet : sampleSets) {
+        double[] secondaryVZAs = null;
+        if (hasSecondary) {
+            secondaryVZAs = SamplePixels.secondary(matchupSet).readScaled(secondaryReader, configuration.secondaryVariableName);
+        }
 
-            if (shouldBeKept(sampleSet, primaryReader, secondaryReader)) {
-                resultSet.add(sampleSet);
+        final int numObservations = matchupSet.getNumObservations();
+        int numKept = 0;
+        for (int i = 0; i < numObservations; i++) {
+            final double primaryVZA = hasPrimary ? primaryVZAs[i] : Double.MAX_VALUE;
+            final double secondaryVZA = hasSecondary ? secondaryVZAs[i] : Double.MAX_VALUE;
+
+            if (shouldBeKept(primaryVZA, secondaryVZA)) {
+                matchupSet.moveSample(i, numKept++);
             }
         }
-        matchupSet.setSampleSets(resultSet);
-        sampleSets.clear();
+        matchupSet.truncate(numKept);
     }
 
     public void configure(Configuration configuration) {
@@ -65,24 +68,7 @@ class AngularScreening implements Screening {
         hasSecondary = StringUtils.isNotNullAndNotEmpty(configuration.secondaryVariableName);
     }
 
-    private boolean shouldBeKept(SampleSet sampleSet, Reader primaryReader, Reader secondaryReader) throws IOException, InvalidRangeException {
-        double primaryVZA = Double.MAX_VALUE;
-        double secondaryVZA = Double.MAX_VALUE;
-
-        if (hasPrimary) {
-            final Sample primaryPixel = sampleSet.getPrimary();
-            final Array szaPrimaryArray = primaryReader.readScaled(primaryPixel.x, primaryPixel.y, singlePixel, configuration.primaryVariableName);
-
-            primaryVZA = szaPrimaryArray.getDouble(0);
-        }
-
-        if (hasSecondary) {
-            final Sample secondaryPixel = sampleSet.getSecondary();
-            final Array szaSecondaryArray = secondaryReader.readScaled(secondaryPixel.x, secondaryPixel.y, singlePixel, configuration.secondaryVariableName);
-
-            secondaryVZA = szaSecondaryArray.getDouble(0);
-        }
-
+    private boolean shouldBeKept(double primaryVZA, double secondaryVZA) {
         if (configuration.usePrimary) {
             if (primaryVZA > configuration.maxPrimaryVZA) {
                 return false;
@@ -20,22 +20,14 @@
 
 package com.bc.fiduceo.matchup.screening;
 
-import com.bc.fiduceo.core.Interval;
 import com.bc.fiduceo.matchup.MatchupSet;
-import com.bc.fiduceo.matchup.Sample;
-import com.bc.fiduceo.matchup.SampleSet;
 import com.bc.fiduceo.reader.Reader;
-import ucar.ma2.Array;
 import ucar.ma2.InvalidRangeException;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
 
 class AtsrAngularScreening implements Screening {
 
-    private final Interval singlePixel = new Interval(1, 1);
-
     private Configuration configuration;
 
     AtsrAngularScreening() {
@@ -44,26 +36,25 @@ class AtsrAngularScreening implements Screening {
 
     @Override
     public void apply(MatchupSet matchupSet, Reader primaryReader, Reader secondaryReader, ScreeningContext context) throws IOException, InvalidRangeException {
-        final List<SampleSet> resultSet = new ArrayList<>();
-        final List<SampleSet> sampleSets = matchupSet.getSampleSets();
-
-        for (final SampleSet sampleSet : sampleSets) {
-            final Sample primary = sampleSet.getPrimary();
-
-            final Array nadirElevArray = primaryReader.readScaled(primary.x, primary.y, singlePixel, "view_elev_nadir");
-            final Array fwardElevArray = primaryReader.readScaled(primary.x, primary.y, singlePixel, "view_elev_fward");
-
-            double nadirViewZenith = 90.0 - nadirElevArray.getDouble(0);
-            double fwardViewZenith = 90.0 - fwardElevArray.getDouble(0);
-            if (primary.x > 256) {
+        final SamplePixels primaryPixels = SamplePixels.primary(matchupSet);
+        final double[] nadirElevations = primaryPixels.readScaled(primaryReader, "view_elev_nadir");
+        final double[] fwardElevations = primaryPixels.readScaled(primaryReader, "view_elev_fward");
+
+        final SamplePixels secondaryPixels = SamplePixels.secondary(matchupSet);
+        final double[] satelliteZenithAngles = secondaryPixels.readScaled(secondaryReader, "satellite_zenith_angle");
+
+        final int numObservations = matchupSet.getNumObservations();
+        int numKept = 0;
+        for (int i = 0; i < numObservations; i++) {
+            double nadirViewZenith = 90.0 - nadirElevations[i];
+            double fwardViewZenith = 90.0 - fwardElevations[i];
+            if (primaryPixels.getX(i) > 256) {
                 nadirViewZenith *= -1.0;
                 fwardViewZenith *= -1.0;
             }
 
-            final Sample secondary = sampleSet.getSecondary();
-            final Array satelliteZenithAngleArray = secondaryReader.readScaled(secondary.x, secondary.y, singlePixel, "satellite_zenith_angle");
-            double satZenithAngle = satelliteZenithAngleArray.getDouble(0);
-            if (secondary.x > 204) {
+            double satZenithAngle = satelliteZenithAngles[i];
+            if (secondaryPixels.getX(i) > 204) {
                 satZenithAngle *= -1.0;
             }
 
@@ -71,11 +62,11 @@ class AtsrAngularScreening implements Screening {
             final double fwardDelta = Math.abs(satZenithAngle - fwardViewZenith);
 
             if (nadirDelta <= configuration.angleDeltaNadir || fwardDelta <= configuration.angleDeltaFward) {
-                resultSet.add(sampleSet);
+                matchupSet.moveSample(i, numKept++);
             }
         }
 
-        matchupSet.setSampleSets(resultSet);
+        matchupSet.truncate(numKept);
     }
 
     void configure(Configuration configuration) {
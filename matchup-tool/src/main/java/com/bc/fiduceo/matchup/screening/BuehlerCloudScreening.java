@@ -21,23 +21,15 @@
 package com.bc.fiduceo.matchup.screening;
 
 
-import com.bc.fiduceo.core.Interval;
 import com.bc.fiduceo.matchup.MatchupSet;
-import com.bc.fiduceo.matchup.Sample;
-import com.bc.fiduceo.matchup.SampleSet;
 import com.bc.fiduceo.reader.Reader;
 import org.esa.snap.core.util.StringUtils;
-import ucar.ma2.Array;
 import ucar.ma2.InvalidRangeException;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
 
 class BuehlerCloudScreening implements Screening {
 
-    private final Interval singlePixel = new Interval(1, 1);
-
     private Configuration configuration;
     private boolean usePrimary;
     private boolean useSecondary;
@@ -102,9 +94,6 @@ class BuehlerCloudScreening implements Screening {
 
     // @todo 3 tb/** this method needs refactoring in a concentrated and quiet moment 2016-05-10
     private void runScreening(MatchupSet matchupSet, Reader reader, boolean primary) throws IOException, InvalidRangeException {
-        final List<SampleSet> resultSet = new ArrayList<>();
-        final List<SampleSet> sampleSets = matchupSet.getSampleSets();
-
         String narrowChannelName;
         String wideChannelName;
         String vzaVariableName;
@@ -118,35 +107,30 @@ class BuehlerCloudScreening implements Screening {
             vzaVariableName = configuration.secondaryVZAVariableName;
         }
 
-        for (final SampleSet sampleSet : sampleSets) {
-            final Sample pixel;
-            if (primary) {
-                pixel = sampleSet.getPrimary();
-            } else {
-                pixel = sampleSet.getSecondary();
-            }
-            final Array narrowChannelArray = reader.readScaled(pixel.x, pixel.y, singlePixel, narrowChannelName);
-            final Array wideChannelArray = reader.readScaled(pixel.x, pixel.y, singlePixel, wideChannelName);
+        final SamplePixels samplePixels = primary ? SamplePixels.primary(matchupSet) : SamplePixels.secondary(matchupSet);
+        final double[] narrowChannelBTemps = samplePixels.readScaled(reader, narrowChannelName);
+        final double[] wideChannelBTemps = samplePixels.readScaled(reader, wideChannelName);
+        final double[] vzas = samplePixels.readScaled(reader, vzaVariableName);
 
-            final double narrowChannelBTemp = narrowChannelArray.getDouble(0);
-            final double wideChannelBTemp = wideChannelArray.getDouble(0);
+        final int numObservations = matchupSet.getNumObservations();
+        int numKept = 0;
+        for (int i = 0; i < numObservations; i++) {
+            final double narrowChannelBTemp = narrowChannelBTemps[i];
+            final double wideChannelBTemp = wideChannelBTemps[i];
 
             if (wideChannelBTemp > narrowChannelBTemp) {
                 continue;
             }
 
-            final Array vzaArray = reader.readScaled(pixel.x, pixel.y, singlePixel, vzaVariableName);
-            final double vza = vzaArray.getDouble(0);
-            final double threshold = calculateThreshold(vza);
+            final double threshold = calculateThreshold(vzas[i]);
             if (narrowChannelBTemp < threshold) {
                 continue;
             }
 
-            resultSet.add(sampleSet);
+            matchupSet.moveSample(i, numKept++);
         }
 
-        matchupSet.setSampleSets(resultSet);
-        sampleSets.clear();
+        matchupSet.truncate(numKept);
     }
 
     static class Configuration {
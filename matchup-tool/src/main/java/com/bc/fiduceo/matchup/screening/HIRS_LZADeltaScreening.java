@@ -21,57 +21,48 @@
 package com.bc.fiduceo.matchup.screening;
 
 
-import com.bc.fiduceo.core.Interval;
 import com.bc.fiduceo.matchup.MatchupSet;
-import com.bc.fiduceo.matchup.Sample;
-import com.bc.fiduceo.matchup.SampleSet;
 import com.bc.fiduceo.reader.Reader;
-import ucar.ma2.Array;
 import ucar.ma2.InvalidRangeException;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
 
 class HIRS_LZADeltaScreening implements Screening {
 
-    private final Interval singlePixel = new Interval(1, 1);
-
     private Configuration configuration;
 
     @Override
     public void apply(MatchupSet matchupSet, Reader primaryReader, Reader secondaryReader, ScreeningContext context) throws IOException, InvalidRangeException {
-        final List<SampleSet> resultSet = new ArrayList<>();
-        final List<SampleSet> sampleSets = matchupSet.getSampleSets();
-
-        for(final SampleSet sampleSet : sampleSets) {
-            final Sample primary = sampleSet.getPrimary();
-            final Array primaryLzaArray = primaryReader.readScaled(primary.x, primary.y, singlePixel, "lza");
-            final Array primaryScanposArray = primaryReader.readScaled(primary.x, primary.y, singlePixel, "scanpos");
-
-            final Sample secondary = sampleSet.getSecondary();
-            final Array secondLzaArray = secondaryReader.readScaled(secondary.x, secondary.y, singlePixel, "lza");
-            final Array secondScanPosArray = secondaryReader.readScaled(secondary.x, secondary.y, singlePixel, "scanpos");
-
-            double primaryLza = primaryLzaArray.getDouble(0);
-            final int primaryScanpos = primaryScanposArray.getInt(0);
+        final SamplePixels primaryPixels = SamplePixels.primary(matchupSet);
+        final double[] primaryLzas = primaryPixels.readScaled(primaryReader, "lza");
+        final double[] primaryScanPositions = primaryPixels.readScaled(primaryReader, "scanpos");
+
+        final SamplePixels secondaryPixels = SamplePixels.secondary(matchupSet);
+        final double[] secondLzas = secondaryPixels.readScaled(secondaryReader, "lza");
+        final double[] secondScanPositions = secondaryPixels.readScaled(secondaryReader, "scanpos");
+
+        final int numObservations = matchupSet.getNumObservations();
+        int numKept = 0;
+        for (int i = 0; i < numObservations; i++) {
+            double primaryLza = primaryLzas[i];
+            final int primaryScanpos = (int) primaryScanPositions[i];
             if (primaryScanpos < 28) {
                 primaryLza *= -1.0;
             }
 
-            double secondLza = secondLzaArray.getDouble(0);
-            final int secondScanPos = secondScanPosArray.getInt(0);
+            double secondLza = secondLzas[i];
+            final int secondScanPos = (int) secondScanPositions[i];
             if (secondScanPos < 28) {
                 secondLza *= -1.0;
             }
 
             final double lzaDelta = Math.abs(primaryLza - secondLza);
             if (lzaDelta < configuration.maxLzaDelta) {
-                resultSet.add(sampleSet);
+                matchupSet.moveSample(i, numKept++);
             }
         }
 
-        matchupSet.setSampleSets(resultSet);
+        matchupSet.truncate(numKept);
     }
 
     void configure(Configuration configuration) {
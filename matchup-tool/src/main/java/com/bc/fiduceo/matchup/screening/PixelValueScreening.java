@@ -22,8 +22,6 @@ package com.bc.fiduceo.matchup.screening;
 
 
 import com.bc.fiduceo.matchup.MatchupSet;
-import com.bc.fiduceo.matchup.Sample;
-import com.bc.fiduceo.matchup.SampleSet;
 import com.bc.fiduceo.matchup.screening.expression.ReaderEvalEnv;
 import com.bc.fiduceo.matchup.screening.expression.ReaderNamespace;
 import com.bc.fiduceo.reader.Reader;
@@ -34,8 +32,6 @@ import org.esa.snap.core.util.StringUtils;
 import ucar.ma2.InvalidRangeException;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
 
 class PixelValueScreening implements Screening {
 
@@ -47,58 +43,50 @@ class PixelValueScreening implements Screening {
             return;
         }
 
-        List<SampleSet> sampleSets = matchupSet.getSampleSets();
-
         if (StringUtils.isNotNullAndNotEmpty(configuration.primaryExpression)) {
-            List<SampleSet> keptSets = new ArrayList<>();
-            final ReaderNamespace readerNamespace = new ReaderNamespace(primaryReader);
-            final ParserImpl parser = new ParserImpl(readerNamespace);
-            final ReaderEvalEnv readerEvalEnv = new ReaderEvalEnv(primaryReader);
-
-            try {
-                final Term term = parser.parse(configuration.primaryExpression);
-                for (final SampleSet sampleSet : sampleSets) {
-                    final Sample primary = sampleSet.getPrimary();
-                    readerEvalEnv.setLocation(primary.x, primary.y);
-                    final boolean keep = term.evalB(readerEvalEnv);
-                    if (!keep) {
-                        continue;
-                    }
-                    keptSets.add(sampleSet);
-                }
-
-            } catch (ParseException e) {
-                throw new IOException("Invalid expression: " + e.getMessage());
-            }
-
-            sampleSets = keptSets;
+            retainSamples(matchupSet, true, configuration.primaryExpression, primaryReader);
         }
 
         if (StringUtils.isNotNullAndNotEmpty(configuration.secondaryExpression)) {
-            List<SampleSet> keptSets = new ArrayList<>();
-            final ReaderNamespace readerNamespace = new ReaderNamespace(secondaryReader);
-            final ParserImpl parser = new ParserImpl(readerNamespace);
-            final ReaderEvalEnv readerEvalEnv = new ReaderEvalEnv(secondaryReader);
-
-            try {
-                final Term term = parser.parse(configuration.secondaryExpression);
-                for (final SampleSet sampleSet : sampleSets) {
-                    final Sample secondary = sampleSet.getSecondary();
-                    readerEvalEnv.setLocation(secondary.x, secondary.y);
-                    final boolean keep = term.evalB(readerEvalEnv);
-                    if (!keep) {
-                        continue;
-                    }
-                    keptSets.add(sampleSet);
-                }
-
-            } catch (ParseException e) {
-                throw new IOException("Invalid expression: " + e.getMessage());
-            }
-            sampleSets = keptSets;
+            retainSamples(matchupSet, false, configuration.secondaryExpression, secondaryReader);
+        }
+    }
+
+    private static void retainSamples(MatchupSet matchupSet, boolean primary, String expression, Reader reader) throws IOException, InvalidRangeException {
+        final ReaderNamespace readerNamespace = new ReaderNamespace(reader);
+        final ParserImpl parser = new ParserImpl(readerNamespace);
+        final Term term;
+        try {
+            term = parser.parse(expression);
+        } catch (ParseException e) {
+            throw new IOException("Invalid expression: " + e.getMessage());
         }
 
-        matchupSet.setSampleSets(sampleSets);
+        final int numObservations = matchupSet.getNumObservations();
+        if (numObservations == 0) {
+            return;
+        }
+
+        // the values of all referenced variables are read at once, the term is then evaluated per sample
+        final SamplePixels samplePixels = primary ? SamplePixels.primary(matchupSet) : SamplePixels.secondary(matchupSet);
+        samplePixels.readValues(readerNamespace);
+
+        final boolean[] keep = new boolean[numObservations];
+        SampleBlocks.forEach(numObservations, 1, (start, end) -> {
+            final ReaderEvalEnv readerEvalEnv = new ReaderEvalEnv();
+            for (int i = start; i < end; i++) {
+                readerEvalEnv.setIndex(i);
+                keep[i] = term.evalB(readerEvalEnv);
+            }
+        });
+
+        int numKept = 0;
+        for (int i = 0; i < numObservations; i++) {
+            if (keep[i]) {
+                matchupSet.moveSample(i, numKept++);
+            }
+        }
+        matchupSet.truncate(numKept);
     }
 
     public void configure(Configuration configuration) {
@@ -0,0 +1,52 @@
+/*
+ * Copyright (C) 2016 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+package com.bc.fiduceo.matchup.screening;
+
+
+import java.util.stream.IntStream;
+
+/**
+ * Splits the samples of a matchup set into blocks which are evaluated in parallel for large sets. A block is
+ * processed by a single thread, state like evaluation environments is created per block.
+ */
+class SampleBlocks {
+
+    private static final int VALUES_PER_BLOCK = 4096;
+    private static final int MIN_PARALLEL_VALUES = 4 * VALUES_PER_BLOCK;
+
+    static void forEach(int numSamples, int valuesPerSample, BlockProcessor processor) {
+        final int samplesPerBlock = Math.max(1, VALUES_PER_BLOCK / valuesPerSample);
+        final int numBlocks = (numSamples + samplesPerBlock - 1) / samplesPerBlock;
+
+        IntStream blocks = IntStream.range(0, numBlocks);
+        if ((long) numSamples * valuesPerSample >= MIN_PARALLEL_VALUES) {
+            blocks = blocks.parallel();
+        }
+        blocks.forEach(block -> {
+            final int start = block * samplesPerBlock;
+            processor.process(start, Math.min(start + samplesPerBlock, numSamples));
+        });
+    }
+
+    interface BlockProcessor {
+
+        void process(int start, int end);
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2016 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+package com.bc.fiduceo.matchup.screening;
+
+
+import com.bc.fiduceo.core.Interval;
+import com.bc.fiduceo.matchup.MatchupSet;
+import com.bc.fiduceo.matchup.screening.expression.ReaderNamespace;
+import com.bc.fiduceo.matchup.screening.expression.WindowReaderNamespace;
+import com.bc.fiduceo.reader.Reader;
+import ucar.ma2.InvalidRangeException;
+
+import java.io.IOException;
+
+/**
+ * The primary or secondary pixel positions of the samples of a matchup set, used to read the variable values
+ * of all samples with a single reader call. The positions are copied, so samples can be moved in the matchup set
+ * while the values are evaluated.
+ */
+class SamplePixels {
+
+    private final int[] x;
+    private final int[] y;
+    private final int numPixels;
+
+    private SamplePixels(int numPixels) {
+        this.numPixels = numPixels;
+        x = new int[numPixels];
+        y = new int[numPixels];
+    }
+
+    static SamplePixels primary(MatchupSet matchupSet) {
+        final SamplePixels samplePixels = new SamplePixels(matchupSet.getNumObservations());
+        for (int i = 0; i < samplePixels.numPixels; i++) {
+            samplePixels.x[i] = matchupSet.getPrimaryX(i);
+            samplePixels.y[i] = matchupSet.getPrimaryY(i);
+        }
+        return samplePixels;
+    }
+
+    static SamplePixels secondary(MatchupSet matchupSet) {
+        final SamplePixels samplePixels = new SamplePixels(matchupSet.getNumObservations());
+        for (int i = 0; i < samplePixels.numPixels; i++) {
+            samplePixels.x[i] = matchupSet.getSecondaryX(i);
+            samplePixels.y[i] = matchupSet.getSecondaryY(i);
+        }
+        return samplePixels;
+    }
+
+    int getX(int index) {
+        return x[index];
+    }
+
+    void readValues(ReaderNamespace namespace) throws IOException, InvalidRangeException {
+        namespace.readValues(x, y, numPixels);
+    }
+
+    void readValues(WindowReaderNamespace namespace, Interval interval) throws IOException, InvalidRangeException {
+        namespace.readValues(x, y, numPixels, interval);
+    }
+
+    double[] readScaled(Reader reader, String variableName) throws IOException, InvalidRangeException {
+        final double[] values = new double[numPixels];
+        reader.readScaled(x, y, numPixels, variableName, values);
+        return values;
+    }
+}
@@ -23,6 +23,8 @@ package com.bc.fiduceo.matchup.screening;
 import com.bc.fiduceo.core.Dimension;
 import com.bc.fiduceo.core.UseCaseConfig;
 import com.bc.fiduceo.matchup.MatchupSet;
+import com.bc.fiduceo.metrics.MetricsRegistry;
+import com.bc.fiduceo.metrics.Timer;
 import com.bc.fiduceo.reader.Reader;
 import com.bc.fiduceo.tool.ToolContext;
 import org.jdom.Element;
@@ -47,8 +49,14 @@ public class ScreeningEngine {
 
     public void process(MatchupSet matchupSet, final Reader primaryReader, final Reader secondaryReader) throws IOException, InvalidRangeException {
         final Screening.ScreeningContext sc = createScreeningContext();
+        final MetricsRegistry metrics = MetricsRegistry.get();
         for (final Screening screening : screeningList) {
-            screening.apply(matchupSet, primaryReader, secondaryReader, sc);
+            final String metricName = "matchup.screening." + screening.getClass().getSimpleName();
+            metrics.counter(metricName + ".samples-in").add(matchupSet.getNumObservations());
+            try (Timer.Context ignored = metrics.timer(metricName).start()) {
+                screening.apply(matchupSet, primaryReader, secondaryReader, sc);
+            }
+            metrics.counter(metricName + ".samples-out").add(matchupSet.getNumObservations());
         }
     }
 
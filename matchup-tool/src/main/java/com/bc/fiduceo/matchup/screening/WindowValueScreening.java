@@ -21,9 +21,8 @@ package com.bc.fiduceo.matchup.screening;
 import static com.bc.fiduceo.matchup.screening.WindowValueScreening.Evaluate.EntireWindow;
 
 import com.bc.fiduceo.core.Dimension;
+import com.bc.fiduceo.core.Interval;
 import com.bc.fiduceo.matchup.MatchupSet;
-import com.bc.fiduceo.matchup.Sample;
-import com.bc.fiduceo.matchup.SampleSet;
 import com.bc.fiduceo.matchup.screening.expression.WindowReaderEvalEnv;
 import com.bc.fiduceo.matchup.screening.expression.WindowReaderNamespace;
 import com.bc.fiduceo.reader.Reader;
@@ -34,8 +33,6 @@ import org.esa.snap.core.util.StringUtils;
 import ucar.ma2.InvalidRangeException;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
 
 
 public class WindowValueScreening implements Screening {
@@ -48,58 +45,63 @@ public class WindowValueScreening implements Screening {
 
     @Override
     public void apply(MatchupSet matchupSet, Reader primaryReader, Reader secondaryReader, ScreeningContext context) throws IOException, InvalidRangeException {
-        List<SampleSet> sampleSets = matchupSet.getSampleSets();
-
         final String primaryExpression = configuration.primaryExpression;
         if (StringUtils.isNotNullAndNotEmpty(primaryExpression)) {
             final Dimension primaryDimension = context.getPrimaryDimension();
-            final SampleFetcher primarySampleFetcher = SampleSet::getPrimary;
             final double percentage = configuration.primaryPercentage;
             final Evaluate evaluate = configuration.primaryEvaluate;
-            sampleSets = getKeptSampleSets(sampleSets, primaryExpression, primaryReader, primaryDimension, primarySampleFetcher, percentage, evaluate);
+            retainSamples(matchupSet, true, primaryExpression, primaryReader, primaryDimension, percentage, evaluate);
         }
 
         final String secondaryExpression = configuration.secondaryExpression;
         if (StringUtils.isNotNullAndNotEmpty(secondaryExpression)) {
             final Dimension secondaryDimension = context.getSecondaryDimension();
-            final SampleFetcher secondarySampleFetcher = SampleSet::getSecondary;
             final double percentage = configuration.secondaryPercentage;
             final Evaluate evaluate = configuration.secondaryEvaluate;
-            sampleSets = getKeptSampleSets(sampleSets, secondaryExpression, secondaryReader, secondaryDimension, secondarySampleFetcher, percentage, evaluate);
+            retainSamples(matchupSet, false, secondaryExpression, secondaryReader, secondaryDimension, percentage, evaluate);
         }
-
-        matchupSet.setSampleSets(sampleSets);
     }
 
-    static List<SampleSet> getKeptSampleSets(List<SampleSet> sampleSets, String expression, Reader reader,
-                                             Dimension dimension, SampleFetcher sampleFetcher,
-                                             double percentage, Evaluate evaluate) throws InvalidRangeException, IOException {
-        List<SampleSet> keptSets = new ArrayList<>();
+    static void retainSamples(MatchupSet matchupSet, boolean primary, String expression, Reader reader,
+                              Dimension dimension, double percentage, Evaluate evaluate) throws InvalidRangeException, IOException {
         final WindowReaderNamespace readerNamespace = new WindowReaderNamespace(reader);
-        final WindowReaderEvalEnv readerEvalEnv = readerNamespace.getEvalEnv();
         final ParserImpl parser = new ParserImpl(readerNamespace);
+        final Term term;
         try {
-            final Term term = parser.parse(expression);
-            final int width = dimension.getNx();
-            final int height = dimension.getNy();
-            for (final SampleSet sampleSet : sampleSets) {
-                final Sample sample = sampleFetcher.getSample(sampleSet);
-                readerEvalEnv.setWindow(sample.x, sample.y, width, height);
+            term = parser.parse(expression);
+        } catch (ParseException e) {
+            throw new IOException("Invalid expression: " + e.getMessage());
+        }
+
+        final int numObservations = matchupSet.getNumObservations();
+        if (numObservations == 0) {
+            return;
+        }
+
+        // the windows of all referenced variables are read at once, the term is then evaluated per pixel
+        final int width = dimension.getNx();
+        final int height = dimension.getNy();
+        final SamplePixels samplePixels = primary ? SamplePixels.primary(matchupSet) : SamplePixels.secondary(matchupSet);
+        samplePixels.readValues(readerNamespace, new Interval(width, height));
+
+        final int fullCount = width * height;
+        final boolean[] keep = new boolean[numObservations];
+        SampleBlocks.forEach(numObservations, fullCount, (start, end) -> {
+            final WindowReaderEvalEnv readerEvalEnv = new WindowReaderEvalEnv();
+            for (int i = start; i < end; i++) {
+                final int windowOffset = i * fullCount;
                 int trueCount = 0;
                 int noDataCount = 0;
-                for (int y = 0; y < height; y++) {
-                    for (int x = 0; x < width; x++) {
-                        readerEvalEnv.setLocationInWindow(x, y);
-                        final boolean result = term.evalB(readerEvalEnv);
-                        if (readerEvalEnv.isNoData()) {
-                            noDataCount++;
-                        } else if (result) {
-                            trueCount++;
-                        }
+                for (int k = 0; k < fullCount; k++) {
+                    readerEvalEnv.setIndex(windowOffset + k);
+                    final boolean result = term.evalB(readerEvalEnv);
+                    if (readerEvalEnv.isNoData()) {
+                        noDataCount++;
+                    } else if (result) {
+                        trueCount++;
                     }
                 }
 
-                final int fullCount = width * height;
                 final double minCount;
                 if (EntireWindow.equals(evaluate)) {
                     minCount = fullCount * percentage * 0.01;
@@ -107,23 +109,17 @@ public class WindowValueScreening implements Screening {
                     final int validCount = fullCount - noDataCount;
                     minCount = validCount * percentage * 0.01;
                 }
-                final boolean keep = trueCount >= minCount;
-                if (!keep) {
-                    continue;
-                }
-                keptSets.add(sampleSet);
+                keep[i] = trueCount >= minCount;
             }
+        });
 
-        } catch (ParseException e) {
-            throw new IOException("Invalid expression: " + e.getMessage());
+        int numKept = 0;
+        for (int i = 0; i < numObservations; i++) {
+            if (keep[i]) {
+                matchupSet.moveSample(i, numKept++);
+            }
         }
-
-        return keptSets;
-    }
-
-    interface SampleFetcher {
-
-        Sample getSample(SampleSet sampleSet);
+        matchupSet.truncate(numKept);
     }
 
     static class Configuration {
@@ -20,34 +20,21 @@
 
 package com.bc.fiduceo.matchup.screening.expression;
 
-import com.bc.fiduceo.reader.Reader;
 import org.esa.snap.core.jexp.EvalEnv;
 
+/**
+ * Evaluation environment selecting the sample whose values are used by the variable symbols. Each evaluating
+ * thread uses an instance of its own.
+ */
 public class ReaderEvalEnv implements EvalEnv {
 
-    private final Reader reader;
-
-    private int x;
-    private int y;
-
-    public ReaderEvalEnv(Reader reader) {
-        this.reader = reader;
-    }
-
-    public Reader getReader() {
-        return reader;
-    }
-
-    public void setLocation(int x, int y) {
-        this.x = x;
-        this.y = y;
-    }
+    private int index;
 
-    public int getX() {
-        return x;
+    public void setIndex(int index) {
+        this.index = index;
     }
 
-    public int getY() {
-        return y;
+    public int getIndex() {
+        return index;
     }
 }
@@ -51,31 +51,57 @@ import ucar.nc2.Variable;
 
 import java.io.IOException;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
+/**
+ * Namespace providing the reader variables as symbols. The values of the variables referenced by parsed
+ * expressions are read for all samples at once using readValues(), the expressions are then evaluated with a
+ * ReaderEvalEnv selecting the sample.
+ */
 public class ReaderNamespace implements Namespace {
 
-    private final HashMap<String, Symbol> symbols = new HashMap<>();
+    private final HashMap<String, VariableSymbol> symbols = new HashMap<>();
+    private final Set<VariableSymbol> referencedSymbols = new LinkedHashSet<>();
     private final DefaultNamespace defaultNamespace;
+    private final Reader reader;
 
     public ReaderNamespace(Reader reader) throws InvalidRangeException, IOException {
+        this.reader = reader;
         defaultNamespace = new DefaultNamespace();
 
         final List<Variable> variables = reader.getVariables();
         for(final Variable variable: variables) {
-            final Symbol symbol = new VariableSymbol(variable);
+            final VariableSymbol symbol = new VariableSymbol(variable);
             symbols.put(symbol.getName(), symbol);
         }
     }
 
     @Override
     public Symbol resolveSymbol(String name) {
-        Symbol symbol = symbols.get(name);
-        if (symbol == null) {
-            symbol = defaultNamespace.resolveSymbol(name);
+        final VariableSymbol variableSymbol = symbols.get(name);
+        if (variableSymbol != null) {
+            referencedSymbols.add(variableSymbol);
+            return variableSymbol;
         }
 
-        return symbol;
+        return defaultNamespace.resolveSymbol(name);
+    }
+
+    /**
+     * Reads the values of all variables referenced by the expressions parsed so far.
+     *
+     * @param x         the pixel x positions of the samples
+     * @param y         the pixel y positions of the samples
+     * @param numPixels the number of samples
+     * @throws IOException           on disk access errors
+     * @throws InvalidRangeException on invalid pixel positions
+     */
+    public void readValues(int[] x, int[] y, int numPixels) throws IOException, InvalidRangeException {
+        for (final VariableSymbol symbol : referencedSymbols) {
+            symbol.readValues(reader, x, y, numPixels);
+        }
     }
 
     @Override
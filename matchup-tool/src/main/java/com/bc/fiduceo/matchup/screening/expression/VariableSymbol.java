@@ -40,13 +40,11 @@
 
 package com.bc.fiduceo.matchup.screening.expression;
 
-import com.bc.fiduceo.core.Interval;
 import com.bc.fiduceo.reader.Reader;
 import org.esa.snap.core.jexp.EvalEnv;
 import org.esa.snap.core.jexp.EvalException;
 import org.esa.snap.core.jexp.Symbol;
 import org.esa.snap.core.jexp.Term;
-import ucar.ma2.Array;
 import ucar.ma2.DataType;
 import ucar.ma2.InvalidRangeException;
 import ucar.nc2.Variable;
@@ -56,7 +54,7 @@ import java.io.IOException;
 class VariableSymbol implements Symbol {
 
     private final Variable variable;
-    private final Interval singlePixel = new Interval(1, 1);
+    private double[] values;
 
     VariableSymbol(Variable variable) {
         this.variable = variable;
@@ -80,20 +78,17 @@ class VariableSymbol implements Symbol {
 
     @Override
     public boolean evalB(EvalEnv env) throws EvalException {
-        final Array array = readArray((ReaderEvalEnv) env);
-        return array.getBoolean(0);
+        return getValue((ReaderEvalEnv) env) != 0.0;
     }
 
     @Override
     public int evalI(EvalEnv env) throws EvalException {
-        final Array array = readArray((ReaderEvalEnv) env);
-        return array.getInt(0);
+        return (int) getValue((ReaderEvalEnv) env);
     }
 
     @Override
     public double evalD(EvalEnv env) throws EvalException {
-        final Array array = readArray((ReaderEvalEnv) env);
-        return array.getDouble(0);
+        return getValue((ReaderEvalEnv) env);
     }
 
     @Override
@@ -106,17 +101,17 @@ class VariableSymbol implements Symbol {
         return false;
     }
 
-    private Array readArray(ReaderEvalEnv env) {
-        Array array;
-        final Reader reader = env.getReader();
+    void readValues(Reader reader, int[] x, int[] y, int numPixels) throws IOException, InvalidRangeException {
+        if (values == null || values.length < numPixels) {
+            values = new double[numPixels];
+        }
+        reader.readScaled(x, y, numPixels, variable.getFullName(), values);
+    }
 
-        try {
-            final int x = env.getX();
-            final int y = env.getY();
-            array = reader.readScaled(x, y, singlePixel, variable.getFullName());
-        } catch (IOException | InvalidRangeException e) {
-            throw new EvalException("Unable to read data: " + e.getMessage());
+    private double getValue(ReaderEvalEnv env) {
+        if (values == null) {
+            throw new EvalException("No data read for variable: " + getName());
         }
-        return array;
+        return values[env.getIndex()];
     }
 }
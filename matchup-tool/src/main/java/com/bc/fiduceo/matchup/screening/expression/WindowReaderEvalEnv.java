@@ -19,72 +19,31 @@
 
 package com.bc.fiduceo.matchup.screening.expression;
 
-import com.bc.fiduceo.core.Interval;
-import com.bc.fiduceo.reader.Reader;
 import org.esa.snap.core.jexp.EvalEnv;
-import ucar.ma2.Array;
-import ucar.ma2.InvalidRangeException;
 
-import java.io.IOException;
-import java.util.HashMap;
-
-public class WindowReaderEvalEnv implements EvalEnv, WindowVariableSymbol.NoDataListener {
-
-    private final HashMap<String, Array> windowArrayMap = new HashMap<>();
-    private final int[] pixelShape = new int[]{1, 1};
-
-    private final Reader reader;
-
-    private int x;
-    private int y;
-
-    private Interval interval;
-    private int centerX;
-    private int centerY;
-    private boolean noData = false;
-
-    WindowReaderEvalEnv(Reader reader) {
-        this.reader = reader;
-    }
+/**
+ * Evaluation environment selecting the window pixel whose values are used by the variable symbols, the index
+ * runs over all pixels of all windows. Each evaluating thread uses an instance of its own.
+ */
+public class WindowReaderEvalEnv implements EvalEnv {
 
-    public void setLocationInWindow(int x, int y) {
-        resetNoData();
-        this.x = x;
-        this.y = y;
-    }
+    private int index;
+    private boolean noData;
 
-    public void setWindow(int centerX, int centerY, int width, int height) {
-        resetNoData();
-        this.centerX = centerX;
-        this.centerY = centerY;
-        interval = new Interval(width, height);
-        windowArrayMap.clear();
+    public void setIndex(int index) {
+        this.index = index;
+        noData = false;
     }
 
-    @Override
-    public void fireNoData() {
-        noData = true;
+    public int getIndex() {
+        return index;
     }
 
     public boolean isNoData() {
         return noData;
     }
 
-    Array fetchPixel(String name) throws IOException, InvalidRangeException {
-        if (!windowArrayMap.containsKey(name)) {
-            readWindow(name);
-        }
-        final Array array = windowArrayMap.get(name);
-        return array.section(new int[]{y, x}, pixelShape);
-    }
-
-    private void resetNoData() {
-        noData = false;
-    }
-
-
-    private void readWindow(String name) throws IOException, InvalidRangeException {
-        final Array array = reader.readScaled(centerX, centerY, interval, name);
-        windowArrayMap.put(name, array);
+    void fireNoData() {
+        noData = true;
     }
 }
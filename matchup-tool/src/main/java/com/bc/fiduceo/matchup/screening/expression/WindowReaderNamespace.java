@@ -19,6 +19,7 @@
 
 package com.bc.fiduceo.matchup.screening.expression;
 
+import com.bc.fiduceo.core.Interval;
 import com.bc.fiduceo.reader.Reader;
 import org.esa.snap.core.jexp.Function;
 import org.esa.snap.core.jexp.Namespace;
@@ -30,42 +31,62 @@ import ucar.nc2.Variable;
 
 import java.io.IOException;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
+/**
+ * Namespace providing the reader variables as symbols. The window values of the variables referenced by parsed
+ * expressions are read for all samples at once using readValues(), the expressions are then evaluated with a
+ * WindowReaderEvalEnv selecting the window pixel.
+ */
 public class WindowReaderNamespace implements Namespace {
 
-    private final HashMap<String, Symbol> symbols = new HashMap<>();
+    private final HashMap<String, WindowVariableSymbol> symbols = new HashMap<>();
+    private final Set<WindowVariableSymbol> referencedSymbols = new LinkedHashSet<>();
     private final DefaultNamespace defaultNamespace;
-    private final WindowReaderEvalEnv evalEnv;
+    private final Reader reader;
 
     public WindowReaderNamespace(Reader reader) throws InvalidRangeException, IOException {
+        this.reader = reader;
         defaultNamespace = new DefaultNamespace();
-        evalEnv = new WindowReaderEvalEnv(reader);
-
 
         final List<Variable> variables = reader.getVariables();
         for(final Variable variable: variables) {
-            final Symbol symbol = new WindowVariableSymbol(variable, evalEnv);
+            final WindowVariableSymbol symbol = new WindowVariableSymbol(variable);
             symbols.put(symbol.getName(), symbol);
         }
     }
 
     @Override
     public Symbol resolveSymbol(String name) {
-        Symbol symbol = symbols.get(name);
-        if (symbol == null) {
-            symbol = defaultNamespace.resolveSymbol(name);
+        final WindowVariableSymbol variableSymbol = symbols.get(name);
+        if (variableSymbol != null) {
+            referencedSymbols.add(variableSymbol);
+            return variableSymbol;
         }
 
-        return symbol;
+        return defaultNamespace.resolveSymbol(name);
+    }
+
+    /**
+     * Reads the window values of all variables referenced by the expressions parsed so far, window after window.
+     *
+     * @param x          the window center x positions of the samples
+     * @param y          the window center y positions of the samples
+     * @param numSamples the number of samples
+     * @param interval   the window size
+     * @throws IOException           on disk access errors
+     * @throws InvalidRangeException on invalid window definitions
+     */
+    public void readValues(int[] x, int[] y, int numSamples, Interval interval) throws IOException, InvalidRangeException {
+        for (final WindowVariableSymbol symbol : referencedSymbols) {
+            symbol.readValues(reader, x, y, numSamples, interval);
+        }
     }
 
     @Override
     public Function resolveFunction(String name, Term[] args) {
         return defaultNamespace.resolveFunction(name, args);
     }
-
-    public WindowReaderEvalEnv getEvalEnv() {
-        return evalEnv;
-    }
 }
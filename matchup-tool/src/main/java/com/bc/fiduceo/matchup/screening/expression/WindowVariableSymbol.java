@@ -19,25 +19,28 @@
 
 package com.bc.fiduceo.matchup.screening.expression;
 
+import com.bc.fiduceo.core.Interval;
+import com.bc.fiduceo.reader.Reader;
 import com.bc.fiduceo.util.NetCDFUtils;
 import org.esa.snap.core.jexp.EvalEnv;
 import org.esa.snap.core.jexp.EvalException;
 import org.esa.snap.core.jexp.Symbol;
 import org.esa.snap.core.jexp.Term;
-import ucar.ma2.Array;
 import ucar.ma2.DataType;
+import ucar.ma2.InvalidRangeException;
 import ucar.nc2.Variable;
 
+import java.io.IOException;
+
 class WindowVariableSymbol implements Symbol {
 
     private final Variable variable;
-    private final Number fillValue;
-    private final NoDataListener listener;
+    private final double fillValue;
+    private double[] values;
 
-    WindowVariableSymbol(Variable variable, NoDataListener listener) {
+    WindowVariableSymbol(Variable variable) {
         this.variable = variable;
-        this.listener = listener;
-        fillValue = NetCDFUtils.getFillValue(variable);
+        fillValue = NetCDFUtils.getFillValue(variable).doubleValue();
     }
 
     @Override
@@ -66,10 +69,13 @@ class WindowVariableSymbol implements Symbol {
 
     @Override
     public double evalD(EvalEnv env) throws EvalException {
-        final Array array = fetchPixel((WindowReaderEvalEnv) env);
-        final Double v = array.getDouble(array.getIndex());
-        if (Double.isNaN(v) || v.equals(fillValue.doubleValue())) {
-            listener.fireNoData();
+        if (values == null) {
+            throw new EvalException("Unable to fetch pixel value.");
+        }
+        final WindowReaderEvalEnv windowEnv = (WindowReaderEvalEnv) env;
+        final double v = values[windowEnv.getIndex()];
+        if (Double.isNaN(v) || v == fillValue) {
+            windowEnv.fireNoData();
             return Double.NaN;
         }
         return v;
@@ -85,16 +91,11 @@ class WindowVariableSymbol implements Symbol {
         return false;
     }
 
-    private Array fetchPixel(WindowReaderEvalEnv windowReaderEvalEnv) {
-        try {
-            return windowReaderEvalEnv.fetchPixel(getName());
-        } catch (Exception e) {
-            throw new EvalException("Unable to fetch pixel value.", e);
+    void readValues(Reader reader, int[] x, int[] y, int numPixels, Interval interval) throws IOException, InvalidRangeException {
+        final int numValues = numPixels * interval.getX() * interval.getY();
+        if (values == null || values.length < numValues) {
+            values = new double[numValues];
         }
-    }
-
-    interface NoDataListener {
-
-        void fireNoData();
+        reader.readScaled(x, y, numPixels, interval, getName(), values);
     }
 }
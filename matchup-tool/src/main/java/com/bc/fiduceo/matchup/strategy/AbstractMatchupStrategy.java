@@ -23,6 +23,7 @@ package com.bc.fiduceo.matchup.strategy;
 import com.bc.fiduceo.core.Dimension;
 import com.bc.fiduceo.core.SatelliteObservation;
 import com.bc.fiduceo.core.Sensor;
+import com.bc.fiduceo.core.SystemConfig;
 import com.bc.fiduceo.core.UseCaseConfig;
 import com.bc.fiduceo.db.QueryParameter;
 import com.bc.fiduceo.db.Storage;
@@ -35,13 +36,17 @@ import com.bc.fiduceo.matchup.MatchupSet;
 import com.bc.fiduceo.matchup.condition.ConditionEngine;
 import com.bc.fiduceo.matchup.condition.ConditionEngineContext;
 import com.bc.fiduceo.matchup.screening.ScreeningEngine;
+import com.bc.fiduceo.metrics.MetricsRegistry;
 import com.bc.fiduceo.reader.Reader;
+import com.bc.fiduceo.reader.ReaderCache;
+import com.bc.fiduceo.reader.ReaderFactory;
 import com.bc.fiduceo.tool.ToolContext;
 import org.esa.snap.core.util.StringUtils;
 import ucar.ma2.InvalidRangeException;
 
 import java.io.IOException;
 import java.sql.SQLException;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.List;
 import java.util.logging.Logger;
@@ -63,17 +68,28 @@ public abstract class AbstractMatchupStrategy {
         conditionEngineContext.setSecondarySize(secondarySize);
 
         logger.info("Found " + matchupSet.getNumObservations() + " matchup pixels");
+        MetricsRegistry.get().histogram("matchup.set.samples-found").record(matchupSet.getNumObservations());
         conditionEngine.process(matchupSet, conditionEngineContext);
         logger.info("Remaining " + matchupSet.getNumObservations() + " after condition processing");
 
         screeningEngine.process(matchupSet, primaryReader, secondaryReader);
         logger.info("Remaining " + matchupSet.getNumObservations() + " after matchup screening");
+        MetricsRegistry.get().histogram("matchup.set.samples-kept").record(matchupSet.getNumObservations());
 
         if (matchupSet.getNumObservations() > 0) {
             matchupCollection.add(matchupSet);
         }
     }
 
+    // without a shared cache in the context, released readers are closed immediately
+    static ReaderCache getReaderCache(ToolContext context) {
+        final ReaderCache readerCache = context.getReaderCache();
+        if (readerCache != null) {
+            return readerCache;
+        }
+        return new ReaderCache(ReaderFactory.get(context.getGeometryFactory()), 0, 0);
+    }
+
     // package access for testing only tb 2016-11-04
     static boolean isSegmented(Geometry primaryGeoBounds) {
         return primaryGeoBounds instanceof GeometryCollection && ((GeometryCollection) primaryGeoBounds).getGeometries().length > 1;
@@ -81,11 +97,17 @@ public abstract class AbstractMatchupStrategy {
 
     // package access for testing only tb 2016-03-14
     static QueryParameter getSecondarySensorParameter(UseCaseConfig useCaseConfig, Date searchTimeStart, Date searchTimeEnd) {
+        return getSecondarySensorParameter(useCaseConfig, searchTimeStart, searchTimeEnd, null);
+    }
+
+    // package access for testing only
+    static QueryParameter getSecondarySensorParameter(UseCaseConfig useCaseConfig, Date searchTimeStart, Date searchTimeEnd, Geometry searchGeometry) {
         final QueryParameter parameter = new QueryParameter();
         final Sensor secondarySensor = getSecondarySensor(useCaseConfig);
         assignSensor(parameter, secondarySensor);
         parameter.setStartTime(searchTimeStart);
         parameter.setStopTime(searchTimeEnd);
+        parameter.setGeometry(searchGeometry);
         return parameter;
     }
 
@@ -110,6 +132,31 @@ public abstract class AbstractMatchupStrategy {
         return pixelLocator;
     }
 
+    // package access for testing only
+    static int getNumWorkerThreads(ToolContext context) {
+        final SystemConfig systemConfig = context.getSystemConfig();
+        if (systemConfig == null) {
+            return 1;
+        }
+        return systemConfig.getNumWorkerThreads();
+    }
+
+    // package access for testing only
+    static boolean isFusedConditions(ToolContext context) {
+        final SystemConfig systemConfig = context.getSystemConfig();
+        return systemConfig != null && systemConfig.isFusedConditions();
+    }
+
+    // the collection of the complete processing interval, spills to disk when exceeding the configured size
+    // package access for testing only
+    static MatchupCollection createSpillingCollection(ToolContext context) {
+        final SystemConfig systemConfig = context.getSystemConfig();
+        if (systemConfig == null) {
+            return new MatchupCollection();
+        }
+        return new MatchupCollection(systemConfig.getMaxMatchupsInMemory());
+    }
+
     // package access for testing only tb 2016-02-23
     static QueryParameter getPrimarySensorParameter(ToolContext context) {
         final QueryParameter parameter = new QueryParameter();
@@ -139,15 +186,28 @@ public abstract class AbstractMatchupStrategy {
 
         final Storage storage = context.getStorage();
         final List<SatelliteObservation> primaryObservations = storage.get(parameter);
+        sortByStartTime(primaryObservations);
 
         logger.info("Received " + primaryObservations.size() + " primary satellite observations");
 
         return primaryObservations;
     }
 
+    // the database query has no defined order. The secondary reader window relies on primaries processed in
+    // ascending time order, and a defined order keeps the MMD rows reproducible
+    // package access for testing only
+    static void sortByStartTime(List<SatelliteObservation> observations) {
+        observations.sort(Comparator.comparing(SatelliteObservation::getStartTime));
+    }
+
     List<SatelliteObservation> getSecondaryObservations(ToolContext context, Date searchTimeStart, Date searchTimeEnd) throws SQLException {
+        return getSecondaryObservations(context, searchTimeStart, searchTimeEnd, null);
+    }
+
+    // the search geometry restricts the result to observations intersecting it, pass null to run a time-only query
+    List<SatelliteObservation> getSecondaryObservations(ToolContext context, Date searchTimeStart, Date searchTimeEnd, Geometry searchGeometry) throws SQLException {
         final UseCaseConfig useCaseConfig = context.getUseCaseConfig();
-        final QueryParameter parameter = getSecondarySensorParameter(useCaseConfig, searchTimeStart, searchTimeEnd);
+        final QueryParameter parameter = getSecondarySensorParameter(useCaseConfig, searchTimeStart, searchTimeEnd, searchGeometry);
         logger.info("Requesting secondary data ... (" + parameter.getSensorName() + ", " + parameter.getStartTime() + ", " + parameter.getStopTime());
 
         final Storage storage = context.getStorage();
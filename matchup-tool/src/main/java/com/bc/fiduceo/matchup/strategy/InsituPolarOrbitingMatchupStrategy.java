@@ -21,20 +21,17 @@
 package com.bc.fiduceo.matchup.strategy;
 
 import com.bc.fiduceo.core.*;
-import com.bc.fiduceo.geometry.Geometry;
 import com.bc.fiduceo.geometry.GeometryFactory;
-import com.bc.fiduceo.geometry.Point;
 import com.bc.fiduceo.location.PixelLocator;
 import com.bc.fiduceo.matchup.MatchupCollection;
 import com.bc.fiduceo.matchup.MatchupSet;
 import com.bc.fiduceo.matchup.Sample;
-import com.bc.fiduceo.matchup.SampleSet;
 import com.bc.fiduceo.matchup.condition.ConditionEngine;
 import com.bc.fiduceo.matchup.condition.ConditionEngineContext;
 import com.bc.fiduceo.matchup.screening.ScreeningEngine;
 import com.bc.fiduceo.math.TimeInterval;
 import com.bc.fiduceo.reader.Reader;
-import com.bc.fiduceo.reader.ReaderFactory;
+import com.bc.fiduceo.reader.ReaderCache;
 import com.bc.fiduceo.reader.TimeLocator;
 import com.bc.fiduceo.tool.ToolContext;
 import com.bc.fiduceo.util.TimeUtils;
@@ -62,17 +59,17 @@ class InsituPolarOrbitingMatchupStrategy extends AbstractMatchupStrategy {
 
     @Override
     public MatchupCollection createMatchupCollection(ToolContext context) throws SQLException, IOException, InvalidRangeException {
-        final MatchupCollection matchupCollection = new MatchupCollection();
+        final MatchupCollection matchupCollection = createSpillingCollection(context);
         final UseCaseConfig useCaseConfig = context.getUseCaseConfig();
 
         final ConditionEngine conditionEngine = new ConditionEngine();
         final ConditionEngineContext conditionEngineContext = ConditionEngine.createContext(context);
-        conditionEngine.configure(useCaseConfig);
+        conditionEngine.configure(useCaseConfig, isFusedConditions(context));
 
         final ScreeningEngine screeningEngine = new ScreeningEngine(context);
 
         final GeometryFactory geometryFactory = context.getGeometryFactory();
-        final ReaderFactory readerFactory = ReaderFactory.get(geometryFactory);
+        final ReaderCache readerCache = getReaderCache(context);
 
         final long timeDeltaInMillis = conditionEngine.getMaxTimeDeltaInMillis();
         final int timeDeltaSeconds = (int) (timeDeltaInMillis / 1000);
@@ -88,6 +85,7 @@ class InsituPolarOrbitingMatchupStrategy extends AbstractMatchupStrategy {
         final Date searchTimeStart = TimeUtils.addSeconds(-timeDeltaSeconds, context.getStartDate());
         final Date searchTimeEnd = TimeUtils.addSeconds(timeDeltaSeconds, context.getEndDate());
         final List<SatelliteObservation> secondaryObservations = getSecondaryObservations(context, searchTimeStart, searchTimeEnd);
+        final ObservationIndex secondaryIndex = new ObservationIndex(secondaryObservations, geometryFactory);
 
         final Map<Path, List<MatchupSet>> matchupSetsSatelliteOrder = new HashMap<>();
         final Map<Path, String> insituProduktSensorName = new HashMap<>();
@@ -96,10 +94,9 @@ class InsituPolarOrbitingMatchupStrategy extends AbstractMatchupStrategy {
             final String sensorName = insituObservation.getSensor().getName();
             final Path insituPath = insituObservation.getDataFilePath();
             insituProduktSensorName.put(insituPath, sensorName);
-            try (final Reader insituReader = readerFactory.getReader(sensorName)) {
-                insituReader.open(insituPath.toFile());
-
-                final List<MatchupSet> matchupSets = getInsituSamplesPerSatellite(geometryFactory, timeDeltaInMillis, processingInterval, secondaryObservations, insituReader);
+            final Reader insituReader = readerCache.borrow(sensorName, insituPath);
+            try {
+                final List<MatchupSet> matchupSets = getInsituSamplesPerSatellite(timeDeltaInMillis, processingInterval, secondaryIndex, insituReader);
                 for (final MatchupSet matchupSet : matchupSets) {
                     matchupSet.setPrimaryObservationPath(insituPath);
                     final Path path = matchupSet.getSecondaryObservationPath();
@@ -111,6 +108,8 @@ class InsituPolarOrbitingMatchupStrategy extends AbstractMatchupStrategy {
                     final List<MatchupSet> satelliteSets = matchupSetsSatelliteOrder.get(path);
                     satelliteSets.add(matchupSet);
                 }
+            } finally {
+                readerCache.release(insituReader);
             }
         }
 
@@ -118,9 +117,8 @@ class InsituPolarOrbitingMatchupStrategy extends AbstractMatchupStrategy {
             final Path secondaryPath = pathListEntry.getKey();
             final List<MatchupSet> matchupSets = pathListEntry.getValue();
 
-            try (Reader secondaryReader = readerFactory.getReader(secondarySensor.getName())) {
-                secondaryReader.open(secondaryPath.toFile());
-
+            final Reader secondaryReader = readerCache.borrow(secondarySensor.getName(), secondaryPath);
+            try {
                 final PixelLocator pixelLocator = secondaryReader.getPixelLocator();
                 final TimeLocator timeLocator = secondaryReader.getTimeLocator();
 
@@ -129,55 +127,33 @@ class InsituPolarOrbitingMatchupStrategy extends AbstractMatchupStrategy {
                 for (MatchupSet matchupSet : matchupSets) {
                     final Path insituPath = matchupSet.getPrimaryObservationPath();
                     final String sensorName = insituProduktSensorName.get(insituPath);
-                    final List<SampleSet> completeSamples = sampleCollector.addSecondarySamples(matchupSet.getSampleSets(), timeLocator);
-                    matchupSet.setSampleSets(completeSamples);
+                    sampleCollector.addSecondarySamples(matchupSet, timeLocator);
 
-                    try (final Reader insituReader = readerFactory.getReader(sensorName)) {
-                        insituReader.open(insituPath.toFile());
-                        if (matchupSet.getNumObservations() > 0) {
+                    if (matchupSet.getNumObservations() > 0) {
+                        final Reader insituReader = readerCache.borrow(sensorName, insituPath);
+                        try {
                             applyConditionsAndScreenings(matchupCollection, conditionEngine, conditionEngineContext, screeningEngine, insituReader, matchupSet, secondaryReader);
+                        } finally {
+                            readerCache.release(insituReader);
                         }
                     }
                 }
+            } finally {
+                readerCache.release(secondaryReader);
             }
         }
 
         return matchupCollection;
     }
 
-    static List<SatelliteObservation> getCandidatesByTime(List<SatelliteObservation> satelliteObservations, Date insituTime, long timeDeltaInMillis) {
-        final List<SatelliteObservation> candidateList = new ArrayList<>();
-        for (final SatelliteObservation observation : satelliteObservations) {
-            final Date startTime = new Date(observation.getStartTime().getTime() - timeDeltaInMillis);
-            final Date stopTime = new Date(observation.getStopTime().getTime() + timeDeltaInMillis);
-            final TimeInterval observationInterval = new TimeInterval(startTime, stopTime);
-            if (observationInterval.contains(insituTime)) {
-                candidateList.add(observation);
-            }
-        }
-        return candidateList;
-    }
-
-    static List<SatelliteObservation> getCandidatesByGeometry(List<SatelliteObservation> satelliteObservations, Point point) {
-        final List<SatelliteObservation> candidateList = new ArrayList<>();
-        for (final SatelliteObservation observation : satelliteObservations) {
-            final Geometry geoBounds = observation.getGeoBounds();
-            if (!geoBounds.getIntersection(point).isEmpty()) {
-                candidateList.add(observation);
-            }
-        }
-        return candidateList;
-    }
-
-    private List<MatchupSet> getInsituSamplesPerSatellite(GeometryFactory geometryFactory, long timeDeltaInMillis, TimeInterval processingInterval, List<SatelliteObservation> secondaryObservations, Reader insituReader) throws IOException, InvalidRangeException {
+    private List<MatchupSet> getInsituSamplesPerSatellite(long timeDeltaInMillis, TimeInterval processingInterval, ObservationIndex secondaryIndex, Reader insituReader) throws IOException, InvalidRangeException {
         final HashMap<String, MatchupSet> observationsPerProduct = new HashMap<>();
 
         final List<Sample> insituSamples = getInsituSamples(processingInterval, insituReader);
         for (final Sample insituSample : insituSamples) {
-            final List<SatelliteObservation> candidatesByTime = getCandidatesByTime(secondaryObservations, new Date(insituSample.time), timeDeltaInMillis);
-            final List<SatelliteObservation> candidatesByGeometry = getCandidatesByGeometry(candidatesByTime, geometryFactory.createPoint(insituSample.lon, insituSample.lat));
+            final List<SatelliteObservation> candidates = secondaryIndex.getCandidates(insituSample.lon, insituSample.lat, insituSample.time, timeDeltaInMillis);
 
-            for (SatelliteObservation candidate : candidatesByGeometry) {
+            for (SatelliteObservation candidate : candidates) {
                 final String productName = candidate.getDataFilePath().getFileName().toString();
                 MatchupSet matchupSet = observationsPerProduct.get(productName);
                 if (matchupSet == null) {
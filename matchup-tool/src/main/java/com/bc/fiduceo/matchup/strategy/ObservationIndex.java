@@ -0,0 +1,192 @@
+/*
+ * Copyright (C) 2017 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+
+package com.bc.fiduceo.matchup.strategy;
+
+import com.bc.fiduceo.core.SatelliteObservation;
+import com.bc.fiduceo.geometry.Geometry;
+import com.bc.fiduceo.geometry.GeometryCollection;
+import com.bc.fiduceo.geometry.GeometryFactory;
+import com.bc.fiduceo.geometry.Point;
+import com.bc.fiduceo.geometry.s2.BcS2CellCovering;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Spatio-temporal lookup structure over a list of satellite observations. Queries look up the S2 cells containing
+ * the location and check the acquisition time and geo-bounds of the observations registered for these cells only.
+ */
+class ObservationIndex {
+
+    private static final int[] EMPTY = new int[0];
+
+    private final GeometryFactory geometryFactory;
+    private final SatelliteObservation[] observations;
+    private final long[] startTimes;
+    private final long[] stopTimes;
+
+    private final Map<Long, int[]> cellIndex;
+    private final int[] notCellIndexed;
+
+    ObservationIndex(List<SatelliteObservation> observationList, GeometryFactory geometryFactory) {
+        this.geometryFactory = geometryFactory;
+        final int numObservations = observationList.size();
+        observations = observationList.toArray(new SatelliteObservation[numObservations]);
+        startTimes = new long[numObservations];
+        stopTimes = new long[numObservations];
+
+        final Map<Long, List<Integer>> cellLists = new HashMap<>();
+        final List<Integer> notIndexedList = new ArrayList<>();
+        for (int i = 0; i < numObservations; i++) {
+            final SatelliteObservation observation = observations[i];
+            if (observation.getStartTime() != null && observation.getStopTime() != null) {
+                startTimes[i] = observation.getStartTime().getTime();
+                stopTimes[i] = observation.getStopTime().getTime();
+            } else {
+                startTimes[i] = Long.MAX_VALUE;
+                stopTimes[i] = Long.MIN_VALUE;
+            }
+
+            final Geometry geoBounds = observation.getGeoBounds();
+            if (geoBounds == null) {
+                continue;
+            }
+            final long[] cellIds = BcS2CellCovering.getCellIds(geoBounds);
+            if (cellIds == null) {
+                notIndexedList.add(i);
+                continue;
+            }
+            for (final long cellId : cellIds) {
+                cellLists.computeIfAbsent(cellId, k -> new ArrayList<>()).add(i);
+            }
+        }
+
+        cellIndex = new HashMap<>(cellLists.size());
+        for (final Map.Entry<Long, List<Integer>> entry : cellLists.entrySet()) {
+            cellIndex.put(entry.getKey(), toArray(entry.getValue()));
+        }
+        notCellIndexed = toArray(notIndexedList);
+    }
+
+    /**
+     * Retrieves all observations whose geo-bounds contain the location and whose acquisition interval, extended by
+     * the time delta on both sides, contains the time given. The result is in the order of the list the index
+     * was created from.
+     */
+    List<SatelliteObservation> getCandidates(double lon, double lat, long time, long timeDeltaInMillis) {
+        final long earliestStop = time - timeDeltaInMillis;
+        final long latestStart = time + timeDeltaInMillis;
+        final int[] cellHits = getCellCandidates(lon, lat);
+
+        // the point is only created when an observation passes the cell and time checks
+        Point point = null;
+        final int[] hits = new int[cellHits.length];
+        int numHits = 0;
+        for (final int index : cellHits) {
+            if (startTimes[index] > latestStart || stopTimes[index] < earliestStop) {
+                continue;
+            }
+            if (point == null) {
+                point = geometryFactory.createPoint(lon, lat);
+            }
+            if (contains(observations[index].getGeoBounds(), point)) {
+                hits[numHits++] = index;
+            }
+        }
+
+        return toObservations(hits, numHits);
+    }
+
+    // returns the sorted and unique indices of all observations possibly containing the point
+    private int[] getCellCandidates(double lon, double lat) {
+        final long[] cellIds = BcS2CellCovering.getAncestorCellIds(lon, lat);
+
+        int[] candidates = notCellIndexed;
+        for (final long cellId : cellIds) {
+            final int[] cellHits = cellIndex.get(cellId);
+            if (cellHits != null) {
+                candidates = merge(candidates, cellHits);
+            }
+        }
+        return candidates;
+    }
+
+    private static boolean contains(Geometry geoBounds, Point point) {
+        if (geoBounds instanceof GeometryCollection) {
+            for (final Geometry geometry : ((GeometryCollection) geoBounds).getGeometries()) {
+                if (!geometry.getIntersection(point).isEmpty()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        return !geoBounds.getIntersection(point).isEmpty();
+    }
+
+    // merges two sorted index arrays, dropping duplicates
+    private static int[] merge(int[] first, int[] second) {
+        if (first.length == 0) {
+            return second;
+        }
+
+        final int[] merged = new int[first.length + second.length];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < first.length || j < second.length) {
+            final int value;
+            if (j >= second.length || (i < first.length && first[i] < second[j])) {
+                value = first[i++];
+            } else if (i >= first.length || second[j] < first[i]) {
+                value = second[j++];
+            } else {
+                value = first[i++];
+                j++;
+            }
+            merged[k++] = value;
+        }
+        return Arrays.copyOf(merged, k);
+    }
+
+    private List<SatelliteObservation> toObservations(int[] indices, int numIndices) {
+        final List<SatelliteObservation> result = new ArrayList<>(numIndices);
+        for (int i = 0; i < numIndices; i++) {
+            result.add(observations[indices[i]]);
+        }
+        return result;
+    }
+
+    private static int[] toArray(List<Integer> list) {
+        if (list.isEmpty()) {
+            return EMPTY;
+        }
+
+        final int[] array = new int[list.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = list.get(i);
+        }
+        return array;
+    }
+}
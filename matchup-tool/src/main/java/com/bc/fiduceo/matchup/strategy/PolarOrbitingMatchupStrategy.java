@@ -27,7 +27,6 @@ import com.bc.fiduceo.geometry.Polygon;
 import com.bc.fiduceo.location.PixelLocator;
 import com.bc.fiduceo.matchup.MatchupCollection;
 import com.bc.fiduceo.matchup.MatchupSet;
-import com.bc.fiduceo.matchup.SampleSet;
 import com.bc.fiduceo.matchup.condition.ConditionEngine;
 import com.bc.fiduceo.matchup.condition.ConditionEngineContext;
 import com.bc.fiduceo.matchup.screening.ScreeningEngine;
@@ -35,15 +34,20 @@ import com.bc.fiduceo.math.Intersection;
 import com.bc.fiduceo.math.IntersectionEngine;
 import com.bc.fiduceo.math.TimeInfo;
 import com.bc.fiduceo.reader.Reader;
-import com.bc.fiduceo.reader.ReaderFactory;
+import com.bc.fiduceo.reader.ReaderCache;
 import com.bc.fiduceo.tool.ToolContext;
 import com.bc.fiduceo.util.TimeUtils;
 import ucar.ma2.InvalidRangeException;
 
 import java.io.IOException;
 import java.sql.SQLException;
+import java.util.ArrayDeque;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Logger;
 
 class PolarOrbitingMatchupStrategy extends AbstractMatchupStrategy {
@@ -54,80 +58,205 @@ class PolarOrbitingMatchupStrategy extends AbstractMatchupStrategy {
     }
 
     public MatchupCollection createMatchupCollection(ToolContext context) throws SQLException, IOException, InvalidRangeException {
-        final MatchupCollection matchupCollection = new MatchupCollection();
-
         final UseCaseConfig useCaseConfig = context.getUseCaseConfig();
 
         final ConditionEngine conditionEngine = new ConditionEngine();
-        final ConditionEngineContext conditionEngineContext = ConditionEngine.createContext(context);
-        conditionEngine.configure(useCaseConfig);
+        conditionEngine.configure(useCaseConfig, isFusedConditions(context));
 
         final ScreeningEngine screeningEngine = new ScreeningEngine(context);
 
-        final ReaderFactory readerFactory = ReaderFactory.get(context.getGeometryFactory());
+        final int numWorkerThreads = getNumWorkerThreads(context);
+        if (numWorkerThreads > 1) {
+            logger.info("Running parallel matchup processing with " + numWorkerThreads + " worker threads");
+            return createMatchupCollectionParallel(context, conditionEngine, screeningEngine, numWorkerThreads);
+        }
+
+        return createMatchupCollectionSerial(context, conditionEngine, screeningEngine);
+    }
+
+    private MatchupCollection createMatchupCollectionSerial(ToolContext context, ConditionEngine conditionEngine, ScreeningEngine screeningEngine) throws SQLException, IOException, InvalidRangeException {
+        final MatchupCollection matchupCollection = createSpillingCollection(context);
+
+        final ConditionEngineContext conditionEngineContext = ConditionEngine.createContext(context);
+        final ReaderCache readerCache = getReaderCache(context);
 
         final long timeDeltaInMillis = conditionEngine.getMaxTimeDeltaInMillis();
         final int timeDeltaSeconds = (int) (timeDeltaInMillis / 1000);
 
-        final List<SatelliteObservation> primaryObservations = getPrimaryObservations(context);
-        for (final SatelliteObservation primaryObservation : primaryObservations) {
-            try (final Reader primaryReader = readerFactory.getReader(primaryObservation.getSensor().getName())) {
+        // the primaries arrive sorted by start time, so the secondaries overlapping consecutive primaries keep their
+        // readers - and the pixel and time locators held by these - open until the search window has passed them.
+        // One handle of the reader cache is left for the primary reader
+        final int maxWindowSize = Math.max(readerCache.getMaxReaders() - 1, 1);
+        final SecondaryReaderWindow secondaryReaderWindow = new SecondaryReaderWindow(readerCache, maxWindowSize);
+        try {
+            final List<SatelliteObservation> primaryObservations = getPrimaryObservations(context);
+            for (final SatelliteObservation primaryObservation : primaryObservations) {
                 final Date searchTimeStart = TimeUtils.addSeconds(-timeDeltaSeconds, primaryObservation.getStartTime());
                 final Date searchTimeEnd = TimeUtils.addSeconds(timeDeltaSeconds, primaryObservation.getStopTime());
+                secondaryReaderWindow.advance(searchTimeStart);
 
-                // @todo 2 tb/tb extract method
-                final Geometry primaryGeoBounds = primaryObservation.getGeoBounds();
-                final boolean isPrimarySegmented = AbstractMatchupStrategy.isSegmented(primaryGeoBounds);
-
-                primaryReader.open(primaryObservation.getDataFilePath().toFile());
-
-                final List<SatelliteObservation> secondaryObservations = getSecondaryObservations(context, searchTimeStart, searchTimeEnd);
-                for (final SatelliteObservation secondaryObservation : secondaryObservations) {
-                    try (Reader secondaryReader = readerFactory.getReader(secondaryObservation.getSensor().getName())) {
-                        secondaryReader.open(secondaryObservation.getDataFilePath().toFile());
-
+                final Reader primaryReader = readerCache.borrow(primaryObservation.getSensor().getName(), primaryObservation.getDataFilePath());
+                try {
+                    final List<SatelliteObservation> secondaryObservations = getSecondaryObservations(context, searchTimeStart, searchTimeEnd, primaryObservation.getGeoBounds());
+                    for (final SatelliteObservation secondaryObservation : secondaryObservations) {
                         final Intersection[] intersectingIntervals = IntersectionEngine.getIntersectingIntervals(primaryObservation, secondaryObservation);
                         if (intersectingIntervals.length == 0) {
                             continue;
                         }
 
-                        final MatchupSet matchupSet = new MatchupSet();
-                        matchupSet.setPrimaryObservationPath(primaryObservation.getDataFilePath());
-                        matchupSet.setSecondaryObservationPath(secondaryObservation.getDataFilePath());
+                        final Reader secondaryReader = secondaryReaderWindow.get(secondaryObservation);
+                        final List<MatchupSet> matchupSets = processObservationPair(context, conditionEngine, conditionEngineContext, screeningEngine,
+                                                                                    primaryObservation, primaryReader, secondaryObservation, secondaryReader,
+                                                                                    intersectingIntervals);
+                        for (final MatchupSet matchupSet : matchupSets) {
+                            matchupCollection.add(matchupSet);
+                        }
+                    }
+                } finally {
+                    readerCache.release(primaryReader);
+                }
+            }
+        } finally {
+            secondaryReaderWindow.close();
+        }
 
-                        // @todo 2 tb/tb extract method
-                        final Geometry secondaryGeoBounds = secondaryObservation.getGeoBounds();
-                        final boolean isSecondarySegmented = AbstractMatchupStrategy.isSegmented(secondaryGeoBounds);
+        return matchupCollection;
+    }
 
-                        for (final Intersection intersection : intersectingIntervals) {
-                            final TimeInfo timeInfo = intersection.getTimeInfo();
-                            if (timeInfo.getMinimalTimeDelta() < timeDeltaInMillis) {
-                                final PixelLocator primaryPixelLocator = getPixelLocator(primaryReader, isPrimarySegmented, (Polygon) intersection.getPrimaryGeometry());
-                                final PixelLocator secondaryPixelLocator = getPixelLocator(secondaryReader, isSecondarySegmented, (Polygon) intersection.getSecondaryGeometry());
+    private MatchupCollection createMatchupCollectionParallel(ToolContext context, ConditionEngine conditionEngine, ScreeningEngine screeningEngine, int numWorkerThreads) throws SQLException, IOException, InvalidRangeException {
+        final MatchupCollection matchupCollection = createSpillingCollection(context);
+
+        final long timeDeltaInMillis = conditionEngine.getMaxTimeDeltaInMillis();
+        final int timeDeltaSeconds = (int) (timeDeltaInMillis / 1000);
 
-                                if (primaryPixelLocator == null || secondaryPixelLocator == null) {
-                                    logger.warning("Unable to create valid pixel locators. Skipping intersection segment.");
-                                    continue;
-                                }
+        // database access and the geometry intersection (the S2 loops of the observations lazily build
+        // internal indices and must not be shared between threads) are run on this thread. The workers receive
+        // the observation pairs in the order of the serial processing and the results are merged in exactly
+        // this order, so the MMD content does not depend on the number of threads used
+        final int maxPendingTasks = 2 * numWorkerThreads;
+        final ArrayDeque<Future<List<MatchupSet>>> pendingResults = new ArrayDeque<>();
+        final ExecutorService executorService = Executors.newFixedThreadPool(numWorkerThreads);
+        try {
+            final List<SatelliteObservation> primaryObservations = getPrimaryObservations(context);
+            for (final SatelliteObservation primaryObservation : primaryObservations) {
+                final Date searchTimeStart = TimeUtils.addSeconds(-timeDeltaSeconds, primaryObservation.getStartTime());
+                final Date searchTimeEnd = TimeUtils.addSeconds(timeDeltaSeconds, primaryObservation.getStopTime());
 
-                                SampleCollector sampleCollector = new SampleCollector(context, primaryPixelLocator);
-                                sampleCollector.addPrimarySamples((Polygon) intersection.getGeometry(), matchupSet, primaryReader.getTimeLocator());
+                final List<SatelliteObservation> secondaryObservations = getSecondaryObservations(context, searchTimeStart, searchTimeEnd, primaryObservation.getGeoBounds());
+                for (final SatelliteObservation secondaryObservation : secondaryObservations) {
+                    final Intersection[] intersectingIntervals = IntersectionEngine.getIntersectingIntervals(primaryObservation, secondaryObservation);
+                    if (intersectingIntervals.length == 0) {
+                        continue;
+                    }
 
-                                sampleCollector = new SampleCollector(context, secondaryPixelLocator);
-                                final List<SampleSet> completeSamples = sampleCollector.addSecondarySamples(matchupSet.getSampleSets(), secondaryReader.getTimeLocator());
-                                matchupSet.setSampleSets(completeSamples);
+                    final Future<List<MatchupSet>> result = executorService.submit(() -> processObservationPair(context, conditionEngine, screeningEngine,
+                                                                                                                primaryObservation, secondaryObservation, intersectingIntervals));
+                    pendingResults.add(result);
 
-                                if (matchupSet.getNumObservations() > 0) {
-                                    applyConditionsAndScreenings(matchupCollection, conditionEngine, conditionEngineContext, screeningEngine, primaryReader, matchupSet, secondaryReader);
-                                }
-                            }
-                        }
+                    while (pendingResults.size() >= maxPendingTasks) {
+                        mergeResult(matchupCollection, pendingResults.poll());
                     }
                 }
             }
+
+            while (!pendingResults.isEmpty()) {
+                mergeResult(matchupCollection, pendingResults.poll());
+            }
+        } finally {
+            executorService.shutdownNow();
         }
 
         return matchupCollection;
     }
 
+    // runs on a worker thread - all readers and the condition context are private to the observation pair
+    private List<MatchupSet> processObservationPair(ToolContext context, ConditionEngine conditionEngine, ScreeningEngine screeningEngine,
+                                                    SatelliteObservation primaryObservation, SatelliteObservation secondaryObservation,
+                                                    Intersection[] intersectingIntervals) throws IOException, InvalidRangeException {
+        final ReaderCache readerCache = getReaderCache(context);
+        final ConditionEngineContext conditionEngineContext = ConditionEngine.createContext(context);
+
+        final Reader primaryReader = readerCache.borrow(primaryObservation.getSensor().getName(), primaryObservation.getDataFilePath());
+        try {
+            final Reader secondaryReader = readerCache.borrow(secondaryObservation.getSensor().getName(), secondaryObservation.getDataFilePath());
+            try {
+                return processObservationPair(context, conditionEngine, conditionEngineContext, screeningEngine,
+                                              primaryObservation, primaryReader, secondaryObservation, secondaryReader, intersectingIntervals);
+            } finally {
+                readerCache.release(secondaryReader);
+            }
+        } finally {
+            readerCache.release(primaryReader);
+        }
+    }
+
+    private List<MatchupSet> processObservationPair(ToolContext context, ConditionEngine conditionEngine, ConditionEngineContext conditionEngineContext,
+                                                    ScreeningEngine screeningEngine, SatelliteObservation primaryObservation, Reader primaryReader,
+                                                    SatelliteObservation secondaryObservation, Reader secondaryReader,
+                                                    Intersection[] intersectingIntervals) throws IOException, InvalidRangeException {
+        final MatchupCollection pairCollection = new MatchupCollection();
+
+        final long timeDeltaInMillis = conditionEngine.getMaxTimeDeltaInMillis();
+
+        // @todo 2 tb/tb extract method
+        final Geometry primaryGeoBounds = primaryObservation.getGeoBounds();
+        final boolean isPrimarySegmented = AbstractMatchupStrategy.isSegmented(primaryGeoBounds);
+
+        final MatchupSet matchupSet = new MatchupSet();
+        matchupSet.setPrimaryObservationPath(primaryObservation.getDataFilePath());
+        matchupSet.setSecondaryObservationPath(secondaryObservation.getDataFilePath());
+
+        // @todo 2 tb/tb extract method
+        final Geometry secondaryGeoBounds = secondaryObservation.getGeoBounds();
+        final boolean isSecondarySegmented = AbstractMatchupStrategy.isSegmented(secondaryGeoBounds);
+
+        for (final Intersection intersection : intersectingIntervals) {
+            final TimeInfo timeInfo = intersection.getTimeInfo();
+            if (timeInfo.getMinimalTimeDelta() < timeDeltaInMillis) {
+                final PixelLocator primaryPixelLocator = getPixelLocator(primaryReader, isPrimarySegmented, (Polygon) intersection.getPrimaryGeometry());
+                final PixelLocator secondaryPixelLocator = getPixelLocator(secondaryReader, isSecondarySegmented, (Polygon) intersection.getSecondaryGeometry());
+
+                if (primaryPixelLocator == null || secondaryPixelLocator == null) {
+                    logger.warning("Unable to create valid pixel locators. Skipping intersection segment.");
+                    continue;
+                }
+
+                SampleCollector sampleCollector = new SampleCollector(context, primaryPixelLocator, primaryReader);
+                sampleCollector.addPrimarySamples((Polygon) intersection.getGeometry(), matchupSet, primaryReader.getTimeLocator());
+
+                sampleCollector = new SampleCollector(context, secondaryPixelLocator);
+                sampleCollector.addSecondarySamples(matchupSet, secondaryReader.getTimeLocator());
+
+                if (matchupSet.getNumObservations() > 0) {
+                    applyConditionsAndScreenings(pairCollection, conditionEngine, conditionEngineContext, screeningEngine, primaryReader, matchupSet, secondaryReader);
+                }
+            }
+        }
+
+        return pairCollection.getSets();
+    }
+
+    private static void mergeResult(MatchupCollection matchupCollection, Future<List<MatchupSet>> result) throws IOException, InvalidRangeException {
+        final List<MatchupSet> matchupSets;
+        try {
+            matchupSets = result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for matchup processing", e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof InvalidRangeException) {
+                throw (InvalidRangeException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new RuntimeException(cause);
+        }
+
+        for (final MatchupSet matchupSet : matchupSets) {
+            matchupCollection.add(matchupSet);
+        }
+    }
 }
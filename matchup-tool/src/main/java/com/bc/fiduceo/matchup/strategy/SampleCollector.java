@@ -23,61 +23,101 @@ package com.bc.fiduceo.matchup.strategy;
 import com.bc.fiduceo.geometry.GeometryFactory;
 import com.bc.fiduceo.geometry.Point;
 import com.bc.fiduceo.geometry.Polygon;
+import com.bc.fiduceo.geometry.s2.BcS2PolygonEdges;
 import com.bc.fiduceo.location.PixelLocator;
 import com.bc.fiduceo.matchup.MatchupSet;
-import com.bc.fiduceo.matchup.Sample;
-import com.bc.fiduceo.matchup.SampleSet;
+import com.bc.fiduceo.metrics.MetricsRegistry;
+import com.bc.fiduceo.metrics.Timer;
+import com.bc.fiduceo.reader.Reader;
 import com.bc.fiduceo.reader.TimeLocator;
 import com.bc.fiduceo.tool.ToolContext;
 
 import java.awt.geom.Point2D;
-import java.util.ArrayList;
-import java.util.List;
+import java.io.IOException;
 
 class SampleCollector {
 
     private final PixelLocator pixelLocator;
+    private final Reader reader;
     private final Range xRange;
     private final Range yRange;
     private final ToolContext context;
 
     SampleCollector(ToolContext context, PixelLocator pixelLocator) {
+        this(context, pixelLocator, null);
+    }
+
+    /**
+     * The reader is used to read the primary geolocation rows, the pixel locator is only used when the reader
+     * has no geolocation arrays.
+     */
+    SampleCollector(ToolContext context, PixelLocator pixelLocator, Reader reader) {
         this.context = context;
         this.pixelLocator = pixelLocator;
+        this.reader = reader;
         xRange = new Range();
         yRange = new Range();
     }
 
     /**
-     * Adds the associated secondary sample location and time to the primary location.
+     * Adds the associated secondary sample location and time to the primary locations. Matchups without
+     * a secondary location are removed. A primary location with more than one secondary location results
+     * in one matchup per secondary location, all of these carry the last secondary location found.
      *
-     * @param sampleSets  the input data - will be empty after the operation!
+     * @param matchupSet  the matchups to complete
      * @param timeLocator the time locator for the sample locations
-     * @return the result list with the sampleSets that contain two observations
      */
-    List<SampleSet> addSecondarySamples(List<SampleSet> sampleSets, TimeLocator timeLocator) {
+    void addSecondarySamples(MatchupSet matchupSet, TimeLocator timeLocator) {
+        try (Timer.Context ignored = MetricsRegistry.get().timer("matchup.collect.secondary").start()) {
+            collectSecondarySamples(matchupSet, timeLocator);
+        }
+    }
+
+    void addPrimarySamples(Polygon polygon, MatchupSet matchupSet, TimeLocator timeLocator) throws IOException {
+        try (Timer.Context ignored = MetricsRegistry.get().timer("matchup.collect.primary").start()) {
+            collectPrimarySamples(polygon, matchupSet, timeLocator);
+        }
+    }
+
+    private void collectSecondarySamples(MatchupSet matchupSet, TimeLocator timeLocator) {
+        final int numPrimaries = matchupSet.getNumObservations();
+        final MatchupSet completeSet = new MatchupSet(numPrimaries);
+
         Point2D geopos = new Point2D.Double();
-        final List<SampleSet> toKeep = new ArrayList<>();
-        for (final SampleSet sampleSet : sampleSets) {
-            final Sample primary = sampleSet.getPrimary();
-            final Point2D[] pixelLocations = pixelLocator.getPixelLocation(primary.lon, primary.lat);
-            for (Point2D pixelLocation : pixelLocations) {
-                final int x = (int) pixelLocation.getX();
-                final int y = (int) pixelLocation.getY();
-                geopos = pixelLocator.getGeoLocation(x + 0.5, y + 0.5, geopos);
-                final long time = timeLocator.getTimeFor(x, y);
-                final Sample sample = new Sample(x, y, geopos.getX(), geopos.getY(), time);
-                sampleSet.setSecondary(sample);
-                toKeep.add(sampleSet);
+        double[] pixelX = new double[4];
+        double[] pixelY = new double[4];
+        for (int i = 0; i < numPrimaries; i++) {
+            final double primaryLon = matchupSet.getPrimaryLon(i);
+            final double primaryLat = matchupSet.getPrimaryLat(i);
+            int numLocations = pixelLocator.getPixelLocation(primaryLon, primaryLat, pixelX, pixelY);
+            if (numLocations > pixelX.length) {
+                pixelX = new double[numLocations];
+                pixelY = new double[numLocations];
+                numLocations = pixelLocator.getPixelLocation(primaryLon, primaryLat, pixelX, pixelY);
+            }
+
+            if (numLocations == 0) {
+                continue;
             }
-        }
 
-        sampleSets.clear();
+            // the sample set based implementation added the same sample set once per location and overwrote
+            // its secondary sample each time - this is kept to not change the content of the MMDs
+            final int x = (int) pixelX[numLocations - 1];
+            final int y = (int) pixelY[numLocations - 1];
+            geopos = pixelLocator.getGeoLocation(x + 0.5, y + 0.5, geopos);
+            final long time = timeLocator.getTimeFor(x, y);
 
-        return toKeep;
+            for (int k = 0; k < numLocations; k++) {
+                final int index = completeSet.addPrimary(matchupSet.getPrimaryX(i), matchupSet.getPrimaryY(i),
+                                                         primaryLon, primaryLat, matchupSet.getPrimaryTime(i));
+                completeSet.setSecondary(index, x, y, geopos.getX(), geopos.getY(), time);
+            }
+        }
+
+        matchupSet.setSamples(completeSet);
     }
 
-    void addPrimarySamples(Polygon polygon, MatchupSet matchupSet, TimeLocator timeLocator) {
+    private void collectPrimarySamples(Polygon polygon, MatchupSet matchupSet, TimeLocator timeLocator) throws IOException {
         final Point[] coordinates = polygon.getCoordinates();
         for (Point coordinate : coordinates) {
             final Point2D[] pixelLocation = pixelLocator.getPixelLocation(coordinate.getLon(), coordinate.getLat());
@@ -87,23 +127,46 @@ class SampleCollector {
             }
         }
 
-        final Point2D.Double geoPos = new Point2D.Double();
         final GeometryFactory factory = context.getGeometryFactory();
+        final BcS2PolygonEdges polygonEdges = BcS2PolygonEdges.create(polygon);
 
         final int startY = (int) yRange.getMin();
         final int endY = (int) yRange.getMax();
         final int startX = (int) xRange.getMin();
         final int endX = (int) xRange.getMax();
+        final int width = endX - startX + 1;
+        if (width <= 0) {
+            return;
+        }
+
+        final double[] lons = new double[width];
+        final double[] lats = new double[width];
+        final Point2D.Double geoPos = new Point2D.Double();
         for (int y = startY; y <= endY; y++) {
-            for (int x = startX; x <= endX; x++) {
-                final Point2D geoLocation = pixelLocator.getGeoLocation(x + .5, y + .5, geoPos);
-                final double lon = geoLocation.getX();
-                final double lat = geoLocation.getY();
-                final Point geoPoint = factory.createPoint(lon, lat);
-                if (polygon.contains(geoPoint)) {
+            if (reader == null || !reader.readGeolocation(startX, y, width, lons, lats)) {
+                for (int i = 0; i < width; i++) {
+                    final Point2D geoLocation = pixelLocator.getGeoLocation(startX + i + .5, y + .5, geoPos);
+                    lons[i] = geoLocation.getX();
+                    lats[i] = geoLocation.getY();
+                }
+            }
+
+            // the exact containment test is only needed where the scanline may cross the polygon boundary,
+            // in between the pixels inherit the state of their left neighbour
+            if (polygonEdges != null) {
+                polygonEdges.setScanline(lons, lats, width);
+            }
+
+            boolean inside = false;
+            for (int i = 0; i < width; i++) {
+                if (polygonEdges == null || i == 0 || polygonEdges.mayCrossBoundary(i)) {
+                    inside = polygon.contains(factory.createPoint(lons[i], lats[i]));
+                }
+
+                if (inside) {
+                    final int x = startX + i;
                     final long time = timeLocator.getTimeFor(x, y);
-                    final Sample sample = new Sample(x, y, lon, lat, time);
-                    matchupSet.addPrimary(sample);
+                    matchupSet.addPrimary(x, y, lons[i], lats[i], time);
                 }
             }
         }
@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2017 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+
+package com.bc.fiduceo.matchup.strategy;
+
+
+import com.bc.fiduceo.core.SatelliteObservation;
+import com.bc.fiduceo.reader.Reader;
+import com.bc.fiduceo.reader.ReaderCache;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps the readers of the secondary observations open while the primaries are processed in time order.
+ * The readers hold their pixel and time locators, so consecutive primaries overlapping the same secondary
+ * do not open the file and build the locators again. A reader is handed back to the reader cache as soon
+ * as the secondary observation ends before the current search window. The window holds at most maxSize
+ * readers, when a further reader is needed the one borrowed first is released. A secondary requested again
+ * after its reader has been released is simply borrowed again.
+ */
+class SecondaryReaderWindow {
+
+    private final ReaderCache readerCache;
+    private final int maxSize;
+    private final Map<Path, Entry> entries;
+
+    SecondaryReaderWindow(ReaderCache readerCache, int maxSize) {
+        if (maxSize < 1) {
+            throw new RuntimeException("Invalid secondary reader window size: " + maxSize);
+        }
+        this.readerCache = readerCache;
+        this.maxSize = maxSize;
+        entries = new LinkedHashMap<>();
+    }
+
+    Reader get(SatelliteObservation observation) throws IOException {
+        final Path dataFilePath = observation.getDataFilePath();
+        Entry entry = entries.get(dataFilePath);
+        if (entry == null) {
+            if (entries.size() >= maxSize) {
+                releaseEldest();
+            }
+            final Reader reader = readerCache.borrow(observation.getSensor().getName(), dataFilePath);
+            entry = new Entry(reader, observation.getStopTime());
+            entries.put(dataFilePath, entry);
+        }
+        return entry.reader;
+    }
+
+    /**
+     * Releases the readers of all observations ending before the search window start. Later primaries
+     * never start before the current one, so these secondaries will not be requested again.
+     *
+     * @param searchTimeStart the start of the current secondary search window
+     * @throws IOException on disk access errors
+     */
+    void advance(Date searchTimeStart) throws IOException {
+        final Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            final Entry entry = iterator.next();
+            if (entry.stopTime.before(searchTimeStart)) {
+                iterator.remove();
+                readerCache.release(entry.reader);
+            }
+        }
+    }
+
+    private void releaseEldest() throws IOException {
+        final Iterator<Entry> iterator = entries.values().iterator();
+        final Entry entry = iterator.next();
+        iterator.remove();
+        readerCache.release(entry.reader);
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    void close() throws IOException {
+        IOException releaseException = null;
+        for (final Entry entry : entries.values()) {
+            try {
+                readerCache.release(entry.reader);
+            } catch (IOException e) {
+                releaseException = e;
+            }
+        }
+        entries.clear();
+
+        if (releaseException != null) {
+            throw releaseException;
+        }
+    }
+
+    private static class Entry {
+
+        private final Reader reader;
+        private final Date stopTime;
+
+        Entry(Reader reader, Date stopTime) {
+            this.reader = reader;
+            this.stopTime = stopTime;
+        }
+    }
+}
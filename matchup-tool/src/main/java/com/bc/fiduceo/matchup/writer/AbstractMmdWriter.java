@@ -29,10 +29,10 @@ import com.bc.fiduceo.core.UseCaseConfig;
 import com.bc.fiduceo.log.FiduceoLogger;
 import com.bc.fiduceo.matchup.MatchupCollection;
 import com.bc.fiduceo.matchup.MatchupSet;
-import com.bc.fiduceo.matchup.Sample;
-import com.bc.fiduceo.matchup.SampleSet;
+import com.bc.fiduceo.metrics.MetricsRegistry;
+import com.bc.fiduceo.metrics.Timer;
 import com.bc.fiduceo.reader.Reader;
-import com.bc.fiduceo.reader.ReaderFactory;
+import com.bc.fiduceo.reader.ReaderCache;
 import com.bc.fiduceo.tool.ToolContext;
 import com.bc.fiduceo.util.TimeUtils;
 import org.esa.snap.core.util.StopWatch;
@@ -60,10 +60,11 @@ import java.util.logging.Logger;
 abstract class AbstractMmdWriter implements MmdWriter, Target {
 
     private final Logger logger;
-    private final Map<String, Array> dataCacheMap;
     private final Map<String, Variable> variableMap;
     private final MmdWriterConfig writerConfig;
     NetcdfFileWriter netcdfFileWriter;
+    private Map<String, Array> dataCacheMap;
+    private RowBlockWriter rowBlockWriter;
     private int flushCount = 0;
 
     AbstractMmdWriter(MmdWriterConfig writerConfig) {
@@ -95,8 +96,14 @@ abstract class AbstractMmdWriter implements MmdWriter, Target {
             variable.setTarget(this);
         }
 
-        final ReaderCache readerCache = new ReaderCache(writerConfig.getReaderCacheSize());
-        final ReaderFactory readerFactory = context.getReaderFactory();
+        // the shared cache still holds the readers used during matchup finding
+        final ReaderCache sharedCache = context.getReaderCache();
+        final ReaderCache readerCache;
+        if (sharedCache != null) {
+            readerCache = sharedCache;
+        } else {
+            readerCache = new ReaderCache(context.getReaderFactory(), writerConfig.getReaderCacheSize(), writerConfig.getReaderCacheBytes());
+        }
 
         try {
             logger.info("Start writing mmd-file ...");
@@ -124,31 +131,41 @@ abstract class AbstractMmdWriter implements MmdWriter, Target {
             final StopWatch stopWatch = new StopWatch();
             stopWatch.start();
 
-            final List<MatchupSet> sets = matchupCollection.getSets();
             int zIndex = 0;
             final int cacheSize = writerConfig.getCacheSize();
-            for (MatchupSet set : sets) {
+            for (MatchupSet set : matchupCollection) {
                 final Path primaryObservationPath = set.getPrimaryObservationPath();
-                final Reader primaryReader = getReaderCached(readerCache, readerFactory, primarySensorName, primaryObservationPath);
-
                 final Path secondaryObservationPath = set.getSecondaryObservationPath();
-                final Reader secondaryReader = getReaderCached(readerCache, readerFactory, secondarySensorName, secondaryObservationPath);
-
-                ioVariablesList.setReaderAndPath(primarySensorName, primaryReader, primaryObservationPath);
-                ioVariablesList.setReaderAndPath(secondarySensorName, secondaryReader, secondaryObservationPath);
-
-                logger.info("writing samples for " + primaryObservationPath.getFileName() + " and " + secondaryObservationPath.getFileName());
-                logger.info("Num matchups: " + set.getNumObservations());
-
-                final List<SampleSet> sampleSets = set.getSampleSets();
-                for (SampleSet sampleSet : sampleSets) {
-                    writeMmdValues(sampleSet.getPrimary(), zIndex, primaryVariables, primaryInterval);
-                    writeMmdValues(sampleSet.getSecondary(), zIndex, secondaryVariables, secondaryInterval);
-                    writeSampleSetVariables(sampleSet, sampleSetVariables, zIndex);
-                    zIndex++;
-                    if (zIndex % cacheSize == 0) {
-                        flush();
+
+                final Reader primaryReader = readerCache.borrow(primarySensorName, primaryObservationPath);
+                try {
+                    final Reader secondaryReader = readerCache.borrow(secondarySensorName, secondaryObservationPath);
+                    try {
+                        ioVariablesList.setReaderAndPath(primarySensorName, primaryReader, primaryObservationPath);
+                        ioVariablesList.setReaderAndPath(secondarySensorName, secondaryReader, secondaryObservationPath);
+
+                        logger.info("writing samples for " + primaryObservationPath.getFileName() + " and " + secondaryObservationPath.getFileName());
+                        logger.info("Num matchups: " + set.getNumObservations());
+
+                        final int numObservations = set.getNumObservations();
+                        MetricsRegistry.get().counter("mmd.matchups").add(numObservations);
+                        // includes the waiting time when the background writer falls behind, see "mmd.flush.submit"
+                        try (Timer.Context ignored = MetricsRegistry.get().timer("mmd.extract").start()) {
+                            for (int i = 0; i < numObservations; i++) {
+                                writeMmdValues(set.getPrimaryX(i), set.getPrimaryY(i), zIndex, primaryVariables, primaryInterval);
+                                writeMmdValues(set.getSecondaryX(i), set.getSecondaryY(i), zIndex, secondaryVariables, secondaryInterval);
+                                writeSampleSetVariables(set, i, sampleSetVariables, zIndex);
+                                zIndex++;
+                                if (zIndex % cacheSize == 0) {
+                                    flush();
+                                }
+                            }
+                        }
+                    } finally {
+                        readerCache.release(secondaryReader);
                     }
+                } finally {
+                    readerCache.release(primaryReader);
                 }
             }
 
@@ -158,28 +175,23 @@ abstract class AbstractMmdWriter implements MmdWriter, Target {
             logger.info("Writing time: '" + stopWatch.getTimeDiffString());
 
         } finally {
-            readerCache.close();
+            if (readerCache != sharedCache) {
+                readerCache.close();
+            }
             close();
         }
     }
 
-    private Reader getReaderCached(ReaderCache readerCache, ReaderFactory readerFactory, String primarySensorName, Path primaryObservationPath) throws IOException {
-        Reader reader = readerCache.get(primaryObservationPath.toString());
-        if (reader == null) {
-            reader = readerFactory.getReader(primarySensorName);
-            reader.open(primaryObservationPath.toFile());
-            readerCache.add(reader, primaryObservationPath.toString());
-        }
-
-        return reader;
+    @Override
+    public void write(Array data, String variableName, int zIndex) {
+        final Array target = getTarget(variableName);
+        Array.arraycopy(data, 0, target, getTargetOffset(target, zIndex), (int) data.getSize());
     }
 
     @Override
-    public void write(Array data, String variableName, int zIndex) {
+    public void writeWindow(Reader reader, int centerX, int centerY, Interval interval, String sourceVariableName, String variableName, int zIndex) throws IOException, InvalidRangeException {
         final Array target = getTarget(variableName);
-        final Index index = target.getIndex();
-        index.set(zIndex % writerConfig.getCacheSize());
-        Array.arraycopy(data, 0, target, index.currentElement(), (int) data.getSize());
+        reader.readRaw(centerX, centerY, interval, sourceVariableName, target, getTargetOffset(target, zIndex));
     }
 
     @Override
@@ -303,32 +315,47 @@ abstract class AbstractMmdWriter implements MmdWriter, Target {
     }
 
     void close() throws IOException, InvalidRangeException {
-        flush();
-        variableMap.clear();
-        dataCacheMap.clear();
-        if (netcdfFileWriter != null) {
-            netcdfFileWriter.close();
-            netcdfFileWriter = null;
+        try {
+            if (netcdfFileWriter != null) {
+                flush();
+            }
+        } finally {
+            try {
+                if (rowBlockWriter != null) {
+                    rowBlockWriter.close();
+                    rowBlockWriter = null;
+                }
+            } finally {
+                variableMap.clear();
+                dataCacheMap.clear();
+                if (netcdfFileWriter != null) {
+                    netcdfFileWriter.close();
+                    netcdfFileWriter = null;
+                }
+            }
         }
     }
 
-    private void writeSampleSetVariables(SampleSet sampleSet, List<SampleSetIOVariable> sampleSetVariables, int zIndex)
+    private void writeSampleSetVariables(MatchupSet matchupSet, int sampleIndex, List<SampleSetIOVariable> sampleSetVariables, int zIndex)
             throws IOException, InvalidRangeException {
         for (SampleSetIOVariable variable : sampleSetVariables) {
-            variable.setSampleSet(sampleSet);
+            variable.setSample(matchupSet, sampleIndex);
             variable.writeData(0, 0, null, zIndex);
         }
     }
 
-    private void writeMmdValues(Sample sample, int zIndex, List<IOVariable> variables, Interval interval) throws IOException, InvalidRangeException {
-        final int x = sample.x;
-        final int y = sample.y;
-
+    private void writeMmdValues(int x, int y, int zIndex, List<IOVariable> variables, Interval interval) throws IOException, InvalidRangeException {
         for (IOVariable variable : variables) {
             variable.writeData(x, y, interval, zIndex);
         }
     }
 
+    private int getTargetOffset(Array target, int zIndex) {
+        final Index index = target.getIndex();
+        index.set(zIndex % writerConfig.getCacheSize());
+        return index.currentElement();
+    }
+
     private Array getTarget(String variableName) {
         if (!dataCacheMap.containsKey(variableName)) {
             Variable variable = getVariable(variableName);
@@ -377,26 +404,17 @@ abstract class AbstractMmdWriter implements MmdWriter, Target {
         return sensorName + "_nx";
     }
 
-    private void flush() throws IOException, InvalidRangeException {
-        final int cacheSize = writerConfig.getCacheSize();
-        for (Map.Entry<String, Array> entry : dataCacheMap.entrySet()) {
-            final String variableName = entry.getKey();
-            final Variable variable = variableMap.get(variableName);
-            Array dataToBeWritten = entry.getValue();
-            final int[] origin = new int[dataToBeWritten.getRank()];
-
-            final int matchupCount = variable.getShape(0);
-            final int zStart = flushCount * cacheSize;
-            if (zStart + cacheSize > matchupCount) {
-                final int restHeight = matchupCount - zStart;
-                final int[] shape = dataToBeWritten.getShape();
-                shape[0] = restHeight;
-                dataToBeWritten = dataToBeWritten.sectionNoReduce(origin, shape, null);
-            }
-            origin[0] = zStart;
-            netcdfFileWriter.write(variable, origin, dataToBeWritten);
+    // hands the filled cache over to the writer thread and continues with a cache already written
+    private void flush() throws IOException {
+        if (rowBlockWriter == null) {
+            rowBlockWriter = new RowBlockWriter(netcdfFileWriter, writerConfig.getWriteQueueSize());
+        }
+
+        final int zStart = flushCount * writerConfig.getCacheSize();
+        try (Timer.Context ignored = MetricsRegistry.get().timer("mmd.flush.submit").start()) {
+            rowBlockWriter.submit(zStart, dataCacheMap, new HashMap<>(variableMap));
         }
+        dataCacheMap = rowBlockWriter.takeRecycled();
         flushCount++;
-        netcdfFileWriter.flush();
     }
 }
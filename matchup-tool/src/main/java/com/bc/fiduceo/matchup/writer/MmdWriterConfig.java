@@ -41,6 +41,8 @@ public class MmdWriterConfig {
     private static final String CACHE_SIZE_TAG = "cache-size";
     private static final String NETCDF_FORMAT_TAG = "netcdf-format";
     private static final String READER_CACHE_SIZE_TAG = "reader-cache-size";
+    private static final String READER_CACHE_BYTES_TAG = "reader-cache-bytes";
+    private static final String WRITE_QUEUE_SIZE_TAG = "write-queue-size";
     private static final String VARIABLES_CONFIGURATION_TAG = "variables-configuration";
     private static final String SENSOR_RENAME_TAG = "sensor-rename";
     private static final String SEPARATOR = "separator";
@@ -61,12 +63,15 @@ public class MmdWriterConfig {
     private NetcdfType netcdfFormat;
     private VariablesConfiguration variablesConfiguration;
     private int readerCacheSize;
+    private long readerCacheBytes;
+    private int writeQueueSize;
 
     MmdWriterConfig() {
         cacheSize = 2048;
         netcdfFormat = NetcdfType.N4;
         variablesConfiguration = new VariablesConfiguration();
         readerCacheSize = 6;
+        writeQueueSize = 2;
     }
 
     private MmdWriterConfig(Document document) {
@@ -116,10 +121,28 @@ public class MmdWriterConfig {
         this.readerCacheSize = readerCacheSize;
     }
 
-    int getReaderCacheSize() {
+    public int getReaderCacheSize() {
         return readerCacheSize;
     }
 
+    void setReaderCacheBytes(long readerCacheBytes) {
+        this.readerCacheBytes = readerCacheBytes;
+    }
+
+    // the summed file size of the readers kept open, values <= 0 disable the limit
+    public long getReaderCacheBytes() {
+        return readerCacheBytes;
+    }
+
+    void setWriteQueueSize(int writeQueueSize) {
+        this.writeQueueSize = writeQueueSize;
+    }
+
+    // the number of filled row blocks waiting for the netcdf writer thread
+    int getWriteQueueSize() {
+        return writeQueueSize;
+    }
+
     private void init(Document document) {
         final Element rootElement = document.getRootElement();
         final String name = rootElement.getName();
@@ -151,6 +174,22 @@ public class MmdWriterConfig {
             setReaderCacheSize(Integer.valueOf(readerCacheValue));
         }
 
+        final Element readerCacheBytesElement = rootElement.getChild(READER_CACHE_BYTES_TAG);
+        if (readerCacheBytesElement != null) {
+            final String readerCacheBytesValue = readerCacheBytesElement.getValue();
+            setReaderCacheBytes(Long.valueOf(readerCacheBytesValue.trim()));
+        }
+
+        final Element writeQueueSizeElement = rootElement.getChild(WRITE_QUEUE_SIZE_TAG);
+        if (writeQueueSizeElement != null) {
+            final String writeQueueSizeValue = writeQueueSizeElement.getValue();
+            final int queueSize = Integer.valueOf(writeQueueSizeValue.trim());
+            if (queueSize < 1) {
+                throw new RuntimeException("Invalid write queue size: " + queueSize);
+            }
+            setWriteQueueSize(queueSize);
+        }
+
         final Element variablesConfigurationElement = rootElement.getChild(VARIABLES_CONFIGURATION_TAG);
         if (variablesConfigurationElement != null) {
             addSensorRenames(variablesConfigurationElement);
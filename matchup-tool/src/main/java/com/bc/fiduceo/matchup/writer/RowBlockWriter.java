@@ -0,0 +1,187 @@
+/*
+ * Copyright (C) 2017 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+
+package com.bc.fiduceo.matchup.writer;
+
+
+import com.bc.fiduceo.metrics.MetricsRegistry;
+import com.bc.fiduceo.metrics.Timer;
+import ucar.ma2.Array;
+import ucar.ma2.InvalidRangeException;
+import ucar.nc2.NetcdfFileWriter;
+import ucar.nc2.Variable;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Writes blocks of matchup rows to the netcdf file on a dedicated thread, so that the extraction of the
+ * next block overlaps with the disk output. Blocks handed over must not be touched by the caller afterwards,
+ * the data maps are recycled once written.
+ */
+class RowBlockWriter {
+
+    private static final RowBlock END_OF_DATA = new RowBlock(-1, null, null);
+
+    private final NetcdfFileWriter netcdfFileWriter;
+    private final BlockingQueue<RowBlock> queue;
+    private final ConcurrentLinkedQueue<Map<String, Array>> recycled;
+    private final Thread thread;
+
+    private volatile Throwable error;
+    private boolean closed;
+
+    RowBlockWriter(NetcdfFileWriter netcdfFileWriter, int queueSize) {
+        this.netcdfFileWriter = netcdfFileWriter;
+        queue = new ArrayBlockingQueue<>(queueSize);
+        recycled = new ConcurrentLinkedQueue<>();
+
+        thread = new Thread(this::drain, "mmd-writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Queues the rows starting at zStart for writing, blocks while the queue is full.
+     *
+     * @param zStart    the matchup index of the first row
+     * @param data      the row data per variable name
+     * @param variables the target variable per variable name
+     * @throws IOException when a previous block could not be written
+     */
+    void submit(int zStart, Map<String, Array> data, Map<String, Variable> variables) throws IOException {
+        if (closed) {
+            throw new RuntimeException("Writer already closed");
+        }
+        checkError();
+        put(new RowBlock(zStart, data, variables));
+    }
+
+    /**
+     * @return a data map which has been written and can be filled again, or an empty map
+     */
+    Map<String, Array> takeRecycled() {
+        final Map<String, Array> data = recycled.poll();
+        if (data != null) {
+            return data;
+        }
+        return new HashMap<>();
+    }
+
+    /**
+     * Waits until all queued blocks are written.
+     *
+     * @throws IOException when one of the blocks could not be written
+     */
+    void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        put(END_OF_DATA);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the mmd writer thread");
+        }
+        recycled.clear();
+        checkError();
+    }
+
+    private void put(RowBlock block) throws IOException {
+        try {
+            queue.put(block);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while queueing mmd data");
+        }
+    }
+
+    private void checkError() throws IOException {
+        if (error != null) {
+            throw new IOException("Unable to write mmd data: " + error.getMessage(), error);
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            final RowBlock block;
+            try {
+                block = queue.take();
+            } catch (InterruptedException e) {
+                error = e;
+                return;
+            }
+
+            if (block == END_OF_DATA) {
+                return;
+            }
+
+            // after a failure the queue is still drained, otherwise the producer blocks forever
+            if (error == null) {
+                try (Timer.Context ignored = MetricsRegistry.get().timer("mmd.flush").start()) {
+                    write(block);
+                } catch (Throwable t) {
+                    error = t;
+                }
+            }
+            recycled.add(block.data);
+        }
+    }
+
+    private void write(RowBlock block) throws IOException, InvalidRangeException {
+        for (Map.Entry<String, Array> entry : block.data.entrySet()) {
+            final Variable variable = block.variables.get(entry.getKey());
+            Array dataToBeWritten = entry.getValue();
+            final int[] origin = new int[dataToBeWritten.getRank()];
+
+            final int matchupCount = variable.getShape(0);
+            final int blockHeight = dataToBeWritten.getShape()[0];
+            if (block.zStart + blockHeight > matchupCount) {
+                final int restHeight = matchupCount - block.zStart;
+                final int[] shape = dataToBeWritten.getShape();
+                shape[0] = restHeight;
+                dataToBeWritten = dataToBeWritten.sectionNoReduce(origin, shape, null);
+            }
+            origin[0] = block.zStart;
+            netcdfFileWriter.write(variable, origin, dataToBeWritten);
+        }
+        netcdfFileWriter.flush();
+    }
+
+    private static class RowBlock {
+
+        private final int zStart;
+        private final Map<String, Array> data;
+        private final Map<String, Variable> variables;
+
+        RowBlock(int zStart, Map<String, Array> data, Map<String, Variable> variables) {
+            this.zStart = zStart;
+            this.data = data;
+            this.variables = variables;
+        }
+    }
+}
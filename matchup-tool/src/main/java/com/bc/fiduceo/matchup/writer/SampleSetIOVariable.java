@@ -20,13 +20,15 @@
 
 package com.bc.fiduceo.matchup.writer;
 
-import com.bc.fiduceo.matchup.SampleSet;
+import com.bc.fiduceo.matchup.MatchupSet;
 
 public abstract class SampleSetIOVariable extends AbstractIOVariable {
 
-    protected SampleSet sampleSet;
+    protected MatchupSet matchupSet;
+    protected int sampleIndex;
 
-    public void setSampleSet(SampleSet sampleSet) {
-        this.sampleSet = sampleSet;
+    public void setSample(MatchupSet matchupSet, int sampleIndex) {
+        this.matchupSet = matchupSet;
+        this.sampleIndex = sampleIndex;
     }
 }
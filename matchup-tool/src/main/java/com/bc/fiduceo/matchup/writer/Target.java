@@ -1,6 +1,11 @@
 package com.bc.fiduceo.matchup.writer;
 
+import com.bc.fiduceo.core.Interval;
+import com.bc.fiduceo.reader.Reader;
 import ucar.ma2.Array;
+import ucar.ma2.InvalidRangeException;
+
+import java.io.IOException;
 
 public interface Target {
 
@@ -11,4 +16,19 @@ public interface Target {
     void write(float data, String variableName, int zIndex);
 
     void write(String data, String variableName, int zIndex);
+
+    /**
+     * Reads the raw data window of the source variable directly into the target storage of the variable.
+     *
+     * @param reader             the reader providing the data
+     * @param centerX            the window center x position
+     * @param centerY            the window center y position
+     * @param interval           the window size
+     * @param sourceVariableName the name of the variable in the reader
+     * @param variableName       the name of the target variable
+     * @param zIndex             the matchup index
+     * @throws IOException           on disk access errors
+     * @throws InvalidRangeException on invalid window definitions
+     */
+    void writeWindow(Reader reader, int centerX, int centerY, Interval interval, String sourceVariableName, String variableName, int zIndex) throws IOException, InvalidRangeException;
 }
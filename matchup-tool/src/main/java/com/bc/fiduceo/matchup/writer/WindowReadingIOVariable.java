@@ -21,7 +21,6 @@
 package com.bc.fiduceo.matchup.writer;
 
 import com.bc.fiduceo.core.Interval;
-import ucar.ma2.Array;
 import ucar.ma2.InvalidRangeException;
 
 import java.io.IOException;
@@ -34,7 +33,6 @@ public class WindowReadingIOVariable extends ReaderIOVariable {
 
     @Override
     public void writeData(int centerX, int centerY, Interval interval, int zIndex) throws IOException, InvalidRangeException {
-        final Array array = readerContainer.getReader().readRaw(centerX, centerY, interval, sourceVariableName);
-        target.write(array, targetVariableName, zIndex);
+        target.writeWindow(readerContainer.getReader(), centerX, centerY, interval, sourceVariableName, targetVariableName, zIndex);
     }
 }
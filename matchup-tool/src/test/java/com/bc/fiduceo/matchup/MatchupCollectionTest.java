@@ -23,11 +23,20 @@ package com.bc.fiduceo.matchup;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Iterator;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class MatchupCollectionTest {
@@ -88,4 +97,96 @@ public class MatchupCollectionTest {
 
         assertEquals(57 + 109, collection.getNumMatchups());
     }
+
+    @Test
+    public void testAdd_countsEachSetOnce() {
+        final MatchupSet[] sets = new MatchupSet[20];
+        for (int i = 0; i < sets.length; i++) {
+            sets[i] = mock(MatchupSet.class);
+            when(sets[i].getNumObservations()).thenReturn(3);
+            collection.add(sets[i]);
+        }
+
+        assertEquals(60, collection.getNumMatchups());
+        for (final MatchupSet set : sets) {
+            verify(set, times(1)).getNumObservations();
+        }
+    }
+
+    @Test
+    public void testIterator_inMemory() {
+        final MatchupSet set_1 = new MatchupSet();
+        final MatchupSet set_2 = new MatchupSet();
+        collection.add(set_1);
+        collection.add(set_2);
+
+        final Iterator<MatchupSet> iterator = collection.iterator();
+        assertSame(set_1, iterator.next());
+        assertSame(set_2, iterator.next());
+        assertFalse(iterator.hasNext());
+        assertFalse(collection.isSpilled());
+    }
+
+    @Test
+    public void testSpillToDisk() throws IOException {
+        collection = new MatchupCollection(5);
+        try {
+            for (int i = 0; i < 7; i++) {
+                collection.add(createMatchupSet(i, i + 1));
+            }
+
+            assertTrue(collection.isSpilled());
+            assertEquals(28, collection.getNumMatchups());
+
+            int count = 0;
+            for (final MatchupSet set : collection) {
+                assertEquals(Paths.get("primary_" + count + ".nc"), set.getPrimaryObservationPath());
+                assertEquals(Paths.get("secondary_" + count + ".nc"), set.getSecondaryObservationPath());
+                assertEquals(count + 1, set.getNumObservations());
+                for (int k = 0; k < set.getNumObservations(); k++) {
+                    assertEquals(count, set.getPrimaryX(k));
+                    assertEquals(k, set.getPrimaryY(k));
+                    assertEquals(count * 100 + k, set.getSecondaryTime(k));
+                }
+                count++;
+            }
+            assertEquals(7, count);
+
+            // iterating twice delivers the same content
+            count = 0;
+            for (final MatchupSet ignored : collection) {
+                count++;
+            }
+            assertEquals(7, count);
+        } finally {
+            collection.close();
+        }
+    }
+
+    @Test
+    public void testSpillToDisk_getSetsFails() throws IOException {
+        collection = new MatchupCollection(1);
+        try {
+            collection.add(createMatchupSet(0, 2));
+
+            try {
+                collection.getSets();
+                fail("IllegalStateException expected");
+            } catch (IllegalStateException expected) {
+            }
+        } finally {
+            collection.close();
+        }
+    }
+
+    private static MatchupSet createMatchupSet(int index, int numMatchups) {
+        final MatchupSet matchupSet = new MatchupSet();
+        matchupSet.setPrimaryObservationPath(Paths.get("primary_" + index + ".nc"));
+        matchupSet.setSecondaryObservationPath(Paths.get("secondary_" + index + ".nc"));
+        for (int k = 0; k < numMatchups; k++) {
+            final int sampleIndex = matchupSet.addPrimary(index, k, 1.0, 2.0, 3L);
+            matchupSet.setSecondary(sampleIndex, index + 1, k + 1, 4.0, 5.0, index * 100 + k);
+        }
+        return matchupSet;
+    }
 }
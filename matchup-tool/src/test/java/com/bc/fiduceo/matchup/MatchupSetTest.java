@@ -23,10 +23,19 @@ package com.bc.fiduceo.matchup;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -73,4 +82,188 @@ public class MatchupSetTest {
         final Sample primary = sampleSet.getPrimary();
         assertEquals(expectedSample.lon, primary.lon, 1e-8);
     }
+
+    @Test
+    public void testAddPrimary_columns() {
+        assertEquals(0, matchupSet.addPrimary(12, 13, 14.5, 15.5, 16L));
+        assertEquals(1, matchupSet.addPrimary(22, 23, 24.5, 25.5, 26L));
+
+        assertEquals(2, matchupSet.getNumObservations());
+        assertEquals(22, matchupSet.getPrimaryX(1));
+        assertEquals(23, matchupSet.getPrimaryY(1));
+        assertEquals(24.5, matchupSet.getPrimaryLon(1), 1e-8);
+        assertEquals(25.5, matchupSet.getPrimaryLat(1), 1e-8);
+        assertEquals(26L, matchupSet.getPrimaryTime(1));
+
+        final SampleSet sampleSet = matchupSet.getSampleSets().get(0);
+        assertEquals(12, sampleSet.getPrimary().x);
+        assertNull(sampleSet.getSecondary());
+    }
+
+    @Test
+    public void testSetSecondary() {
+        matchupSet.addPrimary(12, 13, 14.5, 15.5, 16L);
+
+        matchupSet.setSecondary(0, 32, 33, 34.5, 35.5, 36L);
+        matchupSet.setSphericalDistance(0, 1.78f);
+
+        assertEquals(32, matchupSet.getSecondaryX(0));
+        assertEquals(33, matchupSet.getSecondaryY(0));
+        assertEquals(34.5, matchupSet.getSecondaryLon(0), 1e-8);
+        assertEquals(35.5, matchupSet.getSecondaryLat(0), 1e-8);
+        assertEquals(36L, matchupSet.getSecondaryTime(0));
+
+        final SampleSet sampleSet = matchupSet.getSampleSets().get(0);
+        assertEquals(32, sampleSet.getSecondary().x);
+        assertEquals(1.78f, sampleSet.getSphericalDistance(), 1e-8);
+    }
+
+    @Test
+    public void testMoveSampleAndTruncate() {
+        for (int i = 0; i < 5; i++) {
+            matchupSet.addPrimary(i, 10 * i, i, i, i);
+        }
+
+        int numKept = 0;
+        for (int i = 0; i < 5; i++) {
+            if (i % 2 == 0) {
+                matchupSet.moveSample(i, numKept++);
+            }
+        }
+        matchupSet.truncate(numKept);
+
+        assertEquals(3, matchupSet.getNumObservations());
+        assertEquals(0, matchupSet.getPrimaryX(0));
+        assertEquals(2, matchupSet.getPrimaryX(1));
+        assertEquals(40, matchupSet.getPrimaryY(2));
+    }
+
+    @Test
+    public void testTruncate_invalid() {
+        matchupSet.addPrimary(1, 2, 3, 4, 5);
+
+        try {
+            matchupSet.truncate(2);
+            fail("IllegalArgumentException expected");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    @Test
+    public void testSelect() {
+        for (int i = 0; i < 4; i++) {
+            matchupSet.addPrimary(i, i, i, i, i);
+        }
+
+        matchupSet.select(new int[]{3, 1, 0, 0}, 2);
+
+        assertEquals(2, matchupSet.getNumObservations());
+        assertEquals(3, matchupSet.getPrimaryX(0));
+        assertEquals(1, matchupSet.getPrimaryX(1));
+    }
+
+    @Test
+    public void testGrowBeyondInitialCapacity() {
+        matchupSet = new MatchupSet(2);
+        for (int i = 0; i < 100; i++) {
+            matchupSet.addPrimary(i, i + 1, i, i, i);
+        }
+
+        assertEquals(100, matchupSet.getNumObservations());
+        assertEquals(99, matchupSet.getPrimaryX(99));
+        assertEquals(100, matchupSet.getPrimaryY(99));
+    }
+
+    @Test
+    public void testAddSampleSet() {
+        final SampleSet first = new SampleSet();
+        first.setPrimary(new Sample(1, 2, 3, 4, 5));
+        first.setSecondary(new Sample(6, 7, 8, 9, 10));
+        first.setSphericalDistance(11.5f);
+        matchupSet.addSampleSet(first);
+
+        final SampleSet second = new SampleSet();
+        second.setPrimary(new Sample(11, 12, 13, 14, 15));
+        matchupSet.addSampleSet(second);
+
+        assertEquals(2, matchupSet.getNumObservations());
+        assertEquals(1, matchupSet.getPrimaryX(0));
+        assertEquals(6, matchupSet.getSecondaryX(0));
+        assertEquals(11.5f, matchupSet.getSphericalDistance(0), 1e-8);
+        assertEquals(11, matchupSet.getPrimaryX(1));
+        assertNull(matchupSet.getSampleSets().get(1).getSecondary());
+    }
+
+    @Test
+    public void testGetSampleSets_isUnmodifiableSnapshot() {
+        matchupSet.addPrimary(1, 2, 3, 4, 5);
+
+        final List<SampleSet> sampleSets = matchupSet.getSampleSets();
+        try {
+            sampleSets.add(new SampleSet());
+            fail("UnsupportedOperationException expected");
+        } catch (UnsupportedOperationException expected) {
+        }
+
+        sampleSets.get(0).getPrimary().x = 27;
+        assertEquals(1, matchupSet.getPrimaryX(0));
+
+        matchupSet.addPrimary(6, 7, 8, 9, 10);
+        assertEquals(1, sampleSets.size());
+        assertEquals(2, matchupSet.getNumObservations());
+    }
+
+    @Test
+    public void testSetSampleSets() {
+        matchupSet.addPrimary(1, 2, 3, 4, 5);
+
+        final SampleSet sampleSet = new SampleSet();
+        sampleSet.setPrimary(new Sample(11, 12, 13, 14, 15));
+        sampleSet.setSecondary(new Sample(16, 17, 18, 19, 20));
+        final List<SampleSet> sampleSets = new ArrayList<>();
+        sampleSets.add(sampleSet);
+        sampleSets.add(sampleSet);
+
+        matchupSet.setSampleSets(sampleSets);
+
+        assertEquals(2, matchupSet.getNumObservations());
+        assertEquals(11, matchupSet.getPrimaryX(1));
+        assertEquals(17, matchupSet.getSecondaryY(1));
+    }
+
+    @Test
+    public void testWriteToReadFrom() throws IOException {
+        matchupSet.setPrimaryObservationPath(Paths.get("primary", "file.nc"));
+        matchupSet.addPrimary(new Sample(1, 2, 3.5, 4.5, 5L));
+        matchupSet.setSecondary(0, 6, 7, 8.5, 9.5, 10L);
+        matchupSet.setSphericalDistance(0, 11.5f);
+        matchupSet.addPrimary(new Sample(12, 13, 14.5, 15.5, 16L));
+
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        matchupSet.writeTo(new DataOutputStream(outputStream));
+
+        final MatchupSet readSet = MatchupSet.readFrom(new DataInputStream(new ByteArrayInputStream(outputStream.toByteArray())));
+        assertEquals(Paths.get("primary", "file.nc"), readSet.getPrimaryObservationPath());
+        assertNull(readSet.getSecondaryObservationPath());
+        assertEquals(2, readSet.getNumObservations());
+
+        final List<SampleSet> sampleSets = readSet.getSampleSets();
+        SampleSet sampleSet = sampleSets.get(0);
+        assertEquals(1, sampleSet.getPrimary().x);
+        assertEquals(2, sampleSet.getPrimary().y);
+        assertEquals(3.5, sampleSet.getPrimary().lon, 1e-8);
+        assertEquals(4.5, sampleSet.getPrimary().lat, 1e-8);
+        assertEquals(5L, sampleSet.getPrimary().time);
+        assertEquals(6, sampleSet.getSecondary().x);
+        assertEquals(7, sampleSet.getSecondary().y);
+        assertEquals(8.5, sampleSet.getSecondary().lon, 1e-8);
+        assertEquals(9.5, sampleSet.getSecondary().lat, 1e-8);
+        assertEquals(10L, sampleSet.getSecondary().time);
+        assertEquals(11.5f, sampleSet.getSphericalDistance(), 1e-8);
+
+        sampleSet = sampleSets.get(1);
+        assertEquals(12, sampleSet.getPrimary().x);
+        assertEquals(16L, sampleSet.getPrimary().time);
+        assertNull(sampleSet.getSecondary());
+    }
 }
@@ -85,12 +85,14 @@ public class MatchupToolTest {
                 ls +
                 "usage: matchup-tool <options>" + ls +
                 "Valid options are:" + ls +
-                "   -c,--config <arg>           Defines the configuration directory. Defaults to './config'." + ls +
-                "   -end,--end-time <arg>       Defines the processing end-date, format 'yyyy-DDD'" + ls +
-                "   -h,--help                   Prints the tool usage." + ls +
-                "   -start,--start-time <arg>   Defines the processing start-date, format 'yyyy-DDD'" + ls +
-                "   -u,--usecase <arg>          Defines the path to the use-case configuration file. Path is relative to the" + ls +
-                "                               configuration directory." + ls, outputStream.toString());
+                "   -c,--config <arg>             Defines the configuration directory. Defaults to './config'." + ls +
+                "   -end,--end-time <arg>         Defines the processing end-date, format 'yyyy-DDD'" + ls +
+                "   -h,--help                     Prints the tool usage." + ls +
+                "   -r,--report <arg>             Writes a JSON run report with the processing metrics to the file." + ls +
+                "   -ri,--report-interval <arg>   Defines the interval in seconds for updating the run report while running." + ls +
+                "   -start,--start-time <arg>     Defines the processing start-date, format 'yyyy-DDD'" + ls +
+                "   -u,--usecase <arg>            Defines the path to the use-case configuration file. Path is relative to the" + ls +
+                "                                 configuration directory." + ls, outputStream.toString());
     }
 
     @Test
@@ -132,6 +134,20 @@ public class MatchupToolTest {
         assertEquals("usecase", useCaseOption.getLongOpt());
         assertEquals("Defines the path to the use-case configuration file. Path is relative to the configuration directory.", useCaseOption.getDescription());
         assertTrue(useCaseOption.hasArg());
+
+        final Option reportOption = options.getOption("report");
+        assertNotNull(reportOption);
+        assertEquals("r", reportOption.getOpt());
+        assertEquals("report", reportOption.getLongOpt());
+        assertEquals("Writes a JSON run report with the processing metrics to the file.", reportOption.getDescription());
+        assertTrue(reportOption.hasArg());
+
+        final Option reportIntervalOption = options.getOption("report-interval");
+        assertNotNull(reportIntervalOption);
+        assertEquals("ri", reportIntervalOption.getOpt());
+        assertEquals("report-interval", reportIntervalOption.getLongOpt());
+        assertEquals("Defines the interval in seconds for updating the run report while running.", reportIntervalOption.getDescription());
+        assertTrue(reportIntervalOption.hasArg());
     }
 
     @Test
@@ -210,8 +226,8 @@ public class MatchupToolTest {
         second.setPrimary(new Sample(9, 10, 55.306, 1.0887, 11));
         second.setSecondary(new Sample(12, 13, 55.299, 1.092, 14));
 
-        matchupSet.getSampleSets().add(first);
-        matchupSet.getSampleSets().add(second);
+        matchupSet.addSampleSet(first);
+        matchupSet.addSampleSet(second);
 
         MatchupTool.calculateDistance(matchupSet);
 
@@ -26,8 +26,6 @@ import com.bc.fiduceo.matchup.Sample;
 import com.bc.fiduceo.matchup.SampleSet;
 import org.junit.Test;
 
-import java.util.List;
-
 import static org.junit.Assert.assertEquals;
 
 public class BorderDistanceConditionTest {
@@ -47,10 +45,9 @@ public class BorderDistanceConditionTest {
     public void testApply_onlyPrimary_leftUpper() {
         final BorderDistanceCondition condition = new BorderDistanceCondition(2, 4);
         final MatchupSet matchupSet = new MatchupSet();
-        final List<SampleSet> sampleSets = matchupSet.getSampleSets();
-        sampleSets.add(createSampleSet(1, 675, 45, 109));   // <- this one gets removed primary x too small
-        sampleSets.add(createSampleSet(34, 81, 38, 2005));
-        sampleSets.add(createSampleSet(23, 2, 55, 32));     // <- this one gets removed primary y too small
+        matchupSet.addSampleSet(createSampleSet(1, 675, 45, 109));   // <- this one gets removed primary x too small
+        matchupSet.addSampleSet(createSampleSet(34, 81, 38, 2005));
+        matchupSet.addSampleSet(createSampleSet(23, 2, 55, 32));     // <- this one gets removed primary y too small
 
         final ConditionEngineContext context = createContext();
 
@@ -63,10 +60,9 @@ public class BorderDistanceConditionTest {
     public void testApply_onlyPrimary_rightLower() {
         final BorderDistanceCondition condition = new BorderDistanceCondition(3, 5);
         final MatchupSet matchupSet = new MatchupSet();
-        final List<SampleSet> sampleSets = matchupSet.getSampleSets();
-        sampleSets.add(createSampleSet(98, 675, 45, 109));   // <- this one gets removed primary x too large
-        sampleSets.add(createSampleSet(34, 81, 18, 2005));
-        sampleSets.add(createSampleSet(23, 2996, 55, 32));     // <- this one gets removed primary y too large
+        matchupSet.addSampleSet(createSampleSet(98, 675, 45, 109));   // <- this one gets removed primary x too large
+        matchupSet.addSampleSet(createSampleSet(34, 81, 18, 2005));
+        matchupSet.addSampleSet(createSampleSet(23, 2996, 55, 32));     // <- this one gets removed primary y too large
 
         final ConditionEngineContext context = createContext();
 
@@ -79,10 +75,9 @@ public class BorderDistanceConditionTest {
     public void testApply_both() {
         final BorderDistanceCondition condition = new BorderDistanceCondition(5, 5);
         final MatchupSet matchupSet = new MatchupSet();
-        final List<SampleSet> sampleSets = matchupSet.getSampleSets();
-        sampleSets.add(createSampleSet(33, 675, 45, 109));
-        sampleSets.add(createSampleSet(34, 2996, 3, 205)); // <- this one gets removed primary y and secondary x too small
-        sampleSets.add(createSampleSet(23, 108, 55, 32));
+        matchupSet.addSampleSet(createSampleSet(33, 675, 45, 109));
+        matchupSet.addSampleSet(createSampleSet(34, 2996, 3, 205)); // <- this one gets removed primary y and secondary x too small
+        matchupSet.addSampleSet(createSampleSet(23, 108, 55, 32));
 
         final ConditionEngineContext context = createContext();
 
@@ -95,10 +90,9 @@ public class BorderDistanceConditionTest {
     public void testApply_onlySecondary_leftUpper() {
         final BorderDistanceCondition condition = new BorderDistanceCondition(4, 2);
         final MatchupSet matchupSet = new MatchupSet();
-        final List<SampleSet> sampleSets = matchupSet.getSampleSets();
-        sampleSets.add(createSampleSet(13, 675, 3, 109));   // <- this one gets removed x too small
-        sampleSets.add(createSampleSet(34, 81, 14, 1));  // <- this one gets removed y too small
-        sampleSets.add(createSampleSet(23, 23, 55, 32));
+        matchupSet.addSampleSet(createSampleSet(13, 675, 3, 109));   // <- this one gets removed x too small
+        matchupSet.addSampleSet(createSampleSet(34, 81, 14, 1));  // <- this one gets removed y too small
+        matchupSet.addSampleSet(createSampleSet(23, 23, 55, 32));
 
         final ConditionEngineContext context = createContext();
 
@@ -111,10 +105,9 @@ public class BorderDistanceConditionTest {
     public void testApply_onlySecondary_rightLower() {
         final BorderDistanceCondition condition = new BorderDistanceCondition(4, 4);
         final MatchupSet matchupSet = new MatchupSet();
-        final List<SampleSet> sampleSets = matchupSet.getSampleSets();
-        sampleSets.add(createSampleSet(62, 675, 45, 109));
-        sampleSets.add(createSampleSet(34, 81, 108, 205));      // <- this one gets removed x too large
-        sampleSets.add(createSampleSet(23, 435, 55, 2998));     // <- this one gets removed y too large
+        matchupSet.addSampleSet(createSampleSet(62, 675, 45, 109));
+        matchupSet.addSampleSet(createSampleSet(34, 81, 108, 205));      // <- this one gets removed x too large
+        matchupSet.addSampleSet(createSampleSet(23, 435, 55, 2998));     // <- this one gets removed y too large
 
         final ConditionEngineContext context = createContext();
 
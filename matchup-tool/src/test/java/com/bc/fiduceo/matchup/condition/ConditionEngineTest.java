@@ -28,6 +28,7 @@ import com.bc.fiduceo.matchup.MatchupSet;
 import com.bc.fiduceo.matchup.MatchupToolUseCaseConfigBuilder;
 import com.bc.fiduceo.matchup.Sample;
 import com.bc.fiduceo.matchup.SampleSet;
+import com.bc.fiduceo.math.Distance;
 import com.bc.fiduceo.tool.ToolContext;
 import org.junit.Before;
 import org.junit.Test;
@@ -40,6 +41,7 @@ import java.util.List;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 public class ConditionEngineTest {
@@ -68,7 +70,7 @@ public class ConditionEngineTest {
 
     @Test
     public void testApply_noConditions_oneMatchup() {
-        matchupSet.getSampleSets().add(createSampleSet(2000, 30000));
+        matchupSet.addSampleSet(createSampleSet(2000, 30000));
 
         conditionEngine.process(matchupSet, context);
 
@@ -77,10 +79,9 @@ public class ConditionEngineTest {
 
     @Test
     public void testApply_noConditions_threeMatchup() {
-        final List<SampleSet> sampleSets = matchupSet.getSampleSets();
-        sampleSets.add(createSampleSet(234, 556));
-        sampleSets.add(createSampleSet(19887, 3668));
-        sampleSets.add(createSampleSet(8837, 662));
+        matchupSet.addSampleSet(createSampleSet(234, 556));
+        matchupSet.addSampleSet(createSampleSet(19887, 3668));
+        matchupSet.addSampleSet(createSampleSet(8837, 662));
 
         conditionEngine.process(matchupSet, context);
 
@@ -95,10 +96,9 @@ public class ConditionEngineTest {
                     .getStream();
         final UseCaseConfig useCaseConfig = UseCaseConfig.load(stream);
 
-        final List<SampleSet> sampleSets = matchupSet.getSampleSets();
-        sampleSets.add(createSampleSet(100000, 100100));
-        sampleSets.add(createSampleSet(100200, 100500));
-        sampleSets.add(createSampleSet(200200, 100500));    // <- this one gets removed
+        matchupSet.addSampleSet(createSampleSet(100000, 100100));
+        matchupSet.addSampleSet(createSampleSet(100200, 100500));
+        matchupSet.addSampleSet(createSampleSet(200200, 100500));    // <- this one gets removed
 
         conditionEngine.configure(useCaseConfig);
         conditionEngine.process(matchupSet, context);
@@ -116,12 +116,11 @@ public class ConditionEngineTest {
         final Date endDate = new Date(startTime + twelveDays);
         final long endTime = endDate.getTime();
 
-        final List<SampleSet> sampleSets = matchupSet.getSampleSets();
-        sampleSets.add(createSampleSet(startTime - 1, 100500));    // <- this one gets removed
-        sampleSets.add(createSampleSet(startTime, 100100));
-        sampleSets.add(createSampleSet(startTime + fiveDays, 100500));
-        sampleSets.add(createSampleSet(endTime, 100500));
-        sampleSets.add(createSampleSet(endTime + 1, 100500));    // <- this one gets removed
+        matchupSet.addSampleSet(createSampleSet(startTime - 1, 100500));    // <- this one gets removed
+        matchupSet.addSampleSet(createSampleSet(startTime, 100100));
+        matchupSet.addSampleSet(createSampleSet(startTime + fiveDays, 100500));
+        matchupSet.addSampleSet(createSampleSet(endTime, 100500));
+        matchupSet.addSampleSet(createSampleSet(endTime + 1, 100500));    // <- this one gets removed
 
         context.setStartDate(startDate);
         context.setEndDate(endDate);
@@ -160,10 +159,9 @@ public class ConditionEngineTest {
                     .withTimeDeltaSeconds(1)
                     .createConfig();
 
-        final List<SampleSet> sampleSets = matchupSet.getSampleSets();
-        sampleSets.add(createSampleSet(4.5, 5.6, 4.50001, 5.60001));
-        sampleSets.add(createSampleSet(20.0, 14.0, 20.002, 13.998));
-        sampleSets.add(createSampleSet(1.0, 2.0, 3.0, 4.0));    // <- this one gets removed
+        matchupSet.addSampleSet(createSampleSet(4.5, 5.6, 4.50001, 5.60001));
+        matchupSet.addSampleSet(createSampleSet(20.0, 14.0, 20.002, 13.998));
+        matchupSet.addSampleSet(createSampleSet(1.0, 2.0, 3.0, 4.0));    // <- this one gets removed
 
         conditionEngine.configure(useCaseConfig);
         conditionEngine.process(matchupSet, context);
@@ -179,13 +177,12 @@ public class ConditionEngineTest {
                     .getStream();
         final UseCaseConfig useCaseConfig = UseCaseConfig.load(stream);
 
-        final List<SampleSet> sampleSets = matchupSet.getSampleSets();
-        sampleSets.add(createSampleSet(4.5, 5.6, 4.50001, 5.60001));
-        sampleSets.add(createSampleSet(200000, 100100));    // <- this one gets removed
-        sampleSets.add(createSampleSet(20.0, 14.0, 20.002, 13.998));
-        sampleSets.add(createSampleSet(100200, 100500));
-        sampleSets.add(createSampleSet(100200, 100500));
-        sampleSets.add(createSampleSet(1.0, 2.0, 3.0, 4.0));    // <- this one gets removed
+        matchupSet.addSampleSet(createSampleSet(4.5, 5.6, 4.50001, 5.60001));
+        matchupSet.addSampleSet(createSampleSet(200000, 100100));    // <- this one gets removed
+        matchupSet.addSampleSet(createSampleSet(20.0, 14.0, 20.002, 13.998));
+        matchupSet.addSampleSet(createSampleSet(100200, 100500));
+        matchupSet.addSampleSet(createSampleSet(100200, 100500));
+        matchupSet.addSampleSet(createSampleSet(1.0, 2.0, 3.0, 4.0));    // <- this one gets removed
 
         conditionEngine.configure(useCaseConfig);
         conditionEngine.process(matchupSet, context);
@@ -193,6 +190,41 @@ public class ConditionEngineTest {
         assertEquals(4, matchupSet.getNumObservations());
     }
 
+    @Test
+    public void testApply_fused_distanceAndTimeDeltaCondition() {
+        final UseCaseConfig useCaseConfig = new MatchupToolUseCaseConfigBuilder("name")
+                    .withTimeDeltaSeconds(10)
+                    .withMaxPixelDistanceKm(4)
+                    .createConfig();
+
+        matchupSet.addSampleSet(createSampleSet(4.5, 5.6, 4.50001, 5.60001));
+        matchupSet.addSampleSet(createSampleSet(200000, 100100));    // <- this one gets removed
+        matchupSet.addSampleSet(createSampleSet(20.0, 14.0, 20.002, 13.998));
+        matchupSet.addSampleSet(createSampleSet(1.0, 2.0, 3.0, 4.0));    // <- this one gets removed
+
+        conditionEngine.configure(useCaseConfig, true);
+        conditionEngine.process(matchupSet, context);
+
+        assertEquals(2, matchupSet.getNumObservations());
+        assertEquals(20.0, matchupSet.getPrimaryLon(1), 1e-8);
+        assertEquals(Distance.computeSpericalDistanceKm(20.0, 14.0, 20.002, 13.998), matchupSet.getSphericalDistance(1), 1e-6);
+    }
+
+    @Test
+    public void testFuse() {
+        final List<Condition> conditions = new ArrayList<>();
+        conditions.add(new TimeDeltaCondition(300));
+        conditions.add(new DistanceCondition(4.5));
+        conditions.add(new OverlapRemoveCondition(true));
+        conditions.add(new TimeRangeCondition());
+
+        final List<Condition> fused = ConditionEngine.fuse(conditions);
+        assertEquals(3, fused.size());
+        assertTrue(fused.get(0) instanceof FusedCondition);
+        assertTrue(fused.get(1) instanceof OverlapRemoveCondition);
+        assertTrue(fused.get(2) instanceof FusedCondition);
+    }
+
     @Test
     public void testCreateContext() {
         final ToolContext toolContext = new ToolContext();
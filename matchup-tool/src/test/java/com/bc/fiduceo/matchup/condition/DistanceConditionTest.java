@@ -25,8 +25,6 @@ import com.bc.fiduceo.matchup.Sample;
 import com.bc.fiduceo.matchup.SampleSet;
 import org.junit.Test;
 
-import java.util.List;
-
 import static org.junit.Assert.assertEquals;
 
 public class DistanceConditionTest {
@@ -45,10 +43,9 @@ public class DistanceConditionTest {
     public void testApply() {
         final DistanceCondition distanceCondition = new DistanceCondition(5.08);
         final MatchupSet matchupSet = new MatchupSet();
-        final List<SampleSet> sampleSets = matchupSet.getSampleSets();
-        sampleSets.add(createSampleSet(-11.0, 22.0, -11.002, 21.998));
-        sampleSets.add(createSampleSet(-11.5, 22.5, -10.0, 20.0));  // <- this one gets removed
-        sampleSets.add(createSampleSet(-12.0, 23.0, -12.002, 22.998));
+        matchupSet.addSampleSet(createSampleSet(-11.0, 22.0, -11.002, 21.998));
+        matchupSet.addSampleSet(createSampleSet(-11.5, 22.5, -10.0, 20.0));  // <- this one gets removed
+        matchupSet.addSampleSet(createSampleSet(-12.0, 23.0, -12.002, 22.998));
 
         distanceCondition.apply(matchupSet, new ConditionEngineContext());
 
@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2016 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+
+package com.bc.fiduceo.matchup.condition;
+
+import com.bc.fiduceo.core.Dimension;
+import com.bc.fiduceo.matchup.MatchupSet;
+import com.bc.fiduceo.math.Distance;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class FusedConditionTest {
+
+    private FusedCondition fusedCondition;
+    private ConditionEngineContext context;
+
+    @Before
+    public void setUp() {
+        fusedCondition = new FusedCondition();
+
+        context = new ConditionEngineContext();
+        context.setStartDate(new Date(1000));
+        context.setEndDate(new Date(100000));
+        context.setPrimarySize(new Dimension("primary", 100, 200));
+        context.setSecondarySize(new Dimension("secondary", 50, 60));
+    }
+
+    @Test
+    public void testAdd() {
+        assertTrue(fusedCondition.add(new TimeRangeCondition()));
+        assertTrue(fusedCondition.add(new TimeDeltaCondition(300)));
+        assertTrue(fusedCondition.add(new BorderDistanceCondition(2, 3)));
+        assertTrue(fusedCondition.add(new DistanceCondition(4.5)));
+
+        assertFalse(fusedCondition.add(new OverlapRemoveCondition(true)));
+    }
+
+    @Test
+    public void testApply_noConditions() {
+        final MatchupSet matchupSet = new MatchupSet();
+        addMatchup(matchupSet, 10, 10, 2000, 2000);
+        addMatchup(matchupSet, 11, 11, 200000, 200000);
+
+        fusedCondition.apply(matchupSet, context);
+
+        assertEquals(2, matchupSet.getNumObservations());
+    }
+
+    @Test
+    public void testApply_timeRangeAndTimeDelta() {
+        fusedCondition.add(new TimeRangeCondition());
+        fusedCondition.add(new TimeDeltaCondition(500));
+
+        final MatchupSet matchupSet = new MatchupSet();
+        addMatchup(matchupSet, 10, 10, 999, 999);  // <- this one gets removed
+        addMatchup(matchupSet, 11, 11, 1000, 1500);
+        addMatchup(matchupSet, 12, 12, 5000, 5501);  // <- this one gets removed
+        addMatchup(matchupSet, 13, 13, 100000, 99800);
+        addMatchup(matchupSet, 14, 14, 100001, 100001);  // <- this one gets removed
+
+        fusedCondition.apply(matchupSet, context);
+
+        assertEquals(2, matchupSet.getNumObservations());
+        assertEquals(11, matchupSet.getPrimaryX(0));
+        assertEquals(13, matchupSet.getPrimaryX(1));
+    }
+
+    @Test
+    public void testApply_borderDistance() {
+        fusedCondition.add(new BorderDistanceCondition(2, 3));
+
+        final MatchupSet matchupSet = new MatchupSet();
+        addMatchup(matchupSet, 2, 3, 2000, 2000);
+        addMatchup(matchupSet, 1, 3, 2000, 2000);  // <- this one gets removed
+        addMatchup(matchupSet, 47, 56, 2000, 2000);
+        addMatchup(matchupSet, 48, 56, 2000, 2000);  // <- this one gets removed, secondary x
+
+        fusedCondition.apply(matchupSet, context);
+
+        assertEquals(2, matchupSet.getNumObservations());
+        assertEquals(2, matchupSet.getPrimaryX(0));
+        assertEquals(47, matchupSet.getPrimaryX(1));
+    }
+
+    @Test
+    public void testApply_distance_storesDistance() {
+        fusedCondition.add(new DistanceCondition(5.08));
+
+        final MatchupSet matchupSet = new MatchupSet();
+        addMatchup(matchupSet, -11.0, 22.0, -11.002, 21.998);
+        addMatchup(matchupSet, -11.5, 22.5, -10.0, 20.0);  // <- this one gets removed
+        addMatchup(matchupSet, -12.0, 23.0, -12.002, 22.998);
+
+        fusedCondition.apply(matchupSet, context);
+
+        assertEquals(2, matchupSet.getNumObservations());
+        assertEquals(Distance.computeSpericalDistanceKm(-11.0, 22.0, -11.002, 21.998), matchupSet.getSphericalDistance(0), 1e-6);
+        assertEquals(Distance.computeSpericalDistanceKm(-12.0, 23.0, -12.002, 22.998), matchupSet.getSphericalDistance(1), 1e-6);
+    }
+
+    @Test
+    public void testApply_distance_identicalToDistanceCondition() {
+        final double maxDistanceInKm = 4.72;
+        fusedCondition.add(new DistanceCondition(maxDistanceInKm));
+
+        final MatchupSet fusedSet = new MatchupSet();
+        final MatchupSet sequentialSet = new MatchupSet();
+        for (final MatchupSet matchupSet : new MatchupSet[]{fusedSet, sequentialSet}) {
+            // several secondaries per primary location, some close to the threshold
+            for (int i = 0; i < 200; i++) {
+                final double primaryLon = 118.3 + (i / 4) * 0.013;
+                final double primaryLat = -34.7 + (i / 4) * 0.007;
+                final double offset = 0.0320 + (i % 4) * 0.0004 + i * 1e-7;
+                addMatchup(matchupSet, primaryLon, primaryLat, primaryLon + offset, primaryLat - offset);
+            }
+        }
+
+        fusedCondition.apply(fusedSet, context);
+        new DistanceCondition(maxDistanceInKm).apply(sequentialSet, context);
+
+        final int numObservations = sequentialSet.getNumObservations();
+        assertTrue(numObservations > 0);
+        assertTrue(numObservations < 200);
+        assertEquals(numObservations, fusedSet.getNumObservations());
+        for (int i = 0; i < numObservations; i++) {
+            assertEquals(sequentialSet.getSecondaryLon(i), fusedSet.getSecondaryLon(i), 0.0);
+            assertEquals(sequentialSet.getSecondaryLat(i), fusedSet.getSecondaryLat(i), 0.0);
+            assertEquals(sequentialSet.getSphericalDistance(i), fusedSet.getSphericalDistance(i), 0.0);
+        }
+    }
+
+    private static void addMatchup(MatchupSet matchupSet, int x, int y, long primaryTime, long secondaryTime) {
+        final int index = matchupSet.addPrimary(x, y, 0.0, 0.0, primaryTime);
+        matchupSet.setSecondary(index, x, y, 0.0, 0.0, secondaryTime);
+    }
+
+    private static void addMatchup(MatchupSet matchupSet, double primaryLon, double primaryLat, double secondaryLon, double secondaryLat) {
+        final int index = matchupSet.addPrimary(10, 10, primaryLon, primaryLat, 2000);
+        matchupSet.setSecondary(index, 10, 10, secondaryLon, secondaryLat, 2000);
+    }
+}
@@ -17,19 +17,13 @@
  * with this program; if not, see http://www.gnu.org/licenses/
  *
  */
-
 package com.bc.fiduceo.matchup.condition;
 
-import com.bc.fiduceo.matchup.Sample;
-import com.bc.fiduceo.matchup.SampleSet;
 import org.junit.Before;
 import org.junit.Test;
 
-import java.util.List;
-
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
-import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
 public class NonOverlappingCollectorTest {
@@ -39,223 +33,138 @@ public class NonOverlappingCollectorTest {
 
     @Before
     public void setUp() {
-        primaryCollector = new NonOverlappingCollector(3, 5, true);
-        secondaryCollector = new NonOverlappingCollector(5, 7, false);
+        primaryCollector = new NonOverlappingCollector(3, 5);
+        secondaryCollector = new NonOverlappingCollector(5, 7);
     }
 
     @Test
-    public void testCreateAndGet_emptySet() {
-        List<SampleSet> nonOverlappingList =  primaryCollector.get();
-        assertNotNull(nonOverlappingList);
-        assertEquals(0, nonOverlappingList.size());
-
-        nonOverlappingList =  secondaryCollector.get();
-        assertNotNull(nonOverlappingList);
-        assertEquals(0, nonOverlappingList.size());
+    public void testCreate_emptySet() {
+        assertEquals(0, primaryCollector.size());
+        assertEquals(0, secondaryCollector.size());
     }
 
     @Test
-    public void testAddAndGet_oneSample_primary() {
-        final SampleSet sampleSet = createSampleSet(23, 197, 1, 1);
+    public void testAdd_oneSample_primary() {
+        assertTrue(primaryCollector.add(23, 197));
 
-        primaryCollector.add(sampleSet);
-
-        final List<SampleSet> sampleSets = primaryCollector.get();
-        assertEquals(1, sampleSets.size());
+        assertEquals(1, primaryCollector.size());
     }
 
     @Test
-    public void testAddAndGet_oneSample_secondary() {
-        final SampleSet sampleSet = createSampleSet(2, 2, 107, 1812);
-
-        secondaryCollector.add(sampleSet);
+    public void testAdd_oneSample_secondary() {
+        assertTrue(secondaryCollector.add(107, 1812));
 
-        final List<SampleSet> sampleSets = secondaryCollector.get();
-        assertEquals(1, sampleSets.size());
+        assertEquals(1, secondaryCollector.size());
     }
 
     @Test
-    public void testAddAndGet_twoSamples_nonOverlapping_primary() {
-        SampleSet sampleSet = createSampleSet(23, 197, 1, 1);
-        primaryCollector.add(sampleSet);
+    public void testAdd_twoSamples_nonOverlapping_primary() {
+        assertTrue(primaryCollector.add(23, 197));
+        assertTrue(primaryCollector.add(223, 1197));
 
-        sampleSet = createSampleSet(223, 1197, 1, 1);
-        primaryCollector.add(sampleSet);
-
-        final List<SampleSet> sampleSets = primaryCollector.get();
-        assertEquals(2, sampleSets.size());
+        assertEquals(2, primaryCollector.size());
     }
 
     @Test
-    public void testAddAndGet_twoSamples_nonOverlapping_secondary() {
-        SampleSet sampleSet = createSampleSet(0, 0, 107, 1812);
-        secondaryCollector.add(sampleSet);
-
-        sampleSet = createSampleSet(0, 0, 407, 2212);
-        secondaryCollector.add(sampleSet);
+    public void testAdd_twoSamples_nonOverlapping_secondary() {
+        assertTrue(secondaryCollector.add(107, 1812));
+        assertTrue(secondaryCollector.add(407, 2212));
 
-        final List<SampleSet> sampleSets = secondaryCollector.get();
-        assertEquals(2, sampleSets.size());
+        assertEquals(2, secondaryCollector.size());
     }
 
     @Test
-    public void testAddAndGet_twoSamples_overlapping_primary() {
-        SampleSet sampleSet = createSampleSet(23, 197, 1000, 1);
-        primaryCollector.add(sampleSet);
-
-        sampleSet = createSampleSet(22, 199, 1, 10000);
-        primaryCollector.add(sampleSet);
+    public void testAdd_twoSamples_overlapping_primary() {
+        assertTrue(primaryCollector.add(23, 197));
+        assertFalse(primaryCollector.add(22, 199));
 
-        final List<SampleSet> sampleSets = primaryCollector.get();
-        assertEquals(1, sampleSets.size());
-        assertEquals(23, sampleSets.get(0).getPrimary().x);
-        assertEquals(197, sampleSets.get(0).getPrimary().y);
+        assertEquals(1, primaryCollector.size());
     }
 
     @Test
-    public void testAddAndGet_twoSamples_overlapping_secondary() {
-        SampleSet sampleSet = createSampleSet(0, 10000, 107, 1812);
-        secondaryCollector.add(sampleSet);
+    public void testAdd_twoSamples_overlapping_secondary() {
+        assertTrue(secondaryCollector.add(107, 1812));
+        assertFalse(secondaryCollector.add(105, 1814));
 
-        sampleSet = createSampleSet(10000, 0, 105, 1814);
-        secondaryCollector.add(sampleSet);
-
-        final List<SampleSet> sampleSets = secondaryCollector.get();
-        assertEquals(1, sampleSets.size());
-        assertEquals(107, sampleSets.get(0).getSecondary().x);
-        assertEquals(1812, sampleSets.get(0).getSecondary().y);
+        assertEquals(1, secondaryCollector.size());
     }
 
     @Test
-    public void testAddAndGet_manySamples_mixed_primary() {
-        SampleSet sampleSet = createSampleSet(23, 197, 1000, 1);  // <- keep
-        primaryCollector.add(sampleSet);
-
-        sampleSet = createSampleSet(22, 199, 1, 10000);
-        primaryCollector.add(sampleSet);
-
-        sampleSet = createSampleSet(140, 2807, 10000, 1);   // <- keep
-        primaryCollector.add(sampleSet);
-
-        sampleSet = createSampleSet(24, 196, 1000, 10000);
-        primaryCollector.add(sampleSet);
-
-        sampleSet = createSampleSet(139, 2808, 10000, 10000);
-        primaryCollector.add(sampleSet);
-
-        sampleSet = createSampleSet(488, 1943, 10000, 10000);  // <- keep
-        primaryCollector.add(sampleSet);
-
-
-        final List<SampleSet> sampleSets = primaryCollector.get();
-        assertEquals(3, sampleSets.size());
-
-        assertEquals(23, sampleSets.get(0).getPrimary().x);
-        assertEquals(197, sampleSets.get(0).getPrimary().y);
-
-        assertEquals(140, sampleSets.get(1).getPrimary().x);
-        assertEquals(2807, sampleSets.get(1).getPrimary().y);
-
-        assertEquals(488, sampleSets.get(2).getPrimary().x);
-        assertEquals(1943, sampleSets.get(2).getPrimary().y);
+    public void testAdd_manySamples_mixed_primary() {
+        assertTrue(primaryCollector.add(23, 197));
+        assertFalse(primaryCollector.add(22, 199));
+        assertTrue(primaryCollector.add(140, 2807));
+        assertFalse(primaryCollector.add(24, 196));
+        assertFalse(primaryCollector.add(139, 2808));
+        assertTrue(primaryCollector.add(488, 1943));
+
+        assertEquals(3, primaryCollector.size());
     }
 
     @Test
-    public void testAddAndGet_manySamples_mixed_secondary() {
-        SampleSet sampleSet = createSampleSet(0, 10000, 107, 1812); // <- keep
-        secondaryCollector.add(sampleSet);
-
-        sampleSet = createSampleSet(1000, 10000, 1107, 11812);   // <- keep
-        secondaryCollector.add(sampleSet);
-
-        sampleSet = createSampleSet(10000, 0, 105, 1814);
-        secondaryCollector.add(sampleSet);
-
-        sampleSet = createSampleSet(10000, 10100, 107, 1813);
-        secondaryCollector.add(sampleSet);
-
-        sampleSet = createSampleSet(10000, 1110, 106, 1812);
-        secondaryCollector.add(sampleSet);
-
-        sampleSet = createSampleSet(1000, 10000, 1105, 11813);
-        secondaryCollector.add(sampleSet);
-
-        final List<SampleSet> sampleSets = secondaryCollector.get();
-        assertEquals(2, sampleSets.size());
-
-        assertEquals(107, sampleSets.get(0).getSecondary().x);
-        assertEquals(1812, sampleSets.get(0).getSecondary().y);
-
-        assertEquals(1107, sampleSets.get(1).getSecondary().x);
-        assertEquals(11812, sampleSets.get(1).getSecondary().y);
+    public void testAdd_manySamples_mixed_secondary() {
+        assertTrue(secondaryCollector.add(107, 1812));
+        assertTrue(secondaryCollector.add(1107, 11812));
+        assertFalse(secondaryCollector.add(105, 1814));
+        assertFalse(secondaryCollector.add(107, 1813));
+        assertFalse(secondaryCollector.add(106, 1812));
+        assertFalse(secondaryCollector.add(1105, 11813));
+
+        assertEquals(2, secondaryCollector.size());
     }
 
     @Test
-    public void testGetSample_primary() {
-        final SampleSet sampleSet = new SampleSet();
-        sampleSet.setPrimary(new Sample(1, 2, 3, 4, 5));
+    public void testAdd_unorderedInput() {
+        assertTrue(primaryCollector.add(100, 3000));
+        assertTrue(primaryCollector.add(100, 1000));
+        assertTrue(primaryCollector.add(100, 2000));
+        assertFalse(primaryCollector.add(101, 2998));
+        assertFalse(primaryCollector.add(99, 1003));
+        assertFalse(primaryCollector.add(100, 1996));
+
+        assertEquals(3, primaryCollector.size());
+    }
 
-        final Sample sample = primaryCollector.getSample(sampleSet);
-        assertNotNull(sample);
-        assertEquals(1, sample.x);
-        assertEquals(2, sample.y);
+    @Test
+    public void testAdd_denseGrid_firstInScanOrderKept() {
+        for (int y = 0; y < 50; y++) {
+            for (int x = 0; x < 30; x++) {
+                final boolean expected = x % 3 == 0 && y % 5 == 0;
+                assertEquals(expected, primaryCollector.add(x, y));
+            }
+        }
+
+        assertEquals(100, primaryCollector.size());
     }
 
     @Test
-    public void testGetSample_secondary() {
-        final SampleSet sampleSet = new SampleSet();
-        sampleSet.setSecondary(new Sample(2, 3, 4, 5, 6));
+    public void testAdd_negativeCoordinates() {
+        assertTrue(primaryCollector.add(-1, -1));
+        assertFalse(primaryCollector.add(1, 3));
+        assertTrue(primaryCollector.add(2, 3));
+        assertTrue(primaryCollector.add(-1, 4));
 
-        final Sample sample = secondaryCollector.getSample(sampleSet);
-        assertNotNull(sample);
-        assertEquals(2, sample.x);
-        assertEquals(3, sample.y);
+        assertEquals(3, primaryCollector.size());
     }
 
     @Test
     public void testAreOverlapping() {
-        final Sample reference = createSample(100, 2000);
-
-        // check with primary - we only care about width and height in this method. W=3, H=5 tb 2016-11-23
+        // we only care about width and height in this method. W=3, H=5 tb 2016-11-23
 
         // check along x-axis
-        Sample sample = createSample(97, 2000);
-        assertFalse(primaryCollector.areOverlapping(reference, sample));
-        sample = createSample(98, 2000);
-        assertTrue(primaryCollector.areOverlapping(reference, sample));
-        sample = createSample(99, 2000);
-        assertTrue(primaryCollector.areOverlapping(reference, sample));
-        sample = createSample(100, 2000);
-        assertTrue(primaryCollector.areOverlapping(reference, sample));
-        sample = createSample(101, 2000);
-        assertTrue(primaryCollector.areOverlapping(reference, sample));
-        sample = createSample(102, 2000);
-        assertTrue(primaryCollector.areOverlapping(reference, sample));
-        sample = createSample(103, 2000);
-        assertFalse(primaryCollector.areOverlapping(reference, sample));
-
-        // check along x-axis
-        createSample(100, 1995);
-        assertFalse(primaryCollector.areOverlapping(reference, sample));
-        sample = createSample(100, 1996);
-        assertTrue(primaryCollector.areOverlapping(reference, sample));
-        sample = createSample(100, 2000);
-        assertTrue(primaryCollector.areOverlapping(reference, sample));
-        sample = createSample(100, 2004);
-        assertTrue(primaryCollector.areOverlapping(reference, sample));
-        sample =createSample(100, 2005);
-        assertFalse(primaryCollector.areOverlapping(reference, sample));
-    }
-
-    private SampleSet createSampleSet(int primaryX, int primaryY, int secondaryX, int secondaryY) {
-        final SampleSet sampleSet = new SampleSet();
-        sampleSet.setPrimary(createSample(primaryX, primaryY));
-        sampleSet.setSecondary(createSample(secondaryX, secondaryY));
-
-        return sampleSet;
-    }
-
-    private Sample createSample(int x, int y) {
-        return new Sample(x, y, -22.5, 18.98, 111027);
+        assertFalse(primaryCollector.areOverlapping(100, 2000, 97, 2000));
+        assertTrue(primaryCollector.areOverlapping(100, 2000, 98, 2000));
+        assertTrue(primaryCollector.areOverlapping(100, 2000, 99, 2000));
+        assertTrue(primaryCollector.areOverlapping(100, 2000, 100, 2000));
+        assertTrue(primaryCollector.areOverlapping(100, 2000, 101, 2000));
+        assertTrue(primaryCollector.areOverlapping(100, 2000, 102, 2000));
+        assertFalse(primaryCollector.areOverlapping(100, 2000, 103, 2000));
+
+        // check along y-axis
+        assertFalse(primaryCollector.areOverlapping(100, 2000, 100, 1995));
+        assertTrue(primaryCollector.areOverlapping(100, 2000, 100, 1996));
+        assertTrue(primaryCollector.areOverlapping(100, 2000, 100, 2000));
+        assertTrue(primaryCollector.areOverlapping(100, 2000, 100, 2004));
+        assertFalse(primaryCollector.areOverlapping(100, 2000, 100, 2005));
     }
 }
@@ -214,6 +214,6 @@ public class OverlapRemoveConditionTest {
         final SampleSet sampleSet = new SampleSet();
         sampleSet.setPrimary(new Sample(primaryX, primaryY, -22.5, 18.98, 111027));
         sampleSet.setSecondary(new Sample(secondaryX, secondaryY, -23.5, 19.98, 121027));
-        sampleSets.add(sampleSet);
+        matchupSet.addSampleSet(sampleSet);
     }
 }
@@ -37,13 +37,12 @@ public class TimeRangeConditionTest {
         final long endTime = endDate.getTime();
 
         final MatchupSet matchupSet = new MatchupSet();
-        final List<SampleSet> sampleSets = matchupSet.getSampleSets();
-        sampleSets.add(createSampleSet(startTime - 1, 100500));    // <- this one gets removed
-        sampleSets.add(createSampleSet(startTime, 100100));
+        matchupSet.addSampleSet(createSampleSet(startTime - 1, 100500));    // <- this one gets removed
+        matchupSet.addSampleSet(createSampleSet(startTime, 100100));
         final int fiveDays = 5 * oneDayMillis;
-        sampleSets.add(createSampleSet(startTime + fiveDays, 100500));
-        sampleSets.add(createSampleSet(endTime, 100500));
-        sampleSets.add(createSampleSet(endTime + 1, 100500));    // <- this one gets removed
+        matchupSet.addSampleSet(createSampleSet(startTime + fiveDays, 100500));
+        matchupSet.addSampleSet(createSampleSet(endTime, 100500));
+        matchupSet.addSampleSet(createSampleSet(endTime + 1, 100500));    // <- this one gets removed
 
         timeRangeCondition.apply(matchupSet, context);
 
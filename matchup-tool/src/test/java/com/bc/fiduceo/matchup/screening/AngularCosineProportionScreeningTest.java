@@ -52,8 +52,8 @@ public class AngularCosineProportionScreeningTest {
     @Test
     public void testApply_emptyInputSet() throws IOException, InvalidRangeException {
         final MatchupSet matchupSet = new MatchupSet();
-        final Reader primaryReader = mock(Reader.class);
-        final Reader secondaryReader = mock(Reader.class);
+        final Reader primaryReader = ReaderMocks.create();
+        final Reader secondaryReader = ReaderMocks.create();
 
         assertEquals(0, matchupSet.getNumObservations());
 
@@ -66,10 +66,9 @@ public class AngularCosineProportionScreeningTest {
     public void testApply() throws IOException, InvalidRangeException {
         final MatchupSet matchupSet = new MatchupSet();
 
-        List<SampleSet> sampleSets = matchupSet.getSampleSets();
-        sampleSets.add(createSampleSet(33, 64, 45, 354));
-        sampleSets.add(createSampleSet(34, 65, 46, 355));  // <- this one gets removed
-        sampleSets.add(createSampleSet(35, 66, 47, 356));
+        matchupSet.addSampleSet(createSampleSet(33, 64, 45, 354));
+        matchupSet.addSampleSet(createSampleSet(34, 65, 46, 355));  // <- this one gets removed
+        matchupSet.addSampleSet(createSampleSet(35, 66, 47, 356));
 
         final Array highAngleArray = mock(Array.class);
         when(highAngleArray.getDouble(0)).thenReturn(9.46);
@@ -80,12 +79,12 @@ public class AngularCosineProportionScreeningTest {
         final Array outAngleArray = mock(Array.class);
         when(outAngleArray.getDouble(0)).thenReturn(48.93);
 
-        final Reader primaryReader = mock(Reader.class);
+        final Reader primaryReader = ReaderMocks.create();
         when(primaryReader.readScaled(eq(33), eq(64), anyObject(), eq("Satellite_zenith_angle"))).thenReturn(lowAngleArray);
         when(primaryReader.readScaled(eq(34), eq(65), anyObject(), eq("Satellite_zenith_angle"))).thenReturn(outAngleArray);
         when(primaryReader.readScaled(eq(35), eq(66), anyObject(), eq("Satellite_zenith_angle"))).thenReturn(highAngleArray);
 
-        final Reader secondaryReader = mock(Reader.class);
+        final Reader secondaryReader = ReaderMocks.create();
         when(secondaryReader.readScaled(eq(45), eq(354), anyObject(), eq("the_other_angle"))).thenReturn(highAngleArray);
         when(secondaryReader.readScaled(eq(46), eq(355), anyObject(), eq("the_other_angle"))).thenReturn(lowAngleArray);
         when(secondaryReader.readScaled(eq(47), eq(356), anyObject(), eq("the_other_angle"))).thenReturn(highAngleArray);
@@ -97,7 +96,7 @@ public class AngularCosineProportionScreeningTest {
         screening.configure(configuration);
         screening.apply(matchupSet, primaryReader, secondaryReader, null);
 
-        sampleSets = matchupSet.getSampleSets();
+        List<SampleSet> sampleSets = matchupSet.getSampleSets();
         assertEquals(2, sampleSets.size());
 
         assertEquals(33, sampleSets.get(0).getPrimary().x);
@@ -52,8 +52,8 @@ public class AngularScreeningTest {
     @Test
     public void testApply_emptyInputSet() throws IOException, InvalidRangeException {
         final MatchupSet matchupSet = new MatchupSet();
-        final Reader primaryReader = mock(Reader.class);
-        final Reader secondaryReader = mock(Reader.class);
+        final Reader primaryReader = ReaderMocks.create();
+        final Reader secondaryReader = ReaderMocks.create();
 
         assertEquals(0, matchupSet.getNumObservations());
 
@@ -67,10 +67,9 @@ public class AngularScreeningTest {
     public void testApply_onlyPrimaryVZA() throws IOException, InvalidRangeException {
         final MatchupSet matchupSet = new MatchupSet();
 
-        List<SampleSet> sampleSets = matchupSet.getSampleSets();
-        sampleSets.add(createSampleSet(23, 54, 223, 254));
-        sampleSets.add(createSampleSet(24, 55, 224, 255));  // <- this one gets removed
-        sampleSets.add(createSampleSet(25, 56, 225, 256));
+        matchupSet.addSampleSet(createSampleSet(23, 54, 223, 254));
+        matchupSet.addSampleSet(createSampleSet(24, 55, 224, 255));  // <- this one gets removed
+        matchupSet.addSampleSet(createSampleSet(25, 56, 225, 256));
 
         final Array highAngleArray = mock(Array.class);
         when(highAngleArray.getDouble(0)).thenReturn(44.8);
@@ -78,12 +77,12 @@ public class AngularScreeningTest {
         final Array lowAngleArray = mock(Array.class);
         when(lowAngleArray.getDouble(0)).thenReturn(8.2);
 
-        final Reader primaryReader = mock(Reader.class);
+        final Reader primaryReader = ReaderMocks.create();
         when(primaryReader.readScaled(eq(23), eq(54), anyObject(), eq("VZA"))).thenReturn(lowAngleArray);
         when(primaryReader.readScaled(eq(24), eq(55), anyObject(), eq("VZA"))).thenReturn(highAngleArray);
         when(primaryReader.readScaled(eq(25), eq(56), anyObject(), eq("VZA"))).thenReturn(lowAngleArray);
 
-        final Reader secondaryReader = mock(Reader.class);
+        final Reader secondaryReader = ReaderMocks.create();
         when(secondaryReader.readScaled(eq(223), eq(254), anyObject(), eq("VZA"))).thenReturn(lowAngleArray);
         when(secondaryReader.readScaled(eq(224), eq(255), anyObject(), eq("VZA"))).thenReturn(lowAngleArray);
         when(secondaryReader.readScaled(eq(225), eq(256), anyObject(), eq("VZA"))).thenReturn(lowAngleArray);
@@ -94,7 +93,7 @@ public class AngularScreeningTest {
         screening.configure(configuration);
         screening.apply(matchupSet, primaryReader, secondaryReader, null);
 
-        sampleSets = matchupSet.getSampleSets();
+        List<SampleSet> sampleSets = matchupSet.getSampleSets();
         assertEquals(2, sampleSets.size());
         assertEquals(23, sampleSets.get(0).getPrimary().x);
         assertEquals(25, sampleSets.get(1).getPrimary().x);
@@ -104,10 +103,9 @@ public class AngularScreeningTest {
     public void testApply_onlySecondaryVZA() throws IOException, InvalidRangeException {
         final MatchupSet matchupSet = new MatchupSet();
 
-        List<SampleSet> sampleSets = matchupSet.getSampleSets();
-        sampleSets.add(createSampleSet(33, 64, 233, 264));
-        sampleSets.add(createSampleSet(34, 65, 234, 265));
-        sampleSets.add(createSampleSet(35, 66, 235, 266));  // <- this one gets removed
+        matchupSet.addSampleSet(createSampleSet(33, 64, 233, 264));
+        matchupSet.addSampleSet(createSampleSet(34, 65, 234, 265));
+        matchupSet.addSampleSet(createSampleSet(35, 66, 235, 266));  // <- this one gets removed
 
         final Array highAngleArray = mock(Array.class);
         when(highAngleArray.getDouble(0)).thenReturn(34.8);
@@ -115,12 +113,12 @@ public class AngularScreeningTest {
         final Array lowAngleArray = mock(Array.class);
         when(lowAngleArray.getDouble(0)).thenReturn(9.2);
 
-        final Reader primaryReader = mock(Reader.class);
+        final Reader primaryReader = ReaderMocks.create();
         when(primaryReader.readScaled(eq(33), eq(64), anyObject(), eq("satellite_zenith"))).thenReturn(lowAngleArray);
         when(primaryReader.readScaled(eq(34), eq(65), anyObject(), eq("satellite_zenith"))).thenReturn(lowAngleArray);
         when(primaryReader.readScaled(eq(55), eq(66), anyObject(), eq("satellite_zenith"))).thenReturn(lowAngleArray);
 
-        final Reader secondaryReader = mock(Reader.class);
+        final Reader secondaryReader = ReaderMocks.create();
         when(secondaryReader.readScaled(eq(233), eq(264), anyObject(), eq("satellite_zenith"))).thenReturn(lowAngleArray);
         when(secondaryReader.readScaled(eq(234), eq(265), anyObject(), eq("satellite_zenith"))).thenReturn(lowAngleArray);
         when(secondaryReader.readScaled(eq(235), eq(266), anyObject(), eq("satellite_zenith"))).thenReturn(highAngleArray);
@@ -131,7 +129,7 @@ public class AngularScreeningTest {
         screening.configure(configuration);
         screening.apply(matchupSet, primaryReader, secondaryReader, null);
 
-        sampleSets = matchupSet.getSampleSets();
+        List<SampleSet> sampleSets = matchupSet.getSampleSets();
         assertEquals(2, sampleSets.size());
         assertEquals(33, sampleSets.get(0).getPrimary().x);
         assertEquals(34, sampleSets.get(1).getPrimary().x);
@@ -141,10 +139,9 @@ public class AngularScreeningTest {
     public void testApply_bothVZA_onDifferentPixels() throws IOException, InvalidRangeException {
         final MatchupSet matchupSet = new MatchupSet();
 
-        List<SampleSet> sampleSets = matchupSet.getSampleSets();
-        sampleSets.add(createSampleSet(43, 54, 243, 254));  // <- this one gets removed
-        sampleSets.add(createSampleSet(44, 55, 244, 255));
-        sampleSets.add(createSampleSet(45, 56, 245, 256));  // <- this one gets removed
+        matchupSet.addSampleSet(createSampleSet(43, 54, 243, 254));  // <- this one gets removed
+        matchupSet.addSampleSet(createSampleSet(44, 55, 244, 255));
+        matchupSet.addSampleSet(createSampleSet(45, 56, 245, 256));  // <- this one gets removed
 
         final Array highAngleArray = mock(Array.class);
         when(highAngleArray.getDouble(0)).thenReturn(34.8);
@@ -152,12 +149,12 @@ public class AngularScreeningTest {
         final Array lowAngleArray = mock(Array.class);
         when(lowAngleArray.getDouble(0)).thenReturn(8.2);
 
-        final Reader primaryReader = mock(Reader.class);
+        final Reader primaryReader = ReaderMocks.create();
         when(primaryReader.readScaled(eq(43), eq(54), anyObject(), eq("the_angle"))).thenReturn(highAngleArray);
         when(primaryReader.readScaled(eq(44), eq(55), anyObject(), eq("the_angle"))).thenReturn(lowAngleArray);
         when(primaryReader.readScaled(eq(45), eq(56), anyObject(), eq("the_angle"))).thenReturn(lowAngleArray);
 
-        final Reader secondaryReader = mock(Reader.class);
+        final Reader secondaryReader = ReaderMocks.create();
         when(secondaryReader.readScaled(eq(243), eq(254), anyObject(), eq("the_other_angle"))).thenReturn(lowAngleArray);
         when(secondaryReader.readScaled(eq(244), eq(255), anyObject(), eq("the_other_angle"))).thenReturn(lowAngleArray);
         when(secondaryReader.readScaled(eq(245), eq(256), anyObject(), eq("the_other_angle"))).thenReturn(highAngleArray);
@@ -171,7 +168,7 @@ public class AngularScreeningTest {
         screening.configure(configuration);
         screening.apply(matchupSet, primaryReader, secondaryReader, null);
 
-        sampleSets = matchupSet.getSampleSets();
+        List<SampleSet> sampleSets = matchupSet.getSampleSets();
         assertEquals(1, sampleSets.size());
         assertEquals(44, sampleSets.get(0).getPrimary().x);
     }
@@ -180,10 +177,9 @@ public class AngularScreeningTest {
     public void testApply_bothVZA_onSamePixel() throws IOException, InvalidRangeException {
         final MatchupSet matchupSet = new MatchupSet();
 
-        List<SampleSet> sampleSets = matchupSet.getSampleSets();
-        sampleSets.add(createSampleSet(53, 64, 253, 264));
-        sampleSets.add(createSampleSet(54, 65, 254, 265));   // <- this one gets removed
-        sampleSets.add(createSampleSet(55, 66, 255, 266));
+        matchupSet.addSampleSet(createSampleSet(53, 64, 253, 264));
+        matchupSet.addSampleSet(createSampleSet(54, 65, 254, 265));   // <- this one gets removed
+        matchupSet.addSampleSet(createSampleSet(55, 66, 255, 266));
 
         final Array highAngleArray = mock(Array.class);
         when(highAngleArray.getDouble(0)).thenReturn(24.8);
@@ -191,12 +187,12 @@ public class AngularScreeningTest {
         final Array lowAngleArray = mock(Array.class);
         when(lowAngleArray.getDouble(0)).thenReturn(8.2);
 
-        final Reader primaryReader = mock(Reader.class);
+        final Reader primaryReader = ReaderMocks.create();
         when(primaryReader.readScaled(eq(53), eq(64), anyObject(), eq("the_angle"))).thenReturn(lowAngleArray);
         when(primaryReader.readScaled(eq(54), eq(65), anyObject(), eq("the_angle"))).thenReturn(highAngleArray);
         when(primaryReader.readScaled(eq(55), eq(66), anyObject(), eq("the_angle"))).thenReturn(lowAngleArray);
 
-        final Reader secondaryReader = mock(Reader.class);
+        final Reader secondaryReader = ReaderMocks.create();
         when(secondaryReader.readScaled(eq(253), eq(264), anyObject(), eq("the_other_angle"))).thenReturn(lowAngleArray);
         when(secondaryReader.readScaled(eq(254), eq(265), anyObject(), eq("the_other_angle"))).thenReturn(highAngleArray);
         when(secondaryReader.readScaled(eq(255), eq(266), anyObject(), eq("the_other_angle"))).thenReturn(lowAngleArray);
@@ -210,7 +206,7 @@ public class AngularScreeningTest {
         screening.configure(configuration);
         screening.apply(matchupSet, primaryReader, secondaryReader, null);
 
-        sampleSets = matchupSet.getSampleSets();
+        List<SampleSet> sampleSets = matchupSet.getSampleSets();
         assertEquals(2, sampleSets.size());
         assertEquals(53, sampleSets.get(0).getPrimary().x);
         assertEquals(55, sampleSets.get(1).getPrimary().x);
@@ -220,10 +216,9 @@ public class AngularScreeningTest {
     public void testApply_vzaDelta() throws IOException, InvalidRangeException {
         final MatchupSet matchupSet = new MatchupSet();
 
-        List<SampleSet> sampleSets = matchupSet.getSampleSets();
-        sampleSets.add(createSampleSet(63, 74, 263, 274));
-        sampleSets.add(createSampleSet(64, 75, 264, 275));
-        sampleSets.add(createSampleSet(65, 76, 265, 276));   // <- this one gets removed
+        matchupSet.addSampleSet(createSampleSet(63, 74, 263, 274));
+        matchupSet.addSampleSet(createSampleSet(64, 75, 264, 275));
+        matchupSet.addSampleSet(createSampleSet(65, 76, 265, 276));   // <- this one gets removed
 
         final Array tooHighAngleArray = mock(Array.class);
         when(tooHighAngleArray.getDouble(0)).thenReturn(26.8);
@@ -234,12 +229,12 @@ public class AngularScreeningTest {
         final Array lowAngleArray = mock(Array.class);
         when(lowAngleArray.getDouble(0)).thenReturn(8.2);
 
-        final Reader primaryReader = mock(Reader.class);
+        final Reader primaryReader = ReaderMocks.create();
         when(primaryReader.readScaled(eq(63), eq(74), anyObject(), eq("the_angle"))).thenReturn(lowAngleArray);
         when(primaryReader.readScaled(eq(64), eq(75), anyObject(), eq("the_angle"))).thenReturn(highAngleArray);
         when(primaryReader.readScaled(eq(65), eq(76), anyObject(), eq("the_angle"))).thenReturn(tooHighAngleArray);
 
-        final Reader secondaryReader = mock(Reader.class);
+        final Reader secondaryReader = ReaderMocks.create();
         when(secondaryReader.readScaled(eq(263), eq(274), anyObject(), eq("the_other_angle"))).thenReturn(highAngleArray);
         when(secondaryReader.readScaled(eq(264), eq(275), anyObject(), eq("the_other_angle"))).thenReturn(lowAngleArray);
         when(secondaryReader.readScaled(eq(265), eq(276), anyObject(), eq("the_other_angle"))).thenReturn(lowAngleArray);
@@ -251,7 +246,7 @@ public class AngularScreeningTest {
         screening.configure(configuration);
         screening.apply(matchupSet, primaryReader, secondaryReader, null);
 
-        sampleSets = matchupSet.getSampleSets();
+        List<SampleSet> sampleSets = matchupSet.getSampleSets();
         assertEquals(2, sampleSets.size());
         assertEquals(63, sampleSets.get(0).getPrimary().x);
         assertEquals(64, sampleSets.get(1).getPrimary().x);
@@ -53,8 +53,8 @@ public class AtsrAngularScreeningTest {
     @Test
     public void testApply_emptyInputSet() throws IOException, InvalidRangeException {
         final MatchupSet matchupSet = new MatchupSet();
-        final Reader primaryReader = mock(Reader.class);
-        final Reader secondaryReader = mock(Reader.class);
+        final Reader primaryReader = ReaderMocks.create();
+        final Reader secondaryReader = ReaderMocks.create();
 
         assertEquals(0, matchupSet.getNumObservations());
 
@@ -67,9 +67,8 @@ public class AtsrAngularScreeningTest {
     @Test
     public void testApply_nadirView_leftOfNadir_ATSR() throws IOException, InvalidRangeException {
         final MatchupSet matchupSet = new MatchupSet();
-        List<SampleSet> sampleSets = matchupSet.getSampleSets();
-        sampleSets.add(createSampleSet(367, 54, 219, 254));
-        sampleSets.add(createSampleSet(368, 55, 220, 255));  // <- this one gets removed
+        matchupSet.addSampleSet(createSampleSet(367, 54, 219, 254));
+        matchupSet.addSampleSet(createSampleSet(368, 55, 220, 255));  // <- this one gets removed
 
         final Array nadirViewElevationHigh = mock(Array.class);
         when(nadirViewElevationHigh.getDouble(0)).thenReturn(78.4);
@@ -83,13 +82,13 @@ public class AtsrAngularScreeningTest {
         final Array satZenithAngle = mock(Array.class);
         when(satZenithAngle.getDouble(0)).thenReturn(18.76);
 
-        final Reader primaryReader = mock(Reader.class);
+        final Reader primaryReader = ReaderMocks.create();
         when(primaryReader.readScaled(eq(367), eq(54), anyObject(), eq("view_elev_nadir"))).thenReturn(nadirViewElevationHigh);
         when(primaryReader.readScaled(eq(368), eq(55), anyObject(), eq("view_elev_nadir"))).thenReturn(nadirViewElevationLow);
         when(primaryReader.readScaled(eq(367), eq(54), anyObject(), eq("view_elev_fward"))).thenReturn(fwardViewElevation);
         when(primaryReader.readScaled(eq(368), eq(55), anyObject(), eq("view_elev_fward"))).thenReturn(fwardViewElevation);
 
-        final Reader secondaryReader = mock(Reader.class);
+        final Reader secondaryReader = ReaderMocks.create();
         when(secondaryReader.readScaled(eq(219), eq(254), anyObject(), eq("satellite_zenith_angle"))).thenReturn(satZenithAngle);
         when(secondaryReader.readScaled(eq(220), eq(255), anyObject(), eq("satellite_zenith_angle"))).thenReturn(satZenithAngle);
 
@@ -98,7 +97,7 @@ public class AtsrAngularScreeningTest {
         screening.configure(configuration);
         screening.apply(matchupSet, primaryReader, secondaryReader, null);
 
-        sampleSets = matchupSet.getSampleSets();
+        List<SampleSet> sampleSets = matchupSet.getSampleSets();
         assertEquals(1, sampleSets.size());
         assertEquals(367, sampleSets.get(0).getPrimary().x);
     }
@@ -106,9 +105,8 @@ public class AtsrAngularScreeningTest {
     @Test
     public void testApply_nadirView_ATSRLeft_AVHRRRight() throws IOException, InvalidRangeException {
         final MatchupSet matchupSet = new MatchupSet();
-        List<SampleSet> sampleSets = matchupSet.getSampleSets();
-        sampleSets.add(createSampleSet(467, 54, 119, 254)); // <- this one gets removed
-        sampleSets.add(createSampleSet(468, 55, 120, 255));
+        matchupSet.addSampleSet(createSampleSet(467, 54, 119, 254)); // <- this one gets removed
+        matchupSet.addSampleSet(createSampleSet(468, 55, 120, 255));
 
         final Array nadirViewElevationHigh = mock(Array.class);
         when(nadirViewElevationHigh.getDouble(0)).thenReturn(82.4);
@@ -122,13 +120,13 @@ public class AtsrAngularScreeningTest {
         final Array satZenithAngle = mock(Array.class);
         when(satZenithAngle.getDouble(0)).thenReturn(0.76);
 
-        final Reader primaryReader = mock(Reader.class);
+        final Reader primaryReader = ReaderMocks.create();
         when(primaryReader.readScaled(eq(467), eq(54), anyObject(), eq("view_elev_nadir"))).thenReturn(nadirViewElevationLow);
         when(primaryReader.readScaled(eq(468), eq(55), anyObject(), eq("view_elev_nadir"))).thenReturn(nadirViewElevationHigh);
         when(primaryReader.readScaled(eq(467), eq(54), anyObject(), eq("view_elev_fward"))).thenReturn(fwardViewElevation);
         when(primaryReader.readScaled(eq(468), eq(55), anyObject(), eq("view_elev_fward"))).thenReturn(fwardViewElevation);
 
-        final Reader secondaryReader = mock(Reader.class);
+        final Reader secondaryReader = ReaderMocks.create();
         when(secondaryReader.readScaled(eq(119), eq(254), anyObject(), eq("satellite_zenith_angle"))).thenReturn(satZenithAngle);
         when(secondaryReader.readScaled(eq(120), eq(255), anyObject(), eq("satellite_zenith_angle"))).thenReturn(satZenithAngle);
 
@@ -136,7 +134,7 @@ public class AtsrAngularScreeningTest {
         screening.configure(configuration);
         screening.apply(matchupSet, primaryReader, secondaryReader, null);
 
-        sampleSets = matchupSet.getSampleSets();
+        List<SampleSet> sampleSets = matchupSet.getSampleSets();
         assertEquals(1, sampleSets.size());
         assertEquals(468, sampleSets.get(0).getPrimary().x);
     }
@@ -144,9 +142,8 @@ public class AtsrAngularScreeningTest {
     @Test
     public void testApply_fwardView_rightOfNadir_ATSR() throws IOException, InvalidRangeException {
         final MatchupSet matchupSet = new MatchupSet();
-        List<SampleSet> sampleSets = matchupSet.getSampleSets();
-        sampleSets.add(createSampleSet(67, 54, 19, 254));   // <- this one gets removed
-        sampleSets.add(createSampleSet(68, 55, 20, 255));
+        matchupSet.addSampleSet(createSampleSet(67, 54, 19, 254));   // <- this one gets removed
+        matchupSet.addSampleSet(createSampleSet(68, 55, 20, 255));
 
         final Array nadirViewElevationHigh = mock(Array.class);
         when(nadirViewElevationHigh.getDouble(0)).thenReturn(78.4);
@@ -160,13 +157,13 @@ public class AtsrAngularScreeningTest {
         final Array satZenithAngle = mock(Array.class);
         when(satZenithAngle.getDouble(0)).thenReturn(56.76);
 
-        final Reader primaryReader = mock(Reader.class);
+        final Reader primaryReader = ReaderMocks.create();
         when(primaryReader.readScaled(eq(67), eq(54), anyObject(), eq("view_elev_nadir"))).thenReturn(nadirViewElevationHigh);
         when(primaryReader.readScaled(eq(68), eq(55), anyObject(), eq("view_elev_nadir"))).thenReturn(nadirViewElevationHigh);
         when(primaryReader.readScaled(eq(67), eq(54), anyObject(), eq("view_elev_fward"))).thenReturn(fwardViewElevationLow);
         when(primaryReader.readScaled(eq(68), eq(55), anyObject(), eq("view_elev_fward"))).thenReturn(fwardViewElevation);
 
-        final Reader secondaryReader = mock(Reader.class);
+        final Reader secondaryReader = ReaderMocks.create();
         when(secondaryReader.readScaled(eq(19), eq(254), anyObject(), eq("satellite_zenith_angle"))).thenReturn(satZenithAngle);
         when(secondaryReader.readScaled(eq(20), eq(255), anyObject(), eq("satellite_zenith_angle"))).thenReturn(satZenithAngle);
 
@@ -175,7 +172,7 @@ public class AtsrAngularScreeningTest {
         screening.configure(configuration);
         screening.apply(matchupSet, primaryReader, secondaryReader, null);
 
-        sampleSets = matchupSet.getSampleSets();
+        List<SampleSet> sampleSets = matchupSet.getSampleSets();
         assertEquals(1, sampleSets.size());
         assertEquals(68, sampleSets.get(0).getPrimary().x);
     }
@@ -53,8 +53,8 @@ public class BuehlerCloudScreeningTest {
     @Test
     public void testApply_emptyInputSet() throws IOException, InvalidRangeException {
         final MatchupSet matchupSet = new MatchupSet();
-        final Reader primaryReader = mock(Reader.class);
-        final Reader secondaryReader = mock(Reader.class);
+        final Reader primaryReader = ReaderMocks.create();
+        final Reader secondaryReader = ReaderMocks.create();
 
         assertEquals(0, matchupSet.getNumObservations());
 
@@ -67,10 +67,9 @@ public class BuehlerCloudScreeningTest {
     public void testApply_onlyPrimary_btempDelta() throws IOException, InvalidRangeException {
         final MatchupSet matchupSet = new MatchupSet();
 
-        List<SampleSet> sampleSets = matchupSet.getSampleSets();
-        sampleSets.add(createSampleSet(43, 74, 55, 454));   // <- this one gets removed
-        sampleSets.add(createSampleSet(44, 75, 56, 455));
-        sampleSets.add(createSampleSet(45, 76, 57, 456));
+        matchupSet.addSampleSet(createSampleSet(43, 74, 55, 454));   // <- this one gets removed
+        matchupSet.addSampleSet(createSampleSet(44, 75, 56, 455));
+        matchupSet.addSampleSet(createSampleSet(45, 76, 57, 456));
 
         final Array highBtempArray = mock(ucar.ma2.Array.class);
         when(highBtempArray.getDouble(0)).thenReturn(258.64);
@@ -81,7 +80,7 @@ public class BuehlerCloudScreeningTest {
         final Array VZAArray = mock(ucar.ma2.Array.class);
         when(VZAArray.getDouble(0)).thenReturn(9.65);
 
-        final Reader primaryReader = mock(Reader.class);
+        final Reader primaryReader = ReaderMocks.create();
         when(primaryReader.readScaled(eq(43), eq(74), anyObject(), eq("btemps_ch18"))).thenReturn(lowBtempArray);   // condition for removal: ch20 > ch18
         when(primaryReader.readScaled(eq(43), eq(74), anyObject(), eq("btemps_ch20"))).thenReturn(highBtempArray);
         when(primaryReader.readScaled(eq(43), eq(74), anyObject(), eq("Satellite_zenith_angle"))).thenReturn(VZAArray);
@@ -92,7 +91,7 @@ public class BuehlerCloudScreeningTest {
         when(primaryReader.readScaled(eq(45), eq(76), anyObject(), eq("btemps_ch20"))).thenReturn(lowBtempArray);
         when(primaryReader.readScaled(eq(45), eq(76), anyObject(), eq("Satellite_zenith_angle"))).thenReturn(VZAArray);
 
-        final Reader secondaryReader = mock(Reader.class);
+        final Reader secondaryReader = ReaderMocks.create();
 
         configuration.primaryNarrowChannelName = "btemps_ch18";
         configuration.primaryWideChannelName = "btemps_ch20";
@@ -101,7 +100,7 @@ public class BuehlerCloudScreeningTest {
         screening.configure(configuration);
         screening.apply(matchupSet, primaryReader, secondaryReader, null);
 
-        sampleSets = matchupSet.getSampleSets();
+        List<SampleSet> sampleSets = matchupSet.getSampleSets();
         assertEquals(2, sampleSets.size());
 
         assertEquals(44, sampleSets.get(0).getPrimary().x);
@@ -112,10 +111,9 @@ public class BuehlerCloudScreeningTest {
     public void testApply_onlyPrimary_threshold() throws IOException, InvalidRangeException {
         final MatchupSet matchupSet = new MatchupSet();
 
-        List<SampleSet> sampleSets = matchupSet.getSampleSets();
-        sampleSets.add(createSampleSet(43, 74, 55, 454));
-        sampleSets.add(createSampleSet(44, 75, 56, 455));   // <- this one gets removed
-        sampleSets.add(createSampleSet(45, 76, 57, 456));
+        matchupSet.addSampleSet(createSampleSet(43, 74, 55, 454));
+        matchupSet.addSampleSet(createSampleSet(44, 75, 56, 455));   // <- this one gets removed
+        matchupSet.addSampleSet(createSampleSet(45, 76, 57, 456));
 
         final Array highBtempArray = mock(ucar.ma2.Array.class);
         when(highBtempArray.getDouble(0)).thenReturn(258.64);
@@ -129,7 +127,7 @@ public class BuehlerCloudScreeningTest {
         final Array lowVZAArray = mock(ucar.ma2.Array.class);
         when(lowVZAArray.getDouble(0)).thenReturn(0.63);
 
-        final Reader primaryReader = mock(Reader.class);
+        final Reader primaryReader = ReaderMocks.create();
         when(primaryReader.readScaled(eq(43), eq(74), anyObject(), eq("btemps_ch18"))).thenReturn(highBtempArray);
         when(primaryReader.readScaled(eq(43), eq(74), anyObject(), eq("btemps_ch20"))).thenReturn(lowBtempArray);
         when(primaryReader.readScaled(eq(43), eq(74), anyObject(), eq("Satellite_zenith_angle"))).thenReturn(lowVZAArray);
@@ -140,7 +138,7 @@ public class BuehlerCloudScreeningTest {
         when(primaryReader.readScaled(eq(45), eq(76), anyObject(), eq("btemps_ch20"))).thenReturn(lowBtempArray);
         when(primaryReader.readScaled(eq(45), eq(76), anyObject(), eq("Satellite_zenith_angle"))).thenReturn(lowVZAArray);
 
-        final Reader secondaryReader = mock(Reader.class);
+        final Reader secondaryReader = ReaderMocks.create();
 
         configuration.primaryNarrowChannelName = "btemps_ch18";
         configuration.primaryWideChannelName = "btemps_ch20";
@@ -149,7 +147,7 @@ public class BuehlerCloudScreeningTest {
         screening.configure(configuration);
         screening.apply(matchupSet, primaryReader, secondaryReader, null);
 
-        sampleSets = matchupSet.getSampleSets();
+        List<SampleSet> sampleSets = matchupSet.getSampleSets();
         assertEquals(2, sampleSets.size());
 
         assertEquals(43, sampleSets.get(0).getPrimary().x);
@@ -160,10 +158,9 @@ public class BuehlerCloudScreeningTest {
     public void testApply_onlySecondary_btempDelta() throws IOException, InvalidRangeException {
         final MatchupSet matchupSet = new MatchupSet();
 
-        List<SampleSet> sampleSets = matchupSet.getSampleSets();
-        sampleSets.add(createSampleSet(53, 64, 45, 454));
-        sampleSets.add(createSampleSet(54, 65, 46, 455));
-        sampleSets.add(createSampleSet(55, 66, 47, 456)); // <- this one gets removed
+        matchupSet.addSampleSet(createSampleSet(53, 64, 45, 454));
+        matchupSet.addSampleSet(createSampleSet(54, 65, 46, 455));
+        matchupSet.addSampleSet(createSampleSet(55, 66, 47, 456)); // <- this one gets removed
 
         final Array highBtempArray = mock(ucar.ma2.Array.class);
         when(highBtempArray.getDouble(0)).thenReturn(262.64);
@@ -174,9 +171,9 @@ public class BuehlerCloudScreeningTest {
         final Array VZAArray = mock(ucar.ma2.Array.class);
         when(VZAArray.getDouble(0)).thenReturn(10.65);
 
-        final Reader primaryReader = mock(Reader.class);
+        final Reader primaryReader = ReaderMocks.create();
 
-        final Reader secondaryReader = mock(Reader.class);
+        final Reader secondaryReader = ReaderMocks.create();
         when(secondaryReader.readScaled(eq(45), eq(454), anyObject(), eq("btemps_ch3"))).thenReturn(highBtempArray);
         when(secondaryReader.readScaled(eq(45), eq(454), anyObject(), eq("btemps_ch4"))).thenReturn(highBtempArray);
         when(secondaryReader.readScaled(eq(45), eq(454), anyObject(), eq("Satellite_zenith_angle"))).thenReturn(VZAArray);
@@ -194,7 +191,7 @@ public class BuehlerCloudScreeningTest {
         screening.configure(configuration);
         screening.apply(matchupSet, primaryReader, secondaryReader, null);
 
-        sampleSets = matchupSet.getSampleSets();
+        List<SampleSet> sampleSets = matchupSet.getSampleSets();
         assertEquals(2, sampleSets.size());
 
         assertEquals(45, sampleSets.get(0).getSecondary().x);
@@ -205,18 +202,17 @@ public class BuehlerCloudScreeningTest {
     public void testApply_emptyConfig() throws IOException, InvalidRangeException {
         final MatchupSet matchupSet = new MatchupSet();
 
-        List<SampleSet> sampleSets = matchupSet.getSampleSets();
-        sampleSets.add(createSampleSet(43, 74, 55, 454));   // <- this one gets removed
-        sampleSets.add(createSampleSet(44, 75, 56, 455));
-        sampleSets.add(createSampleSet(45, 76, 57, 456));
+        matchupSet.addSampleSet(createSampleSet(43, 74, 55, 454));   // <- this one gets removed
+        matchupSet.addSampleSet(createSampleSet(44, 75, 56, 455));
+        matchupSet.addSampleSet(createSampleSet(45, 76, 57, 456));
 
-        final Reader primaryReader = mock(Reader.class);
-        final Reader secondaryReader = mock(Reader.class);
+        final Reader primaryReader = ReaderMocks.create();
+        final Reader secondaryReader = ReaderMocks.create();
 
         screening.configure(configuration);
         screening.apply(matchupSet, primaryReader, secondaryReader, null);
 
-        sampleSets = matchupSet.getSampleSets();
+        List<SampleSet> sampleSets = matchupSet.getSampleSets();
         assertEquals(3, sampleSets.size());
     }
 
@@ -51,8 +51,8 @@ public class HIRS_LZADeltaScreeningTest {
     @Test
     public void testApply_emptyInputSet() throws IOException, InvalidRangeException {
         final MatchupSet matchupSet = new MatchupSet();
-        final Reader primaryReader = mock(Reader.class);
-        final Reader secondaryReader = mock(Reader.class);
+        final Reader primaryReader = ReaderMocks.create();
+        final Reader secondaryReader = ReaderMocks.create();
 
         assertEquals(0, matchupSet.getNumObservations());
 
@@ -65,10 +65,9 @@ public class HIRS_LZADeltaScreeningTest {
     public void testApply() throws IOException, InvalidRangeException {
         final MatchupSet matchupSet = new MatchupSet();
 
-        List<SampleSet> sampleSets = matchupSet.getSampleSets();
-        sampleSets.add(createSampleSet(23, 174, 35, 554));
-        sampleSets.add(createSampleSet(24, 175, 36, 555));  // <- this one gets removed
-        sampleSets.add(createSampleSet(25, 176, 37, 556));
+        matchupSet.addSampleSet(createSampleSet(23, 174, 35, 554));
+        matchupSet.addSampleSet(createSampleSet(24, 175, 36, 555));  // <- this one gets removed
+        matchupSet.addSampleSet(createSampleSet(25, 176, 37, 556));
 
         final Array highLZAArray = mock(ucar.ma2.Array.class);
         when(highLZAArray.getDouble(0)).thenReturn(27.72);
@@ -80,12 +79,12 @@ public class HIRS_LZADeltaScreeningTest {
         when(lowLZAArray.getDouble(0)).thenReturn(5.09);
 
         final Array leftPosArray = mock(ucar.ma2.Array.class);
-        when(leftPosArray.getInt(0)).thenReturn(27);
+        when(leftPosArray.getDouble(0)).thenReturn(27.0);
 
         final Array righPosArray = mock(ucar.ma2.Array.class);
-        when(righPosArray.getInt(0)).thenReturn(28);
+        when(righPosArray.getDouble(0)).thenReturn(28.0);
 
-        final Reader primaryReader = mock(Reader.class);
+        final Reader primaryReader = ReaderMocks.create();
         when(primaryReader.readScaled(eq(23), eq(174), anyObject(), eq("lza"))).thenReturn(midLZAArray);
         when(primaryReader.readScaled(eq(23), eq(174), anyObject(), eq("scanpos"))).thenReturn(leftPosArray);
         when(primaryReader.readScaled(eq(24), eq(175), anyObject(), eq("lza"))).thenReturn(highLZAArray);
@@ -93,7 +92,7 @@ public class HIRS_LZADeltaScreeningTest {
         when(primaryReader.readScaled(eq(25), eq(176), anyObject(), eq("lza"))).thenReturn(lowLZAArray);
         when(primaryReader.readScaled(eq(25), eq(176), anyObject(), eq("scanpos"))).thenReturn(righPosArray);
 
-        final Reader secondReader = mock(Reader.class);
+        final Reader secondReader = ReaderMocks.create();
         when(secondReader.readScaled(eq(35), eq(554), anyObject(), eq("lza"))).thenReturn(lowLZAArray);
         when(secondReader.readScaled(eq(35), eq(554), anyObject(), eq("scanpos"))).thenReturn(leftPosArray);
         when(secondReader.readScaled(eq(36), eq(555), anyObject(), eq("lza"))).thenReturn(lowLZAArray);
@@ -107,7 +106,7 @@ public class HIRS_LZADeltaScreeningTest {
 
         screening.apply(matchupSet, primaryReader, secondReader, null);
 
-        sampleSets = matchupSet.getSampleSets();
+        List<SampleSet> sampleSets = matchupSet.getSampleSets();
         assertEquals(2, sampleSets.size());
 
         assertEquals(23, sampleSets.get(0).getPrimary().x);
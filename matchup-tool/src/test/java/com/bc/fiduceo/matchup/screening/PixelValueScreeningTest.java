@@ -36,8 +36,11 @@ import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyObject;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -68,18 +71,17 @@ public class PixelValueScreeningTest {
     public void testApply_onlyPrimaryExpression() throws IOException, InvalidRangeException {
         final MatchupSet matchupSet = new MatchupSet();
 
-        List<SampleSet> sampleSets = matchupSet.getSampleSets();
-        sampleSets.add(createSampleSet(33, 274, 45, 654));
-        sampleSets.add(createSampleSet(34, 275, 46, 655));
-        sampleSets.add(createSampleSet(35, 276, 47, 656));  // <- this one gets removed
+        matchupSet.addSampleSet(createSampleSet(33, 274, 45, 654));
+        matchupSet.addSampleSet(createSampleSet(34, 275, 46, 655));
+        matchupSet.addSampleSet(createSampleSet(35, 276, 47, 656));  // <- this one gets removed
 
         final Array regularScanArray = mock(ucar.ma2.Array.class);
-        when(regularScanArray.getInt(0)).thenReturn(0);
+        when(regularScanArray.getDouble(0)).thenReturn(0.0);
 
         final Array calibrationScanArray = mock(ucar.ma2.Array.class);
-        when(calibrationScanArray.getInt(0)).thenReturn(3);
+        when(calibrationScanArray.getDouble(0)).thenReturn(3.0);
 
-        final Reader primaryReader = mock(Reader.class);
+        final Reader primaryReader = ReaderMocks.create();
         when(primaryReader.readScaled(eq(33), eq(274), anyObject(), eq("scanline_type"))).thenReturn(regularScanArray);
         when(primaryReader.readScaled(eq(34), eq(275), anyObject(), eq("scanline_type"))).thenReturn(regularScanArray);
         when(primaryReader.readScaled(eq(35), eq(276), anyObject(), eq("scanline_type"))).thenReturn(calibrationScanArray);
@@ -87,7 +89,7 @@ public class PixelValueScreeningTest {
         final List<Variable> variables = createVariablesList();
         when(primaryReader.getVariables()).thenReturn(variables);
 
-        final Reader secondaryReader = mock(Reader.class);
+        final Reader secondaryReader = ReaderMocks.create();
         when(secondaryReader.readScaled(eq(45), eq(654), anyObject(), eq("scanline_type"))).thenReturn(regularScanArray);
         when(secondaryReader.readScaled(eq(46), eq(655), anyObject(), eq("scanline_type"))).thenReturn(regularScanArray);
         when(secondaryReader.readScaled(eq(47), eq(656), anyObject(), eq("scanline_type"))).thenReturn(regularScanArray);
@@ -101,7 +103,7 @@ public class PixelValueScreeningTest {
 
         screening.apply(matchupSet, primaryReader, secondaryReader, null);
 
-        sampleSets = matchupSet.getSampleSets();
+        List<SampleSet> sampleSets = matchupSet.getSampleSets();
         assertEquals(2, sampleSets.size());
 
         assertEquals(33, sampleSets.get(0).getPrimary().x);
@@ -112,18 +114,17 @@ public class PixelValueScreeningTest {
     public void testApply_onlySecondaryExpression() throws IOException, InvalidRangeException {
         final MatchupSet matchupSet = new MatchupSet();
 
-        List<SampleSet> sampleSets = matchupSet.getSampleSets();
-        sampleSets.add(createSampleSet(34, 275, 46, 655));  // <- this one gets removed
-        sampleSets.add(createSampleSet(35, 276, 47, 656));
-        sampleSets.add(createSampleSet(36, 277, 48, 657));
+        matchupSet.addSampleSet(createSampleSet(34, 275, 46, 655));  // <- this one gets removed
+        matchupSet.addSampleSet(createSampleSet(35, 276, 47, 656));
+        matchupSet.addSampleSet(createSampleSet(36, 277, 48, 657));
 
         final Array regularScanArray = mock(ucar.ma2.Array.class);
-        when(regularScanArray.getInt(0)).thenReturn(0);
+        when(regularScanArray.getDouble(0)).thenReturn(0.0);
 
         final Array calibrationScanArray = mock(ucar.ma2.Array.class);
-        when(calibrationScanArray.getInt(0)).thenReturn(3);
+        when(calibrationScanArray.getDouble(0)).thenReturn(3.0);
 
-        final Reader primaryReader = mock(Reader.class);
+        final Reader primaryReader = ReaderMocks.create();
         when(primaryReader.readScaled(eq(34), eq(275), anyObject(), eq("scanline_type"))).thenReturn(regularScanArray);
         when(primaryReader.readScaled(eq(35), eq(276), anyObject(), eq("scanline_type"))).thenReturn(regularScanArray);
         when(primaryReader.readScaled(eq(36), eq(277), anyObject(), eq("scanline_type"))).thenReturn(regularScanArray);
@@ -131,7 +132,7 @@ public class PixelValueScreeningTest {
         final List<Variable> variables = createVariablesList();
         when(primaryReader.getVariables()).thenReturn(variables);
 
-        final Reader secondaryReader = mock(Reader.class);
+        final Reader secondaryReader = ReaderMocks.create();
         when(secondaryReader.readScaled(eq(46), eq(655), anyObject(), eq("scanline_type"))).thenReturn(calibrationScanArray);
         when(secondaryReader.readScaled(eq(47), eq(656), anyObject(), eq("scanline_type"))).thenReturn(regularScanArray);
         when(secondaryReader.readScaled(eq(48), eq(657), anyObject(), eq("scanline_type"))).thenReturn(regularScanArray);
@@ -145,7 +146,7 @@ public class PixelValueScreeningTest {
 
         screening.apply(matchupSet, primaryReader, secondaryReader, null);
 
-        sampleSets = matchupSet.getSampleSets();
+        List<SampleSet> sampleSets = matchupSet.getSampleSets();
         assertEquals(2, sampleSets.size());
 
         assertEquals(35, sampleSets.get(0).getPrimary().x);
@@ -156,18 +157,17 @@ public class PixelValueScreeningTest {
     public void testApply_bothExpression() throws IOException, InvalidRangeException {
         final MatchupSet matchupSet = new MatchupSet();
 
-        List<SampleSet> sampleSets = matchupSet.getSampleSets();
-        sampleSets.add(createSampleSet(35, 276, 47, 656));  // <- this one gets removed
-        sampleSets.add(createSampleSet(36, 277, 48, 657));
-        sampleSets.add(createSampleSet(37, 278, 49, 658));  // <- this one gets removed
+        matchupSet.addSampleSet(createSampleSet(35, 276, 47, 656));  // <- this one gets removed
+        matchupSet.addSampleSet(createSampleSet(36, 277, 48, 657));
+        matchupSet.addSampleSet(createSampleSet(37, 278, 49, 658));  // <- this one gets removed
 
         final Array regularScanArray = mock(ucar.ma2.Array.class);
-        when(regularScanArray.getInt(0)).thenReturn(0);
+        when(regularScanArray.getDouble(0)).thenReturn(0.0);
 
         final Array calibrationScanArray = mock(ucar.ma2.Array.class);
-        when(calibrationScanArray.getInt(0)).thenReturn(3);
+        when(calibrationScanArray.getDouble(0)).thenReturn(3.0);
 
-        final Reader primaryReader = mock(Reader.class);
+        final Reader primaryReader = ReaderMocks.create();
         when(primaryReader.readScaled(eq(35), eq(276), anyObject(), eq("scanline_type"))).thenReturn(regularScanArray);
         when(primaryReader.readScaled(eq(36), eq(277), anyObject(), eq("scanline_type"))).thenReturn(regularScanArray);
         when(primaryReader.readScaled(eq(37), eq(278), anyObject(), eq("scanline_type"))).thenReturn(calibrationScanArray);
@@ -175,7 +175,7 @@ public class PixelValueScreeningTest {
         final List<Variable> variables = createVariablesList();
         when(primaryReader.getVariables()).thenReturn(variables);
 
-        final Reader secondaryReader = mock(Reader.class);
+        final Reader secondaryReader = ReaderMocks.create();
         when(secondaryReader.readScaled(eq(47), eq(656), anyObject(), eq("scanline_type"))).thenReturn(calibrationScanArray);
         when(secondaryReader.readScaled(eq(48), eq(657), anyObject(), eq("scanline_type"))).thenReturn(regularScanArray);
         when(secondaryReader.readScaled(eq(49), eq(658), anyObject(), eq("scanline_type"))).thenReturn(regularScanArray);
@@ -189,12 +189,47 @@ public class PixelValueScreeningTest {
 
         screening.apply(matchupSet, primaryReader, secondaryReader, null);
 
-        sampleSets = matchupSet.getSampleSets();
+        List<SampleSet> sampleSets = matchupSet.getSampleSets();
         assertEquals(1, sampleSets.size());
 
         assertEquals(36, sampleSets.get(0).getPrimary().x);
     }
 
+    @Test
+    public void testApply_largeSetEvaluatedInParallel() throws IOException, InvalidRangeException {
+        final MatchupSet matchupSet = new MatchupSet();
+        final int numSamples = 50000;
+        final List<SampleSet> sampleSets = matchupSet.getSampleSets();
+        for (int i = 0; i < numSamples; i++) {
+            matchupSet.addSampleSet(createSampleSet(i, 12, i, 13));
+        }
+
+        // odd x positions are calibration scans
+        final Reader primaryReader = mock(Reader.class);
+        doAnswer(invocation -> {
+            final Object[] arguments = invocation.getArguments();
+            final int[] x = (int[]) arguments[0];
+            final double[] target = (double[]) arguments[4];
+            for (int i = 0; i < (int) arguments[2]; i++) {
+                target[i] = x[i] % 2 == 0 ? 0.0 : 3.0;
+            }
+            return null;
+        }).when(primaryReader).readScaled(any(int[].class), any(int[].class), anyInt(), eq("scanline_type"), any(double[].class));
+        final List<Variable> variables = createVariablesList();
+        when(primaryReader.getVariables()).thenReturn(variables);
+
+        final PixelValueScreening.Configuration configuration = new PixelValueScreening.Configuration();
+        configuration.primaryExpression = "scanline_type == 0";
+        screening.configure(configuration);
+
+        screening.apply(matchupSet, primaryReader, mock(Reader.class), null);
+
+        assertEquals(numSamples / 2, matchupSet.getNumObservations());
+        for (int i = 0; i < numSamples / 2; i++) {
+            assertEquals(2 * i, matchupSet.getPrimaryX(i));
+        }
+    }
+
     private SampleSet createSampleSet(int primaryX, int primaryY, int secondaryX, int secondaryY) {
         final SampleSet sampleSet = new SampleSet();
         final Sample primary = new Sample(primaryX, primaryY, 4.0987, 5.876, 6014783);
@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) 2016 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+package com.bc.fiduceo.matchup.screening;
+
+
+import com.bc.fiduceo.core.Interval;
+import com.bc.fiduceo.reader.Reader;
+import ucar.ma2.Array;
+import ucar.ma2.InvalidRangeException;
+
+import java.io.IOException;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class ReaderMocks {
+
+    // the mock answers the batched pixel reads with the values stubbed for the single pixel reads, as the
+    // default implementation in the Reader interface does. Pixels not stubbed read as 0.0
+    static Reader create() throws IOException, InvalidRangeException {
+        final Reader reader = mock(Reader.class);
+        doAnswer(invocation -> {
+            final Object[] arguments = invocation.getArguments();
+            final int[] x = (int[]) arguments[0];
+            final int[] y = (int[]) arguments[1];
+            final int numPixels = (int) arguments[2];
+            final String variableName = (String) arguments[3];
+            final double[] target = (double[]) arguments[4];
+
+            for (int i = 0; i < numPixels; i++) {
+                final Array array = reader.readScaled(x[i], y[i], new Interval(1, 1), variableName);
+                target[i] = array != null ? array.getDouble(0) : 0.0;
+            }
+            return null;
+        }).when(reader).readScaled(any(int[].class), any(int[].class), anyInt(), anyString(), any(double[].class));
+        return reader;
+    }
+}
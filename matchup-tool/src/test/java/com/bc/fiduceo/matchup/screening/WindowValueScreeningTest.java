@@ -85,9 +85,8 @@ public class WindowValueScreeningTest {
     public void testApply_onlyPrimaryExpression() throws IOException, InvalidRangeException {
         final MatchupSet matchupSet = new MatchupSet();
 
-        List<SampleSet> sampleSets = matchupSet.getSampleSets();
-        sampleSets.add(createSampleSet(0, 0, 3, 3));
-        sampleSets.add(createSampleSet(5, 5, 3, 3));  // <- this one gets removed
+        matchupSet.addSampleSet(createSampleSet(0, 0, 3, 3));
+        matchupSet.addSampleSet(createSampleSet(5, 5, 3, 3));  // <- this one gets removed
 
         final Screening.ScreeningContext screeningContext = mock(Screening.ScreeningContext.class);
         when(screeningContext.getPrimaryDimension()).thenReturn(new Dimension("name", 3, 3));
@@ -101,7 +100,7 @@ public class WindowValueScreeningTest {
 
         screening.apply(matchupSet, reader, null, screeningContext);
 
-        sampleSets = matchupSet.getSampleSets();
+        List<SampleSet> sampleSets = matchupSet.getSampleSets();
         assertEquals(1, sampleSets.size());
 
         assertEquals(0, sampleSets.get(0).getPrimary().x);
@@ -111,9 +110,8 @@ public class WindowValueScreeningTest {
     public void testApply_onlyPrimaryExpression_onlyValidPixels() throws IOException, InvalidRangeException {
         final MatchupSet matchupSet = new MatchupSet();
 
-        List<SampleSet> sampleSets = matchupSet.getSampleSets();
-        sampleSets.add(createSampleSet(0, 0, 3, 3));
-        sampleSets.add(createSampleSet(5, 5, 3, 3));  // <- this one gets removed
+        matchupSet.addSampleSet(createSampleSet(0, 0, 3, 3));
+        matchupSet.addSampleSet(createSampleSet(5, 5, 3, 3));  // <- this one gets removed
 
         final Screening.ScreeningContext screeningContext = mock(Screening.ScreeningContext.class);
         when(screeningContext.getPrimaryDimension()).thenReturn(new Dimension("name", 3, 3));
@@ -127,7 +125,7 @@ public class WindowValueScreeningTest {
 
         screening.apply(matchupSet, reader, null, screeningContext);
 
-        sampleSets = matchupSet.getSampleSets();
+        List<SampleSet> sampleSets = matchupSet.getSampleSets();
         assertEquals(1, sampleSets.size());
 
         assertEquals(0, sampleSets.get(0).getPrimary().x);
@@ -137,9 +135,8 @@ public class WindowValueScreeningTest {
     public void testApply_onlySecondaryExpression() throws IOException, InvalidRangeException {
         final MatchupSet matchupSet = new MatchupSet();
 
-        List<SampleSet> sampleSets = matchupSet.getSampleSets();
-        sampleSets.add(createSampleSet(3, 3, 2, 2));  // <- this one gets removed
-        sampleSets.add(createSampleSet(3, 3, 4, 4));
+        matchupSet.addSampleSet(createSampleSet(3, 3, 2, 2));  // <- this one gets removed
+        matchupSet.addSampleSet(createSampleSet(3, 3, 4, 4));
 
         final Screening.ScreeningContext screeningContext = mock(Screening.ScreeningContext.class);
         when(screeningContext.getSecondaryDimension()).thenReturn(new Dimension("name", 5, 5));
@@ -153,7 +150,7 @@ public class WindowValueScreeningTest {
 
         screening.apply(matchupSet, null, reader, screeningContext);
 
-        sampleSets = matchupSet.getSampleSets();
+        List<SampleSet> sampleSets = matchupSet.getSampleSets();
         assertEquals(1, sampleSets.size());
 
         assertEquals(4, sampleSets.get(0).getSecondary().x);
@@ -163,9 +160,8 @@ public class WindowValueScreeningTest {
     public void testApply_onlySecondaryExpression_onlyValidPixels() throws IOException, InvalidRangeException {
         final MatchupSet matchupSet = new MatchupSet();
 
-        List<SampleSet> sampleSets = matchupSet.getSampleSets();
-        sampleSets.add(createSampleSet(3, 3, 2, 2));  // <- this one gets removed
-        sampleSets.add(createSampleSet(3, 3, 4, 4));
+        matchupSet.addSampleSet(createSampleSet(3, 3, 2, 2));  // <- this one gets removed
+        matchupSet.addSampleSet(createSampleSet(3, 3, 4, 4));
 
         final Screening.ScreeningContext screeningContext = mock(Screening.ScreeningContext.class);
         when(screeningContext.getSecondaryDimension()).thenReturn(new Dimension("name", 5, 5));
@@ -179,7 +175,7 @@ public class WindowValueScreeningTest {
 
         screening.apply(matchupSet, null, reader, screeningContext);
 
-        sampleSets = matchupSet.getSampleSets();
+        List<SampleSet> sampleSets = matchupSet.getSampleSets();
         assertEquals(1, sampleSets.size());
 
         assertEquals(4, sampleSets.get(0).getSecondary().x);
@@ -189,10 +185,9 @@ public class WindowValueScreeningTest {
     public void testApply_bothExpression() throws IOException, InvalidRangeException {
         final MatchupSet matchupSet = new MatchupSet();
 
-        List<SampleSet> sampleSets = matchupSet.getSampleSets();
-        sampleSets.add(createSampleSet(3, 3, 2, 2));  // <- this one gets removed
-        sampleSets.add(createSampleSet(3, 3, 1, 1));
-        sampleSets.add(createSampleSet(2, 2, 1, 1));  // <- this one gets removed
+        matchupSet.addSampleSet(createSampleSet(3, 3, 2, 2));  // <- this one gets removed
+        matchupSet.addSampleSet(createSampleSet(3, 3, 1, 1));
+        matchupSet.addSampleSet(createSampleSet(2, 2, 1, 1));  // <- this one gets removed
 
         final Screening.ScreeningContext screeningContext = mock(Screening.ScreeningContext.class);
         when(screeningContext.getPrimaryDimension()).thenReturn(new Dimension("name", 3, 3));
@@ -210,7 +205,7 @@ public class WindowValueScreeningTest {
 
         screening.apply(matchupSet, reader, reader, screeningContext);
 
-        sampleSets = matchupSet.getSampleSets();
+        List<SampleSet> sampleSets = matchupSet.getSampleSets();
         assertEquals(1, sampleSets.size());
 
         assertEquals(3, sampleSets.get(0).getPrimary().x);
@@ -221,10 +216,9 @@ public class WindowValueScreeningTest {
     public void testApply_bothExpression_onlyValidPixels() throws IOException, InvalidRangeException {
         final MatchupSet matchupSet = new MatchupSet();
 
-        List<SampleSet> sampleSets = matchupSet.getSampleSets();
-        sampleSets.add(createSampleSet(3, 3, 2, 2));  // <- this one gets removed
-        sampleSets.add(createSampleSet(3, 3, 1, 1));
-        sampleSets.add(createSampleSet(2, 2, 1, 1));  // <- this one gets removed
+        matchupSet.addSampleSet(createSampleSet(3, 3, 2, 2));  // <- this one gets removed
+        matchupSet.addSampleSet(createSampleSet(3, 3, 1, 1));
+        matchupSet.addSampleSet(createSampleSet(2, 2, 1, 1));  // <- this one gets removed
 
         final Screening.ScreeningContext screeningContext = mock(Screening.ScreeningContext.class);
         when(screeningContext.getPrimaryDimension()).thenReturn(new Dimension("name", 3, 3));
@@ -242,7 +236,7 @@ public class WindowValueScreeningTest {
 
         screening.apply(matchupSet, reader, reader, screeningContext);
 
-        sampleSets = matchupSet.getSampleSets();
+        List<SampleSet> sampleSets = matchupSet.getSampleSets();
         assertEquals(1, sampleSets.size());
 
         assertEquals(3, sampleSets.get(0).getPrimary().x);
@@ -20,29 +20,18 @@
 
 package com.bc.fiduceo.matchup.screening.expression;
 
-import com.bc.fiduceo.reader.Reader;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertSame;
-import static org.mockito.Mockito.mock;
 
 public class ReaderEvalEnvTest {
 
     @Test
-    public void testConstruct() {
-        final Reader reader = mock(Reader.class);
+    public void testSetGetIndex() {
+        final ReaderEvalEnv evalEnv = new ReaderEvalEnv();
+        assertEquals(0, evalEnv.getIndex());
 
-        final ReaderEvalEnv evalEnv = new ReaderEvalEnv(reader);
-        assertSame(reader, evalEnv.getReader());
-    }
-
-    @Test
-    public void testSetGetCoordinates() {
-        final ReaderEvalEnv evalEnv = new ReaderEvalEnv(null);
-
-        evalEnv.setLocation(23, 156);
-        assertEquals(23, evalEnv.getX());
-        assertEquals(156, evalEnv.getY());
+        evalEnv.setIndex(23);
+        assertEquals(23, evalEnv.getIndex());
     }
 }
@@ -41,9 +41,9 @@
 package com.bc.fiduceo.matchup.screening.expression;
 
 import com.bc.fiduceo.reader.Reader;
+import org.esa.snap.core.jexp.EvalException;
 import org.esa.snap.core.jexp.Term;
 import org.junit.Test;
-import ucar.ma2.Array;
 import ucar.ma2.DataType;
 import ucar.ma2.InvalidRangeException;
 import ucar.nc2.Variable;
@@ -54,8 +54,11 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
-import static org.mockito.Matchers.anyObject;
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -118,64 +121,70 @@ public class VariableSymbolTest {
 
     @Test
     public void testEvalB() throws IOException, InvalidRangeException {
-        final Reader reader = mock(Reader.class);
-        final ReaderEvalEnv evalEnv = new ReaderEvalEnv(reader);
-        evalEnv.setLocation(167, 22348);
-
-        final Array array = mock(Array.class);
-        when(array.getBoolean(0)).thenReturn(true);
+        final Reader reader = createReader("variable_name", new double[]{0.0, 1.0});
+        final VariableSymbol symbol = createSymbol("variable_name");
+        symbol.readValues(reader, new int[]{167, 168}, new int[]{22348, 22349}, 2);
 
-        when(reader.readScaled(eq(167), eq(22348), anyObject(), eq("variable_name"))).thenReturn(array);
-
-        final Variable variable = mock(Variable.class);
-        when(variable.getFullName()).thenReturn("variable_name");
-        final VariableSymbol symbol = new VariableSymbol(variable);
+        final ReaderEvalEnv evalEnv = new ReaderEvalEnv();
+        evalEnv.setIndex(0);
+        assertFalse(symbol.evalB(evalEnv));
 
+        evalEnv.setIndex(1);
         assertTrue(symbol.evalB(evalEnv));
 
-        verify(reader, times(1)).readScaled(eq(167), eq(22348), anyObject(), eq("variable_name"));
+        verify(reader, times(1)).readScaled(aryEq(new int[]{167, 168}), aryEq(new int[]{22348, 22349}), eq(2), eq("variable_name"), any(double[].class));
         verifyNoMoreInteractions(reader);
     }
 
     @Test
     public void testEvalI() throws IOException, InvalidRangeException {
-        final Reader reader = mock(Reader.class);
-        final ReaderEvalEnv evalEnv = new ReaderEvalEnv(reader);
-        evalEnv.setLocation(168, 22349);
-
-        final Array array = mock(Array.class);
-        when(array.getInt(0)).thenReturn(3254);
-
-        when(reader.readScaled(eq(168), eq(22349), anyObject(), eq("int_var"))).thenReturn(array);
-
-        final Variable variable = mock(Variable.class);
-        when(variable.getFullName()).thenReturn("int_var");
-        final VariableSymbol symbol = new VariableSymbol(variable);
+        final Reader reader = createReader("int_var", new double[]{3254.0, 17.0});
+        final VariableSymbol symbol = createSymbol("int_var");
+        symbol.readValues(reader, new int[]{168, 169}, new int[]{22349, 22350}, 2);
 
+        final ReaderEvalEnv evalEnv = new ReaderEvalEnv();
+        evalEnv.setIndex(0);
         assertEquals(3254, symbol.evalI(evalEnv));
 
-        verify(reader, times(1)).readScaled(eq(168), eq(22349), anyObject(), eq("int_var"));
-        verifyNoMoreInteractions(reader);
+        evalEnv.setIndex(1);
+        assertEquals(17, symbol.evalI(evalEnv));
     }
 
     @Test
     public void testEvalD() throws IOException, InvalidRangeException {
-        final Reader reader = mock(Reader.class);
-        final ReaderEvalEnv evalEnv = new ReaderEvalEnv(reader);
-        evalEnv.setLocation(169, 22350);
+        final Reader reader = createReader("double_var", new double[]{0.088745});
+        final VariableSymbol symbol = createSymbol("double_var");
+        symbol.readValues(reader, new int[]{169}, new int[]{22350}, 1);
 
-        final Array array = mock(Array.class);
-        when(array.getDouble(0)).thenReturn(0.088745);
+        final ReaderEvalEnv evalEnv = new ReaderEvalEnv();
+        evalEnv.setIndex(0);
+        assertEquals(0.088745, symbol.evalD(evalEnv), 1e-8);
+    }
 
-        when(reader.readScaled(eq(169), eq(22350), anyObject(), eq("double_var"))).thenReturn(array);
+    @Test
+    public void testEvalD_valuesNotRead() {
+        final VariableSymbol symbol = createSymbol("double_var");
 
-        final Variable variable = mock(Variable.class);
-        when(variable.getFullName()).thenReturn("double_var");
-        final VariableSymbol symbol = new VariableSymbol(variable);
+        try {
+            symbol.evalD(new ReaderEvalEnv());
+            fail("EvalException expected");
+        } catch (EvalException expected) {
+        }
+    }
 
-        assertEquals(0.088745, symbol.evalD(evalEnv), 1e-8);
+    private static VariableSymbol createSymbol(String variableName) {
+        final Variable variable = mock(Variable.class);
+        when(variable.getFullName()).thenReturn(variableName);
+        return new VariableSymbol(variable);
+    }
 
-        verify(reader, times(1)).readScaled(eq(169), eq(22350), anyObject(), eq("double_var"));
-        verifyNoMoreInteractions(reader);
+    private static Reader createReader(String variableName, double[] values) throws IOException, InvalidRangeException {
+        final Reader reader = mock(Reader.class);
+        doAnswer(invocation -> {
+            final double[] target = (double[]) invocation.getArguments()[4];
+            System.arraycopy(values, 0, target, 0, values.length);
+            return null;
+        }).when(reader).readScaled(any(int[].class), any(int[].class), anyInt(), eq(variableName), any(double[].class));
+        return reader;
     }
 }
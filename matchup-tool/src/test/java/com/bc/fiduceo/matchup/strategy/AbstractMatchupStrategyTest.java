@@ -21,7 +21,9 @@
 package com.bc.fiduceo.matchup.strategy;
 
 import com.bc.fiduceo.TestUtil;
+import com.bc.fiduceo.core.SatelliteObservation;
 import com.bc.fiduceo.core.Sensor;
+import com.bc.fiduceo.core.SystemConfig;
 import com.bc.fiduceo.core.UseCaseConfig;
 import com.bc.fiduceo.core.UseCaseConfigBuilder;
 import com.bc.fiduceo.db.QueryParameter;
@@ -29,19 +31,25 @@ import com.bc.fiduceo.geometry.Geometry;
 import com.bc.fiduceo.geometry.GeometryCollection;
 import com.bc.fiduceo.geometry.Polygon;
 import com.bc.fiduceo.location.PixelLocator;
+import com.bc.fiduceo.matchup.MatchupCollection;
+import com.bc.fiduceo.matchup.MatchupSet;
 import com.bc.fiduceo.reader.Reader;
 import com.bc.fiduceo.tool.ToolContext;
 import com.bc.fiduceo.util.TimeUtils;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Matchers.same;
 import static org.mockito.Mockito.mock;
@@ -74,6 +82,66 @@ public class AbstractMatchupStrategyTest {
         assertEquals(null, parameter.getVersion());
     }
 
+    @Test
+    public void testGetNumWorkerThreads() {
+        final SystemConfig systemConfig = SystemConfig.load(new ByteArrayInputStream("<system-config><worker-threads>4</worker-threads></system-config>".getBytes()));
+        final ToolContext context = new ToolContext();
+        context.setSystemConfig(systemConfig);
+
+        assertEquals(4, AbstractMatchupStrategy.getNumWorkerThreads(context));
+    }
+
+    @Test
+    public void testIsFusedConditions() {
+        final ToolContext context = new ToolContext();
+        assertFalse(AbstractMatchupStrategy.isFusedConditions(context));
+
+        final SystemConfig systemConfig = SystemConfig.load(new ByteArrayInputStream("<system-config><fused-conditions>true</fused-conditions></system-config>".getBytes()));
+        context.setSystemConfig(systemConfig);
+        assertTrue(AbstractMatchupStrategy.isFusedConditions(context));
+    }
+
+    @Test
+    public void testGetNumWorkerThreads_noSystemConfig() {
+        final ToolContext context = new ToolContext();
+
+        assertEquals(1, AbstractMatchupStrategy.getNumWorkerThreads(context));
+    }
+
+    @Test
+    public void testCreateSpillingCollection() throws IOException {
+        final SystemConfig systemConfig = SystemConfig.load(new ByteArrayInputStream("<system-config><max-matchups-in-memory>2</max-matchups-in-memory></system-config>".getBytes()));
+        final ToolContext context = new ToolContext();
+        context.setSystemConfig(systemConfig);
+
+        final MatchupCollection collection = AbstractMatchupStrategy.createSpillingCollection(context);
+        try {
+            final MatchupSet matchupSet = new MatchupSet();
+            matchupSet.addPrimary(1, 2, 3.0, 4.0, 5L);
+            matchupSet.addPrimary(2, 2, 3.0, 4.0, 5L);
+            collection.add(matchupSet);
+            assertFalse(collection.isSpilled());
+
+            collection.add(matchupSet);
+            assertTrue(collection.isSpilled());
+        } finally {
+            collection.close();
+        }
+    }
+
+    @Test
+    public void testCreateSpillingCollection_noSystemConfig() throws IOException {
+        final MatchupCollection collection = AbstractMatchupStrategy.createSpillingCollection(new ToolContext());
+
+        final MatchupSet matchupSet = new MatchupSet();
+        matchupSet.addPrimary(1, 2, 3.0, 4.0, 5L);
+        for (int i = 0; i < 100; i++) {
+            collection.add(matchupSet);
+        }
+        assertFalse(collection.isSpilled());
+        assertEquals(100, collection.getNumMatchups());
+    }
+
     @Test
     public void testGetPrimarySensorParameter() {
         final ToolContext context = new ToolContext();
@@ -202,6 +270,26 @@ public class AbstractMatchupStrategyTest {
         TestUtil.assertCorrectUTCDate(1997, 2, 4, 23, 59, 59, parameter.getStopTime());
     }
 
+    @Test
+    public void testGetSecondarySensorParameter_withGeometry() {
+        final UseCaseConfig config = mock(UseCaseConfig.class);
+
+        final List<Sensor> additionalSensors = new ArrayList<>();
+        additionalSensors.add(new Sensor("the sensor"));
+        when(config.getAdditionalSensors()).thenReturn(additionalSensors);
+
+        final Date startDate = TimeUtils.parseDOYBeginOfDay("1997-36");
+        final Date endDate = TimeUtils.parseDOYEndOfDay("1997-36");
+        final Polygon searchGeometry = mock(Polygon.class);
+
+        final QueryParameter parameter = AbstractMatchupStrategy.getSecondarySensorParameter(config, startDate, endDate, searchGeometry);
+        assertNotNull(parameter);
+        assertEquals("the sensor", parameter.getSensorName());
+        assertSame(searchGeometry, parameter.getGeometry());
+        TestUtil.assertCorrectUTCDate(1997, 2, 5, 0, 0, 0, parameter.getStartTime());
+        TestUtil.assertCorrectUTCDate(1997, 2, 5, 23, 59, 59, parameter.getStopTime());
+    }
+
     @Test
     public void testGetPixelLocator_notSegmented() throws Exception {
         final Reader reader = mock(Reader.class);
@@ -249,4 +337,27 @@ public class AbstractMatchupStrategyTest {
         verify(collection, times(2)).getGeometries();
         verifyNoMoreInteractions(collection);
     }
+
+    @Test
+    public void testSortByStartTime() {
+        final SatelliteObservation late = createObservation(1484000000000L);
+        final SatelliteObservation early = createObservation(1483000000000L);
+        final SatelliteObservation middle = createObservation(1483500000000L);
+        final List<SatelliteObservation> observations = new ArrayList<>();
+        observations.add(late);
+        observations.add(early);
+        observations.add(middle);
+
+        AbstractMatchupStrategy.sortByStartTime(observations);
+
+        assertSame(early, observations.get(0));
+        assertSame(middle, observations.get(1));
+        assertSame(late, observations.get(2));
+    }
+
+    private static SatelliteObservation createObservation(long startMillis) {
+        final SatelliteObservation observation = new SatelliteObservation();
+        observation.setStartTime(new Date(startMillis));
+        return observation;
+    }
 }
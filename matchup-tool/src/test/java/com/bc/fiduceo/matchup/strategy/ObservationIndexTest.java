@@ -0,0 +1,280 @@
+/*
+ * Copyright (C) 2016 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+
+package com.bc.fiduceo.matchup.strategy;
+
+import com.bc.fiduceo.core.SatelliteObservation;
+import com.bc.fiduceo.geometry.Geometry;
+import com.bc.fiduceo.geometry.GeometryFactory;
+import com.bc.fiduceo.geometry.Point;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class ObservationIndexTest {
+
+    private static GeometryFactory geometryFactory;
+
+    @BeforeClass
+    public static void beforeClass() {
+        geometryFactory = new GeometryFactory(GeometryFactory.Type.S2);
+    }
+
+    @Test
+    public void testGetCandidates_time_emptyList() {
+        final List<SatelliteObservation> satelliteObservations = new ArrayList<>();
+
+        final List<SatelliteObservation> resultList = new ObservationIndex(satelliteObservations, geometryFactory).getCandidates(1.0, 1.0, 20000, 20);
+        assertEquals(0, resultList.size());
+    }
+
+    @Test
+    public void testGetCandidates_time_before() {
+        final List<SatelliteObservation> satelliteObservations = new ArrayList<>();
+        final SatelliteObservation observation = createSatelliteObservation(30000L, 40000L);
+        satelliteObservations.add(observation);
+
+        final List<SatelliteObservation> resultList = new ObservationIndex(satelliteObservations, geometryFactory).getCandidates(1.0, 1.0, 20000, 500);
+        assertEquals(0, resultList.size());
+    }
+
+    @Test
+    public void testGetCandidates_time_after() {
+        final List<SatelliteObservation> satelliteObservations = new ArrayList<>();
+        final SatelliteObservation observation = createSatelliteObservation(30000L, 40000L);
+        satelliteObservations.add(observation);
+
+        final List<SatelliteObservation> resultList = new ObservationIndex(satelliteObservations, geometryFactory).getCandidates(1.0, 1.0, 41000, 500);
+        assertEquals(0, resultList.size());
+    }
+
+    @Test
+    public void testGetCandidates_time_pickOne() {
+        final List<SatelliteObservation> satelliteObservations = new ArrayList<>();
+        satelliteObservations.add(createSatelliteObservation(30000L, 40000L));
+        satelliteObservations.add(createSatelliteObservation(35000L, 45000L));
+        satelliteObservations.add(createSatelliteObservation(37000L, 47000L));
+
+        final List<SatelliteObservation> resultList = new ObservationIndex(satelliteObservations, geometryFactory).getCandidates(1.0, 1.0, 46000, 500);
+        assertEquals(1, resultList.size());
+        assertEquals(37000L, resultList.get(0).getStartTime().getTime());
+    }
+
+    @Test
+    public void testGetCandidates_time_pickOne_useTimeDelta_after() {
+        final List<SatelliteObservation> satelliteObservations = new ArrayList<>();
+        satelliteObservations.add(createSatelliteObservation(30000L, 40000L));
+        satelliteObservations.add(createSatelliteObservation(35000L, 45000L));
+        satelliteObservations.add(createSatelliteObservation(37000L, 47000L));
+
+        final List<SatelliteObservation> resultList = new ObservationIndex(satelliteObservations, geometryFactory).getCandidates(1.0, 1.0, 47500, 1000);
+        assertEquals(1, resultList.size());
+        assertEquals(37000L, resultList.get(0).getStartTime().getTime());
+    }
+
+    @Test
+    public void testGetCandidates_time_pickOne_useTimeDelta_before() {
+        final List<SatelliteObservation> satelliteObservations = new ArrayList<>();
+        satelliteObservations.add(createSatelliteObservation(30000L, 40000L));
+        satelliteObservations.add(createSatelliteObservation(35000L, 45000L));
+        satelliteObservations.add(createSatelliteObservation(37000L, 47000L));
+
+        final List<SatelliteObservation> resultList = new ObservationIndex(satelliteObservations, geometryFactory).getCandidates(1.0, 1.0, 30500, 1000);
+        assertEquals(1, resultList.size());
+        assertEquals(30000L, resultList.get(0).getStartTime().getTime());
+    }
+
+    @Test
+    public void testGetCandidates_time_picktwo() {
+        final List<SatelliteObservation> satelliteObservations = new ArrayList<>();
+        satelliteObservations.add(createSatelliteObservation(40000L, 50000L));
+        satelliteObservations.add(createSatelliteObservation(45000L, 55000L));
+        satelliteObservations.add(createSatelliteObservation(47000L, 57000L));
+
+        final List<SatelliteObservation> resultList = new ObservationIndex(satelliteObservations, geometryFactory).getCandidates(1.0, 1.0, 52000, 500);
+        assertEquals(2, resultList.size());
+        assertEquals(45000L, resultList.get(0).getStartTime().getTime());
+        assertEquals(47000L, resultList.get(1).getStartTime().getTime());
+    }
+
+    @Test
+    public void testGetCandidates_geometry_emptyList() {
+        final List<SatelliteObservation> satelliteObservations = new ArrayList<>();
+
+        final List<SatelliteObservation> resultList = new ObservationIndex(satelliteObservations, geometryFactory).getCandidates(12.0, 14.8, 35000L, 0);
+        assertEquals(0, resultList.size());
+    }
+
+    @Test
+    public void testGetCandidates_geometry_outside() {
+        final List<SatelliteObservation> satelliteObservations = new ArrayList<>();
+        satelliteObservations.add(createSatelliteObservation("POLYGON((0 0, 0 2, 2 2, 2 0, 0 0))"));
+        satelliteObservations.add(createSatelliteObservation("POLYGON((2 0, 2 1, 3 1, 3 0, 2 0))"));
+        satelliteObservations.add(createSatelliteObservation("POLYGON((2.5 0, 2.5 1, 3.5 1, 3.5 0, 2.5 0))"));
+
+        final List<SatelliteObservation> resultList = new ObservationIndex(satelliteObservations, geometryFactory).getCandidates(12.0, 14.8, 35000L, 0);
+        assertEquals(0, resultList.size());
+    }
+
+    @Test
+    public void testGetCandidates_geometry_pickOne() {
+        final List<SatelliteObservation> satelliteObservations = new ArrayList<>();
+        satelliteObservations.add(createSatelliteObservation("POLYGON((0 0, 0 2, 2 2, 2 0, 0 0))"));
+        satelliteObservations.add(createSatelliteObservation("POLYGON((2 0, 2 1, 3 1, 3 0, 2 0))"));
+        satelliteObservations.add(createSatelliteObservation("POLYGON((2.5 0, 2.5 1, 3.5 1, 3.5 0, 2.5 0))"));
+
+        final List<SatelliteObservation> resultList = new ObservationIndex(satelliteObservations, geometryFactory).getCandidates(2.2, 0.7, 35000L, 0);
+        assertEquals(1, resultList.size());
+        assertEquals("POLYGON((3.0000000000000004 0.0,3.0000000000000004 1.0,1.9999999999999996 1.0,2.0 0.0,3.0000000000000004 0.0))", geometryFactory.format(resultList.get(0).getGeoBounds()));
+    }
+
+    @Test
+    public void testGetCandidates_geometry_pickTwo() {
+        final List<SatelliteObservation> satelliteObservations = new ArrayList<>();
+        satelliteObservations.add(createSatelliteObservation("POLYGON((0 0, 0 2, 2 2, 2 0, 0 0))"));
+        satelliteObservations.add(createSatelliteObservation("POLYGON((2 0, 2 1, 3 1, 3 0, 2 0))"));
+        satelliteObservations.add(createSatelliteObservation("POLYGON((2.5 0, 2.5 1, 3.5 1, 3.5 0, 2.5 0))"));
+
+        final List<SatelliteObservation> resultList = new ObservationIndex(satelliteObservations, geometryFactory).getCandidates(2.7, 0.4, 35000L, 0);
+        assertEquals(2, resultList.size());
+        assertEquals("POLYGON((3.0000000000000004 0.0,3.0000000000000004 1.0,1.9999999999999996 1.0,2.0 0.0,3.0000000000000004 0.0))", geometryFactory.format(resultList.get(0).getGeoBounds()));
+        assertEquals("POLYGON((3.5000000000000004 0.0,3.5 1.0,2.5000000000000004 1.0,2.5 0.0,3.5000000000000004 0.0))", geometryFactory.format(resultList.get(1).getGeoBounds()));
+    }
+
+    @Test
+    public void testGetCandidates_time_longObservationBeforeShortOnes() {
+        final List<SatelliteObservation> satelliteObservations = new ArrayList<>();
+        satelliteObservations.add(createSatelliteObservation(60000L, 70000L));
+        satelliteObservations.add(createSatelliteObservation(10000L, 100000L));
+        satelliteObservations.add(createSatelliteObservation(20000L, 30000L));
+
+        final List<SatelliteObservation> resultList = new ObservationIndex(satelliteObservations, geometryFactory).getCandidates(1.0, 1.0, 65000, 500);
+        assertEquals(2, resultList.size());
+        assertEquals(60000L, resultList.get(0).getStartTime().getTime());
+        assertEquals(10000L, resultList.get(1).getStartTime().getTime());
+    }
+
+    @Test
+    public void testGetCandidates_geometry_geometryCollection() {
+        final List<SatelliteObservation> satelliteObservations = new ArrayList<>();
+        final SatelliteObservation segmented = createSatelliteObservation(30000L, 40000L);
+        segmented.setGeoBounds(geometryFactory.createGeometryCollection(new Geometry[]{
+                geometryFactory.parse("POLYGON((-2 -1, 0 -1, 0 2, -2 2, -2 -1))"),
+                geometryFactory.parse("POLYGON((-2 -4, 0 -4, 0 -1, -2 -1, -2 -4))")}));
+        satelliteObservations.add(segmented);
+        satelliteObservations.add(createSatelliteObservation("POLYGON((2 0, 2 1, 3 1, 3 0, 2 0))"));
+
+        final ObservationIndex index = new ObservationIndex(satelliteObservations, geometryFactory);
+
+        List<SatelliteObservation> resultList = index.getCandidates(-1.0, -3.0, 35000L, 0);
+        assertEquals(1, resultList.size());
+        assertSame(segmented, resultList.get(0));
+
+        resultList = index.getCandidates(1.0, -3.0, 35000L, 0);
+        assertEquals(0, resultList.size());
+    }
+
+    @Test
+    public void testGetCandidates_geometry_antiMeridian() {
+        final List<SatelliteObservation> satelliteObservations = new ArrayList<>();
+        satelliteObservations.add(createSatelliteObservation("POLYGON((178 -1, -178 -1, -178 1, 178 1, 178 -1))"));
+
+        final ObservationIndex index = new ObservationIndex(satelliteObservations, geometryFactory);
+        assertEquals(1, index.getCandidates(179.5, 0.5, 35000L, 0).size());
+        assertEquals(1, index.getCandidates(-179.5, -0.5, 35000L, 0).size());
+        assertEquals(0, index.getCandidates(0.0, 0.0, 35000L, 0).size());
+    }
+
+    @Test
+    public void testGetCandidates() {
+        final List<SatelliteObservation> satelliteObservations = new ArrayList<>();
+        satelliteObservations.add(createSatelliteObservation("POLYGON((0 0, 0 2, 2 2, 2 0, 0 0))", 30000L, 40000L));
+        satelliteObservations.add(createSatelliteObservation("POLYGON((2 0, 2 1, 3 1, 3 0, 2 0))", 35000L, 45000L));
+        satelliteObservations.add(createSatelliteObservation("POLYGON((2.5 0, 2.5 1, 3.5 1, 3.5 0, 2.5 0))", 50000L, 60000L));
+
+        final ObservationIndex index = new ObservationIndex(satelliteObservations, geometryFactory);
+
+        List<SatelliteObservation> resultList = index.getCandidates(2.7, 0.4, 44000L, 500);
+        assertEquals(1, resultList.size());
+        assertEquals(35000L, resultList.get(0).getStartTime().getTime());
+
+        resultList = index.getCandidates(2.7, 0.4, 47000L, 3000);
+        assertEquals(2, resultList.size());
+        assertEquals(35000L, resultList.get(0).getStartTime().getTime());
+        assertEquals(50000L, resultList.get(1).getStartTime().getTime());
+
+        resultList = index.getCandidates(1.0, 1.0, 47000L, 500);
+        assertEquals(0, resultList.size());
+    }
+
+    @Test
+    public void testGetCandidates_sameResultAsLinearScan() {
+        final List<SatelliteObservation> satelliteObservations = new ArrayList<>();
+        for (int i = 0; i < 36; i++) {
+            final int lon = -180 + i * 10;
+            final String wkt = "POLYGON((" + lon + " -60, " + (lon + 15) + " -60, " + (lon + 15) + " 60, " + lon + " 60, " + lon + " -60))";
+            satelliteObservations.add(createSatelliteObservation(wkt, i * 5000L, i * 5000L + 8000L));
+        }
+
+        final ObservationIndex index = new ObservationIndex(satelliteObservations, geometryFactory);
+        for (int lon = -175; lon < 180; lon += 7) {
+            for (int lat = -70; lat <= 70; lat += 11) {
+                final Point point = geometryFactory.createPoint(lon, lat);
+                for (long time = 0; time < 190000L; time += 3700L) {
+                    final List<SatelliteObservation> expected = new ArrayList<>();
+                    for (final SatelliteObservation observation : satelliteObservations) {
+                        final boolean timeMatch = observation.getStartTime().getTime() - 1000L <= time && observation.getStopTime().getTime() + 1000L >= time;
+                        if (timeMatch && !observation.getGeoBounds().getIntersection(point).isEmpty()) {
+                            expected.add(observation);
+                        }
+                    }
+
+                    assertEquals(expected, index.getCandidates(lon, lat, time, 1000L));
+                }
+            }
+        }
+    }
+
+    private SatelliteObservation createSatelliteObservation(String boundaryWKT, long startTime, long stopTime) {
+        final SatelliteObservation observation = new SatelliteObservation();
+        observation.setGeoBounds(geometryFactory.parse(boundaryWKT));
+        observation.setStartTime(new Date(startTime));
+        observation.setStopTime(new Date(stopTime));
+        return observation;
+    }
+
+    private SatelliteObservation createSatelliteObservation(long startTime, long stopTime) {
+        final SatelliteObservation observation = new SatelliteObservation();
+        observation.setStartTime(new Date(startTime));
+        observation.setStopTime(new Date(stopTime));
+        observation.setGeoBounds(geometryFactory.parse("POLYGON((0 0, 0 2, 2 2, 2 0, 0 0))"));
+        return observation;
+    }
+
+    private SatelliteObservation createSatelliteObservation(String boundaryWKT) {
+        return createSatelliteObservation(boundaryWKT, 30000L, 40000L);
+    }
+}
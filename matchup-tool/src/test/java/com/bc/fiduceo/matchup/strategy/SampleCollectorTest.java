@@ -27,6 +27,7 @@ import com.bc.fiduceo.location.PixelLocator;
 import com.bc.fiduceo.matchup.MatchupSet;
 import com.bc.fiduceo.matchup.Sample;
 import com.bc.fiduceo.matchup.SampleSet;
+import com.bc.fiduceo.reader.Reader;
 import com.bc.fiduceo.reader.TimeLocator;
 import com.bc.fiduceo.tool.ToolContext;
 import org.junit.Before;
@@ -40,10 +41,13 @@ import java.util.List;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
-import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.anyInt;
 import static org.mockito.Mockito.isA;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class SampleCollectorTest {
@@ -63,7 +67,7 @@ public class SampleCollectorTest {
     }
 
     @Test
-    public void testAddPrimarySamples() {
+    public void testAddPrimarySamples() throws Exception {
         // preparation
         final List<Point> polygonPoints = createPoints(new double[]{
                 1, 1,
@@ -103,14 +107,94 @@ public class SampleCollectorTest {
         }
     }
 
+    @Test
+    public void testAddPrimarySamples_concavePolygonWithHole_sameAsPerPixelTest() throws Exception {
+        final Polygon polygon = (Polygon) factory.parse("POLYGON((-10 -10, 10 -10, 10 10, 2 10, 0 -2, -2 10, -10 10, -10 -10),(-8 -8, -4 -8, -4 -4, -8 -4, -8 -8))");
+        final ScalingPixelLocator pixelLocator = new ScalingPixelLocator(0.25);
+        collector = new SampleCollector(context, pixelLocator);
+
+        final MatchupSet matchupSet = new MatchupSet();
+        collector.addPrimarySamples(polygon, matchupSet, new TestTimeLocator());
+
+        // the collector scans the pixel box spanned by the polygon vertices
+        final Range xRange = new Range();
+        final Range yRange = new Range();
+        for (final Point point : polygon.getCoordinates()) {
+            final Point2D pixelLocation = pixelLocator.getPixelLocation(point.getLon(), point.getLat())[0];
+            xRange.aggregate(pixelLocation.getX());
+            yRange.aggregate(pixelLocation.getY());
+        }
+
+        final MatchupSet expected = new MatchupSet();
+        final Point2D geoPos = new Point2D.Double();
+        for (int y = (int) yRange.getMin(); y <= (int) yRange.getMax(); y++) {
+            for (int x = (int) xRange.getMin(); x <= (int) xRange.getMax(); x++) {
+                pixelLocator.getGeoLocation(x + 0.5, y + 0.5, geoPos);
+                if (polygon.contains(factory.createPoint(geoPos.getX(), geoPos.getY()))) {
+                    expected.addPrimary(x, y, geoPos.getX(), geoPos.getY(), x + 1000 * y);
+                }
+            }
+        }
+
+        assertSamePrimaries(expected, matchupSet);
+    }
+
+    @Test
+    public void testAddPrimarySamples_geolocationFromReader() throws Exception {
+        final Polygon polygon = factory.createPolygon(createPoints(new double[]{1, 1, 3, 1, 3, 3, 1, 3, 1, 1}));
+        final PixelLocator pixelLocator = spy(new OffsetPixelLocator(11, 13));
+        final Reader reader = Mockito.mock(Reader.class);
+        when(reader.readGeolocation(anyInt(), anyInt(), anyInt(), isA(double[].class), isA(double[].class))).thenAnswer(invocation -> {
+            final Object[] arguments = invocation.getArguments();
+            final int startX = (int) arguments[0];
+            final int y = (int) arguments[1];
+            final int width = (int) arguments[2];
+            final double[] lons = (double[]) arguments[3];
+            final double[] lats = (double[]) arguments[4];
+            for (int i = 0; i < width; i++) {
+                lons[i] = startX + i - 11 + 0.5;
+                lats[i] = y - 13 + 0.5;
+            }
+            return true;
+        });
+        collector = new SampleCollector(context, pixelLocator, reader);
+
+        final MatchupSet matchupSet = new MatchupSet();
+        collector.addPrimarySamples(polygon, matchupSet, new TestTimeLocator());
+
+        final MatchupSet expected = new MatchupSet();
+        new SampleCollector(context, new OffsetPixelLocator(11, 13)).addPrimarySamples(polygon, expected, new TestTimeLocator());
+        assertEquals(4, matchupSet.getNumObservations());
+        assertSamePrimaries(expected, matchupSet);
+
+        verify(pixelLocator, never()).getGeoLocation(Mockito.anyDouble(), Mockito.anyDouble(), isA(Point2D.class));
+    }
+
+    @Test
+    public void testAddPrimarySamples_readerWithoutGeolocation() throws Exception {
+        final Polygon polygon = factory.createPolygon(createPoints(new double[]{1, 1, 3, 1, 3, 3, 1, 3, 1, 1}));
+        final Reader reader = Mockito.mock(Reader.class);
+        when(reader.readGeolocation(anyInt(), anyInt(), anyInt(), isA(double[].class), isA(double[].class))).thenReturn(false);
+        collector = new SampleCollector(context, new OffsetPixelLocator(11, 13), reader);
+
+        final MatchupSet matchupSet = new MatchupSet();
+        collector.addPrimarySamples(polygon, matchupSet, new TestTimeLocator());
+
+        final MatchupSet expected = new MatchupSet();
+        new SampleCollector(context, new OffsetPixelLocator(11, 13)).addPrimarySamples(polygon, expected, new TestTimeLocator());
+        assertEquals(4, matchupSet.getNumObservations());
+        assertSamePrimaries(expected, matchupSet);
+    }
+
     @Test
     public void testAddSecondarySamples() {
         final MatchupSet matchupSet = new MatchupSet();
         matchupSet.addPrimary(new Sample(2, 3, 4.5, 5.5, 100L));
         matchupSet.addPrimary(new Sample(6, 7, 8.5, 9.5, 200L));
 
-        final List<SampleSet> sampleSets = collector.addSecondarySamples(matchupSet.getSampleSets(), new TestTimeLocator());
+        collector.addSecondarySamples(matchupSet, new TestTimeLocator());
 
+        final List<SampleSet> sampleSets = matchupSet.getSampleSets();
         assertEquals(2, sampleSets.size());
 
         SampleSet sampleSet = sampleSets.get(0);
@@ -131,6 +215,43 @@ public class SampleCollectorTest {
         assertEquals(22019L, secondary.time);
     }
 
+    @Test
+    public void testAddSecondarySamples_moreLocationsThanBufferSize() {
+        final Point2D[] locations = new Point2D[6];
+        for (int i = 0; i < locations.length; i++) {
+            locations[i] = new Point2D.Double(10 + i + 0.5, 20 + i + 0.5);
+        }
+        final PixelLocator locator = new PixelLocator() {
+            @Override
+            public Point2D getGeoLocation(double x, double y, Point2D g) {
+                g.setLocation(x, y);
+                return g;
+            }
+
+            @Override
+            public Point2D[] getPixelLocation(double lon, double lat) {
+                return locations;
+            }
+        };
+        collector = new SampleCollector(context, locator);
+
+        final MatchupSet matchupSet = new MatchupSet();
+        matchupSet.addPrimary(new Sample(2, 3, 4.5, 5.5, 100L));
+
+        collector.addSecondarySamples(matchupSet, new TestTimeLocator());
+
+        // one matchup per location, all carrying the last location
+        assertEquals(6, matchupSet.getNumObservations());
+        for (int i = 0; i < 6; i++) {
+            assertEquals(2, matchupSet.getPrimaryX(i));
+            assertEquals(15, matchupSet.getSecondaryX(i));
+            assertEquals(25, matchupSet.getSecondaryY(i));
+            assertEquals(15.5, matchupSet.getSecondaryLon(i), 1e-8);
+            assertEquals(25.5, matchupSet.getSecondaryLat(i), 1e-8);
+            assertEquals(25015L, matchupSet.getSecondaryTime(i));
+        }
+    }
+
     @Test
     public void testRemoveSampleSetIfNoSecondarySampleCanBeFound() throws Exception {
         final PixelLocator locator = Mockito.mock(PixelLocator.class);
@@ -139,22 +260,30 @@ public class SampleCollectorTest {
         final Sample primaryOne = new Sample(2, 3, 4.5, 5.5, 100L);
         final Sample primaryTwo = new Sample(6, 7, 8.5, 9.5, 200L);
 
-        final Point2D[] emptyArray = {};
-        when(locator.getPixelLocation(primaryOne.lon, primaryOne.lat)).thenReturn(emptyArray);
-        when(locator.getPixelLocation(primaryTwo.lon, primaryTwo.lat)).thenReturn(new Point2D[]{new Point2D.Double(12.3, 14.8)});
+        when(locator.getPixelLocation(eq(primaryOne.lon), eq(primaryOne.lat), isA(double[].class), isA(double[].class))).thenReturn(0);
+        when(locator.getPixelLocation(eq(primaryTwo.lon), eq(primaryTwo.lat), isA(double[].class), isA(double[].class))).thenAnswer(invocation -> {
+            ((double[]) invocation.getArguments()[2])[0] = 12.3;
+            ((double[]) invocation.getArguments()[3])[0] = 14.8;
+            return 1;
+        });
         when(locator.getGeoLocation(eq(12.5), eq(14.5), isA(Point2D.class))).thenReturn(new Point2D.Double(170.123, 34.321));
 
         final MatchupSet matchupSet = new MatchupSet();
         matchupSet.addPrimary(primaryOne);
         matchupSet.addPrimary(primaryTwo);
 
-        final List<SampleSet> sampleSets = collector.addSecondarySamples(matchupSet.getSampleSets(), new TestTimeLocator());
+        collector.addSecondarySamples(matchupSet, new TestTimeLocator());
 
+        final List<SampleSet> sampleSets = matchupSet.getSampleSets();
         assertEquals(1, sampleSets.size());
 
         SampleSet sampleSet = sampleSets.get(0);
         Sample primary = sampleSet.getPrimary();
-        assertSame(primaryTwo, primary);
+        assertEquals(6, primary.x);
+        assertEquals(7, primary.y);
+        assertEquals(8.5, primary.lon, 1e-8);
+        assertEquals(9.5, primary.lat, 1e-8);
+        assertEquals(200L, primary.time);
         final Sample secondary = sampleSet.getSecondary();
         assertNotNull(secondary);
         assertEquals(34.321, secondary.lat, 1e-8);
@@ -176,6 +305,17 @@ public class SampleCollectorTest {
         assertTrue(polygon.contains(factory.createPoint(4, 4)));
     }
 
+    private static void assertSamePrimaries(MatchupSet expected, MatchupSet matchupSet) {
+        assertEquals(expected.getNumObservations(), matchupSet.getNumObservations());
+        for (int i = 0; i < expected.getNumObservations(); i++) {
+            assertEquals("Index = " + i, expected.getPrimaryX(i), matchupSet.getPrimaryX(i));
+            assertEquals("Index = " + i, expected.getPrimaryY(i), matchupSet.getPrimaryY(i));
+            assertEquals("Index = " + i, expected.getPrimaryLon(i), matchupSet.getPrimaryLon(i), 1e-8);
+            assertEquals("Index = " + i, expected.getPrimaryLat(i), matchupSet.getPrimaryLat(i), 1e-8);
+            assertEquals("Index = " + i, expected.getPrimaryTime(i), matchupSet.getPrimaryTime(i));
+        }
+    }
+
     private List<Point> createPoints(final double[] lonsLats) {
         final ArrayList<Point> points = new ArrayList<>();
         for (int i = 0; i < lonsLats.length; i++) {
@@ -207,6 +347,29 @@ public class SampleCollectorTest {
         }
     }
 
+    private class ScalingPixelLocator implements PixelLocator {
+
+        private final double scale;
+
+        ScalingPixelLocator(double scale) {
+            this.scale = scale;
+        }
+
+        @Override
+        public Point2D getGeoLocation(double x, double y, Point2D g) {
+            if (g == null) {
+                g = new Point2D.Double();
+            }
+            g.setLocation((x - 100) * scale, (y - 100) * scale);
+            return g;
+        }
+
+        @Override
+        public Point2D[] getPixelLocation(double lon, double lat) {
+            return new Point2D[]{new Point2D.Double(lon / scale + 100, lat / scale + 100)};
+        }
+    }
+
     private class TestTimeLocator implements TimeLocator {
 
         @Override
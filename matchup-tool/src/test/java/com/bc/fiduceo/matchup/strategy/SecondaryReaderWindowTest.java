@@ -0,0 +1,175 @@
+/*
+ * Copyright (C) 2017 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+
+
+package com.bc.fiduceo.matchup.strategy;
+
+import com.bc.fiduceo.core.SatelliteObservation;
+import com.bc.fiduceo.core.Sensor;
+import com.bc.fiduceo.reader.Reader;
+import com.bc.fiduceo.reader.ReaderCache;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.same;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class SecondaryReaderWindowTest {
+
+    private ReaderCache readerCache;
+    private SecondaryReaderWindow window;
+
+    @Before
+    public void setUp() {
+        readerCache = mock(ReaderCache.class);
+        window = new SecondaryReaderWindow(readerCache, 3);
+    }
+
+    @Test
+    public void testGet_borrowsOncePerObservation() throws IOException {
+        final SatelliteObservation observation = createObservation("/data/first.nc", 2000L);
+        final Reader reader = mock(Reader.class);
+        when(readerCache.borrow(eq("amsub-n15"), any(Path.class))).thenReturn(reader);
+
+        assertSame(reader, window.get(observation));
+        assertSame(reader, window.get(observation));
+        assertEquals(1, window.size());
+
+        verify(readerCache, times(1)).borrow(eq("amsub-n15"), eq(observation.getDataFilePath()));
+        verify(readerCache, never()).release(any(Reader.class));
+    }
+
+    @Test
+    public void testAdvance_releasesObservationsBehindSearchWindow() throws IOException {
+        final SatelliteObservation first = createObservation("/data/first.nc", 2000L);
+        final SatelliteObservation second = createObservation("/data/second.nc", 4000L);
+        final Reader firstReader = mock(Reader.class);
+        final Reader secondReader = mock(Reader.class);
+        when(readerCache.borrow(eq("amsub-n15"), eq(first.getDataFilePath()))).thenReturn(firstReader);
+        when(readerCache.borrow(eq("amsub-n15"), eq(second.getDataFilePath()))).thenReturn(secondReader);
+
+        window.get(first);
+        window.get(second);
+
+        window.advance(new Date(2000L));
+        assertEquals(2, window.size());
+        verify(readerCache, never()).release(any(Reader.class));
+
+        window.advance(new Date(3000L));
+        assertEquals(1, window.size());
+        verify(readerCache, times(1)).release(same(firstReader));
+
+        assertSame(secondReader, window.get(second));
+        verify(readerCache, times(1)).borrow(eq("amsub-n15"), eq(second.getDataFilePath()));
+    }
+
+    @Test
+    public void testGet_afterAdvance_unorderedPrimaries() throws IOException {
+        final SatelliteObservation first = createObservation("/data/first.nc", 2000L);
+        final Reader firstReader = mock(Reader.class);
+        final Reader borrowedAgain = mock(Reader.class);
+        when(readerCache.borrow(eq("amsub-n15"), eq(first.getDataFilePath()))).thenReturn(firstReader, borrowedAgain);
+
+        window.get(first);
+        window.advance(new Date(5000L));
+        assertEquals(0, window.size());
+        verify(readerCache, times(1)).release(same(firstReader));
+
+        // a primary earlier than the previous one requests the released secondary again
+        window.advance(new Date(1000L));
+        assertSame(borrowedAgain, window.get(first));
+        assertEquals(1, window.size());
+        verify(readerCache, times(2)).borrow(eq("amsub-n15"), eq(first.getDataFilePath()));
+    }
+
+    @Test
+    public void testGet_windowFull_releasesEldestReader() throws IOException {
+        window = new SecondaryReaderWindow(readerCache, 2);
+        final SatelliteObservation first = createObservation("/data/first.nc", 2000L);
+        final SatelliteObservation second = createObservation("/data/second.nc", 3000L);
+        final SatelliteObservation third = createObservation("/data/third.nc", 4000L);
+        final Reader firstReader = mock(Reader.class);
+        final Reader secondReader = mock(Reader.class);
+        final Reader thirdReader = mock(Reader.class);
+        when(readerCache.borrow(eq("amsub-n15"), eq(first.getDataFilePath()))).thenReturn(firstReader);
+        when(readerCache.borrow(eq("amsub-n15"), eq(second.getDataFilePath()))).thenReturn(secondReader);
+        when(readerCache.borrow(eq("amsub-n15"), eq(third.getDataFilePath()))).thenReturn(thirdReader);
+
+        window.get(first);
+        window.get(second);
+        window.get(second);
+        assertEquals(2, window.size());
+        verify(readerCache, never()).release(any(Reader.class));
+
+        assertSame(thirdReader, window.get(third));
+        assertEquals(2, window.size());
+        verify(readerCache, times(1)).release(same(firstReader));
+        verify(readerCache, never()).release(same(secondReader));
+    }
+
+    @Test
+    public void testCreate_invalidSize() {
+        try {
+            new SecondaryReaderWindow(readerCache, 0);
+            fail("RuntimeException expected");
+        } catch (RuntimeException expected) {
+        }
+    }
+
+    @Test
+    public void testClose_releasesAllReaders() throws IOException {
+        final SatelliteObservation first = createObservation("/data/first.nc", 2000L);
+        final SatelliteObservation second = createObservation("/data/second.nc", 4000L);
+        final Reader firstReader = mock(Reader.class);
+        final Reader secondReader = mock(Reader.class);
+        when(readerCache.borrow(eq("amsub-n15"), eq(first.getDataFilePath()))).thenReturn(firstReader);
+        when(readerCache.borrow(eq("amsub-n15"), eq(second.getDataFilePath()))).thenReturn(secondReader);
+
+        window.get(first);
+        window.get(second);
+        window.close();
+
+        assertEquals(0, window.size());
+        verify(readerCache, times(1)).release(same(firstReader));
+        verify(readerCache, times(1)).release(same(secondReader));
+    }
+
+    private static SatelliteObservation createObservation(String path, long stopMillis) {
+        final SatelliteObservation observation = new SatelliteObservation();
+        observation.setSensor(new Sensor("amsub-n15"));
+        observation.setDataFilePath(path);
+        observation.setStartTime(new Date(stopMillis - 1000L));
+        observation.setStopTime(new Date(stopMillis));
+        return observation;
+    }
+}
@@ -87,12 +87,22 @@ public class MmdWriterConfigTest {
         assertEquals(cacheSize, config.getReaderCacheSize());
     }
 
+    @Test
+    public void testSetGetReaderCacheBytes() {
+        final long cacheBytes = 4L * 1024 * 1024 * 1024;
+
+        config.setReaderCacheBytes(cacheBytes);
+        assertEquals(cacheBytes, config.getReaderCacheBytes());
+    }
+
     @Test
     public void testDefaultValues() {
         assertFalse(config.isOverwrite());
         assertEquals(2048, config.getCacheSize());
         assertEquals(N4, config.getNetcdfFormat());
         assertEquals(6, config.getReaderCacheSize());
+        assertEquals(0, config.getReaderCacheBytes());
+        assertEquals(2, config.getWriteQueueSize());
 
         final VariablesConfiguration variablesConfiguration = config.getVariablesConfiguration();
         assertNotNull(variablesConfiguration);
@@ -148,6 +158,43 @@ public class MmdWriterConfigTest {
         assertEquals(14, loadedConfig.getReaderCacheSize());
     }
 
+    @Test
+    public void testLoad_readerCacheBytes() {
+        final String configXml = "<mmd-writer-config>" +
+                "    <reader-cache-bytes>2000000000</reader-cache-bytes>" +
+                "</mmd-writer-config>";
+        final ByteArrayInputStream inputStream = new ByteArrayInputStream(configXml.getBytes());
+
+        final MmdWriterConfig loadedConfig = MmdWriterConfig.load(inputStream);
+        assertEquals(2000000000L, loadedConfig.getReaderCacheBytes());
+        assertEquals(6, loadedConfig.getReaderCacheSize());
+    }
+
+    @Test
+    public void testLoad_writeQueueSize() {
+        final String configXml = "<mmd-writer-config>" +
+                "    <write-queue-size>5</write-queue-size>" +
+                "</mmd-writer-config>";
+        final ByteArrayInputStream inputStream = new ByteArrayInputStream(configXml.getBytes());
+
+        final MmdWriterConfig loadedConfig = MmdWriterConfig.load(inputStream);
+        assertEquals(5, loadedConfig.getWriteQueueSize());
+    }
+
+    @Test
+    public void testLoad_writeQueueSize_invalid() {
+        final String configXml = "<mmd-writer-config>" +
+                "    <write-queue-size>0</write-queue-size>" +
+                "</mmd-writer-config>";
+        final ByteArrayInputStream inputStream = new ByteArrayInputStream(configXml.getBytes());
+
+        try {
+            MmdWriterConfig.load(inputStream);
+            fail("RuntimeException expected");
+        } catch (RuntimeException expected) {
+        }
+    }
+
     @Test
     public void testLoad_emptyVariablesConfiguration() {
         final String configXml = "<mmd-writer-config>" +
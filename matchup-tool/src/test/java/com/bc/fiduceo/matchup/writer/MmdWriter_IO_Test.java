@@ -254,7 +254,7 @@ public class MmdWriter_IO_Test {
             final SampleSet sampleSet = new SampleSet();
             sampleSet.setPrimary(new Sample(0, 8981 + i, 34.726, -67.245, 610071188));
             sampleSet.setSecondary(new Sample(408, 819 + i, 34.793, -67.246, 610071904));
-            matchupSet.getSampleSets().add(sampleSet);
+            matchupSet.addSampleSet(sampleSet);
         }
         matchupCollection.add(matchupSet);
         return matchupCollection;
@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2017 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+
+package com.bc.fiduceo.matchup.writer;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import ucar.ma2.Array;
+import ucar.ma2.InvalidRangeException;
+import ucar.nc2.NetcdfFileWriter;
+import ucar.nc2.Variable;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.same;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class RowBlockWriterTest {
+
+    private NetcdfFileWriter netcdfFileWriter;
+    private Variable variable;
+    private Map<String, Variable> variables;
+
+    @Before
+    public void setUp() {
+        netcdfFileWriter = mock(NetcdfFileWriter.class);
+        variable = mock(Variable.class);
+        when(variable.getShape(0)).thenReturn(7);
+
+        variables = new HashMap<>();
+        variables.put("the_variable", variable);
+    }
+
+    @Test
+    public void testSubmitAndClose_blocksWrittenInOrder() throws IOException, InvalidRangeException {
+        final RowBlockWriter writer = new RowBlockWriter(netcdfFileWriter, 1);
+
+        writer.submit(0, createData(new int[]{1, 2, 3}), variables);
+        writer.submit(3, createData(new int[]{4, 5, 6}), variables);
+        writer.close();
+
+        final ArgumentCaptor<int[]> originCaptor = ArgumentCaptor.forClass(int[].class);
+        final ArgumentCaptor<Array> dataCaptor = ArgumentCaptor.forClass(Array.class);
+        verify(netcdfFileWriter, times(2)).write(same(variable), originCaptor.capture(), dataCaptor.capture());
+        verify(netcdfFileWriter, times(2)).flush();
+
+        final List<int[]> origins = originCaptor.getAllValues();
+        assertArrayEquals(new int[]{0}, origins.get(0));
+        assertArrayEquals(new int[]{3}, origins.get(1));
+
+        final List<Array> written = dataCaptor.getAllValues();
+        assertArrayEquals(new int[]{1, 2, 3}, (int[]) written.get(0).copyTo1DJavaArray());
+        assertArrayEquals(new int[]{4, 5, 6}, (int[]) written.get(1).copyTo1DJavaArray());
+    }
+
+    @Test
+    public void testSubmit_lastBlockTruncatedToMatchupCount() throws IOException, InvalidRangeException {
+        final RowBlockWriter writer = new RowBlockWriter(netcdfFileWriter, 2);
+
+        writer.submit(6, createData(new int[]{7, 8, 9}), variables);
+        writer.close();
+
+        final ArgumentCaptor<Array> dataCaptor = ArgumentCaptor.forClass(Array.class);
+        verify(netcdfFileWriter, times(1)).write(same(variable), any(int[].class), dataCaptor.capture());
+        assertArrayEquals(new int[]{7}, (int[]) dataCaptor.getValue().copyTo1DJavaArray());
+    }
+
+    @Test
+    public void testTakeRecycled() throws IOException, InterruptedException {
+        final RowBlockWriter writer = new RowBlockWriter(netcdfFileWriter, 2);
+        assertTrue(writer.takeRecycled().isEmpty());
+
+        final Map<String, Array> data = createData(new int[]{1, 2, 3});
+        writer.submit(0, data, variables);
+        // poll until the writer thread is done with the block
+        Map<String, Array> recycled = writer.takeRecycled();
+        for (int i = 0; i < 500 && recycled.isEmpty(); i++) {
+            Thread.sleep(10);
+            recycled = writer.takeRecycled();
+        }
+        assertSame(data, recycled);
+
+        writer.close();
+    }
+
+    @Test
+    public void testWriteFails_reportedOnClose() throws IOException, InvalidRangeException {
+        doThrow(new IOException("disk full")).when(netcdfFileWriter).write(any(Variable.class), any(int[].class), any(Array.class));
+        final RowBlockWriter writer = new RowBlockWriter(netcdfFileWriter, 1);
+
+        writer.submit(0, createData(new int[]{1, 2, 3}), variables);
+        try {
+            writer.close();
+            fail("IOException expected");
+        } catch (IOException expected) {
+            assertEquals("Unable to write mmd data: disk full", expected.getMessage());
+        }
+
+        verify(netcdfFileWriter, times(1)).write(any(Variable.class), any(int[].class), any(Array.class));
+    }
+
+    @Test
+    public void testSubmit_afterClose() throws IOException {
+        final RowBlockWriter writer = new RowBlockWriter(netcdfFileWriter, 1);
+        writer.close();
+
+        try {
+            writer.submit(0, createData(new int[]{1, 2, 3}), variables);
+            fail("RuntimeException expected");
+        } catch (RuntimeException expected) {
+        }
+    }
+
+    private static Map<String, Array> createData(int[] values) {
+        final Map<String, Array> data = new HashMap<>();
+        data.put("the_variable", Array.factory(values));
+        return data;
+    }
+}
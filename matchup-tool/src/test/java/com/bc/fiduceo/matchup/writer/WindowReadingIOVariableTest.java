@@ -21,19 +21,14 @@
 package com.bc.fiduceo.matchup.writer;
 
 import static org.junit.Assert.*;
-import static org.mockito.Matchers.anyInt;
-import static org.mockito.Matchers.anyObject;
-import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
-import static org.mockito.Mockito.when;
 
 import com.bc.fiduceo.core.Interval;
 import com.bc.fiduceo.reader.Reader;
 import org.junit.*;
-import ucar.ma2.Array;
 import ucar.ma2.InvalidRangeException;
 import ucar.nc2.Attribute;
 
@@ -95,8 +90,6 @@ public class WindowReadingIOVariableTest {
         final Target target = mock(Target.class);
         final Reader readerMock = mock(Reader.class);
 
-        final Array data = Array.factory(new int[]{1, 2, 3, 4});
-        when(readerMock.readRaw(anyInt(), anyInt(), anyObject(), anyString())).thenReturn(data);
         final ReaderContainer sourceContainer = new ReaderContainer();
         sourceContainer.setReader(readerMock);
 
@@ -108,8 +101,7 @@ public class WindowReadingIOVariableTest {
         final Interval interval = new Interval(3, 3);
         ioVariable.writeData(3, 4, interval, 4);
 
-        verify(readerMock, times(1)).readRaw(3, 4, interval, "hans_wurst");
-        verify(target,times(1)).write(data, "target_hans_wurst", 4);
+        verify(target, times(1)).writeWindow(readerMock, 3, 4, interval, "hans_wurst", "target_hans_wurst", 4);
 
         verifyNoMoreInteractions(readerMock);
         verifyNoMoreInteractions(target);
@@ -0,0 +1,218 @@
+/*
+ * Copyright (C) 2016 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+
+package com.bc.fiduceo.post;
+
+
+import com.bc.fiduceo.log.FiduceoLogger;
+import ucar.ma2.Array;
+import ucar.ma2.DataType;
+import ucar.ma2.InvalidRangeException;
+import ucar.ma2.Section;
+import ucar.nc2.Attribute;
+import ucar.nc2.Group;
+import ucar.nc2.NetcdfFileWriter;
+import ucar.nc2.Variable;
+import ucar.nc2.constants.CDM;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Logger;
+
+/**
+ * Streaming copy of the variables of a MMD file to the post processing target. Variables exceeding the memory
+ * budget are copied in slabs along their first dimension (the matchup dimension of the MMD variables), aligned to
+ * the chunking of the source file. The next slab is read on a background thread while the current one is written.
+ * NetCDF-3 sources are uncompressed, their slabs are read as raw byte ranges instead of being decoded value by
+ * value.
+ */
+class DataTransfer implements Closeable {
+
+    private static final Logger logger = FiduceoLogger.getLogger();
+
+    private final long slabSize;
+    private final boolean rawByteRanges;
+    private final ExecutorService readExecutor;
+
+    /**
+     * @param bufferSize    the memory budget in bytes
+     * @param rawByteRanges whether the source is a NetCDF-3 file, which can be read as raw byte ranges
+     */
+    DataTransfer(long bufferSize, boolean rawByteRanges) {
+        // two slabs are held in memory, the one written and the one read ahead
+        slabSize = Math.max(1, bufferSize / 2);
+        this.rawByteRanges = rawByteRanges;
+        readExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "data-transfer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    void transfer(NetcdfFileWriter writer, Group sourceGroup) throws IOException, InvalidRangeException {
+        for (Variable variable : sourceGroup.getVariables()) {
+            logger.info(String.format("write %s", variable.getNameAndDimensions()));
+            final Variable targetVariable = writer.findVariable(variable.getFullName());
+            if (targetVariable != null) {
+                transfer(writer, variable, targetVariable);
+            }
+        }
+
+        for (Group group : sourceGroup.getGroups()) {
+            transfer(writer, group);
+        }
+    }
+
+    @Override
+    public void close() {
+        readExecutor.shutdownNow();
+    }
+
+    // package access for testing only
+    void transfer(NetcdfFileWriter writer, Variable source, Variable target) throws IOException, InvalidRangeException {
+        final int[] shape = source.getShape();
+        if (shape.length == 0 || source.getSize() * source.getElementSize() <= slabSize) {
+            writer.write(target, read(source, new int[shape.length], shape));
+            return;
+        }
+
+        final int slabLength = getSlabLength(source, slabSize);
+        final int numRows = shape[0];
+        Future<Array> nextSlab = readAsync(source, 0, Math.min(slabLength, numRows));
+        for (int row = 0; row < numRows; row += slabLength) {
+            final Array slab = get(nextSlab);
+
+            final int nextRow = row + slabLength;
+            if (nextRow < numRows) {
+                nextSlab = readAsync(source, nextRow, Math.min(slabLength, numRows - nextRow));
+            }
+
+            final int[] origin = new int[shape.length];
+            origin[0] = row;
+            writer.write(target, origin, slab);
+        }
+    }
+
+    // the number of rows along the first dimension copied at once, at least one.
+    // Package access for testing only
+    static int getSlabLength(Variable variable, long slabSize) {
+        final int[] shape = variable.getShape();
+        long rowSize = variable.getElementSize();
+        for (int i = 1; i < shape.length; i++) {
+            rowSize *= shape[i];
+        }
+
+        final int slabLength = (int) Math.max(1, Math.min(shape[0], slabSize / Math.max(1, rowSize)));
+        final int chunkLength = getChunkLength(variable);
+        if (chunkLength <= 1 || slabLength == shape[0]) {
+            return slabLength;
+        }
+
+        // a chunk is decompressed as a whole by the NetCDF library, slabs cutting chunks would decompress them
+        // repeatedly. Hence at least one chunk is read, even when exceeding the memory budget
+        if (slabLength <= chunkLength) {
+            return Math.min(chunkLength, shape[0]);
+        }
+        return slabLength / chunkLength * chunkLength;
+    }
+
+    // the chunk length along the first dimension, 0 for contiguous variables
+    private static int getChunkLength(Variable variable) {
+        final Attribute chunkSizes = variable.findAttribute(CDM.CHUNK_SIZES);
+        if (chunkSizes == null || chunkSizes.getLength() == 0) {
+            return 0;
+        }
+        final Number chunkLength = chunkSizes.getNumericValue(0);
+        return chunkLength == null ? 0 : chunkLength.intValue();
+    }
+
+    private Future<Array> readAsync(Variable variable, int row, int numRows) {
+        final int[] origin = new int[variable.getRank()];
+        origin[0] = row;
+        final int[] shape = variable.getShape();
+        shape[0] = numRows;
+        return readExecutor.submit(() -> read(variable, origin, shape));
+    }
+
+    private Array read(Variable variable, int[] origin, int[] shape) throws IOException, InvalidRangeException {
+        if (!rawByteRanges || !isRawReadable(variable.getDataType())) {
+            return variable.read(origin, shape);
+        }
+
+        final Section section = new Section(origin, shape);
+        final ByteBuffer buffer = ByteBuffer.allocate((int) (section.computeSize() * variable.getElementSize()));
+        variable.readToByteChannel(section, new ByteBufferChannel(buffer));
+        buffer.flip();
+        return Array.factory(variable.getDataType(), shape, buffer);
+    }
+
+    private static boolean isRawReadable(DataType dataType) {
+        return dataType == DataType.BYTE || dataType == DataType.CHAR || dataType == DataType.SHORT || dataType == DataType.INT ||
+               dataType == DataType.LONG || dataType == DataType.FLOAT || dataType == DataType.DOUBLE;
+    }
+
+    private static Array get(Future<Array> slab) throws IOException, InvalidRangeException {
+        try {
+            return slab.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Data transfer interrupted");
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof InvalidRangeException) {
+                throw (InvalidRangeException) cause;
+            }
+            throw new RuntimeException(cause.getMessage(), cause);
+        }
+    }
+
+    private static class ByteBufferChannel implements WritableByteChannel {
+
+        private final ByteBuffer buffer;
+
+        ByteBufferChannel(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int write(ByteBuffer source) {
+            final int numBytes = source.remaining();
+            buffer.put(source);
+            return numBytes;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
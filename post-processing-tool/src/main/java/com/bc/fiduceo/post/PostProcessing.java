@@ -23,9 +23,13 @@ import ucar.nc2.NetcdfFile;
 import ucar.nc2.NetcdfFileWriter;
 
 import java.io.IOException;
+import java.util.stream.IntStream;
 
 public abstract class PostProcessing {
 
+    private static final int MATCHUPS_PER_CHUNK = 1024;
+    private static final int MIN_PARALLEL_MATCHUPS = 4 * MATCHUPS_PER_CHUNK;
+
     private PostProcessingContext context;
 
     public void setContext(PostProcessingContext context) {
@@ -39,4 +43,35 @@ public abstract class PostProcessing {
     protected abstract void prepare(NetcdfFile reader, NetcdfFileWriter writer) throws IOException, InvalidRangeException;
 
     protected abstract void compute(NetcdfFile reader, NetcdfFileWriter writer) throws IOException, InvalidRangeException;
+
+    /**
+     * Runs a calculation on slices of the matchup dimension, concurrently for larger files. Intended for post
+     * processings calculating each matchup independently of the others: compute() reads the input variables,
+     * calls this method for the calculation into preallocated target arrays and writes the targets afterwards.
+     * The processor is called concurrently for disjoint ranges and must not access the NetCDF files.
+     *
+     * @param numMatchups the number of matchups
+     * @param processor   the calculation
+     */
+    protected static void computeChunked(int numMatchups, ChunkProcessor processor) {
+        final int numChunks = (numMatchups + MATCHUPS_PER_CHUNK - 1) / MATCHUPS_PER_CHUNK;
+
+        IntStream chunks = IntStream.range(0, numChunks);
+        if (numMatchups >= MIN_PARALLEL_MATCHUPS) {
+            chunks = chunks.parallel();
+        }
+        chunks.forEach(chunk -> {
+            final int start = chunk * MATCHUPS_PER_CHUNK;
+            processor.process(start, Math.min(start + MATCHUPS_PER_CHUNK, numMatchups));
+        });
+    }
+
+    protected interface ChunkProcessor {
+
+        /**
+         * @param start the first matchup index, inclusive
+         * @param end   the last matchup index, exclusive
+         */
+        void process(int start, int end);
+    }
 }
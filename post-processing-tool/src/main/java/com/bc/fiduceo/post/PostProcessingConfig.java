@@ -40,15 +40,20 @@ public class PostProcessingConfig {
     public static final String TAG_NAME_NEW_FILES = "create-new-files";
     public static final String TAG_NAME_OUTPUT_DIR = "output-directory";
     public static final String TAG_NAME_OVERWRITE = "overwrite";
+    public static final String TAG_NAME_READER_CACHE_SIZE = "reader-cache-size";
+    public static final String TAG_NAME_READER_CACHE_BYTES = "reader-cache-bytes";
 
     transient private Document document;
     private boolean newFiles;
     private String outputDirectory;
     private boolean overwrite;
+    private int readerCacheSize;
+    private long readerCacheBytes;
     private List<Element> postProcessingElements;
 
     private PostProcessingConfig(Document document) {
         this.document = document;
+        readerCacheSize = 70;
         init();
     }
 
@@ -82,6 +87,15 @@ public class PostProcessingConfig {
         return overwrite;
     }
 
+    public int getReaderCacheSize() {
+        return readerCacheSize;
+    }
+
+    // the summed file size of the readers kept open, values <= 0 disable the limit
+    public long getReaderCacheBytes() {
+        return readerCacheBytes;
+    }
+
     @SuppressWarnings("unchecked")
     private void init() {
         final Element rootElement = JDomUtils.getMandatoryRootElement(TAG_NAME_ROOT, document);
@@ -101,6 +115,19 @@ public class PostProcessingConfig {
             throw new RuntimeException("Either <" + TAG_NAME_NEW_FILES + "> or <" + TAG_NAME_OVERWRITE + "> must be configured.");
         }
 
+        final Element readerCacheSizeElem = rootElement.getChild(TAG_NAME_READER_CACHE_SIZE);
+        if (readerCacheSizeElem != null) {
+            readerCacheSize = Integer.valueOf(readerCacheSizeElem.getTextTrim());
+            if (readerCacheSize < 0) {
+                throw new RuntimeException("Invalid reader cache size: " + readerCacheSize);
+            }
+        }
+
+        final Element readerCacheBytesElem = rootElement.getChild(TAG_NAME_READER_CACHE_BYTES);
+        if (readerCacheBytesElem != null) {
+            readerCacheBytes = Long.valueOf(readerCacheBytesElem.getTextTrim());
+        }
+
         final Element processingsElem = JDomUtils.getMandatoryChild(rootElement, TAG_NAME_POST_PROCESSINGS);
         postProcessingElements = processingsElem.getChildren();
         if (postProcessingElements.size() == 0) {
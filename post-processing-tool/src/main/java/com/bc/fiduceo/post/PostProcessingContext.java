@@ -19,6 +19,7 @@
 package com.bc.fiduceo.post;
 
 import com.bc.fiduceo.core.SystemConfig;
+import com.bc.fiduceo.reader.ReaderCache;
 
 import java.nio.file.Path;
 import java.util.Date;
@@ -30,6 +31,7 @@ public final class PostProcessingContext {
     private Date endDate;
     private PostProcessingConfig processingConfig;
     private Path mmdInputDirectory;
+    private ReaderCache readerCache;
 
     public void setSystemConfig(SystemConfig systemConfig) {
         this.systemConfig = systemConfig;
@@ -70,4 +72,12 @@ public final class PostProcessingContext {
     public Path getMmdInputDirectory() {
         return mmdInputDirectory;
     }
+
+    public void setReaderCache(ReaderCache readerCache) {
+        this.readerCache = readerCache;
+    }
+
+    public ReaderCache getReaderCache() {
+        return readerCache;
+    }
 }
@@ -23,7 +23,15 @@ package com.bc.fiduceo.post;
 import static com.bc.fiduceo.FiduceoConstants.VERSION_NUMBER;
 
 import com.bc.fiduceo.core.SystemConfig;
+import com.bc.fiduceo.geometry.GeometryFactory;
+import com.bc.fiduceo.location.GeolocationCache;
+import com.bc.fiduceo.location.PixelLocatorFactory;
 import com.bc.fiduceo.log.FiduceoLogger;
+import com.bc.fiduceo.metrics.MetricsRegistry;
+import com.bc.fiduceo.metrics.Timer;
+import com.bc.fiduceo.reader.ArrayCache;
+import com.bc.fiduceo.reader.ReaderCache;
+import com.bc.fiduceo.reader.ReaderFactory;
 import com.bc.fiduceo.util.NetCDFUtils;
 import com.bc.fiduceo.util.TimeUtils;
 import org.apache.commons.cli.CommandLine;
@@ -53,6 +61,12 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Logger;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -60,6 +74,9 @@ import java.util.stream.Stream;
 
 class PostProcessingTool {
 
+    private static final int DEFAULT_COPY_BUFFER_SIZE_MB = 128;
+    private static final Object NETCDF4_WRITE_LOCK = new Object();
+
     private final static Logger logger = FiduceoLogger.getLogger();
     private final PostProcessingContext context;
 
@@ -76,6 +93,8 @@ class PostProcessingTool {
 
         final SystemConfig systemConfig = SystemConfig.loadFrom(configDirectory.toFile());
         context.setSystemConfig(systemConfig);
+        PixelLocatorFactory.setGeolocationCache(GeolocationCache.create(systemConfig));
+        ArrayCache.setMaxCacheSize(systemConfig.getArrayCacheSizeMb() * 1024L * 1024L);
 
         final String jobConfigPathString = commandLine.getOptionValue("job-config");
         final Path jobConfigPath = Paths.get(jobConfigPathString);
@@ -100,12 +119,22 @@ class PostProcessingTool {
         final Path inputDirectory = context.getMmdInputDirectory();
         final Pattern pattern = Pattern.compile("mmd\\d{1,2}.*_.*_.*_\\d{4}-\\d{3}_\\d{4}-\\d{3}.nc");
 
+        final String geometryLibraryType = context.getSystemConfig().getGeometryLibraryType();
+        final ReaderFactory readerFactory = ReaderFactory.get(new GeometryFactory(geometryLibraryType));
+        final PostProcessingConfig processingConfig = context.getProcessingConfig();
+        final ReaderCache readerCache = new ReaderCache(readerFactory, processingConfig.getReaderCacheSize(), processingConfig.getReaderCacheBytes());
+        context.setReaderCache(readerCache);
+
         try (Stream<Path> pathStream = Files.walk(inputDirectory)) {
             final Stream<Path> regularFiles = pathStream.filter(path -> Files.isRegularFile(path));
             final Stream<Path> mmdFileStream = regularFiles.filter(path -> pattern.matcher(path.getFileName().toString()).matches());
             List<Path> mmdFiles = mmdFileStream.collect(Collectors.toList());
 
             computeFiles(mmdFiles);
+        } finally {
+            readerCache.close();
+            logger.info("Reader cache: " + readerCache.getNumHits() + " hits, " + readerCache.getNumMisses() + " misses, " +
+                        readerCache.getNumEvictions() + " evictions");
         }
     }
 
@@ -156,6 +185,12 @@ class PostProcessingTool {
         endOption.setRequired(true);
         options.addOption(endOption);
 
+        final Option reportOption = new Option("r", "report", true, "Writes a JSON run report with the processing metrics to the file.");
+        options.addOption(reportOption);
+
+        final Option reportIntervalOption = new Option("ri", "report-interval", true, "Defines the interval in seconds for updating the run report while running.");
+        options.addOption(reportIntervalOption);
+
         return options;
     }
 
@@ -173,7 +208,71 @@ class PostProcessingTool {
 
     void computeFiles(List<Path> mmdFiles) {
         final PostProcessingConfig processingConfig = context.getProcessingConfig();
+        final SourceTargetManager manager = new SourceTargetManager(processingConfig);
+
+        final int numWorkerThreads = Math.min(getNumWorkerThreads(context), mmdFiles.size());
+        if (numWorkerThreads <= 1) {
+            final List<PostProcessing> processings = createPostProcessings(processingConfig);
+            for (Path mmdFile : mmdFiles) {
+                computeFileSafe(mmdFile, manager, processings);
+            }
+            return;
+        }
+
+        // the MMD files are independent of each other and processed concurrently. The post processings keep state
+        // while processing a file, so each worker uses a set of instances of its own, taken from the pool for the
+        // duration of a file
+        final BlockingQueue<List<PostProcessing>> processingsPool = new ArrayBlockingQueue<>(numWorkerThreads);
+        for (int i = 0; i < numWorkerThreads; i++) {
+            processingsPool.add(createPostProcessings(processingConfig));
+        }
+
+        final List<Future<?>> results = new ArrayList<>();
+        final ExecutorService executorService = Executors.newFixedThreadPool(numWorkerThreads);
+        try {
+            for (Path mmdFile : mmdFiles) {
+                results.add(executorService.submit(() -> {
+                    final List<PostProcessing> processings = processingsPool.take();
+                    try {
+                        computeFileSafe(mmdFile, manager, processings);
+                    } finally {
+                        processingsPool.add(processings);
+                    }
+                    return null;
+                }));
+            }
 
+            for (final Future<?> result : results) {
+                result.get();
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException("Post processing interrupted: " + e.getMessage(), e);
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    // package access for testing only
+    static int getNumWorkerThreads(PostProcessingContext context) {
+        final SystemConfig systemConfig = context.getSystemConfig();
+        if (systemConfig == null) {
+            return 1;
+        }
+        return systemConfig.getNumWorkerThreads();
+    }
+
+    // package access for testing only
+    static long getCopyBufferSize(PostProcessingContext context) {
+        final SystemConfig systemConfig = context.getSystemConfig();
+        final int bufferSizeMb = systemConfig == null ? DEFAULT_COPY_BUFFER_SIZE_MB : systemConfig.getCopyBufferSizeMb();
+        return bufferSizeMb * 1024L * 1024L;
+    }
+
+    private static boolean isNetcdf3(NetcdfFile netcdfFile) {
+        return DataFormatType.NETCDF.name().equalsIgnoreCase(netcdfFile.getFileTypeId());
+    }
+
+    private List<PostProcessing> createPostProcessings(PostProcessingConfig processingConfig) {
         final List<PostProcessing> processings = new ArrayList<>();
         final PostProcessingFactory factory = PostProcessingFactory.get();
         for (Element processing : processingConfig.getPostProcessingElements()) {
@@ -181,20 +280,21 @@ class PostProcessingTool {
             postProcessing.setContext(context);
             processings.add(postProcessing);
         }
+        return processings;
+    }
 
-        final SourceTargetManager manager = new SourceTargetManager(processingConfig);
-        for (Path mmdFile : mmdFiles) {
-            Exception ex = null;
-            try {
-                computeFile(mmdFile, manager, processings);
-            } catch (Exception e) {
-                ex = e;
-                logger.severe("Unable to execute post processing for matchup '" + mmdFile.getFileName().toString() + "'");
-                logger.severe("Cause: " + e.getMessage());
-                e.printStackTrace();
-            } finally {
-                manager.processingDone(mmdFile, ex);
-            }
+    private void computeFileSafe(Path mmdFile, SourceTargetManager manager, List<PostProcessing> processings) {
+        Exception ex = null;
+        try (Timer.Context ignored = MetricsRegistry.get().timer("post.file").start()) {
+            computeFile(mmdFile, manager, processings);
+        } catch (Exception e) {
+            ex = e;
+            MetricsRegistry.get().counter("post.file.failures").increment();
+            logger.severe("Unable to execute post processing for matchup '" + mmdFile.getFileName().toString() + "'");
+            logger.severe("Cause: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            manager.processingDone(mmdFile, ex);
         }
     }
 
@@ -207,8 +307,6 @@ class PostProcessingTool {
             final Path target = manager.getTargetPath(mmdFile);
 
             NetcdfFile reader = null;
-            NetcdfFileWriter writer = null;
-
             try {
                 final String absSource = source.toAbsolutePath().toString();
 
@@ -216,24 +314,40 @@ class PostProcessingTool {
                 reader = NetCDFUtils.openReadOnly(absSource);
 
                 final String absTarget = target.toAbsolutePath().toString();
-                if (DataFormatType.NETCDF.name().equalsIgnoreCase(reader.getFileTypeId())) {
-                    writer = NetcdfFileWriter.createNew(NetcdfFileWriter.Version.netcdf3, absTarget);
+                if (isNetcdf3(reader)) {
+                    writeTarget(reader, absTarget, NetcdfFileWriter.Version.netcdf3, processings);
                 } else {
-                    final Nc4Chunking chunking = Nc4ChunkingDefault.factory(Nc4Chunking.Strategy.standard, 5, true);
-                    writer = NetcdfFileWriter.createNew(NetcdfFileWriter.Version.netcdf4, absTarget, chunking);
+                    // NetCDF-4 files are written by the NetCDF C library, which is not thread safe. These files are written
+                    // one at a time, the post processings may still compute in parallel
+                    synchronized (NETCDF4_WRITE_LOCK) {
+                        writeTarget(reader, absTarget, NetcdfFileWriter.Version.netcdf4, processings);
+                    }
                 }
-
-                run(reader, writer, processings);
             } finally {
                 if (reader != null) {
                     reader.close();
                 }
-                if (writer != null) {
-                    // when writer is in define mode, the file has not been created. Closing it in this state causes a
-                    // null pointer exception tb 2016-12-21
-                    if (!writer.isDefineMode()) {
-                        writer.close();
-                    }
+            }
+        }
+    }
+
+    private void writeTarget(NetcdfFile reader, String absTarget, NetcdfFileWriter.Version version, List<PostProcessing> processings) throws IOException, InvalidRangeException {
+        NetcdfFileWriter writer = null;
+        try {
+            if (version == NetcdfFileWriter.Version.netcdf3) {
+                writer = NetcdfFileWriter.createNew(version, absTarget);
+            } else {
+                final Nc4Chunking chunking = Nc4ChunkingDefault.factory(Nc4Chunking.Strategy.standard, 5, true);
+                writer = NetcdfFileWriter.createNew(version, absTarget, chunking);
+            }
+
+            run(reader, writer, processings);
+        } finally {
+            if (writer != null) {
+                // when writer is in define mode, the file has not been created. Closing it in this state causes a
+                // null pointer exception tb 2016-12-21
+                if (!writer.isDefineMode()) {
+                    writer.close();
                 }
             }
         }
@@ -248,9 +362,15 @@ class PostProcessingTool {
             postProcessing.prepare(reader, writer);
         }
         writer.create();
-        transferData(writer, rootGroup);
+        try (Timer.Context ignored = MetricsRegistry.get().timer("post.transfer").start();
+             DataTransfer dataTransfer = new DataTransfer(getCopyBufferSize(context), isNetcdf3(reader))) {
+            dataTransfer.transfer(writer, rootGroup);
+        }
         for (PostProcessing postProcessing : postProcessings) {
-            postProcessing.compute(reader, writer);
+            final String timerName = "post.processing." + postProcessing.getClass().getSimpleName();
+            try (Timer.Context ignored = MetricsRegistry.get().timer(timerName).start()) {
+                postProcessing.compute(reader, writer);
+            }
         }
     }
 
@@ -309,20 +429,4 @@ class PostProcessingTool {
         }
     }
 
-    private static void transferData(NetcdfFileWriter writer, Group oldGroup) throws IOException, InvalidRangeException {
-        for (Variable v : oldGroup.getVariables()) {
-
-            logger.info(String.format("write %s", v.getNameAndDimensions()));
-            Variable nv = writer.findVariable(v.getFullName());
-            if (nv != null) {
-                writer.write(nv, v.read());
-            }
-        }
-
-        // recurse
-        for (Group g : oldGroup.getGroups()) {
-            transferData(writer, g);
-        }
-    }
-
 }
@@ -22,6 +22,7 @@ package com.bc.fiduceo.post;
 
 
 import com.bc.fiduceo.log.FiduceoLogger;
+import com.bc.fiduceo.metrics.RunReport;
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.CommandLineParser;
 import org.apache.commons.cli.ParseException;
@@ -46,13 +47,16 @@ public class PostProcessingToolMain {
         }
 
 
+        final RunReport runReport = RunReport.create("post-processing-tool", args, commandLine.getOptionValue("report"), commandLine.getOptionValue("report-interval"));
         try {
             final PostProcessingContext context = PostProcessingTool.initializeContext(commandLine);
             final PostProcessingTool tool = new PostProcessingTool(context);
             tool.runPostProcessing();
+            runReport.finish(true);
         } catch (Throwable e) {
             FiduceoLogger.getLogger().severe(e.getMessage());
             e.printStackTrace();
+            runReport.finish(false);
             System.exit(-1);
         }
     }
@@ -62,7 +62,12 @@ class AddAmsreSolarAngles extends PostProcessing {
         final Array sza = Array.factory(DataType.FLOAT, earthAzimuth.getShape());
         final Array saa = Array.factory(DataType.FLOAT, earthAzimuth.getShape());
 
-        calculateAngles(earthAzimuth, earthIncidence, sunAzimuth, sunElevation, sza, saa);
+        // the first dimension is the matchup dimension, the matchup windows are processed in chunks
+        final int[] shape = earthAzimuth.getShape();
+        final int numMatchups = shape[0];
+        final int valuesPerMatchup = numMatchups == 0 ? 0 : (int) (earthAzimuth.getSize() / numMatchups);
+        computeChunked(numMatchups, (start, end) -> calculateAngles(earthAzimuth, earthIncidence, sunAzimuth, sunElevation, sza, saa,
+                                                                    start * valuesPerMatchup, end * valuesPerMatchup));
 
 
         final String szaEscapedName = NetcdfFile.makeValidCDLName(configuration.szaVariable);
@@ -76,28 +81,30 @@ class AddAmsreSolarAngles extends PostProcessing {
 
     // package access for testing only tb 2016-12-16
     static void calculateAngles(Array earthAzimuth, Array earthIncidence, Array sunAzimuth, Array sunElevation, Array sza, Array saa) {
-        final IndexIterator szaIterator = sza.getIndexIterator();
-        final IndexIterator saaIterator = saa.getIndexIterator();
-
-        // @todo 2 tb/tb check if we need to call hasNext for all variables or if it is sufficient to call it once to
-        // initialize the iterators and check on ly one in the loop - as we assume all arrays having the same size 2016-12-16
-        while (earthAzimuth.hasNext() && earthIncidence.hasNext() && sunAzimuth.hasNext() && sunElevation.hasNext()) {
-            final float sunElevationValue = sunElevation.nextFloat();
-            final float earthIncidenceValue = earthIncidence.nextFloat();
+        calculateAngles(earthAzimuth, earthIncidence, sunAzimuth, sunElevation, sza, saa, 0, (int) sza.getSize());
+    }
+
+    // calculates the elements [start, end) using indexed access, the arrays are shared by the threads processing
+    // the chunks. Package access for testing only
+    static void calculateAngles(Array earthAzimuth, Array earthIncidence, Array sunAzimuth, Array sunElevation, Array sza, Array saa,
+                                int start, int end) {
+        for (int i = start; i < end; i++) {
+            final float sunElevationValue = sunElevation.getFloat(i);
+            final float earthIncidenceValue = earthIncidence.getFloat(i);
             if (sunElevationValue == N3iosp.NC_FILL_FLOAT || earthIncidenceValue == N3iosp.NC_FILL_FLOAT) {
-                szaIterator.setFloatNext(N3iosp.NC_FILL_FLOAT);
+                sza.setFloat(i, N3iosp.NC_FILL_FLOAT);
             } else {
                 final float szaValue = sunElevationValue + earthIncidenceValue;
-                szaIterator.setFloatNext(szaValue);
+                sza.setFloat(i, szaValue);
             }
 
-            final float earthAzimuthValue = earthAzimuth.nextFloat();
-            final float sunAzimuthValue = sunAzimuth.nextFloat();
+            final float earthAzimuthValue = earthAzimuth.getFloat(i);
+            final float sunAzimuthValue = sunAzimuth.getFloat(i);
             if (earthAzimuthValue == N3iosp.NC_FILL_FLOAT || sunAzimuthValue == N3iosp.NC_FILL_FLOAT) {
-                saaIterator.setFloatNext(N3iosp.NC_FILL_FLOAT);
+                saa.setFloat(i, N3iosp.NC_FILL_FLOAT);
             } else {
                 final float saaValue = (earthAzimuthValue - sunAzimuthValue + 180.f) % 360.f;
-                saaIterator.setFloatNext(saaValue);
+                saa.setFloat(i, saaValue);
             }
         }
     }
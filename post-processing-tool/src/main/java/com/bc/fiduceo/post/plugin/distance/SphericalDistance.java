@@ -92,15 +92,17 @@ class SphericalDistance extends PostProcessing {
         final Array s_lon = getCenterPosArray(secoLons, secoLonScaleAttrName, secoLonOffsetAttrName);
         final Array s_lat = getCenterPosArray(secoLats, secoLatScaleAttrName, secoLatOffsetAttrName);
 
-        Array target = Array.factory(DataType.getType(targetDataType), new int[]{count});
-        for (int i = 0; i < count; i++) {
-            final double pLon = p_lon.getDouble(i);
-            final double pLat = p_lat.getDouble(i);
-            final double sLon = s_lon.getDouble(i);
-            final double sLat = s_lat.getDouble(i);
-            final double distanceKm = Distance.computeSpericalDistanceKm(pLon, pLat, sLon, sLat);
-            target.setDouble(i, distanceKm);
-        }
+        final Array target = Array.factory(DataType.getType(targetDataType), new int[]{count});
+        computeChunked(count, (start, end) -> {
+            for (int i = start; i < end; i++) {
+                final double pLon = p_lon.getDouble(i);
+                final double pLat = p_lat.getDouble(i);
+                final double sLon = s_lon.getDouble(i);
+                final double sLat = s_lat.getDouble(i);
+                final double distanceKm = Distance.computeSpericalDistanceKm(pLon, pLat, sLon, sLat);
+                target.setDouble(i, distanceKm);
+            }
+        });
         writer.write(targetVar, target);
     }
 
@@ -19,47 +19,42 @@
 package com.bc.fiduceo.post.plugin.sstInsitu;
 
 import com.bc.fiduceo.archive.Archive;
-import com.bc.fiduceo.core.SystemConfig;
 import com.bc.fiduceo.geometry.GeometryFactory;
 import com.bc.fiduceo.post.PostProcessingContext;
 import com.bc.fiduceo.reader.Reader;
+import com.bc.fiduceo.reader.ReaderCache;
 import com.bc.fiduceo.reader.ReaderFactory;
 import com.bc.fiduceo.util.TimeUtils;
 
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.Date;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.TreeMap;
 
 class InsituReaderCache {
 
     private final Archive archive;
-    private final PostProcessingContext context;
-    private final HashMap<String, Reader> cacheMap;
-    private final TreeMap<Long, String> oldestMap;
+    private final ReaderCache readerCache;
 
     InsituReaderCache(PostProcessingContext context) {
-        this.context = context;
         archive = new Archive(context.getSystemConfig().getArchiveConfig());
-        cacheMap = new HashMap<>();
-        oldestMap = new TreeMap<>();
-    }
 
-    Reader getInsituFileOpened(String insituFileName, String sensorType, String processingVersion) throws IOException {
-        if (cacheMap.containsKey(insituFileName)) {
-            renewTimestamp(insituFileName);
-            return cacheMap.get(insituFileName);
+        // without a shared cache in the context, released readers are closed immediately
+        final ReaderCache sharedCache = context.getReaderCache();
+        if (sharedCache != null) {
+            readerCache = sharedCache;
+        } else {
+            final String geomType = context.getSystemConfig().getGeometryLibraryType();
+            readerCache = new ReaderCache(ReaderFactory.get(new GeometryFactory(geomType)), 0, 0);
         }
+    }
 
-        final Reader insituReader = openFile(insituFileName, sensorType, processingVersion);
+    Reader borrowInsituReader(String insituFileName, String sensorType, String processingVersion) throws IOException {
+        final Path insituProductsDir = archive.createValidProductPath(processingVersion, sensorType, 1970, 1, 1);
+        return readerCache.borrow(sensorType, insituProductsDir.resolve(insituFileName));
+    }
 
-        if (insituReader != null) {
-            addReaderToCache(insituFileName, insituReader);
-            removeOldestReader();
-        }
-        return insituReader;
+    void releaseInsituReader(Reader insituReader) throws IOException {
+        readerCache.release(insituReader);
     }
 
     static Date[] extractStartEndDateFromInsituFilename(String insituFileName) {
@@ -72,49 +67,4 @@ class InsituReaderCache {
         startEnd[1] = TimeUtils.parse(end, pattern);
         return startEnd;
     }
-
-    private Reader openFile(String insituFileName, String sensorType, String processingVersion) throws IOException {
-        final SystemConfig systemConfig = context.getSystemConfig();
-        final String geomType = systemConfig.getGeometryLibraryType();
-        final ReaderFactory readerFactory = ReaderFactory.get(new GeometryFactory(geomType));
-        final Reader insituReader = readerFactory.getReader(sensorType);
-
-        final Path insituProductsDir = archive.createValidProductPath(processingVersion, sensorType, 1970,1,1);
-        insituReader.open(insituProductsDir.resolve(insituFileName).toFile());
-        return insituReader;
-    }
-
-    private void removeOldestReader() throws IOException {
-        // todo se/** 3 put maxCacheSize to configuration file
-        // todo se/** 3 an other solution to eliminate caching problems can be sorting of insitu file indexes
-        final int maxCacheSize = 70;
-        if (oldestMap.size() > maxCacheSize) {
-            final Map.Entry<Long, String> oldest = oldestMap.firstEntry();
-            cacheMap.remove(oldest.getValue()).close();
-            oldestMap.remove(oldest.getKey());
-        }
-    }
-
-    private void renewTimestamp(String insituFileName) {
-        for (Map.Entry<Long, String> oldest : oldestMap.entrySet()) {
-            if (oldest.getValue().equals(insituFileName)) {
-                oldestMap.remove(oldest.getKey());
-                break;
-            }
-        }
-        registerNameWithTimestamp(insituFileName);
-    }
-
-    private void addReaderToCache(String insituFileName, Reader insituReader) {
-        cacheMap.put(insituFileName, insituReader);
-        registerNameWithTimestamp(insituFileName);
-    }
-
-    private String registerNameWithTimestamp(String insituFileName) {
-        return oldestMap.put(getTime(), insituFileName);
-    }
-
-    private long getTime() {
-        return System.nanoTime();
-    }
 }
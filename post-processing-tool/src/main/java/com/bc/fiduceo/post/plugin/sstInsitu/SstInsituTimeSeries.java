@@ -72,8 +72,12 @@ class SstInsituTimeSeries extends PostProcessing {
         matchupCount = NetCDFUtils.getDimensionLength(MATCHUP_COUNT, reader);
         final String insituFileName = getInsituFileName(fileNameVariable, 0, filenameFieldSize);
         insituReaderCache = new InsituReaderCache(getContext());
-        final Reader insituReader = insituReaderCache.getInsituFileOpened(insituFileName, sensorType, processingVersion);
-        addInsituVariables(writer, insituReader);
+        final Reader insituReader = insituReaderCache.borrowInsituReader(insituFileName, sensorType, processingVersion);
+        try {
+            addInsituVariables(writer, insituReader);
+        } finally {
+            insituReaderCache.releaseInsituReader(insituReader);
+        }
     }
 
     @Override
@@ -96,21 +100,27 @@ class SstInsituTimeSeries extends PostProcessing {
 
         for (int i = 0; i < matchupCount; i++) {
             final String insituFileName = getInsituFileName(fileNameVariable, i, filenameFieldSize);
-            final SSTInsituReader insituReader = (SSTInsituReader) insituReaderCache.getInsituFileOpened(insituFileName, sensorType, processingVersion);
-            Range range = computeInsituRange(y1D[i], insituReader);
-            final int[] origin1D = {range.min};
-            final int timeSeriesLength = getTimeSeriesLength(range);
-            final int[] shape1D = {timeSeriesLength};
+            final SSTInsituReader insituReader = (SSTInsituReader) insituReaderCache.borrowInsituReader(insituFileName, sensorType, processingVersion);
+            final Range range;
             final int[] origin2D = {i, 0};
-            final int[] shape2D = {1, timeSeriesLength};
-            final List<Variable> variables = insituReader.getVariables();
-            for (Variable variable1D : variables) {
-                final Array fullSrcData1D = insituReader.getSourceArray(variable1D.getShortName());
-                final Array srcData1D = fullSrcData1D.section(origin1D, shape1D);
-                final String validShortName = makeValidCDLName(variable1D.getShortName());
-                final Variable targetVar2D = writer.findVariable(validShortName);
-                final Array targetData2D = srcData1D.reshape(shape2D);
-                writer.write(targetVar2D, origin2D, targetData2D);
+            final int[] shape2D;
+            try {
+                range = computeInsituRange(y1D[i], insituReader);
+                final int[] origin1D = {range.min};
+                final int timeSeriesLength = getTimeSeriesLength(range);
+                final int[] shape1D = {timeSeriesLength};
+                shape2D = new int[]{1, timeSeriesLength};
+                final List<Variable> variables = insituReader.getVariables();
+                for (Variable variable1D : variables) {
+                    final Array fullSrcData1D = insituReader.getSourceArray(variable1D.getShortName());
+                    final Array srcData1D = fullSrcData1D.section(origin1D, shape1D);
+                    final String validShortName = makeValidCDLName(variable1D.getShortName());
+                    final Variable targetVar2D = writer.findVariable(validShortName);
+                    final Array targetData2D = srcData1D.reshape(shape2D);
+                    writer.write(targetVar2D, origin2D, targetData2D);
+                }
+            } finally {
+                insituReaderCache.releaseInsituReader(insituReader);
             }
 
             final Array y2D = createY2D(range, shape2D);
@@ -0,0 +1,154 @@
+/*
+ * Copyright (C) 2016 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+
+package com.bc.fiduceo.post;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import ucar.ma2.Array;
+import ucar.ma2.DataType;
+import ucar.ma2.InvalidRangeException;
+import ucar.nc2.Attribute;
+import ucar.nc2.Dimension;
+import ucar.nc2.NetcdfFile;
+import ucar.nc2.NetcdfFileWriter;
+import ucar.nc2.Variable;
+import ucar.nc2.constants.CDM;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.same;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class DataTransferTest {
+
+    private NetcdfFileWriter writer;
+    private Variable target;
+
+    @Before
+    public void setUp() {
+        writer = mock(NetcdfFileWriter.class);
+        target = mock(Variable.class);
+    }
+
+    @Test
+    public void testTransfer_smallVariable_writtenAtOnce() throws IOException, InvalidRangeException {
+        final Variable source = createVariable(5, 2);
+
+        try (DataTransfer dataTransfer = new DataTransfer(1024, false)) {
+            dataTransfer.transfer(writer, source, target);
+        }
+
+        final ArgumentCaptor<Array> arrayCaptor = ArgumentCaptor.forClass(Array.class);
+        verify(writer, times(1)).write(same(target), arrayCaptor.capture());
+        assertArrayEquals(createData(5, 2), (int[]) arrayCaptor.getValue().copyTo1DJavaArray());
+    }
+
+    @Test
+    public void testTransfer_inSlabs() throws IOException, InvalidRangeException {
+        final Variable source = createVariable(5, 2);
+
+        // 48 bytes budget - two slabs of 24 bytes in memory, i.e. three rows of 8 bytes per slab
+        try (DataTransfer dataTransfer = new DataTransfer(48, false)) {
+            dataTransfer.transfer(writer, source, target);
+        }
+
+        final ArgumentCaptor<int[]> originCaptor = ArgumentCaptor.forClass(int[].class);
+        final ArgumentCaptor<Array> arrayCaptor = ArgumentCaptor.forClass(Array.class);
+        verify(writer, times(2)).write(same(target), originCaptor.capture(), arrayCaptor.capture());
+
+        final List<int[]> origins = originCaptor.getAllValues();
+        assertArrayEquals(new int[]{0, 0}, origins.get(0));
+        assertArrayEquals(new int[]{3, 0}, origins.get(1));
+
+        final List<Array> slabs = arrayCaptor.getAllValues();
+        assertArrayEquals(new int[]{3, 2}, slabs.get(0).getShape());
+        assertArrayEquals(new int[]{0, 1, 2, 3, 4, 5}, (int[]) slabs.get(0).copyTo1DJavaArray());
+        assertArrayEquals(new int[]{2, 2}, slabs.get(1).getShape());
+        assertArrayEquals(new int[]{6, 7, 8, 9}, (int[]) slabs.get(1).copyTo1DJavaArray());
+    }
+
+    @Test
+    public void testTransfer_readFails() throws IOException, InvalidRangeException {
+        final Variable source = mock(Variable.class);
+        when(source.getShape()).thenReturn(new int[]{20, 4});
+        when(source.getRank()).thenReturn(2);
+        when(source.getSize()).thenReturn(80L);
+        when(source.getElementSize()).thenReturn(4);
+        when(source.read(any(int[].class), any(int[].class))).thenThrow(new IOException("broken file"));
+
+        try (DataTransfer dataTransfer = new DataTransfer(64, false)) {
+            dataTransfer.transfer(writer, source, target);
+            fail("IOException expected");
+        } catch (IOException expected) {
+            assertEquals("broken file", expected.getMessage());
+        }
+    }
+
+    @Test
+    public void testGetSlabLength() {
+        final Variable variable = createVariable(100, 10);
+
+        assertEquals(1, DataTransfer.getSlabLength(variable, 12));
+        assertEquals(1, DataTransfer.getSlabLength(variable, 40));
+        assertEquals(2, DataTransfer.getSlabLength(variable, 80));
+        assertEquals(2, DataTransfer.getSlabLength(variable, 119));
+        assertEquals(100, DataTransfer.getSlabLength(variable, 100000));
+    }
+
+    @Test
+    public void testGetSlabLength_alignedToChunks() {
+        final Variable variable = createVariable(100, 10);
+        variable.addAttribute(new Attribute(CDM.CHUNK_SIZES, Arrays.asList(8, 10)));
+
+        assertEquals(8, DataTransfer.getSlabLength(variable, 40));
+        assertEquals(8, DataTransfer.getSlabLength(variable, 360));
+        assertEquals(24, DataTransfer.getSlabLength(variable, 1000));
+        assertEquals(100, DataTransfer.getSlabLength(variable, 100000));
+    }
+
+    private static Variable createVariable(int numMatchups, int numValues) {
+        final NetcdfFile netcdfFile = new NetcdfFile() {
+        };
+        final Variable variable = new Variable(netcdfFile, null, null, "the_variable");
+        variable.setDataType(DataType.INT);
+        variable.setDimensions(Arrays.asList(new Dimension("matchup_count", numMatchups), new Dimension("values", numValues)));
+        variable.setCachedData(Array.factory(int.class, new int[]{numMatchups, numValues}, createData(numMatchups, numValues)));
+        return variable;
+    }
+
+    private static int[] createData(int numMatchups, int numValues) {
+        final int[] data = new int[numMatchups * numValues];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = i;
+        }
+        return data;
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2016 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+
+package com.bc.fiduceo.post;
+
+import com.bc.fiduceo.IOTestRunner;
+import com.bc.fiduceo.TestUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import ucar.ma2.Array;
+import ucar.ma2.DataType;
+import ucar.ma2.InvalidRangeException;
+import ucar.nc2.NetcdfFile;
+import ucar.nc2.NetcdfFileWriter;
+import ucar.nc2.Variable;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+@RunWith(IOTestRunner.class)
+public class DataTransfer_IOTest {
+
+    private File testDir;
+    private File sourceFile;
+
+    @Before
+    public void setUp() throws IOException, InvalidRangeException {
+        testDir = TestUtil.createTestDirectory();
+        sourceFile = new File(testDir, "source.nc");
+
+        final NetcdfFileWriter writer = NetcdfFileWriter.createNew(NetcdfFileWriter.Version.netcdf3, sourceFile.getAbsolutePath());
+        try {
+            defineVariables(writer);
+            writer.create();
+
+            writer.write(writer.findVariable("window"), Array.factory(short.class, new int[]{9, 3, 3}, createShorts(81)));
+            writer.write(writer.findVariable("distance"), Array.factory(double.class, new int[]{9}, createDoubles(9)));
+            writer.write(writer.findVariable("name"), Array.factory(char.class, new int[]{9, 4}, "abcdefghijklmnopqrstuvwxyz0123456789".toCharArray()));
+        } finally {
+            writer.close();
+        }
+    }
+
+    @After
+    public void tearDown() {
+        TestUtil.deleteTestDirectory();
+    }
+
+    @Test
+    public void testTransfer_rawByteRanges() throws IOException, InvalidRangeException {
+        assertTransfer(true);
+    }
+
+    @Test
+    public void testTransfer_decoded() throws IOException, InvalidRangeException {
+        assertTransfer(false);
+    }
+
+    private void assertTransfer(boolean rawByteRanges) throws IOException, InvalidRangeException {
+        final File targetFile = new File(testDir, "target.nc");
+
+        try (NetcdfFile reader = NetcdfFile.open(sourceFile.getAbsolutePath())) {
+            final NetcdfFileWriter writer = NetcdfFileWriter.createNew(NetcdfFileWriter.Version.netcdf3, targetFile.getAbsolutePath());
+            try {
+                defineVariables(writer);
+                writer.create();
+
+                // 40 bytes budget - the window variable is copied in slabs of one matchup
+                try (DataTransfer dataTransfer = new DataTransfer(40, rawByteRanges)) {
+                    dataTransfer.transfer(writer, reader.getRootGroup());
+                }
+            } finally {
+                writer.close();
+            }
+        }
+
+        try (NetcdfFile target = NetcdfFile.open(targetFile.getAbsolutePath())) {
+            final Variable window = target.findVariable("window");
+            assertArrayEquals(createShorts(81), (short[]) window.read().copyTo1DJavaArray());
+
+            final Variable distance = target.findVariable("distance");
+            assertArrayEquals(createDoubles(9), (double[]) distance.read().copyTo1DJavaArray(), 1e-8);
+
+            final Variable name = target.findVariable("name");
+            assertEquals("abcdefghijklmnopqrstuvwxyz0123456789", new String((char[]) name.read().copyTo1DJavaArray()));
+        }
+    }
+
+    private static void defineVariables(NetcdfFileWriter writer) {
+        writer.addDimension(null, "matchup_count", 9);
+        writer.addDimension(null, "window_y", 3);
+        writer.addDimension(null, "window_x", 3);
+        writer.addDimension(null, "name_length", 4);
+        writer.addVariable(null, "window", DataType.SHORT, "matchup_count window_y window_x");
+        writer.addVariable(null, "distance", DataType.DOUBLE, "matchup_count");
+        writer.addVariable(null, "name", DataType.CHAR, "matchup_count name_length");
+    }
+
+    private static short[] createShorts(int numValues) {
+        final short[] values = new short[numValues];
+        for (int i = 0; i < numValues; i++) {
+            values[i] = (short) (i * 100 - 3000);
+        }
+        return values;
+    }
+
+    private static double[] createDoubles(int numValues) {
+        final double[] values = new double[numValues];
+        for (int i = 0; i < numValues; i++) {
+            values[i] = i * 0.25 - 1.0;
+        }
+        return values;
+    }
+}
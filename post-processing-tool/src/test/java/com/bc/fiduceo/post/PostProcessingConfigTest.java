@@ -55,6 +55,8 @@ public class PostProcessingConfigTest {
     private static final String NEW_FILES = PostProcessingConfig.TAG_NAME_NEW_FILES;
     private static final String OUTPUT_DIR = PostProcessingConfig.TAG_NAME_OUTPUT_DIR;
     private static final String OVERWRITE = PostProcessingConfig.TAG_NAME_OVERWRITE;
+    private static final String READER_CACHE_SIZE = PostProcessingConfig.TAG_NAME_READER_CACHE_SIZE;
+    private static final String READER_CACHE_BYTES = PostProcessingConfig.TAG_NAME_READER_CACHE_BYTES;
 
     private static final String DUMMY_NAME = DummyPostProcessingPlugin.DUMMY_POST_PROCESSING_NAME;
     private Element root;
@@ -146,6 +148,39 @@ public class PostProcessingConfigTest {
         assertThat(config.getOutputDirectory(), equalTo(null));
     }
 
+    @Test
+    public void testLoad_readerCacheDefaults() throws Exception {
+        final PostProcessingConfig config = getConfig();
+
+        assertEquals(70, config.getReaderCacheSize());
+        assertEquals(0, config.getReaderCacheBytes());
+    }
+
+    @Test
+    public void testLoad_readerCache() throws Exception {
+        root.addContent(new Element(READER_CACHE_SIZE).addContent(" 12 "));
+        root.addContent(new Element(READER_CACHE_BYTES).addContent("4294967296"));
+
+        final PostProcessingConfig config = getConfig();
+
+        assertEquals(12, config.getReaderCacheSize());
+        assertEquals(4294967296L, config.getReaderCacheBytes());
+    }
+
+    @Test
+    public void testLoad_invalidReaderCacheSize() throws Exception {
+        root.addContent(new Element(READER_CACHE_SIZE).addContent("-1"));
+
+        try {
+            getConfig();
+            fail("RuntimeException expected");
+        } catch (RuntimeException expected) {
+            final String message = expected.getMessage();
+            assertThat(message, startsWith("Unable to initialize post processing configuration: "));
+            assertThat(message, containsString("Invalid reader cache size: -1"));
+        }
+    }
+
     @Test
     public void testLoad_overrideAndNewFilesAreNotAllowedAtTheSameTime() throws Exception {
         root.addContent(new Element(OVERWRITE));
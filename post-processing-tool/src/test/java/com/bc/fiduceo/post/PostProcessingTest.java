@@ -27,6 +27,7 @@ import ucar.nc2.NetcdfFile;
 import ucar.nc2.NetcdfFileWriter;
 
 import java.io.IOException;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 
 public class PostProcessingTest {
 
@@ -55,4 +56,26 @@ public class PostProcessingTest {
 
         assertSame(context, postProcessing.getContext());
     }
+
+    @Test
+    public void testComputeChunked() {
+        final int numMatchups = 10000;
+        final AtomicIntegerArray visits = new AtomicIntegerArray(numMatchups);
+
+        PostProcessing.computeChunked(numMatchups, (start, end) -> {
+            assertTrue(start < end);
+            for (int i = start; i < end; i++) {
+                visits.incrementAndGet(i);
+            }
+        });
+
+        for (int i = 0; i < numMatchups; i++) {
+            assertEquals(1, visits.get(i));
+        }
+    }
+
+    @Test
+    public void testComputeChunked_noMatchups() {
+        PostProcessing.computeChunked(0, (start, end) -> fail("no chunk expected"));
+    }
 }
@@ -23,6 +23,7 @@ import static org.hamcrest.Matchers.equalToIgnoringWhiteSpace;
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
 
+import com.bc.fiduceo.core.SystemConfig;
 import com.bc.fiduceo.log.FiduceoLogger;
 import com.bc.fiduceo.post.plugin.DummyPostProcessingPlugin;
 import com.bc.fiduceo.util.TimeUtils;
@@ -78,7 +79,7 @@ public class PostProcessingToolTest {
     @Test
     public void testOptions() {
         final Options options = PostProcessingTool.getOptions();
-        assertEquals(6, options.getOptions().size());
+        assertEquals(8, options.getOptions().size());
 
         Option o;
 
@@ -124,6 +125,20 @@ public class PostProcessingToolTest {
         assertEquals("Defines the processing start-date, format 'yyyy-DDD'. DDD = Day of year.", o.getDescription());
         assertEquals(true, o.hasArg());
         assertEquals(true, o.isRequired());
+
+        o = options.getOption("r");
+        assertNotNull(o);
+        assertEquals("report", o.getLongOpt());
+        assertEquals("Writes a JSON run report with the processing metrics to the file.", o.getDescription());
+        assertEquals(true, o.hasArg());
+        assertEquals(false, o.isRequired());
+
+        o = options.getOption("ri");
+        assertNotNull(o);
+        assertEquals("report-interval", o.getLongOpt());
+        assertEquals("Defines the interval in seconds for updating the run report while running.", o.getDescription());
+        assertEquals(true, o.hasArg());
+        assertEquals(false, o.isRequired());
     }
 
     @Test
@@ -138,13 +153,15 @@ public class PostProcessingToolTest {
                                 "" + ls +
                                 "usage: post-processing-tool <options>" + ls +
                                 "Valid options are:" + ls +
-                                "   -c,--config <arg>           Defines the configuration directory. Defaults to './config'." + ls +
-                                "   -end,--end-date <arg>       Defines the processing end-date, format 'yyyy-DDD'. DDD = Day of year." + ls +
-                                "   -h,--help                   Prints the tool usage." + ls +
-                                "   -i,--input-dir <arg>        Defines the path to the input mmd files directory." + ls +
-                                "   -j,--job-config <arg>       Defines the path to post processing job configuration file. Path is relative to the" + ls +
-                                "                               configuration directory." + ls +
-                                "   -start,--start-date <arg>   Defines the processing start-date, format 'yyyy-DDD'. DDD = Day of year.";
+                                "   -c,--config <arg>             Defines the configuration directory. Defaults to './config'." + ls +
+                                "   -end,--end-date <arg>         Defines the processing end-date, format 'yyyy-DDD'. DDD = Day of year." + ls +
+                                "   -h,--help                     Prints the tool usage." + ls +
+                                "   -i,--input-dir <arg>          Defines the path to the input mmd files directory." + ls +
+                                "   -j,--job-config <arg>         Defines the path to post processing job configuration file. Path is relative to the" + ls +
+                                "                                 configuration directory." + ls +
+                                "   -r,--report <arg>             Writes a JSON run report with the processing metrics to the file." + ls +
+                                "   -ri,--report-interval <arg>   Defines the interval in seconds for updating the run report while running." + ls +
+                                "   -start,--start-date <arg>     Defines the processing start-date, format 'yyyy-DDD'. DDD = Day of year.";
         assertEquals(expected, out.toString().trim());
     }
 
@@ -321,6 +338,49 @@ public class PostProcessingToolTest {
         }
     }
 
+    @Test
+    public void testComputeFiles_parallel_continuesWithTheNextFile() throws Exception {
+        final ArrayList<Path> mmdFiles = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            mmdFiles.add(Paths.get("nonExistingFile_" + i));
+        }
+
+        final Formatter formatter = new SimpleFormatter();
+        final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        final StreamHandler handler = new StreamHandler(stream, formatter);
+        final Logger logger = FiduceoLogger.getLogger();
+        FiduceoLogger.setLevelSilent();
+
+        try {
+            logger.addHandler(handler);
+
+            final PostProcessingContext context = new PostProcessingContext();
+            context.setProcessingConfig(getConfig());
+            context.setSystemConfig(SystemConfig.load(new ByteArrayInputStream("<system-config><worker-threads>3</worker-threads></system-config>".getBytes())));
+
+            final PostProcessingTool postProcessingTool = new PostProcessingTool(context);
+
+            postProcessingTool.computeFiles(mmdFiles);
+
+            handler.close();
+            final String string = stream.toString();
+            for (int i = 0; i < 6; i++) {
+                assertThat(string, CoreMatchers.containsString("nonExistingFile_" + i));
+            }
+        } finally {
+            logger.removeHandler(handler);
+        }
+    }
+
+    @Test
+    public void testGetNumWorkerThreads() {
+        final PostProcessingContext context = new PostProcessingContext();
+        assertEquals(1, PostProcessingTool.getNumWorkerThreads(context));
+
+        context.setSystemConfig(SystemConfig.load(new ByteArrayInputStream("<system-config><worker-threads>4</worker-threads></system-config>".getBytes())));
+        assertEquals(4, PostProcessingTool.getNumWorkerThreads(context));
+    }
+
     private PostProcessingConfig getConfig() throws Exception {
         final Document document = new Document(root);
 
@@ -176,6 +176,23 @@ public class AddAmsreSolarAnglesTest {
         assertArrayEquals(expectedSaa, (float[]) saa.get1DJavaArray(float.class), 1e-8f);
     }
 
+    @Test
+    public void testCalculateAngles_elementRange() {
+        final int[] shape = new int[]{2, 2};
+        final Array earthIncidenceArray = Array.factory(float.class, shape, new float[]{55.105f, 55.105f, 55.105f, 55.105f});
+        final Array sunElevationArray = Array.factory(float.class, shape, new float[]{41.4f, 41.4f, 41.5f, 41.5f});
+        final Array earthAzimuthArray = Array.factory(float.class, shape, new float[]{65.67f, 64.7f, 63.71f, 65.53f});
+        final Array sunAzimuthArray = Array.factory(float.class, shape, new float[]{-125.1f, -125.8f, -126.4f, -125.2f});
+
+        final Array sza = Array.factory(DataType.FLOAT, shape);
+        final Array saa = Array.factory(DataType.FLOAT, shape);
+
+        AddAmsreSolarAngles.calculateAngles(earthAzimuthArray, earthIncidenceArray, sunAzimuthArray, sunElevationArray, sza, saa, 2, 4);
+
+        assertArrayEquals(new float[]{0.f, 0.f, 96.604996f, 96.604996f}, (float[]) sza.get1DJavaArray(float.class), 1e-8f);
+        assertArrayEquals(new float[]{0.f, 0.f, 10.109985f, 10.72998f}, (float[]) saa.get1DJavaArray(float.class), 1e-8f);
+    }
+
     private Variable createVariableWithData(short[] data, double scaleFactor) throws IOException {
         final Array dataArray = Array.factory(data);
 
@@ -24,8 +24,11 @@ import static org.junit.Assert.*;
 import com.bc.fiduceo.IOTestRunner;
 import com.bc.fiduceo.TestUtil;
 import com.bc.fiduceo.core.SystemConfig;
+import com.bc.fiduceo.geometry.GeometryFactory;
 import com.bc.fiduceo.post.PostProcessingContext;
 import com.bc.fiduceo.reader.Reader;
+import com.bc.fiduceo.reader.ReaderCache;
+import com.bc.fiduceo.reader.ReaderFactory;
 import com.bc.fiduceo.util.TimeUtils;
 import org.junit.*;
 import org.junit.runner.*;
@@ -50,7 +53,7 @@ public class InsituReaderCacheTest {
     }
 
     @Test
-    public void getInsituFileOpened() throws Exception {
+    public void borrowInsituReader() throws Exception {
         final String root = testDataDirectory.getAbsolutePath();
         final String systemConfigXml = "<system-config>" +
                                        "    <archive>" +
@@ -71,7 +74,7 @@ public class InsituReaderCacheTest {
 
         // action
         final Reader insituFileOpened = insituReaderCache
-                    .getInsituFileOpened("insitu_12_WMOID_11835_20040110_20040127.nc", "animal-sst", processingVersion);
+                    .borrowInsituReader("insitu_12_WMOID_11835_20040110_20040127.nc", "animal-sst", processingVersion);
 
         //validation
         assertNotNull(insituFileOpened);
@@ -94,6 +97,48 @@ public class InsituReaderCacheTest {
             Variable variable = variables.get(i);
             assertEquals(i + ": " + expectedNames[i], i + ": " + variable.getShortName());
         }
+
+        insituReaderCache.releaseInsituReader(insituFileOpened);
+    }
+
+    @Test
+    public void borrowInsituReader_sharedCache() throws Exception {
+        final String root = testDataDirectory.getAbsolutePath();
+        final String systemConfigXml = "<system-config>" +
+                                       "    <archive>" +
+                                       "        <root-path>" +
+                                       "            " + root +
+                                       "        </root-path>" +
+                                       "        <rule sensors = \"animal-sst\">" +
+                                       "            insitu/SENSOR/VERSION" +
+                                       "        </rule>" +
+                                       "    </archive>" +
+                                       "</system-config>";
+        final ByteArrayInputStream inputStream = new ByteArrayInputStream(systemConfigXml.getBytes());
+
+        final SystemConfig systemConfig = SystemConfig.load(inputStream);
+        final ReaderFactory readerFactory = ReaderFactory.get(new GeometryFactory(systemConfig.getGeometryLibraryType()));
+        final ReaderCache readerCache = new ReaderCache(readerFactory, 2, 0);
+
+        final PostProcessingContext context = new PostProcessingContext();
+        context.setSystemConfig(systemConfig);
+        context.setReaderCache(readerCache);
+        final InsituReaderCache insituReaderCache = new InsituReaderCache(context);
+
+        try {
+            final String insituFileName = "insitu_12_WMOID_11835_20040110_20040127.nc";
+            final Reader first = insituReaderCache.borrowInsituReader(insituFileName, "animal-sst", "v03.3");
+            insituReaderCache.releaseInsituReader(first);
+
+            final Reader second = insituReaderCache.borrowInsituReader(insituFileName, "animal-sst", "v03.3");
+            insituReaderCache.releaseInsituReader(second);
+
+            assertSame(first, second);
+            assertEquals(1, readerCache.getNumHits());
+            assertEquals(1, readerCache.getNumMisses());
+        } finally {
+            readerCache.close();
+        }
     }
 
     @Test